@@ -0,0 +1,4 @@
+ALTER TABLE schema_registry.schemas
+    ADD COLUMN content BYTEA,
+    ALTER COLUMN link DROP NOT NULL,
+    ADD CONSTRAINT schemas_link_or_content_check CHECK (link IS NOT NULL OR content IS NOT NULL);
@@ -0,0 +1,25 @@
+CREATE TABLE schema_registry.publish_jobs
+(
+    id               BIGSERIAL    NOT NULL,
+    structure_name   VARCHAR(200) NOT NULL,
+    version_name     VARCHAR(200) NOT NULL,
+    force            BOOLEAN      NOT NULL DEFAULT FALSE,
+    archive_link     VARCHAR(300) NOT NULL,
+    status           VARCHAR(20)  NOT NULL DEFAULT 'QUEUED',
+    attempts         INT          NOT NULL DEFAULT 0,
+    schemas_total    INT,
+    schemas_uploaded INT          NOT NULL DEFAULT 0,
+    structure_id     BIGINT,
+    version_id       BIGINT,
+    schemas_ids      BIGINT[],
+    error            TEXT,
+    created_at       timestamptz  NOT NULL DEFAULT current_timestamp,
+    updated_at       timestamptz  NOT NULL DEFAULT current_timestamp,
+    heartbeat_at     timestamptz,
+
+    CONSTRAINT publish_jobs_pk PRIMARY KEY (id),
+
+    CONSTRAINT publish_jobs_status_chk CHECK (status IN ('QUEUED', 'RUNNING', 'DONE', 'FAILED'))
+);
+
+CREATE INDEX publish_jobs_active_idx ON schema_registry.publish_jobs (id) WHERE status IN ('QUEUED', 'RUNNING');
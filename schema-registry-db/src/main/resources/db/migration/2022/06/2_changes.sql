@@ -0,0 +1,16 @@
+CREATE TABLE schema_registry.changes
+(
+    id             BIGSERIAL    NOT NULL,
+    type           VARCHAR(30)  NOT NULL,
+    structure_id   BIGINT       NOT NULL,
+    structure_name VARCHAR(200) NOT NULL,
+    version_id     BIGINT,
+    version_name   VARCHAR(200),
+    created_at     timestamptz  NOT NULL DEFAULT current_timestamp,
+
+    CONSTRAINT changes_pk PRIMARY KEY (id),
+
+    CONSTRAINT changes_type_chk CHECK (type IN ('VERSION_CREATED', 'VERSION_DELETED', 'STRUCTURE_DELETED'))
+);
+
+CREATE INDEX changes_structure_name_id_idx ON schema_registry.changes (structure_name, id);
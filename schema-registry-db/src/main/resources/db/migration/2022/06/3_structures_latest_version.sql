@@ -0,0 +1,8 @@
+ALTER TABLE schema_registry.structures
+    ADD COLUMN latest_version_id BIGINT,
+    ADD CONSTRAINT structures_latest_version_id_fk FOREIGN KEY (latest_version_id) REFERENCES schema_registry.versions (id) ON DELETE SET NULL;
+
+UPDATE schema_registry.structures s
+SET latest_version_id = (SELECT max(v.id) FROM schema_registry.versions v WHERE v.structure_id = s.id);
+
+CREATE INDEX schemas_version_id_path_idx ON schema_registry.schemas (version_id, path);
@@ -0,0 +1,19 @@
+ALTER TABLE schema_registry.versions
+    ADD COLUMN semver_major       INTEGER,
+    ADD COLUMN semver_minor       INTEGER,
+    ADD COLUMN semver_patch       INTEGER,
+    ADD COLUMN semver_pre_release VARCHAR(200);
+
+UPDATE schema_registry.versions v
+SET semver_major       = m.parts[1]::INTEGER,
+    semver_minor       = m.parts[2]::INTEGER,
+    semver_patch       = m.parts[3]::INTEGER,
+    semver_pre_release = m.parts[4]
+FROM (SELECT id,
+             regexp_match(name, '^v?(0|[1-9][0-9]{0,8})\.(0|[1-9][0-9]{0,8})\.(0|[1-9][0-9]{0,8})(?:-([0-9A-Za-z.-]+))?(?:\+[0-9A-Za-z.-]+)?$') AS parts
+      FROM schema_registry.versions) m
+WHERE m.id = v.id
+  AND m.parts IS NOT NULL;
+
+CREATE INDEX versions_structure_id_semver_stable_idx ON schema_registry.versions (structure_id, semver_major, semver_minor, semver_patch, id)
+    WHERE semver_major IS NOT NULL AND semver_pre_release IS NULL;
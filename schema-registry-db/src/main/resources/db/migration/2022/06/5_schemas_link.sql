@@ -0,0 +1 @@
+CREATE INDEX schemas_link_idx ON schema_registry.schemas (link);
@@ -0,0 +1,2 @@
+ALTER TABLE schema_registry.schemas
+    ADD COLUMN content_hash BYTEA;
@@ -0,0 +1,2 @@
+ALTER TABLE schema_registry.versions
+    ALTER COLUMN link DROP NOT NULL;
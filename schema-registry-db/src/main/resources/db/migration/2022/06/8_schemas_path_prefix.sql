@@ -0,0 +1 @@
+CREATE INDEX schemas_version_id_path_c_idx ON schema_registry.schemas (version_id, path COLLATE "C") INCLUDE (link);
@@ -0,0 +1,3 @@
+ALTER TABLE schema_registry.schemas
+    ADD COLUMN content_offset BIGINT,
+    ADD COLUMN content_length INTEGER;
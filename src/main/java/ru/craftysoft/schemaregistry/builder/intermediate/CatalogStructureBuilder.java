@@ -0,0 +1,108 @@
+package ru.craftysoft.schemaregistry.builder.intermediate;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import ru.craftysoft.schemaregistry.dto.intermediate.StructureDescriptor;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.SchemasRecord;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.StructuresRecord;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.VersionsRecord;
+import ru.craftysoft.schemaregistry.service.catalog.CatalogStructure;
+import ru.craftysoft.schemaregistry.service.catalog.CatalogVersion;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+@ApplicationScoped
+public class CatalogStructureBuilder {
+
+    private final int keyPrefixLength;
+
+    public CatalogStructureBuilder(@ConfigProperty(name = "blob.key-prefix-length") int keyPrefixLength) {
+        this.keyPrefixLength = keyPrefixLength;
+    }
+
+    /**
+     * Пути схем интернируются: одни и те же пути повторяются почти в каждой версии структуры.
+     */
+    public CatalogStructure build(StructuresRecord structure,
+                                  Collection<VersionsRecord> versions,
+                                  Map<Long, List<SchemasRecord>> schemasByVersionId) {
+        var name = structure.getName();
+        var catalogVersions = versions.stream()
+                .sorted(Comparator.comparing(VersionsRecord::getId))
+                .map(version -> build(name, version, schemasByVersionId.getOrDefault(version.getId(), List.of())))
+                .toArray(CatalogVersion[]::new);
+        return new CatalogStructure(structure.getId(), name, structure.getCreatedAt(), structure.getUpdatedAt(), catalogVersions);
+    }
+
+    public StructureDescriptor toDescriptor(CatalogStructure structure) {
+        var versions = new HashSet<VersionsRecord>();
+        var schemas = new HashSet<SchemasRecord>();
+        for (var version : structure.versions()) {
+            versions.add(new VersionsRecord(version.id(), version.name(), structure.id(), version.link(), version.createdAt(), null, null, null, null));
+            for (int i = 0; i < version.schemasCount(); i++) {
+                var location = version.schemaLocation(i);
+                schemas.add(location == null
+                        ? new SchemasRecord(version.schemaId(i), version.path(i), version.id(), null, null, null, null, null)
+                        : new SchemasRecord(version.schemaId(i), version.path(i), version.id(), location.link(), null, location.offset(), location.length(), null));
+            }
+        }
+        var latestVersion = structure.latestVersion();
+        var structuresRecord = new StructuresRecord(
+                structure.id(),
+                structure.name(),
+                structure.createdAt(),
+                structure.updatedAt(),
+                latestVersion == null ? null : latestVersion.id()
+        );
+        return new StructureDescriptor(structuresRecord, versions, schemas);
+    }
+
+    /**
+     * Ссылка на общий объект повторяется у всех схем, загруженных вместе с версией, в каталоге хранится один её экземпляр.
+     */
+    private CatalogVersion build(String structureName, VersionsRecord version, List<SchemasRecord> schemas) {
+        var sorted = schemas.stream()
+                .sorted(Comparator.comparing(SchemasRecord::getPath))
+                .toList();
+        var paths = new String[sorted.size()];
+        var ids = new long[sorted.size()];
+        var links = new String[sorted.size()];
+        var packed = sorted.stream().anyMatch(schema -> schema.getContentOffset() != null);
+        var offsets = packed ? new long[sorted.size()] : null;
+        var lengths = packed ? new int[sorted.size()] : null;
+        var packLinks = new HashMap<String, String>();
+        for (int i = 0; i < sorted.size(); i++) {
+            var schema = sorted.get(i);
+            paths[i] = schema.getPath().intern();
+            ids[i] = schema.getId();
+            if (schema.getContentOffset() == null) {
+                links[i] = schema.getLink();
+            } else {
+                links[i] = packLinks.computeIfAbsent(schema.getLink(), link -> link);
+            }
+            if (packed) {
+                offsets[i] = schema.getContentOffset() == null ? -1 : schema.getContentOffset();
+                lengths[i] = schema.getContentLength() == null ? 0 : schema.getContentLength();
+            }
+        }
+        return new CatalogVersion(
+                version.getId(),
+                structureName,
+                version.getName(),
+                version.getLink(),
+                version.getCreatedAt(),
+                paths,
+                ids,
+                links,
+                offsets,
+                lengths,
+                keyPrefixLength
+        );
+    }
+
+}
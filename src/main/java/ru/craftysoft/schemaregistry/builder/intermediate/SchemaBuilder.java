@@ -1,48 +1,82 @@
 package ru.craftysoft.schemaregistry.builder.intermediate;
 
-import io.smallrye.mutiny.unchecked.Unchecked;
+import io.quarkus.runtime.configuration.MemorySize;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import ru.craftysoft.schemaregistry.dto.intermediate.Schema;
+import ru.craftysoft.schemaregistry.dto.intermediate.SchemaLocation;
 import ru.craftysoft.schemaregistry.dto.intermediate.Version;
+import ru.craftysoft.schemaregistry.service.blob.BlobStores;
 
 import javax.enterprise.context.ApplicationScoped;
 import java.io.File;
 import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
-import java.util.UUID;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 @ApplicationScoped
 public class SchemaBuilder {
 
-    private final String bucket;
+    private final BlobStores blobStores;
+    private final boolean pack;
+    private final long packMaxSize;
+    private final int inlineThreshold;
 
-    public SchemaBuilder(@ConfigProperty(name = "s3.bucket") String bucket) {
-        this.bucket = bucket;
+    public SchemaBuilder(BlobStores blobStores,
+                         @ConfigProperty(name = "s3.pack-schemas") boolean pack,
+                         @ConfigProperty(name = "s3.pack-max-size") MemorySize packMaxSize,
+                         @ConfigProperty(name = "db.inline-schema-threshold") int inlineThreshold) {
+        this.blobStores = blobStores;
+        this.pack = pack;
+        this.packMaxSize = packMaxSize.asLongValue();
+        this.inlineThreshold = inlineThreshold;
     }
 
+    /**
+     * Схемы меньше {@code db.inline-schema-threshold} байт хранятся в БД. Остальные при {@code s3.pack-schemas}
+     * размещаются подряд в объектах {@code pack_<uuid>} не больше {@code s3.pack-max-size} байт (схема крупнее занимает
+     * объект целиком), иначе каждая схема получает свой объект {@code schema_<uuid>}.
+     */
     public Set<Schema> build(Version version, File body) {
+        var packLink = pack ? blobStores.link(version.structureName(), "pack") : null;
+        var offset = 0L;
+        var schemas = new HashSet<Schema>();
         try (var zip = new ZipFile(body)) {
-            return Collections.list(zip.entries()).stream()
-                    .filter(Predicate.not(ZipEntry::isDirectory))
-                    .map(Unchecked.function(zipEntry -> {
-                        try (var fileInputStream = zip.getInputStream(zipEntry)) {
-                            return new Schema(
-                                    version.id(),
-                                    zipEntry.getName(),
-                                    bucket + "/" + "schema_" + UUID.randomUUID(),
-                                    fileInputStream.readAllBytes()
-                            );
+            for (var zipEntry : Collections.list(zip.entries())) {
+                if (zipEntry.isDirectory()) {
+                    continue;
+                }
+                try (var fileInputStream = zip.getInputStream(zipEntry)) {
+                    var content = fileInputStream.readAllBytes();
+                    SchemaLocation location;
+                    if (content.length < inlineThreshold) {
+                        location = SchemaLocation.inline(content);
+                    } else if (pack) {
+                        if (offset > 0 && offset + content.length > packMaxSize) {
+                            packLink = blobStores.link(version.structureName(), "pack");
+                            offset = 0;
                         }
-                    }))
-                    .collect(Collectors.toSet());
-        } catch (IOException e) {
+                        location = new SchemaLocation(packLink, offset, content.length);
+                        offset += content.length;
+                    } else {
+                        location = new SchemaLocation(blobStores.link(version.structureName(), "schema"));
+                    }
+                    schemas.add(new Schema(
+                            version.id(),
+                            zipEntry.getName(),
+                            location,
+                            content,
+                            MessageDigest.getInstance("SHA-256").digest(content)
+                    ));
+                }
+            }
+        } catch (IOException | NoSuchAlgorithmException e) {
             throw new RuntimeException(e);
         }
+        return schemas;
     }
 
 }
@@ -0,0 +1,59 @@
+package ru.craftysoft.schemaregistry.builder.intermediate;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+@ApplicationScoped
+public class VersionArchiveBuilder {
+
+    /**
+     * Архив новой версии: записи базового архива, кроме удалённых и заменённых, и все записи архива изменений.
+     * Результат - временный файл, удалить его должен вызывающий.
+     */
+    public File build(File base, File delta, Set<String> removedPaths) {
+        try (var baseZip = new ZipFile(base);
+             var deltaZip = new ZipFile(delta)) {
+            var deltaPaths = Collections.list(deltaZip.entries()).stream()
+                    .map(ZipEntry::getName)
+                    .collect(Collectors.toSet());
+            var result = Files.createTempFile("version_", ".zip");
+            try (var zip = new ZipOutputStream(Files.newOutputStream(result))) {
+                var written = new HashSet<String>();
+                for (var entry : Collections.list(baseZip.entries())) {
+                    if (!removedPaths.contains(entry.getName()) && !deltaPaths.contains(entry.getName())) {
+                        copy(baseZip, entry, zip, written);
+                    }
+                }
+                for (var entry : Collections.list(deltaZip.entries())) {
+                    copy(deltaZip, entry, zip, written);
+                }
+            }
+            return result.toFile();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void copy(ZipFile source, ZipEntry entry, ZipOutputStream target, Set<String> written) throws IOException {
+        if (!written.add(entry.getName())) {
+            return;
+        }
+        target.putNextEntry(new ZipEntry(entry.getName()));
+        if (!entry.isDirectory()) {
+            try (var inputStream = source.getInputStream(entry)) {
+                inputStream.transferTo(target);
+            }
+        }
+        target.closeEntry();
+    }
+
+}
@@ -0,0 +1,26 @@
+package ru.craftysoft.schemaregistry.builder.record;
+
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.ChangesRecord;
+import ru.craftysoft.schemaregistry.model.rest.ChangeType;
+
+import javax.annotation.Nullable;
+import javax.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class ChangesRecordBuilder {
+
+    public ChangesRecord build(ChangeType type,
+                               long structureId,
+                               String structureName,
+                               @Nullable Long versionId,
+                               @Nullable String versionName) {
+        var record = new ChangesRecord();
+        record.setType(type.toString());
+        record.setStructureId(structureId);
+        record.setStructureName(structureName);
+        record.setVersionId(versionId);
+        record.setVersionName(versionName);
+        return record;
+    }
+
+}
@@ -0,0 +1,26 @@
+package ru.craftysoft.schemaregistry.builder.record;
+
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.PublishJobsRecord;
+import ru.craftysoft.schemaregistry.service.blob.BlobStores;
+
+import javax.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class PublishJobsRecordBuilder {
+
+    private final BlobStores blobStores;
+
+    public PublishJobsRecordBuilder(BlobStores blobStores) {
+        this.blobStores = blobStores;
+    }
+
+    public PublishJobsRecord build(String structureName, String versionName, boolean force) {
+        var record = new PublishJobsRecord();
+        record.setStructureName(structureName);
+        record.setVersionName(versionName);
+        record.setForce(force);
+        record.setArchiveLink(blobStores.link(structureName, "job"));
+        return record;
+    }
+
+}
@@ -19,7 +19,26 @@ public class SchemasRecordBuilder {
         var record = new SchemasRecord();
         record.setVersionId(schema.versionId());
         record.setPath(schema.path());
-        record.setLink(schema.link());
+        record.setLink(schema.location().link());
+        record.setContentOffset(schema.location().offset());
+        record.setContentLength(schema.location().length());
+        record.setContent(schema.location().content());
+        record.setContentHash(schema.contentHash());
+        return record;
+    }
+
+    /**
+     * Схема, унаследованная новой версией от базовой.
+     */
+    public SchemasRecord build(long versionId, SchemasRecord baseSchema) {
+        var record = new SchemasRecord();
+        record.setVersionId(versionId);
+        record.setPath(baseSchema.getPath());
+        record.setLink(baseSchema.getLink());
+        record.setContentOffset(baseSchema.getContentOffset());
+        record.setContentLength(baseSchema.getContentLength());
+        record.setContent(baseSchema.getContent());
+        record.setContentHash(baseSchema.getContentHash());
         return record;
     }
 }
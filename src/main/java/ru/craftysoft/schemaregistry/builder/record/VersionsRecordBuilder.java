@@ -1,25 +1,40 @@
 package ru.craftysoft.schemaregistry.builder.record;
 
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import ru.craftysoft.schemaregistry.dto.intermediate.SemanticVersion;
 import ru.craftysoft.schemaregistry.model.jooq.tables.records.VersionsRecord;
+import ru.craftysoft.schemaregistry.service.blob.BlobStores;
 
 import javax.enterprise.context.ApplicationScoped;
-import java.util.UUID;
+
+import static java.util.Optional.ofNullable;
 
 @ApplicationScoped
 public class VersionsRecordBuilder {
 
-    private final String bucket;
+    private final BlobStores blobStores;
+    private final boolean storeArchive;
 
-    public VersionsRecordBuilder(@ConfigProperty(name = "s3.bucket") String bucket) {
-        this.bucket = bucket;
+    public VersionsRecordBuilder(BlobStores blobStores,
+                                 @ConfigProperty(name = "archive.store") boolean storeArchive) {
+        this.blobStores = blobStores;
+        this.storeArchive = storeArchive;
     }
 
-    public VersionsRecord build(long structureId, String name) {
+    /**
+     * При {@code archive.store=false} ссылка на архив не заполняется: архив не загружается в хранилище и собирается из схем при скачивании.
+     */
+    public VersionsRecord build(long structureId, String structureName, String name) {
         var record = new VersionsRecord();
         record.setStructureId(structureId);
         record.setName(name);
-        record.setLink(bucket + "/" + "version_" + UUID.randomUUID());
+        record.setLink(storeArchive ? blobStores.link(structureName, "version") : null);
+        ofNullable(SemanticVersion.parse(name)).ifPresent(semanticVersion -> {
+            record.setSemverMajor(semanticVersion.major());
+            record.setSemverMinor(semanticVersion.minor());
+            record.setSemverPatch(semanticVersion.patch());
+            record.setSemverPreRelease(semanticVersion.preRelease());
+        });
         return record;
     }
 
@@ -0,0 +1,41 @@
+package ru.craftysoft.schemaregistry.builder.response;
+
+import ru.craftysoft.schemaregistry.dto.intermediate.ChangesPage;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.ChangesRecord;
+import ru.craftysoft.schemaregistry.model.rest.ChangeData;
+import ru.craftysoft.schemaregistry.model.rest.ChangeType;
+import ru.craftysoft.schemaregistry.model.rest.GetChangesResponseData;
+
+import javax.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class GetChangesResponseDataBuilder {
+
+    /**
+     * Неполная страница содержит все подходящие изменения до {@link ChangesPage#lastId()}, поэтому курсор сдвигается
+     * до него, даже если при фильтре по структуре изменений не нашлось.
+     */
+    public GetChangesResponseData build(long after, int limit, ChangesPage page) {
+        var changes = page.changes().stream()
+                .map(this::build)
+                .toList();
+        var cursor = changes.size() < limit
+                ? Math.max(after, page.lastId())
+                : changes.get(changes.size() - 1).getId();
+        return new GetChangesResponseData()
+                .cursor(cursor)
+                .changes(changes);
+    }
+
+    public ChangeData build(ChangesRecord change) {
+        return new ChangeData()
+                .id(change.getId())
+                .type(ChangeType.fromString(change.getType()))
+                .structureId(change.getStructureId())
+                .structureName(change.getStructureName())
+                .versionId(change.getVersionId())
+                .versionName(change.getVersionName())
+                .createdAt(change.getCreatedAt());
+    }
+
+}
@@ -54,7 +54,9 @@ public class GetStructureDescriptorResponseDataBuilder {
         return new Schema()
                 .id(schema.getId())
                 .path(schema.getPath())
-                .link(schema.getLink());
+                .link(schema.getLink())
+                .offset(schema.getContentOffset())
+                .length(schema.getContentLength());
     }
 
 }
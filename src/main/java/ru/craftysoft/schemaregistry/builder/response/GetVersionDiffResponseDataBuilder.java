@@ -0,0 +1,27 @@
+package ru.craftysoft.schemaregistry.builder.response;
+
+import ru.craftysoft.schemaregistry.dto.intermediate.SchemaDiff;
+import ru.craftysoft.schemaregistry.dto.intermediate.VersionDiff;
+import ru.craftysoft.schemaregistry.model.rest.GetVersionDiffResponseData;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.List;
+
+@ApplicationScoped
+public class GetVersionDiffResponseDataBuilder {
+
+    public GetVersionDiffResponseData build(VersionDiff diff) {
+        return new GetVersionDiffResponseData()
+                .added(paths(diff, SchemaDiff.Type.added))
+                .removed(paths(diff, SchemaDiff.Type.removed))
+                .modified(paths(diff, SchemaDiff.Type.modified));
+    }
+
+    private List<String> paths(VersionDiff diff, SchemaDiff.Type type) {
+        return diff.schemas().stream()
+                .filter(schema -> schema.type() == type)
+                .map(SchemaDiff::path)
+                .toList();
+    }
+
+}
@@ -0,0 +1,18 @@
+package ru.craftysoft.schemaregistry.builder.response;
+
+import ru.craftysoft.schemaregistry.model.rest.ImportRegistryResponseData;
+
+import javax.annotation.Nullable;
+import javax.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class ImportRegistryResponseDataBuilder {
+
+    public ImportRegistryResponseData build(int imported, int skipped, @Nullable Long lastVersionId) {
+        return new ImportRegistryResponseData()
+                .imported(imported)
+                .skipped(skipped)
+                .lastVersionId(lastVersionId);
+    }
+
+}
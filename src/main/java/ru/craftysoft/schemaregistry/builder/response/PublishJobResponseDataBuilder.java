@@ -0,0 +1,36 @@
+package ru.craftysoft.schemaregistry.builder.response;
+
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.PublishJobsRecord;
+import ru.craftysoft.schemaregistry.model.rest.CreateVersionResponseData;
+import ru.craftysoft.schemaregistry.model.rest.PublishJobResponseData;
+import ru.craftysoft.schemaregistry.model.rest.PublishJobStatus;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.List;
+
+@ApplicationScoped
+public class PublishJobResponseDataBuilder {
+
+    public PublishJobResponseData build(PublishJobsRecord job) {
+        var status = PublishJobStatus.fromString(job.getStatus());
+        var response = new PublishJobResponseData()
+                .id(job.getId())
+                .structureName(job.getStructureName())
+                .versionName(job.getVersionName())
+                .status(status)
+                .attempts(job.getAttempts())
+                .schemasTotal(job.getSchemasTotal())
+                .schemasUploaded(job.getSchemasUploaded())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt());
+        if (status == PublishJobStatus.DONE) {
+            response.result(new CreateVersionResponseData()
+                    .structureId(job.getStructureId())
+                    .versionId(job.getVersionId())
+                    .schemaIds(job.getSchemasIds() == null ? List.of() : List.of(job.getSchemasIds())));
+        }
+        return response;
+    }
+
+}
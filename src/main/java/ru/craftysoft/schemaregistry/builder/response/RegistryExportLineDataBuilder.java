@@ -0,0 +1,34 @@
+package ru.craftysoft.schemaregistry.builder.response;
+
+import ru.craftysoft.schemaregistry.dto.intermediate.ExportedVersion;
+import ru.craftysoft.schemaregistry.model.rest.RegistryExportLineData;
+import ru.craftysoft.schemaregistry.model.rest.RegistryExportLineType;
+
+import javax.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class RegistryExportLineDataBuilder {
+
+    public RegistryExportLineData buildVersion(ExportedVersion version) {
+        return new RegistryExportLineData()
+                .type(RegistryExportLineType.VERSION)
+                .versionId(version.id())
+                .structureName(version.structureName())
+                .versionName(version.name());
+    }
+
+    public RegistryExportLineData buildSchema(long versionId, String path, byte[] content) {
+        return new RegistryExportLineData()
+                .type(RegistryExportLineType.SCHEMA)
+                .versionId(versionId)
+                .path(path)
+                .content(content);
+    }
+
+    public RegistryExportLineData buildCheckpoint(long versionId) {
+        return new RegistryExportLineData()
+                .type(RegistryExportLineType.CHECKPOINT)
+                .versionId(versionId);
+    }
+
+}
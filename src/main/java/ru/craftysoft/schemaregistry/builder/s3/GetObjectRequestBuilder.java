@@ -17,4 +17,11 @@ public class GetObjectRequestBuilder {
                 .build();
     }
 
+    public GetObjectRequest build(String link, long offset, int length) {
+        var to = offset + length - 1;
+        return build(link).toBuilder()
+                .range("bytes=%d-%d".formatted(offset, to))
+                .build();
+    }
+
 }
@@ -0,0 +1,63 @@
+package ru.craftysoft.schemaregistry.builder.s3;
+
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.Comparator;
+import java.util.List;
+
+@ApplicationScoped
+public class MultipartUploadRequestBuilder {
+
+    public CreateMultipartUploadRequest buildCreate(String link) {
+        var parts = link.split("/", 2);
+        return CreateMultipartUploadRequest.builder()
+                .bucket(parts[0])
+                .key(parts[1])
+                .build();
+    }
+
+    public UploadPartRequest buildUploadPart(String link, String uploadId, int partNumber, long length) {
+        var parts = link.split("/", 2);
+        return UploadPartRequest.builder()
+                .bucket(parts[0])
+                .key(parts[1])
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength(length)
+                .build();
+    }
+
+    /**
+     * S3 требует перечислять части по возрастанию номеров.
+     */
+    public CompleteMultipartUploadRequest buildComplete(String link, String uploadId, List<CompletedPart> completedParts) {
+        var parts = link.split("/", 2);
+        var sortedParts = completedParts.stream()
+                .sorted(Comparator.comparing(CompletedPart::partNumber))
+                .toList();
+        return CompleteMultipartUploadRequest.builder()
+                .bucket(parts[0])
+                .key(parts[1])
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder()
+                        .parts(sortedParts)
+                        .build())
+                .build();
+    }
+
+    public AbortMultipartUploadRequest buildAbort(String link, String uploadId) {
+        var parts = link.split("/", 2);
+        return AbortMultipartUploadRequest.builder()
+                .bucket(parts[0])
+                .key(parts[1])
+                .uploadId(uploadId)
+                .build();
+    }
+
+}
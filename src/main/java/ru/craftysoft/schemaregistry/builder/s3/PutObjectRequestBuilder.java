@@ -1,7 +1,6 @@
 package ru.craftysoft.schemaregistry.builder.s3;
 
 import com.sun.source.doctree.SeeTree;
-import ru.craftysoft.schemaregistry.dto.intermediate.Schema;
 import ru.craftysoft.schemaregistry.dto.intermediate.Version;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
@@ -21,8 +20,8 @@ public class PutObjectRequestBuilder {
                 .build();
     }
 
-    public PutObjectRequest build(Schema schema) {
-        var parts = schema.link().split("/", 2);
+    public PutObjectRequest build(String link) {
+        var parts = link.split("/", 2);
         var bucket = parts[0];
         var fileName = parts[1];
         return PutObjectRequest.builder()
@@ -1,20 +1,59 @@
 package ru.craftysoft.schemaregistry.configuration;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.reactive.datasource.ReactiveDataSource;
+import io.vertx.mutiny.core.Vertx;
 import io.vertx.mutiny.pgclient.PgPool;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jooq.DSLContext;
 import org.jooq.SQLDialect;
 import org.jooq.conf.Settings;
 import org.jooq.impl.DefaultDSLContext;
 import ru.craftysoft.schemaregistry.util.DbClient;
+import ru.craftysoft.schemaregistry.util.ReplicaRouter;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Disposes;
+import java.time.Duration;
+import java.util.EnumMap;
 
 @ApplicationScoped
 public class DbConfiguration {
 
+    /**
+     * Datasource по умолчанию обслуживает публикацию и удаление, {@code read} - чтение.
+     */
     @ApplicationScoped
-    DbClient dbClient(PgPool pgPool, DSLContext dslContext) {
-        return new DbClient(pgPool, dslContext);
+    DbClient dbClient(PgPool pgPool,
+                      @ReactiveDataSource("read") PgPool readPgPool,
+                      ReplicaRouter replicaRouter,
+                      DSLContext dslContext,
+                      MeterRegistry meterRegistry,
+                      @ConfigProperty(name = "db.stream.fetch-size") int fetchSize) {
+        var pools = new EnumMap<Workload, PgPool>(Workload.class);
+        pools.put(Workload.read, readPgPool);
+        pools.put(Workload.write, pgPool);
+        return new DbClient(pools, replicaRouter, dslContext, meterRegistry, fetchSize);
+    }
+
+    /**
+     * Datasource {@code replica} используется только при {@code db.replica.enabled=true}.
+     */
+    @ApplicationScoped
+    ReplicaRouter replicaRouter(@ReactiveDataSource("read") PgPool readPgPool,
+                                @ReactiveDataSource("replica") PgPool replicaPgPool,
+                                Vertx vertx,
+                                MeterRegistry meterRegistry,
+                                @ConfigProperty(name = "db.replica.enabled") boolean enabled,
+                                @ConfigProperty(name = "db.replica.max-lag") Duration maxLag,
+                                @ConfigProperty(name = "db.replica.lag-check-interval") Duration lagCheckInterval) {
+        var router = new ReplicaRouter(readPgPool, enabled ? replicaPgPool : null, maxLag, meterRegistry);
+        router.start(vertx, lagCheckInterval);
+        return router;
+    }
+
+    void stopReplicaRouter(@Disposes ReplicaRouter replicaRouter, Vertx vertx) {
+        replicaRouter.stop(vertx);
     }
 
     @ApplicationScoped
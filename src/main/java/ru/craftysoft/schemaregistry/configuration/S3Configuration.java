@@ -0,0 +1,53 @@
+package ru.craftysoft.schemaregistry.configuration;
+
+import io.smallrye.common.annotation.Identifier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Disposes;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+
+@ApplicationScoped
+public class S3Configuration {
+
+    /**
+     * Клиент чтения со своим пулом соединений, настройки подключения берутся из {@code quarkus.s3.*}.
+     * Клиент Quarkus по умолчанию обслуживает публикацию и удаление.
+     */
+    @ApplicationScoped
+    @Identifier("read")
+    S3AsyncClient readS3AsyncClient(@ConfigProperty(name = "quarkus.s3.endpoint-override") Optional<URI> endpointOverride,
+                                    @ConfigProperty(name = "quarkus.s3.aws.region") String region,
+                                    @ConfigProperty(name = "quarkus.s3.aws.credentials.static-provider.access-key-id") Optional<String> accessKeyId,
+                                    @ConfigProperty(name = "quarkus.s3.aws.credentials.static-provider.secret-access-key") Optional<String> secretAccessKey,
+                                    @ConfigProperty(name = "quarkus.s3.path-style-access", defaultValue = "false") boolean pathStyleAccess,
+                                    @ConfigProperty(name = "s3.read.max-concurrency") int maxConcurrency,
+                                    @ConfigProperty(name = "s3.read.connection-acquisition-timeout") Duration connectionAcquisitionTimeout) {
+        AwsCredentialsProvider credentialsProvider = accessKeyId.isPresent() && secretAccessKey.isPresent()
+                ? StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKeyId.get(), secretAccessKey.get()))
+                : DefaultCredentialsProvider.create();
+        var builder = S3AsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentialsProvider)
+                .serviceConfiguration(serviceConfiguration -> serviceConfiguration.pathStyleAccessEnabled(pathStyleAccess))
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(maxConcurrency)
+                        .connectionAcquisitionTimeout(connectionAcquisitionTimeout));
+        endpointOverride.ifPresent(builder::endpointOverride);
+        return builder.build();
+    }
+
+    void closeReadS3AsyncClient(@Disposes @Identifier("read") S3AsyncClient client) {
+        client.close();
+    }
+
+}
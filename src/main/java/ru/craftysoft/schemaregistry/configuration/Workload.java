@@ -0,0 +1,10 @@
+package ru.craftysoft.schemaregistry.configuration;
+
+/**
+ * Класс нагрузки: чтение схем, версий и дескрипторов или публикация и удаление.
+ * У каждого класса свои пулы соединений с БД и S3 и свой пул worker-потоков.
+ */
+public enum Workload {
+    read,
+    write,
+}
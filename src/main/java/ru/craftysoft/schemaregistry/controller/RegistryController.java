@@ -0,0 +1,42 @@
+package ru.craftysoft.schemaregistry.controller;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import lombok.RequiredArgsConstructor;
+import org.jboss.resteasy.reactive.ResponseHeader;
+import org.jboss.resteasy.reactive.ResponseStatus;
+import ru.craftysoft.schemaregistry.logic.ExportRegistryOperation;
+import ru.craftysoft.schemaregistry.logic.ImportRegistryOperation;
+import ru.craftysoft.schemaregistry.model.rest.ImportRegistryResponseData;
+import ru.craftysoft.schemaregistry.model.rest.RegistryExportLineData;
+import ru.craftysoft.schemaregistry.service.limit.ConcurrencyLimiters;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.ws.rs.Path;
+import java.io.File;
+
+import static javax.ws.rs.core.HttpHeaders.CONTENT_DISPOSITION;
+import static org.jboss.resteasy.reactive.RestResponse.StatusCode.OK;
+
+@Path("/registry")
+@ApplicationScoped
+@RequiredArgsConstructor
+public class RegistryController implements RegistryApi {
+
+    private final ExportRegistryOperation exportRegistryOperation;
+    private final ImportRegistryOperation importRegistryOperation;
+    private final ConcurrencyLimiters limiters;
+
+    @ResponseStatus(OK)
+    @ResponseHeader(name = CONTENT_DISPOSITION, value = "attachment;filename=registry.ndjson")
+    @Override
+    public Multi<RegistryExportLineData> exportRegistry(Long afterVersionId) {
+        return limiters.getRead().stream(() -> exportRegistryOperation.process(afterVersionId == null ? 0 : afterVersionId));
+    }
+
+    @ResponseStatus(OK)
+    @Override
+    public Uni<ImportRegistryResponseData> importRegistry(File body) {
+        return limiters.getWrite().executeLongRunning(() -> importRegistryOperation.process(body));
+    }
+}
@@ -1,9 +1,11 @@
 package ru.craftysoft.schemaregistry.controller;
 
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
 import lombok.RequiredArgsConstructor;
 import org.jboss.resteasy.reactive.ResponseStatus;
 import ru.craftysoft.schemaregistry.logic.GetSchemaOperation;
+import ru.craftysoft.schemaregistry.service.limit.ConcurrencyLimiters;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.ws.rs.Path;
@@ -16,16 +18,17 @@ import static org.jboss.resteasy.reactive.RestResponse.StatusCode.OK;
 public class SchemasController implements SchemasApi {
 
     private final GetSchemaOperation getSchemaOperation;
+    private final ConcurrencyLimiters limiters;
 
     @ResponseStatus(OK)
     @Override
-    public Uni<String> getSchema(Long schemaId, String schemaPath, String versionName, String structureName) {
+    public Uni<Buffer> getSchema(Long schemaId, String schemaPath, String versionName, String structureName) {
         if (schemaId == null && schemaPath == null && structureName == null) {
             throw new RuntimeException("Хотя бы один из параметров должен быть заполнен");
         }
         if (schemaId == null && (schemaPath == null || structureName == null)) {
             throw new RuntimeException("Хотя бы один из параметров должен быть заполнен");
         }
-        return getSchemaOperation.process(schemaId, schemaPath, versionName, structureName);
+        return limiters.getRead().execute(() -> getSchemaOperation.process(schemaId, schemaPath, versionName, structureName));
     }
 }
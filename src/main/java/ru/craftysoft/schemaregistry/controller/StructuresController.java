@@ -1,17 +1,25 @@
 package ru.craftysoft.schemaregistry.controller;
 
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import lombok.RequiredArgsConstructor;
 import org.jboss.resteasy.reactive.ResponseHeader;
 import org.jboss.resteasy.reactive.ResponseStatus;
 import ru.craftysoft.schemaregistry.logic.*;
 import ru.craftysoft.schemaregistry.model.rest.AcceptedResponseData;
+import ru.craftysoft.schemaregistry.model.rest.ChangeData;
 import ru.craftysoft.schemaregistry.model.rest.CreateVersionResponseData;
+import ru.craftysoft.schemaregistry.model.rest.GetChangesResponseData;
 import ru.craftysoft.schemaregistry.model.rest.GetStructureDescriptorResponseData;
+import ru.craftysoft.schemaregistry.model.rest.GetVersionDiffResponseData;
+import ru.craftysoft.schemaregistry.model.rest.PublishJobResponseData;
+import ru.craftysoft.schemaregistry.service.limit.ConcurrencyLimiters;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.ws.rs.Path;
 import java.io.File;
+import java.util.List;
+import java.util.Set;
 
 import static javax.ws.rs.core.HttpHeaders.CONTENT_DISPOSITION;
 import static org.jboss.resteasy.reactive.RestResponse.StatusCode.*;
@@ -22,10 +30,18 @@ import static org.jboss.resteasy.reactive.RestResponse.StatusCode.*;
 public class StructuresController implements StructuresApi {
 
     private final CreateVersionOperation createVersionOperation;
+    private final CreateDeltaVersionOperation createDeltaVersionOperation;
+    private final GetVersionDiffOperation getVersionDiffOperation;
+    private final GetVersionDiffArchiveOperation getVersionDiffArchiveOperation;
     private final DeleteVersionOperation deleteVersionOperation;
     private final DeleteStructureOperation deleteStructureOperation;
     private final GetStructureDescriptorOperation getStructureDescriptorOperation;
     private final GetVersionOperation getVersionOperation;
+    private final CreateVersionJobOperation createVersionJobOperation;
+    private final GetVersionJobOperation getVersionJobOperation;
+    private final GetChangesOperation getChangesOperation;
+    private final StreamChangesOperation streamChangesOperation;
+    private final ConcurrencyLimiters limiters;
 
     @ResponseStatus(CREATED)
     @Override
@@ -33,19 +49,59 @@ public class StructuresController implements StructuresApi {
                                                         String versionName,
                                                         Boolean force,
                                                         File body) {
-        return createVersionOperation.process(structureName, versionName, force, body);
+        return limiters.getWrite().execute(() -> createVersionOperation.process(structureName, versionName, force, body));
+    }
+
+    @ResponseStatus(CREATED)
+    @Override
+    public Uni<CreateVersionResponseData> createDeltaVersion(String structureName,
+                                                             String versionName,
+                                                             String baseVersionName,
+                                                             List<String> removedPath,
+                                                             File body) {
+        var removedPaths = removedPath == null ? Set.<String>of() : Set.copyOf(removedPath);
+        return limiters.getWrite().execute(() -> createDeltaVersionOperation.process(structureName, versionName, baseVersionName, removedPaths, body));
+    }
+
+    @ResponseStatus(ACCEPTED)
+    @Override
+    public Uni<PublishJobResponseData> createVersionJob(String structureName,
+                                                        String versionName,
+                                                        Boolean force,
+                                                        File body) {
+        return limiters.getWrite().execute(() -> createVersionJobOperation.process(structureName, versionName, force, body));
+    }
+
+    @ResponseStatus(OK)
+    @Override
+    public Uni<PublishJobResponseData> getVersionJob(Long id) {
+        return limiters.getRead().execute(() -> getVersionJobOperation.process(id));
+    }
+
+    /**
+     * Long-poll и SSE держат соединение открытым почти без нагрузки, поэтому не проходят через ограничитель конкурентности.
+     */
+    @ResponseStatus(OK)
+    @Override
+    public Uni<GetChangesResponseData> getChanges(Long after, String structureName, Integer limit, Integer wait) {
+        return getChangesOperation.process(after, structureName, limit, wait);
+    }
+
+    @Override
+    public Multi<ChangeData> streamChanges(Long after, String structureName) {
+        return streamChangesOperation.process(after, structureName);
     }
 
     @ResponseStatus(ACCEPTED)
     @Override
     public Uni<AcceptedResponseData> deleteStructure(Long id) {
-        return deleteStructureOperation.process(id);
+        return limiters.getWrite().execute(() -> deleteStructureOperation.process(id));
     }
 
     @ResponseStatus(ACCEPTED)
     @Override
     public Uni<AcceptedResponseData> deleteVersion(Long id) {
-        return deleteVersionOperation.process(id);
+        return limiters.getWrite().execute(() -> deleteVersionOperation.process(id));
     }
 
     @ResponseStatus(OK)
@@ -54,16 +110,18 @@ public class StructuresController implements StructuresApi {
         if (id == null && name == null) {
             throw new RuntimeException("Хотя бы один из параметров должен быть заполнен");
         }
-        return getStructureDescriptorOperation.process(id, name);
+        return limiters.getRead().execute(() -> getStructureDescriptorOperation.process(id, name));
     }
 
     @ResponseStatus(OK)
     @ResponseHeader(name = CONTENT_DISPOSITION, value = "attachment;filename=result.zip")
     @Override
-    public Uni<File> getVersion(Long structureId,
-                                String structureName,
-                                Long versionId,
-                                String versionName) {
+    public Multi<byte[]> getVersion(Long structureId,
+                                    String structureName,
+                                    Long versionId,
+                                    String versionName,
+                                    String pathPrefix,
+                                    String pathGlob) {
         if (structureId == null && structureName == null && versionId == null && versionName == null) {
             throw new RuntimeException("Хотя бы один из параметров должен быть заполнен");
         }
@@ -72,6 +130,19 @@ public class StructuresController implements StructuresApi {
                 throw new RuntimeException("Хотя бы один из параметров должен быть заполнен");
             }
         }
-        return getVersionOperation.process(structureId, structureName, versionId, versionName);
+        return limiters.getRead().stream(() -> getVersionOperation.process(structureId, structureName, versionId, versionName, pathPrefix, pathGlob));
+    }
+
+    @ResponseStatus(OK)
+    @Override
+    public Uni<GetVersionDiffResponseData> getVersionDiff(String structureName, String fromVersionName, String toVersionName) {
+        return limiters.getRead().execute(() -> getVersionDiffOperation.process(structureName, fromVersionName, toVersionName));
+    }
+
+    @ResponseStatus(OK)
+    @ResponseHeader(name = CONTENT_DISPOSITION, value = "attachment;filename=diff.zip")
+    @Override
+    public Multi<byte[]> getVersionDiffArchive(String structureName, String fromVersionName, String toVersionName) {
+        return limiters.getRead().stream(() -> getVersionDiffArchiveOperation.process(structureName, fromVersionName, toVersionName));
     }
 }
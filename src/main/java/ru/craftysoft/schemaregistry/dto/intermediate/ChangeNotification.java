@@ -0,0 +1,24 @@
+package ru.craftysoft.schemaregistry.dto.intermediate;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Уведомление {@code NOTIFY} о записи журнала изменений в формате {@code <id>:<structureName>}.
+ */
+public record ChangeNotification(long id, @Nonnull String structureName) {
+
+    public static final String CHANNEL = "schema_registry_changes";
+
+    public String encode() {
+        return id + ":" + structureName;
+    }
+
+    public static ChangeNotification decode(String payload) {
+        var separator = payload.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Некорректное уведомление об изменении '%s'".formatted(payload));
+        }
+        return new ChangeNotification(Long.parseLong(payload.substring(0, separator)), payload.substring(separator + 1));
+    }
+
+}
@@ -0,0 +1,12 @@
+package ru.craftysoft.schemaregistry.dto.intermediate;
+
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.ChangesRecord;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * @param lastId максимальный id в журнале на момент выборки, прочитанный в том же снимке, что и {@code changes}
+ */
+public record ChangesPage(@Nonnull List<ChangesRecord> changes, long lastId) {
+}
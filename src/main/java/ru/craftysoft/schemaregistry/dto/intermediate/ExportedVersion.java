@@ -0,0 +1,7 @@
+package ru.craftysoft.schemaregistry.dto.intermediate;
+
+/**
+ * Версия в выгрузке реестра, {@code id} служит контрольной точкой продолжения выгрузки.
+ */
+public record ExportedVersion(long id, String structureName, String name) {
+}
@@ -0,0 +1,12 @@
+package ru.craftysoft.schemaregistry.dto.intermediate;
+
+import java.io.File;
+
+/**
+ * Версия из выгрузки реестра, схемы которой собраны во временный архив.
+ *
+ * @param sourceId id версии в исходном реестре
+ * @param archive  архив схем, удалить его должен вызывающий
+ */
+public record ImportedVersion(long sourceId, String structureName, String name, File archive) {
+}
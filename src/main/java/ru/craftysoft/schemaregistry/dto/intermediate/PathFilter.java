@@ -0,0 +1,109 @@
+package ru.craftysoft.schemaregistry.dto.intermediate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.regex.Pattern;
+
+/**
+ * Фильтр путей схем по префиксу и glob-выражению: {@code *} и {@code ?} не переходят через {@code /},
+ * {@code **} - любое число сегментов, {@code **}{@code /} в том числе ни одного.
+ * Схемы выбираются по диапазону путей {@code [prefix, upperBound())} в порядке кодовых точек,
+ * glob-выражение проверяется на выбранных путях.
+ *
+ * @param prefix общий префикс подходящих путей: заданный префикс или начало glob-выражения до первого спецсимвола
+ */
+public record PathFilter(@Nonnull String prefix, @Nullable Pattern glob) {
+
+    /**
+     * @return {@code null}, если фильтры не заданы
+     */
+    @Nullable
+    public static PathFilter of(@Nullable String prefix, @Nullable String glob) {
+        var hasPrefix = prefix != null && !prefix.isEmpty();
+        var hasGlob = glob != null && !glob.isEmpty();
+        if (!hasPrefix && !hasGlob) {
+            return null;
+        }
+        if (!hasGlob) {
+            return new PathFilter(prefix, null);
+        }
+        var globPrefix = literalPrefix(glob);
+        var effectivePrefix = hasPrefix && prefix.startsWith(globPrefix) ? prefix : globPrefix;
+        var pattern = Pattern.compile(toRegex(glob));
+        if (hasPrefix && !effectivePrefix.startsWith(prefix)) {
+            // префикс и glob-выражение несовместимы, фильтр по префиксу отсечёт все пути
+            return new PathFilter(prefix, pattern);
+        }
+        return new PathFilter(effectivePrefix, pattern);
+    }
+
+    public boolean matches(String path) {
+        return path.startsWith(prefix) && (glob == null || glob.matcher(path).matches());
+    }
+
+    /**
+     * Наименьшая строка больше всех строк с префиксом {@code prefix} в порядке кодовых точек (совпадает с порядком {@code COLLATE "C"}
+     * для UTF-8): префикс с увеличенной последней кодовой точкой.
+     *
+     * @return {@code null}, если верхней границы нет
+     */
+    @Nullable
+    public String upperBound() {
+        var codePoints = prefix.codePoints().toArray();
+        for (int i = codePoints.length - 1; i >= 0; i--) {
+            if (codePoints[i] < Character.MAX_CODE_POINT) {
+                var next = codePoints[i] + 1 == Character.MIN_SURROGATE ? Character.MAX_SURROGATE + 1 : codePoints[i] + 1;
+                var result = new StringBuilder();
+                for (int j = 0; j < i; j++) {
+                    result.appendCodePoint(codePoints[j]);
+                }
+                return result.appendCodePoint(next).toString();
+            }
+        }
+        return null;
+    }
+
+    private static String literalPrefix(String glob) {
+        for (int i = 0; i < glob.length(); i++) {
+            var c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                return glob.substring(0, i);
+            }
+        }
+        return glob;
+    }
+
+    private static String toRegex(String glob) {
+        var regex = new StringBuilder();
+        var literal = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            var c = glob.charAt(i);
+            if (c != '*' && c != '?') {
+                literal.append(c);
+                continue;
+            }
+            if (!literal.isEmpty()) {
+                regex.append(Pattern.quote(literal.toString()));
+                literal.setLength(0);
+            }
+            if (c == '?') {
+                regex.append("[^/]");
+            } else if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                if (i + 2 < glob.length() && glob.charAt(i + 2) == '/') {
+                    regex.append("(?:.*/)?");
+                    i += 2;
+                } else {
+                    regex.append(".*");
+                    i++;
+                }
+            } else {
+                regex.append("[^/]*");
+            }
+        }
+        if (!literal.isEmpty()) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+
+}
@@ -0,0 +1,9 @@
+package ru.craftysoft.schemaregistry.dto.intermediate;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Версия, найденная по диапазону, вместе с именем структуры для сброса кэша.
+ */
+public record ResolvedVersion(@Nonnull String versionName, @Nonnull String structureName) {
+}
@@ -4,6 +4,7 @@ import javax.annotation.Nonnull;
 
 public record Schema(long versionId,
                      @Nonnull String path,
-                     @Nonnull String link,
-                     @Nonnull byte[] content) {
-}
\ No newline at end of file
+                     @Nonnull SchemaLocation location,
+                     @Nonnull byte[] content,
+                     @Nonnull byte[] contentHash) {
+}
@@ -0,0 +1,17 @@
+package ru.craftysoft.schemaregistry.dto.intermediate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * @param location положение схемы новой версии в S3, для удалённых схем не заполнено
+ */
+public record SchemaDiff(@Nonnull String path, @Nonnull Type type, @Nullable SchemaLocation location) {
+
+    public enum Type {
+        added,
+        removed,
+        modified,
+    }
+
+}
@@ -0,0 +1,6 @@
+package ru.craftysoft.schemaregistry.dto.intermediate;
+
+import javax.annotation.Nonnull;
+
+public record SchemaLink(@Nonnull SchemaLocation location, @Nonnull String structureName) {
+}
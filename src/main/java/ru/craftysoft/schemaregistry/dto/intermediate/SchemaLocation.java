@@ -0,0 +1,35 @@
+package ru.craftysoft.schemaregistry.dto.intermediate;
+
+import javax.annotation.Nullable;
+
+/**
+ * Положение содержимого схемы: объект в S3 или сама таблица схем.
+ *
+ * @param link    ссылка на объект: отдельный объект схемы или общий объект схем версии; для схемы в БД не заполнена
+ * @param offset  смещение схемы в общем объекте, для отдельного объекта не заполнено
+ * @param length  длина схемы в общем объекте, для отдельного объекта не заполнена
+ * @param content содержимое схемы, хранящейся в БД
+ */
+public record SchemaLocation(@Nullable String link, @Nullable Long offset, @Nullable Integer length, @Nullable byte[] content) {
+
+    public SchemaLocation(String link) {
+        this(link, null, null, null);
+    }
+
+    public SchemaLocation(String link, @Nullable Long offset, @Nullable Integer length) {
+        this(link, offset, length, null);
+    }
+
+    public static SchemaLocation inline(byte[] content) {
+        return new SchemaLocation(null, null, null, content);
+    }
+
+    public boolean packed() {
+        return offset != null;
+    }
+
+    public boolean inlined() {
+        return content != null;
+    }
+
+}
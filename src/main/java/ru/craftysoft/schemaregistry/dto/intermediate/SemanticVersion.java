@@ -0,0 +1,29 @@
+package ru.craftysoft.schemaregistry.dto.intermediate;
+
+import javax.annotation.Nullable;
+import java.util.regex.Pattern;
+
+/**
+ * Компоненты имени версии вида {@code [v]MAJOR.MINOR.PATCH[-PRE_RELEASE][+BUILD]}. Метаданные сборки не сохраняются.
+ */
+public record SemanticVersion(int major, int minor, int patch, @Nullable String preRelease) {
+
+    private static final Pattern PATTERN = Pattern.compile(
+            "v?(0|[1-9]\\d{0,8})\\.(0|[1-9]\\d{0,8})\\.(0|[1-9]\\d{0,8})(?:-([0-9A-Za-z.-]+))?(?:\\+[0-9A-Za-z.-]+)?"
+    );
+
+    @Nullable
+    public static SemanticVersion parse(String name) {
+        var matcher = PATTERN.matcher(name);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return new SemanticVersion(
+                Integer.parseInt(matcher.group(1)),
+                Integer.parseInt(matcher.group(2)),
+                Integer.parseInt(matcher.group(3)),
+                matcher.group(4)
+        );
+    }
+
+}
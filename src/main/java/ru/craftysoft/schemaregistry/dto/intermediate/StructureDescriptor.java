@@ -0,0 +1,13 @@
+package ru.craftysoft.schemaregistry.dto.intermediate;
+
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.SchemasRecord;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.StructuresRecord;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.VersionsRecord;
+
+import javax.annotation.Nonnull;
+import java.util.Set;
+
+public record StructureDescriptor(@Nonnull StructuresRecord structure,
+                                  @Nonnull Set<VersionsRecord> versions,
+                                  @Nonnull Set<SchemasRecord> schemas) {
+}
@@ -1,6 +1,10 @@
 package ru.craftysoft.schemaregistry.dto.intermediate;
 
-import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
-public record Version(long id, @Nonnull String link) {
+/**
+ * @param structureName имя структуры, по нему выбирается бакет объектов версии
+ * @param link          ссылка на архив версии в хранилище, не заполнена, если архив не хранится
+ */
+public record Version(long id, String structureName, @Nullable String link) {
 }
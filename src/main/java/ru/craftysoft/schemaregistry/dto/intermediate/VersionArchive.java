@@ -0,0 +1,9 @@
+package ru.craftysoft.schemaregistry.dto.intermediate;
+
+import javax.annotation.Nullable;
+
+/**
+ * @param link ссылка на архив версии в S3, не заполнена, если архив не хранится и собирается из схем
+ */
+public record VersionArchive(long versionId, @Nullable String link) {
+}
@@ -0,0 +1,15 @@
+package ru.craftysoft.schemaregistry.dto.intermediate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * @param fromVersionId id исходной версии, не заполнен, если версия не найдена
+ * @param toVersionId   id новой версии, не заполнен, если версия не найдена
+ * @param schemas       различающиеся схемы в порядке путей
+ */
+public record VersionDiff(@Nullable Long fromVersionId,
+                          @Nullable Long toVersionId,
+                          @Nonnull List<SchemaDiff> schemas) {
+}
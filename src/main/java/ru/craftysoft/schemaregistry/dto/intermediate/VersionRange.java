@@ -0,0 +1,52 @@
+package ru.craftysoft.schemaregistry.dto.intermediate;
+
+import javax.annotation.Nullable;
+import java.util.regex.Pattern;
+
+/**
+ * Диапазон стабильных версий {@code [from, to)}: {@code ^1.4} - {@code [1.4.0, 2.0.0)}, {@code ~2.0} - {@code [2.0.0, 2.1.0)},
+ * {@code latest-stable} - без границ. Границы сравниваются по {@code MAJOR.MINOR.PATCH}, pre-release версии в диапазон не входят.
+ */
+public record VersionRange(@Nullable SemanticVersion from, @Nullable SemanticVersion to) {
+
+    public static final String LATEST_STABLE = "latest-stable";
+
+    private static final Pattern PATTERN = Pattern.compile(
+            "([\\^~])v?(0|[1-9]\\d{0,8})(?:\\.(0|[1-9]\\d{0,8})(?:\\.(0|[1-9]\\d{0,8}))?)?"
+    );
+
+    /**
+     * @return {@code null}, если {@code expression} - обычное имя версии
+     */
+    @Nullable
+    public static VersionRange parse(@Nullable String expression) {
+        if (expression == null) {
+            return null;
+        }
+        if (LATEST_STABLE.equals(expression)) {
+            return new VersionRange(null, null);
+        }
+        var matcher = PATTERN.matcher(expression);
+        if (!matcher.matches()) {
+            return null;
+        }
+        var major = Integer.parseInt(matcher.group(2));
+        var minor = matcher.group(3) == null ? null : Integer.valueOf(matcher.group(3));
+        var patch = matcher.group(4) == null ? null : Integer.valueOf(matcher.group(4));
+        var from = new SemanticVersion(major, minor == null ? 0 : minor, patch == null ? 0 : patch, null);
+        SemanticVersion to;
+        if ("~".equals(matcher.group(1))) {
+            to = minor == null
+                    ? new SemanticVersion(major + 1, 0, 0, null)
+                    : new SemanticVersion(major, minor + 1, 0, null);
+        } else if (major > 0 || minor == null) {
+            to = new SemanticVersion(major + 1, 0, 0, null);
+        } else if (minor > 0 || patch == null) {
+            to = new SemanticVersion(0, minor + 1, 0, null);
+        } else {
+            to = new SemanticVersion(0, 0, patch + 1, null);
+        }
+        return new VersionRange(from, to);
+    }
+
+}
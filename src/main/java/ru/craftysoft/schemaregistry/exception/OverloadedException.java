@@ -0,0 +1,20 @@
+package ru.craftysoft.schemaregistry.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Запрос отклонён ограничителем конкурентности, отдаётся как 503 с заголовком Retry-After.
+ */
+@Getter
+public class OverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public OverloadedException(String workload, Duration retryAfter) {
+        super("Сервис перегружен (%s), повторите запрос позже".formatted(workload));
+        this.retryAfter = retryAfter;
+    }
+
+}
@@ -0,0 +1,105 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.unchecked.Unchecked;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ru.craftysoft.schemaregistry.builder.intermediate.VersionArchiveBuilder;
+import ru.craftysoft.schemaregistry.builder.response.CreateVersionResponseDataBuilder;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+import ru.craftysoft.schemaregistry.dto.intermediate.Schema;
+import ru.craftysoft.schemaregistry.dto.intermediate.Version;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.SchemasRecord;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.VersionsRecord;
+import ru.craftysoft.schemaregistry.model.rest.CreateVersionResponseData;
+import ru.craftysoft.schemaregistry.service.changes.ChangeListener;
+import ru.craftysoft.schemaregistry.service.dao.ChangeDaoAdapter;
+import ru.craftysoft.schemaregistry.service.dao.SchemaDaoAdapter;
+import ru.craftysoft.schemaregistry.service.dao.StructureDaoAdapter;
+import ru.craftysoft.schemaregistry.service.dao.VersionDaoAdapter;
+import ru.craftysoft.schemaregistry.service.executor.WorkerExecutors;
+import ru.craftysoft.schemaregistry.service.blob.BlobStoreAdapter;
+import ru.craftysoft.schemaregistry.service.blob.VersionArchiveAssembler;
+import ru.craftysoft.schemaregistry.util.DbClient;
+import ru.craftysoft.schemaregistry.util.OperationWrapper;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Set;
+
+/**
+ * Публикация версии относительно базовой: в S3 загружаются только схемы из архива изменений,
+ * архив новой версии собирается из базового архива и архива изменений.
+ */
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+public class CreateDeltaVersionOperation {
+
+    private final StructureDaoAdapter structureDaoAdapter;
+    private final VersionDaoAdapter versionDaoAdapter;
+    private final SchemaDaoAdapter schemaDaoAdapter;
+    private final ChangeDaoAdapter changeDaoAdapter;
+    private final BlobStoreAdapter blobStoreAdapter;
+    private final ChangeListener changeListener;
+    private final WorkerExecutors workerExecutors;
+    private final VersionArchiveBuilder versionArchiveBuilder;
+    private final VersionArchiveAssembler versionArchiveAssembler;
+    private final DbClient dbClient;
+    private final CreateVersionResponseDataBuilder responseBuilder;
+
+    public Uni<CreateVersionResponseData> process(String structureName,
+                                                  String versionName,
+                                                  String baseVersionName,
+                                                  Set<String> removedPaths,
+                                                  File body) {
+        return OperationWrapper.wrap(
+                log, "CreateDeltaVersionOperation.process",
+                () -> dbClient.inTransaction(Workload.write, sqlClient -> structureDaoAdapter.upsert(sqlClient, structureName)
+                        .flatMap(structureId -> versionDaoAdapter.getBase(sqlClient, structureId, baseVersionName)
+                                .flatMap(baseVersion -> schemaDaoAdapter.getByVersionId(sqlClient, baseVersion.getId())
+                                        .flatMap(baseSchemas -> versionDaoAdapter.create(sqlClient, structureId, structureName, versionName)
+                                                .flatMap(version -> schemaDaoAdapter.createDelta(sqlClient, version, body, baseSchemas, removedPaths)
+                                                        .flatMap(schemasWithIds -> upload(version, baseVersion, baseSchemas, body, removedPaths, schemasWithIds.getValue())
+                                                                .map(ignored -> responseBuilder.build(structureId, version, schemasWithIds.getKey()))))))
+                                .call(response -> changeDaoAdapter.versionCreated(sqlClient, response.getVersionId()))
+                                .call(response -> structureDaoAdapter.updateLatestVersion(sqlClient, structureId))))
+                        .invoke(response -> changeListener.onCommitted(structureName)),
+                () -> "structureName='%s' versionName='%s' baseVersionName='%s' removedPaths=%s"
+                        .formatted(structureName, versionName, baseVersionName, removedPaths),
+                response -> "structureId=%s versionId=%s schemasIds=%s"
+                        .formatted(response.getStructureId(), response.getVersionId(), response.getSchemaIds())
+        );
+    }
+
+    /**
+     * Архив новой версии собирается, только если архивы хранятся; архив базовой версии без сохранённого архива собирается из её схем.
+     */
+    private Uni<Void> upload(Version version,
+                             VersionsRecord baseVersion,
+                             Set<SchemasRecord> baseSchemas,
+                             File body,
+                             Set<String> removedPaths,
+                             Set<Schema> schemas) {
+        if (version.link() == null) {
+            return blobStoreAdapter.createVersion(version, body, schemas);
+        }
+        var baseArchive = baseVersion.getLink() != null
+                ? blobStoreAdapter.downloadVersion(baseVersion.getLink())
+                : versionArchiveAssembler.assembleToFile(baseSchemas);
+        return baseArchive
+                .flatMap(base -> workerExecutors.executeBlocking(Workload.write, Uni.createFrom().item(() -> versionArchiveBuilder.build(base, body, removedPaths)))
+                        .onTermination()
+                        .call(() -> deleteQuietly(base)))
+                .flatMap(archive -> blobStoreAdapter.createVersion(version, archive, schemas)
+                        .onTermination()
+                        .call(() -> deleteQuietly(archive)));
+    }
+
+    private Uni<Void> deleteQuietly(File file) {
+        return workerExecutors.executeBlocking(Workload.write, Uni.createFrom().item(Unchecked.supplier(() -> Files.deleteIfExists(file.toPath()))))
+                .replaceWithVoid();
+    }
+
+}
@@ -0,0 +1,56 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.smallrye.mutiny.Uni;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ru.craftysoft.schemaregistry.builder.response.PublishJobResponseDataBuilder;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+import ru.craftysoft.schemaregistry.model.rest.PublishJobResponseData;
+import ru.craftysoft.schemaregistry.service.dao.PublishJobDaoAdapter;
+import ru.craftysoft.schemaregistry.service.blob.BlobStoreAdapter;
+import ru.craftysoft.schemaregistry.util.DbClient;
+import ru.craftysoft.schemaregistry.util.OperationWrapper;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.io.File;
+
+/**
+ * Ставит публикацию версии в очередь: архив сохраняется в S3 как есть, разбор и загрузку схем выполняет {@link PublishJobWorker}.
+ * Архив загружается до записи задачи, соединение с БД занято только на время вставки; если задачу записать не удалось,
+ * загруженный архив удаляется.
+ */
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+public class CreateVersionJobOperation {
+
+    private final PublishJobDaoAdapter publishJobDaoAdapter;
+    private final BlobStoreAdapter blobStoreAdapter;
+    private final DbClient dbClient;
+    private final PublishJobResponseDataBuilder responseBuilder;
+
+    public Uni<PublishJobResponseData> process(String structureName, String versionName, boolean force, File body) {
+        return OperationWrapper.wrap(
+                log, "CreateVersionJobOperation.process",
+                () -> {
+                    var job = publishJobDaoAdapter.build(structureName, versionName, force);
+                    return blobStoreAdapter.putArchive(job.getArchiveLink(), body)
+                            .flatMap(ignored -> dbClient.inTransaction(Workload.write, sqlClient -> publishJobDaoAdapter.create(sqlClient, job)))
+                            .onFailure()
+                            .call(e -> deleteArchive(job.getArchiveLink()))
+                            .map(responseBuilder::build);
+                },
+                () -> "structureName='%s' versionName='%s' force='%s'".formatted(structureName, versionName, force),
+                response -> "jobId=%s".formatted(response.getId())
+        );
+    }
+
+    private Uni<Void> deleteArchive(String link) {
+        return blobStoreAdapter.deleteArchive(link)
+                .onFailure()
+                .invoke(e -> log.error("CreateVersionJobOperation.deleteArchive.thrown link={} {}", link, e.getMessage()))
+                .onFailure()
+                .recoverWithNull();
+    }
+
+}
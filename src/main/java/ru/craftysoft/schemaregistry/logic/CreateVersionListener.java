@@ -0,0 +1,28 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.SqlClient;
+import ru.craftysoft.schemaregistry.model.rest.CreateVersionResponseData;
+
+/**
+ * Наблюдатель за ходом публикации версии в {@link CreateVersionOperation}.
+ */
+public interface CreateVersionListener {
+
+    CreateVersionListener NONE = new CreateVersionListener() {
+    };
+
+    default void onSchemasParsed(int schemasTotal) {
+    }
+
+    default void onSchemaUploaded() {
+    }
+
+    /**
+     * Вызывается внутри транзакции публикации, изменения через {@code sqlClient} фиксируются вместе с версией.
+     */
+    default Uni<Void> beforeCommit(SqlClient sqlClient, CreateVersionResponseData response) {
+        return Uni.createFrom().voidItem();
+    }
+
+}
@@ -1,20 +1,24 @@
 package ru.craftysoft.schemaregistry.logic;
 
 import io.smallrye.mutiny.Uni;
-import io.vertx.mutiny.pgclient.PgPool;
-import io.vertx.mutiny.sqlclient.SqlClientHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ru.craftysoft.schemaregistry.builder.response.CreateVersionResponseDataBuilder;
+import ru.craftysoft.schemaregistry.configuration.Workload;
 import ru.craftysoft.schemaregistry.model.rest.CreateVersionResponseData;
+import ru.craftysoft.schemaregistry.service.changes.ChangeListener;
+import ru.craftysoft.schemaregistry.service.dao.ChangeDaoAdapter;
 import ru.craftysoft.schemaregistry.service.dao.SchemaDaoAdapter;
 import ru.craftysoft.schemaregistry.service.dao.StructureDaoAdapter;
 import ru.craftysoft.schemaregistry.service.dao.VersionDaoAdapter;
-import ru.craftysoft.schemaregistry.service.s3.S3ClientAdapter;
+import ru.craftysoft.schemaregistry.service.blob.BlobStoreAdapter;
+import ru.craftysoft.schemaregistry.util.DbClient;
 import ru.craftysoft.schemaregistry.util.OperationWrapper;
 
+import javax.annotation.Nullable;
 import javax.enterprise.context.ApplicationScoped;
 import java.io.File;
+import java.util.Set;
 
 import static java.util.Optional.ofNullable;
 
@@ -26,34 +30,69 @@ public class CreateVersionOperation {
     private final StructureDaoAdapter structureDaoAdapter;
     private final VersionDaoAdapter versionDaoAdapter;
     private final SchemaDaoAdapter schemaDaoAdapter;
-    private final S3ClientAdapter s3ClientAdapter;
-    private final PgPool pgPool;
+    private final ChangeDaoAdapter changeDaoAdapter;
+    private final BlobStoreAdapter blobStoreAdapter;
+    private final ChangeListener changeListener;
+    private final DbClient dbClient;
     private final CreateVersionResponseDataBuilder responseBuilder;
 
     public Uni<CreateVersionResponseData> process(String structureName, String versionName, boolean force, File body) {
+        return process(structureName, versionName, force, body, CreateVersionListener.NONE);
+    }
+
+    public Uni<CreateVersionResponseData> process(String structureName,
+                                                  String versionName,
+                                                  boolean force,
+                                                  File body,
+                                                  CreateVersionListener listener) {
         return OperationWrapper.wrap(
                 log, "CreateVersionOperation.process",
-                () -> SqlClientHelper.inTransactionUni(pgPool, sqlClient -> structureDaoAdapter.upsert(sqlClient, structureName)
+                () -> dbClient.inTransaction(Workload.write, sqlClient -> structureDaoAdapter.upsert(sqlClient, structureName)
                         .flatMap(structureId -> {
-                            var createVersionUni = versionDaoAdapter.create(sqlClient, structureId, versionName)
+                            var createVersionUni = versionDaoAdapter.create(sqlClient, structureId, structureName, versionName)
                                     .flatMap(version -> schemaDaoAdapter.create(sqlClient, version, body)
-                                            .flatMap(schemasWithIds -> s3ClientAdapter.createVersion(version, body, schemasWithIds.getValue())
+                                            .invoke(schemasWithIds -> listener.onSchemasParsed(schemasWithIds.getValue().size()))
+                                            .flatMap(schemasWithIds -> blobStoreAdapter.createVersion(version, body, schemasWithIds.getValue(), listener::onSchemaUploaded)
                                                     .map(ignored -> responseBuilder.build(structureId, version, schemasWithIds.getKey())))
                                     );
-                            return force
+                            var replaceOrCreateVersionUni = force
                                     ? versionDaoAdapter.get(sqlClient, structureId, versionName)
                                     .flatMap(version -> ofNullable(version)
                                             .map(v -> schemaDaoAdapter.getLinksByVersionId(sqlClient, v.getId())
                                                     .flatMap(schemasLinks -> versionDaoAdapter.delete(sqlClient, v.getId())
-                                                            .flatMap(ignored -> s3ClientAdapter.deleteFiles(v.getLink(), schemasLinks))
-                                                            .flatMap(ignored -> createVersionUni)))
-                                            .orElse(createVersionUni))
-                                    : createVersionUni;
-                        })),
+                                                            .flatMap(ignored -> schemaDaoAdapter.getUnreferencedLinks(sqlClient, schemasLinks)))
+                                                    .flatMap(links -> createVersionUni
+                                                            .call(response -> changeDaoAdapter.versionDeleted(sqlClient, structureId, structureName, v.getId(), versionName))
+                                                            .map(response -> new CreatedVersion(response, v.getLink(), links))))
+                                            .orElse(createVersionUni.map(CreatedVersion::new)))
+                                    : createVersionUni.map(CreatedVersion::new);
+                            return replaceOrCreateVersionUni
+                                    .call(created -> changeDaoAdapter.versionCreated(sqlClient, created.response().getVersionId()))
+                                    .call(created -> structureDaoAdapter.updateLatestVersion(sqlClient, structureId))
+                                    .call(created -> listener.beforeCommit(sqlClient, created.response()));
+                        }))
+                        .invoke(created -> changeListener.onCommitted(structureName))
+                        .call(created -> blobStoreAdapter.deleteFiles(created.replacedVersionLink(), created.replacedSchemasLinks())
+                                .onFailure()
+                                .invoke(e -> log.error("CreateVersionOperation.process.deleteFiles.thrown versionLink={} schemasLinks={} {}",
+                                        created.replacedVersionLink(), created.replacedSchemasLinks(), e.getMessage()))
+                                .onFailure()
+                                .recoverWithNull())
+                        .map(CreatedVersion::response),
                 () -> "structureName='%s' versionName='%s' force='%s'".formatted(structureName, versionName, force),
                 response -> "structureId=%s versionId=%s schemasIds=%s"
                         .formatted(response.getStructureId(), response.getVersionId(), response.getSchemaIds())
         );
     }
 
+    /**
+     * Объекты заменённой версии удаляются из хранилища после коммита: при откате транзакции её записи вернутся.
+     */
+    private record CreatedVersion(CreateVersionResponseData response, @Nullable String replacedVersionLink, Set<String> replacedSchemasLinks) {
+
+        private CreatedVersion(CreateVersionResponseData response) {
+            this(response, null, Set.of());
+        }
+    }
+
 }
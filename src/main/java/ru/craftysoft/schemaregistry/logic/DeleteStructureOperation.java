@@ -1,19 +1,24 @@
 package ru.craftysoft.schemaregistry.logic;
 
 import io.smallrye.mutiny.Uni;
-import io.vertx.mutiny.pgclient.PgPool;
-import io.vertx.mutiny.sqlclient.SqlClientHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ru.craftysoft.schemaregistry.builder.response.AcceptedResponseDataBuilder;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.VersionsRecord;
 import ru.craftysoft.schemaregistry.model.rest.AcceptedResponseData;
+import ru.craftysoft.schemaregistry.service.changes.ChangeListener;
+import ru.craftysoft.schemaregistry.service.dao.ChangeDaoAdapter;
 import ru.craftysoft.schemaregistry.service.dao.SchemaDaoAdapter;
 import ru.craftysoft.schemaregistry.service.dao.StructureDaoAdapter;
 import ru.craftysoft.schemaregistry.service.dao.VersionDaoAdapter;
-import ru.craftysoft.schemaregistry.service.s3.S3ClientAdapter;
+import ru.craftysoft.schemaregistry.service.blob.BlobStoreAdapter;
+import ru.craftysoft.schemaregistry.util.DbClient;
 import ru.craftysoft.schemaregistry.util.OperationWrapper;
 
 import javax.enterprise.context.ApplicationScoped;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 @ApplicationScoped
 @RequiredArgsConstructor
@@ -23,21 +28,35 @@ public class DeleteStructureOperation {
     private final StructureDaoAdapter structureDaoAdapter;
     private final VersionDaoAdapter versionDaoAdapter;
     private final SchemaDaoAdapter schemaDaoAdapter;
-    private final S3ClientAdapter s3ClientAdapter;
-    private final PgPool pgPool;
+    private final ChangeDaoAdapter changeDaoAdapter;
+    private final BlobStoreAdapter blobStoreAdapter;
+    private final ChangeListener changeListener;
+    private final DbClient dbClient;
     private final AcceptedResponseDataBuilder responseBuilder;
 
+    /**
+     * Как и при удалении версии, журнал пишется последним шагом транзакции, а объекты удаляются после коммита.
+     */
     public Uni<AcceptedResponseData> process(long id) {
+        var versions = new AtomicReference<Set<VersionsRecord>>();
+        var links = new AtomicReference<Set<String>>();
         return OperationWrapper.wrap(
                 log, "DeleteStructureOperation.process",
-                () -> SqlClientHelper.inTransactionUni(pgPool, sqlClient -> versionDaoAdapter.getByStructureId(sqlClient, id)
-                                .flatMap(versions -> schemaDaoAdapter.getLinksByVersions(sqlClient, versions)
-                                        .flatMap(links -> structureDaoAdapter.delete(sqlClient, id)
-                                                .flatMap(v -> s3ClientAdapter.deleteFiles(versions, links))
-                                        )
-                                )
+                () -> dbClient.inTransaction(Workload.write, sqlClient -> changeDaoAdapter.structureDeletion(sqlClient, id)
+                                .call(change -> versionDaoAdapter.getByStructureId(sqlClient, id)
+                                        .invoke(versions::set)
+                                        .flatMap(structureVersions -> schemaDaoAdapter.getLinksByVersions(sqlClient, structureVersions))
+                                        .invoke(links::set))
+                                .call(change -> structureDaoAdapter.delete(sqlClient, id))
+                                .call(change -> changeDaoAdapter.append(sqlClient, change))
                         )
-                        .map(v -> responseBuilder.build(1, "Структура успешно удалена")),
+                        .invoke(change -> changeListener.onCommitted(change.getStructureName()))
+                        .call(change -> blobStoreAdapter.deleteFiles(versions.get(), links.get())
+                                .onFailure()
+                                .invoke(e -> log.error("DeleteStructureOperation.process.deleteFiles.thrown links={} {}", links.get(), e.getMessage()))
+                                .onFailure()
+                                .recoverWithNull())
+                        .map(change -> responseBuilder.build(1, "Структура успешно удалена")),
                 () -> "id=" + id,
                 response -> "count=" + response.getCount()
         );
@@ -1,19 +1,24 @@
 package ru.craftysoft.schemaregistry.logic;
 
 import io.smallrye.mutiny.Uni;
-import io.vertx.mutiny.pgclient.PgPool;
-import io.vertx.mutiny.sqlclient.SqlClientHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ru.craftysoft.schemaregistry.builder.response.AcceptedResponseDataBuilder;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.ChangesRecord;
 import ru.craftysoft.schemaregistry.model.rest.AcceptedResponseData;
+import ru.craftysoft.schemaregistry.service.changes.ChangeListener;
+import ru.craftysoft.schemaregistry.service.dao.ChangeDaoAdapter;
 import ru.craftysoft.schemaregistry.service.dao.SchemaDaoAdapter;
 import ru.craftysoft.schemaregistry.service.dao.StructureDaoAdapter;
 import ru.craftysoft.schemaregistry.service.dao.VersionDaoAdapter;
-import ru.craftysoft.schemaregistry.service.s3.S3ClientAdapter;
+import ru.craftysoft.schemaregistry.service.blob.BlobStoreAdapter;
+import ru.craftysoft.schemaregistry.util.DbClient;
 import ru.craftysoft.schemaregistry.util.OperationWrapper;
 
+import javax.annotation.Nullable;
 import javax.enterprise.context.ApplicationScoped;
+import java.util.Set;
 
 @ApplicationScoped
 @RequiredArgsConstructor
@@ -23,28 +28,51 @@ public class DeleteVersionOperation {
     private final StructureDaoAdapter structureDaoAdapter;
     private final VersionDaoAdapter versionDaoAdapter;
     private final SchemaDaoAdapter schemaDaoAdapter;
-    private final S3ClientAdapter s3ClientAdapter;
-    private final PgPool pgPool;
+    private final ChangeDaoAdapter changeDaoAdapter;
+    private final BlobStoreAdapter blobStoreAdapter;
+    private final ChangeListener changeListener;
+    private final DbClient dbClient;
     private final AcceptedResponseDataBuilder responseBuilder;
 
+    /**
+     * Запись в журнал идёт последним шагом транзакции, чтобы его блокировка не ждала остальных запросов,
+     * а объекты удаляются из хранилища уже после коммита.
+     */
     public Uni<AcceptedResponseData> process(long id) {
         return OperationWrapper.wrap(
                 log, "DeleteVersionOperation.process",
-                () -> SqlClientHelper.inTransactionUni(pgPool, sqlClient -> Uni.combine().all()
+                () -> dbClient.inTransaction(Workload.write, sqlClient -> Uni.combine().all()
                         .unis(
-                                versionDaoAdapter.getLink(sqlClient, id),
-                                schemaDaoAdapter.getLinksByVersionId(sqlClient, id)
+                                versionDaoAdapter.getArchive(sqlClient, id),
+                                schemaDaoAdapter.getLinksByVersionId(sqlClient, id),
+                                changeDaoAdapter.versionDeletion(sqlClient, id)
                         )
-                        .combinedWith((versionLink, schemasLinks) -> versionDaoAdapter.deleteAndReturnStructureId(sqlClient, id)
+                        .combinedWith((versionArchive, schemasLinks, change) -> versionDaoAdapter.deleteAndReturnStructureId(sqlClient, id)
+                                .call(structureId -> structureDaoAdapter.updateLatestVersion(sqlClient, structureId))
                                 .flatMap(structureId -> structureDaoAdapter.tryDelete(sqlClient, structureId))
-                                .flatMap(v -> s3ClientAdapter.deleteFiles(versionLink, schemasLinks))
-                                .map(v -> responseBuilder.build(1, "Версия успешно удалена"))
+                                .flatMap(structuresCount -> schemaDaoAdapter.getUnreferencedLinks(sqlClient, schemasLinks)
+                                        .call(links -> changeDaoAdapter.append(sqlClient, change))
+                                        .call(links -> structuresCount > 0
+                                                ? changeDaoAdapter.structureDeleted(sqlClient, change.getStructureId(), change.getStructureName())
+                                                : Uni.createFrom().voidItem())
+                                        .map(links -> new DeletedObjects(change, versionArchive.link(), links)))
                         )
                         .flatMap(u -> u)
-                ),
+                )
+                        .invoke(deleted -> changeListener.onCommitted(deleted.change().getStructureName()))
+                        .call(deleted -> blobStoreAdapter.deleteFiles(deleted.versionLink(), deleted.schemasLinks())
+                                .onFailure()
+                                .invoke(e -> log.error("DeleteVersionOperation.process.deleteFiles.thrown versionLink={} schemasLinks={} {}",
+                                        deleted.versionLink(), deleted.schemasLinks(), e.getMessage()))
+                                .onFailure()
+                                .recoverWithNull())
+                        .map(deleted -> responseBuilder.build(1, "Версия успешно удалена")),
                 () -> "id=" + id,
                 response -> "count=" + response.getCount()
         );
     }
 
+    private record DeletedObjects(ChangesRecord change, @Nullable String versionLink, Set<String> schemasLinks) {
+    }
+
 }
@@ -0,0 +1,78 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.smallrye.mutiny.Multi;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import ru.craftysoft.schemaregistry.builder.response.RegistryExportLineDataBuilder;
+import ru.craftysoft.schemaregistry.dto.intermediate.ExportedVersion;
+import ru.craftysoft.schemaregistry.model.rest.RegistryExportLineData;
+import ru.craftysoft.schemaregistry.service.blob.BlobStoreAdapter;
+import ru.craftysoft.schemaregistry.service.dao.SchemaDaoAdapter;
+import ru.craftysoft.schemaregistry.service.dao.VersionDaoAdapter;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Выгрузка реестра в NDJSON. Версии читаются курсором, положения схем версии - отдельным запросом без курсора, чтобы
+ * выгрузка не держала второе выделенное соединение. Содержимое схем загружается не более чем
+ * по {@code archive.prefetch} одновременно. Версии выгружаются по одной, строки схем версии идут между строкой
+ * версии и её контрольной точкой в порядке загрузки. Расположения схем версии читаются до строки версии: версия
+ * без схем (например, удалённая после чтения курсора версий) в выгрузку не попадает.
+ */
+@ApplicationScoped
+@Slf4j
+public class ExportRegistryOperation {
+
+    private final VersionDaoAdapter versionDaoAdapter;
+    private final SchemaDaoAdapter schemaDaoAdapter;
+    private final BlobStoreAdapter blobStoreAdapter;
+    private final RegistryExportLineDataBuilder lineBuilder;
+    private final int prefetch;
+
+    public ExportRegistryOperation(VersionDaoAdapter versionDaoAdapter,
+                                   SchemaDaoAdapter schemaDaoAdapter,
+                                   BlobStoreAdapter blobStoreAdapter,
+                                   RegistryExportLineDataBuilder lineBuilder,
+                                   @ConfigProperty(name = "archive.prefetch") int prefetch) {
+        this.versionDaoAdapter = versionDaoAdapter;
+        this.schemaDaoAdapter = schemaDaoAdapter;
+        this.blobStoreAdapter = blobStoreAdapter;
+        this.lineBuilder = lineBuilder;
+        this.prefetch = prefetch;
+    }
+
+    public Multi<RegistryExportLineData> process(long afterVersionId) {
+        var versionsCount = new AtomicInteger();
+        return versionDaoAdapter.streamAfter(afterVersionId)
+                .onItem()
+                .transformToMultiAndConcatenate(version -> exportVersion(version, versionsCount))
+                .onSubscription().invoke(() -> log.info("ExportRegistryOperation.process.in data: afterVersionId={}", afterVersionId))
+                .onFailure().invoke(e -> log.error("ExportRegistryOperation.process.thrown {}", e.getMessage()))
+                .onCompletion().invoke(() -> log.info("ExportRegistryOperation.process.out result: versions={}", versionsCount.get()));
+    }
+
+    private Multi<RegistryExportLineData> exportVersion(ExportedVersion version, AtomicInteger versionsCount) {
+        return schemaDaoAdapter.getLocationsByVersionId(version.id())
+                .onItem()
+                .transformToMulti(locations -> {
+                    if (locations.isEmpty()) {
+                        log.warn("ExportRegistryOperation.exportVersion.skipped versionId={} schemas not found", version.id());
+                        return Multi.createFrom().empty();
+                    }
+                    var schemas = Multi.createFrom().iterable(locations)
+                            .onItem()
+                            .transformToUni(entry -> blobStoreAdapter.getSchemaContent(entry.getValue())
+                                    .map(content -> lineBuilder.buildSchema(version.id(), entry.getKey(), content)))
+                            .merge(prefetch);
+                    return Multi.createBy().concatenating().streams(
+                                    Multi.createFrom().item(lineBuilder.buildVersion(version)),
+                                    schemas,
+                                    Multi.createFrom().item(() -> lineBuilder.buildCheckpoint(version.id()))
+                            )
+                            .onCompletion()
+                            .invoke(versionsCount::incrementAndGet);
+                });
+    }
+
+}
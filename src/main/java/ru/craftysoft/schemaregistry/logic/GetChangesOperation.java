@@ -0,0 +1,42 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.smallrye.mutiny.Uni;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import ru.craftysoft.schemaregistry.builder.response.GetChangesResponseDataBuilder;
+import ru.craftysoft.schemaregistry.model.rest.GetChangesResponseData;
+import ru.craftysoft.schemaregistry.service.changes.ChangeFeed;
+import ru.craftysoft.schemaregistry.util.OperationWrapper;
+
+import javax.annotation.Nullable;
+import javax.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+
+@ApplicationScoped
+@Slf4j
+public class GetChangesOperation {
+
+    private final ChangeFeed changeFeed;
+    private final GetChangesResponseDataBuilder responseBuilder;
+    private final int maxPageSize;
+
+    public GetChangesOperation(ChangeFeed changeFeed,
+                               GetChangesResponseDataBuilder responseBuilder,
+                               @ConfigProperty(name = "changes.page-size") int maxPageSize) {
+        this.changeFeed = changeFeed;
+        this.responseBuilder = responseBuilder;
+        this.maxPageSize = maxPageSize;
+    }
+
+    public Uni<GetChangesResponseData> process(long after, @Nullable String structureName, int limit, int waitSeconds) {
+        var pageSize = Math.min(Math.max(limit, 1), maxPageSize);
+        return OperationWrapper.wrap(
+                log, "GetChangesOperation.process",
+                () -> changeFeed.next(after, structureName, pageSize, Duration.ofSeconds(waitSeconds))
+                        .map(page -> responseBuilder.build(after, pageSize, page)),
+                () -> "after=%s structureName='%s' limit=%s wait=%s".formatted(after, structureName, limit, waitSeconds),
+                response -> "cursor=%s changes=%s".formatted(response.getCursor(), response.getChanges().size())
+        );
+    }
+
+}
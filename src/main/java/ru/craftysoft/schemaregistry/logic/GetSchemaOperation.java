@@ -1,10 +1,12 @@
 package ru.craftysoft.schemaregistry.logic;
 
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ru.craftysoft.schemaregistry.service.dao.SchemaDaoAdapter;
-import ru.craftysoft.schemaregistry.service.s3.S3ClientAdapter;
+import ru.craftysoft.schemaregistry.service.dao.VersionDaoAdapter;
+import ru.craftysoft.schemaregistry.service.blob.BlobStoreAdapter;
 import ru.craftysoft.schemaregistry.util.OperationWrapper;
 
 import javax.annotation.Nullable;
@@ -16,16 +18,18 @@ import javax.enterprise.context.ApplicationScoped;
 public class GetSchemaOperation {
 
     private final SchemaDaoAdapter schemaDaoAdapter;
-    private final S3ClientAdapter s3ClientAdapter;
+    private final VersionDaoAdapter versionDaoAdapter;
+    private final BlobStoreAdapter blobStoreAdapter;
 
-    public Uni<String> process(@Nullable Long schemaId,
+    public Uni<Buffer> process(@Nullable Long schemaId,
                                @Nullable String schemaPath,
                                @Nullable String versionName,
                                @Nullable String structureName) {
         return OperationWrapper.wrap(
                 log, "GetSchemaByIdOperation.process",
-                () -> schemaDaoAdapter.getLink(schemaId, schemaPath, versionName, structureName)
-                        .flatMap(s3ClientAdapter::getSchema),
+                () -> (schemaId != null ? Uni.createFrom().item(versionName) : versionDaoAdapter.resolveName(null, structureName, versionName))
+                        .flatMap(resolvedVersionName -> schemaDaoAdapter.getLink(schemaId, schemaPath, resolvedVersionName, structureName))
+                        .flatMap(blobStoreAdapter::getSchema),
                 () -> "schemaId=%s schemaPath=%s versionName=%s structureName=%s".formatted(
                         schemaId,
                         schemaPath,
@@ -5,6 +5,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ru.craftysoft.schemaregistry.builder.response.GetStructureDescriptorResponseDataBuilder;
 import ru.craftysoft.schemaregistry.model.rest.GetStructureDescriptorResponseData;
+import ru.craftysoft.schemaregistry.service.catalog.MetadataCatalog;
 import ru.craftysoft.schemaregistry.service.dao.SchemaDaoAdapter;
 import ru.craftysoft.schemaregistry.service.dao.StructureDaoAdapter;
 import ru.craftysoft.schemaregistry.service.dao.VersionDaoAdapter;
@@ -13,6 +14,8 @@ import ru.craftysoft.schemaregistry.util.OperationWrapper;
 import javax.annotation.Nullable;
 import javax.enterprise.context.ApplicationScoped;
 
+import static java.util.Optional.ofNullable;
+
 @ApplicationScoped
 @RequiredArgsConstructor
 @Slf4j
@@ -22,14 +25,18 @@ public class GetStructureDescriptorOperation {
     private final VersionDaoAdapter versionDaoAdapter;
     private final SchemaDaoAdapter schemaDaoAdapter;
     private final GetStructureDescriptorResponseDataBuilder responseBuilder;
+    private final MetadataCatalog metadataCatalog;
 
     public Uni<GetStructureDescriptorResponseData> process(@Nullable Long id, @Nullable String name) {
         return OperationWrapper.wrap(
                 log, "GetStructureDescriptorOperation.process",
-                () -> structureDaoAdapter.getByIdOrName(id, name)
-                        .flatMap(structuresRecord -> versionDaoAdapter.getByStructure(structuresRecord)
-                                .flatMap(versionsRecords -> schemaDaoAdapter.getByVersions(versionsRecords)
-                                        .map(schemasRecords -> responseBuilder.build(structuresRecord, versionsRecords, schemasRecords))
+                () -> ofNullable(metadataCatalog.getDescriptor(id, name))
+                        .map(descriptor -> Uni.createFrom().item(responseBuilder.build(descriptor.structure(), descriptor.versions(), descriptor.schemas())))
+                        .orElseGet(() -> structureDaoAdapter.getByIdOrName(id, name)
+                                .flatMap(structuresRecord -> versionDaoAdapter.getByStructure(structuresRecord)
+                                        .flatMap(versionsRecords -> schemaDaoAdapter.getByVersions(versionsRecords)
+                                                .map(schemasRecords -> responseBuilder.build(structuresRecord, versionsRecords, schemasRecords))
+                                        )
                                 )
                         )
                 ,
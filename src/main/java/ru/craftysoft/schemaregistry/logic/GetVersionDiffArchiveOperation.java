@@ -0,0 +1,44 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.smallrye.mutiny.Multi;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ru.craftysoft.schemaregistry.dto.intermediate.SchemaDiff;
+import ru.craftysoft.schemaregistry.service.dao.SchemaDaoAdapter;
+import ru.craftysoft.schemaregistry.service.blob.VersionArchiveAssembler;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Архив с добавленными и изменёнными схемами новой версии. Архив отдаётся по частям по мере загрузки схем из S3,
+ * целиком в памяти и на диске он не собирается.
+ */
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+public class GetVersionDiffArchiveOperation {
+
+    private final SchemaDaoAdapter schemaDaoAdapter;
+    private final VersionArchiveAssembler versionArchiveAssembler;
+
+    public Multi<byte[]> process(String structureName, String fromVersionName, String toVersionName) {
+        var schemasCount = new AtomicInteger();
+        return schemaDaoAdapter.getDiff(structureName, fromVersionName, toVersionName)
+                .onItem()
+                .transformToMulti(diff -> {
+                    var locationsByPath = diff.schemas().stream()
+                            .filter(schema -> schema.type() != SchemaDiff.Type.removed)
+                            .collect(Collectors.toMap(SchemaDiff::path, SchemaDiff::location, (a, b) -> b, LinkedHashMap::new));
+                    schemasCount.set(locationsByPath.size());
+                    return versionArchiveAssembler.assemble(locationsByPath);
+                })
+                .onSubscription().invoke(() -> log.info("GetVersionDiffArchiveOperation.process.in data: structureName='{}' fromVersionName='{}' toVersionName='{}'",
+                        structureName, fromVersionName, toVersionName))
+                .onFailure().invoke(e -> log.error("GetVersionDiffArchiveOperation.process.thrown {}", e.getMessage()))
+                .onCompletion().invoke(() -> log.info("GetVersionDiffArchiveOperation.process.out result: schemas={}", schemasCount.get()));
+    }
+
+}
@@ -0,0 +1,35 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.smallrye.mutiny.Uni;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ru.craftysoft.schemaregistry.builder.response.GetVersionDiffResponseDataBuilder;
+import ru.craftysoft.schemaregistry.model.rest.GetVersionDiffResponseData;
+import ru.craftysoft.schemaregistry.service.dao.SchemaDaoAdapter;
+import ru.craftysoft.schemaregistry.util.OperationWrapper;
+
+import javax.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+public class GetVersionDiffOperation {
+
+    private final SchemaDaoAdapter schemaDaoAdapter;
+    private final GetVersionDiffResponseDataBuilder responseBuilder;
+
+    public Uni<GetVersionDiffResponseData> process(String structureName, String fromVersionName, String toVersionName) {
+        return OperationWrapper.wrap(
+                log, "GetVersionDiffOperation.process",
+                () -> schemaDaoAdapter.getDiff(structureName, fromVersionName, toVersionName)
+                        .map(responseBuilder::build),
+                () -> "structureName='%s' fromVersionName='%s' toVersionName='%s'".formatted(structureName, fromVersionName, toVersionName),
+                response -> "added=%s removed=%s modified=%s".formatted(
+                        response.getAdded().size(),
+                        response.getRemoved().size(),
+                        response.getModified().size()
+                )
+        );
+    }
+
+}
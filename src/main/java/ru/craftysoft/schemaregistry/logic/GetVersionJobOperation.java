@@ -0,0 +1,31 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.smallrye.mutiny.Uni;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ru.craftysoft.schemaregistry.builder.response.PublishJobResponseDataBuilder;
+import ru.craftysoft.schemaregistry.model.rest.PublishJobResponseData;
+import ru.craftysoft.schemaregistry.service.dao.PublishJobDaoAdapter;
+import ru.craftysoft.schemaregistry.util.OperationWrapper;
+
+import javax.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+public class GetVersionJobOperation {
+
+    private final PublishJobDaoAdapter publishJobDaoAdapter;
+    private final PublishJobResponseDataBuilder responseBuilder;
+
+    public Uni<PublishJobResponseData> process(long id) {
+        return OperationWrapper.wrap(
+                log, "GetVersionJobOperation.process",
+                () -> publishJobDaoAdapter.get(id)
+                        .map(responseBuilder::build),
+                () -> "id=" + id,
+                response -> "status=%s schemasUploaded=%s".formatted(response.getStatus(), response.getSchemasUploaded())
+        );
+    }
+
+}
@@ -1,35 +1,62 @@
 package ru.craftysoft.schemaregistry.logic;
 
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import ru.craftysoft.schemaregistry.dto.intermediate.PathFilter;
+import ru.craftysoft.schemaregistry.dto.intermediate.VersionArchive;
+import ru.craftysoft.schemaregistry.service.dao.SchemaDaoAdapter;
 import ru.craftysoft.schemaregistry.service.dao.VersionDaoAdapter;
-import ru.craftysoft.schemaregistry.service.s3.S3ClientAdapter;
-import ru.craftysoft.schemaregistry.util.OperationWrapper;
+import ru.craftysoft.schemaregistry.service.blob.BlobStoreAdapter;
+import ru.craftysoft.schemaregistry.service.blob.VersionArchiveAssembler;
 
 import javax.annotation.Nullable;
 import javax.enterprise.context.ApplicationScoped;
-import java.io.File;
 
+/**
+ * Архив версии: сохранённый при публикации отдаётся из S3, иначе собирается из схем версии по мере их загрузки.
+ * При фильтре по путям архив всегда собирается только из подходящих схем.
+ */
 @ApplicationScoped
 @RequiredArgsConstructor
 @Slf4j
 public class GetVersionOperation {
 
     private final VersionDaoAdapter versionDaoAdapter;
-    private final S3ClientAdapter s3ClientAdapter;
+    private final SchemaDaoAdapter schemaDaoAdapter;
+    private final BlobStoreAdapter blobStoreAdapter;
+    private final VersionArchiveAssembler versionArchiveAssembler;
 
-    public Uni<File> process(@Nullable Long structureId,
-                             @Nullable String structureName,
-                             @Nullable Long versionId,
-                             @Nullable String versionName) {
-        return OperationWrapper.wrap(
-                log, "GetVersionOperation.process",
-                () -> versionDaoAdapter.getLink(structureId, structureName, versionId, versionName)
-                        .flatMap(s3ClientAdapter::getVersion),
-                () -> "structureId=%s structureName=%s versionId=%s versionName=%s".formatted(structureId, structureName, versionId, versionName),
-                null
-        );
+    public Multi<byte[]> process(@Nullable Long structureId,
+                                 @Nullable String structureName,
+                                 @Nullable Long versionId,
+                                 @Nullable String versionName,
+                                 @Nullable String pathPrefix,
+                                 @Nullable String pathGlob) {
+        var filter = PathFilter.of(pathPrefix, pathGlob);
+        return (versionId != null ? Uni.createFrom().item(versionName) : versionDaoAdapter.resolveName(structureId, structureName, versionName))
+                .flatMap(resolvedVersionName -> versionDaoAdapter.getArchive(structureId, structureName, versionId, resolvedVersionName))
+                .onItem()
+                .transformToMulti(archive -> content(archive, filter))
+                .onSubscription().invoke(() -> log.info("GetVersionOperation.process.in data: structureId={} structureName={} versionId={} versionName={} pathPrefix={} pathGlob={}",
+                        structureId, structureName, versionId, versionName, pathPrefix, pathGlob))
+                .onFailure().invoke(e -> log.error("GetVersionOperation.process.thrown {}", e.getMessage()))
+                .onCompletion().invoke(() -> log.info("GetVersionOperation.process.out"));
+    }
+
+    private Multi<byte[]> content(VersionArchive archive, @Nullable PathFilter filter) {
+        if (filter != null) {
+            return schemaDaoAdapter.getByVersionId(archive.versionId(), filter)
+                    .onItem()
+                    .transformToMulti(versionArchiveAssembler::assemble);
+        }
+        if (archive.link() != null) {
+            return blobStoreAdapter.getVersion(archive.link());
+        }
+        return schemaDaoAdapter.getByVersionId(archive.versionId())
+                .onItem()
+                .transformToMulti(versionArchiveAssembler::assemble);
     }
 
 }
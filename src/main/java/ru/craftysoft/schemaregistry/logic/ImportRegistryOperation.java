@@ -0,0 +1,86 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.unchecked.Unchecked;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ru.craftysoft.schemaregistry.builder.response.ImportRegistryResponseDataBuilder;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+import ru.craftysoft.schemaregistry.dto.intermediate.ImportedVersion;
+import ru.craftysoft.schemaregistry.model.rest.ImportRegistryResponseData;
+import ru.craftysoft.schemaregistry.service.dao.VersionDaoAdapter;
+import ru.craftysoft.schemaregistry.service.executor.WorkerExecutors;
+import ru.craftysoft.schemaregistry.util.DbClient;
+import ru.craftysoft.schemaregistry.util.OperationWrapper;
+import ru.craftysoft.schemaregistry.util.RegistryImportReader;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Загрузка выгрузки {@link ExportRegistryOperation}. Выгрузка читается с диска по одной версии, каждая версия
+ * публикуется обычной публикацией в порядке выгрузки. Существующие версии пропускаются, поэтому после сбоя
+ * загрузку можно повторить с тем же файлом или с выгрузкой, продолженной с {@code lastVersionId}.
+ */
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+public class ImportRegistryOperation {
+
+    private final CreateVersionOperation createVersionOperation;
+    private final VersionDaoAdapter versionDaoAdapter;
+    private final WorkerExecutors workerExecutors;
+    private final DbClient dbClient;
+    private final ObjectMapper objectMapper;
+    private final ImportRegistryResponseDataBuilder responseBuilder;
+
+    public Uni<ImportRegistryResponseData> process(File body) {
+        var imported = new AtomicInteger();
+        var skipped = new AtomicInteger();
+        var lastVersionId = new AtomicReference<Long>();
+        return OperationWrapper.wrap(
+                log, "ImportRegistryOperation.process",
+                () -> Multi.createFrom()
+                        .resource(
+                                Unchecked.supplier(() -> new RegistryImportReader(objectMapper, body.toPath())),
+                                reader -> Multi.createBy()
+                                        .repeating()
+                                        .uni(() -> workerExecutors.executeBlocking(Workload.write, Uni.createFrom().item(Unchecked.supplier(reader::next))))
+                                        .until(Optional::isEmpty)
+                                        .map(Optional::get)
+                        )
+                        .withFinalizer(Unchecked.consumer(RegistryImportReader::close))
+                        .onItem()
+                        .transformToUniAndConcatenate(version -> importVersion(version)
+                                .invoke(created -> {
+                                    (created ? imported : skipped).incrementAndGet();
+                                    lastVersionId.set(version.sourceId());
+                                }))
+                        .collect()
+                        .last()
+                        .map(ignored -> responseBuilder.build(imported.get(), skipped.get(), lastVersionId.get())),
+                () -> "file='%s'".formatted(body.getName()),
+                response -> "imported=%s skipped=%s lastVersionId=%s".formatted(response.getImported(), response.getSkipped(), response.getLastVersionId())
+        );
+    }
+
+    /**
+     * @return {@code false}, если версия уже существует
+     */
+    private Uni<Boolean> importVersion(ImportedVersion version) {
+        return versionDaoAdapter.exists(dbClient.pool(Workload.write), version.structureName(), version.name())
+                .flatMap(exists -> exists
+                        ? Uni.createFrom().item(false)
+                        : createVersionOperation.process(version.structureName(), version.name(), false, version.archive())
+                        .map(ignored -> true))
+                .eventually(() -> workerExecutors.executeBlocking(Workload.write, Uni.createFrom()
+                        .item(Unchecked.supplier(() -> Files.deleteIfExists(version.archive().toPath())))));
+    }
+
+}
@@ -0,0 +1,202 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.unchecked.Unchecked;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.sqlclient.SqlClient;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.PublishJobsRecord;
+import ru.craftysoft.schemaregistry.model.rest.CreateVersionResponseData;
+import ru.craftysoft.schemaregistry.service.dao.PublishJobDaoAdapter;
+import ru.craftysoft.schemaregistry.service.executor.WorkerExecutors;
+import ru.craftysoft.schemaregistry.service.blob.BlobStoreAdapter;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Разбирает очередь {@code publish_jobs}: одновременно выполняется не больше {@code publish-jobs.workers} задач.
+ * Пока задача выполняется, раз в {@code heartbeat-interval} обновляются прогресс и heartbeat; задачу без heartbeat дольше
+ * {@code stale-after} (например, после рестарта) забирает любой экземпляр, а исчерпавшую {@code max-attempts} - помечает {@code FAILED}
+ * и удаляет её архив, чтобы падающая на архиве задача не перезапускалась бесконечно. Отметка о завершении пишется в транзакции публикации,
+ * поэтому повторный запуск не создаст версию второй раз. Прежний исполнитель перехваченной задачи узнаёт об этом по heartbeat
+ * или при фиксации и прекращает публикацию.
+ */
+@ApplicationScoped
+@Slf4j
+public class PublishJobWorker {
+
+    private final PublishJobDaoAdapter publishJobDaoAdapter;
+    private final BlobStoreAdapter blobStoreAdapter;
+    private final CreateVersionOperation createVersionOperation;
+    private final WorkerExecutors workerExecutors;
+    private final Vertx vertx;
+    private final boolean enabled;
+    private final int workers;
+    private final Duration pollInterval;
+    private final Duration heartbeatInterval;
+    private final Duration staleAfter;
+    private final int maxAttempts;
+    private final AtomicInteger running = new AtomicInteger();
+    private volatile long pollTimerId = -1;
+
+    public PublishJobWorker(PublishJobDaoAdapter publishJobDaoAdapter,
+                            BlobStoreAdapter blobStoreAdapter,
+                            CreateVersionOperation createVersionOperation,
+                            WorkerExecutors workerExecutors,
+                            Vertx vertx,
+                            @ConfigProperty(name = "publish-jobs.enabled") boolean enabled,
+                            @ConfigProperty(name = "publish-jobs.workers") int workers,
+                            @ConfigProperty(name = "publish-jobs.poll-interval") Duration pollInterval,
+                            @ConfigProperty(name = "publish-jobs.heartbeat-interval") Duration heartbeatInterval,
+                            @ConfigProperty(name = "publish-jobs.stale-after") Duration staleAfter,
+                            @ConfigProperty(name = "publish-jobs.max-attempts") int maxAttempts) {
+        this.publishJobDaoAdapter = publishJobDaoAdapter;
+        this.blobStoreAdapter = blobStoreAdapter;
+        this.createVersionOperation = createVersionOperation;
+        this.workerExecutors = workerExecutors;
+        this.vertx = vertx;
+        this.enabled = enabled;
+        this.workers = workers;
+        this.pollInterval = pollInterval;
+        this.heartbeatInterval = heartbeatInterval;
+        this.staleAfter = staleAfter;
+        this.maxAttempts = maxAttempts;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            pollTimerId = vertx.setPeriodic(pollInterval.toMillis(), ignored -> {
+                failExhausted();
+                poll();
+            });
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (pollTimerId != -1) {
+            vertx.cancelTimer(pollTimerId);
+        }
+    }
+
+    private void poll() {
+        if (running.incrementAndGet() > workers) {
+            running.decrementAndGet();
+            return;
+        }
+        publishJobDaoAdapter.claim(OffsetDateTime.now().minus(staleAfter), maxAttempts)
+                .subscribe()
+                .with(
+                        job -> {
+                            if (job == null) {
+                                running.decrementAndGet();
+                                return;
+                            }
+                            process(job)
+                                    .subscribe()
+                                    .with(ignored -> {
+                                        running.decrementAndGet();
+                                        poll();
+                                    });
+                            poll();
+                        },
+                        e -> {
+                            running.decrementAndGet();
+                            log.error("PublishJobWorker.poll.thrown {}", e.getMessage());
+                        }
+                );
+    }
+
+    private void failExhausted() {
+        publishJobDaoAdapter.failExhausted(OffsetDateTime.now().minus(staleAfter), maxAttempts)
+                .subscribe()
+                .with(
+                        jobs -> jobs.forEach(job -> {
+                            log.error("PublishJobWorker.failExhausted jobId={} attempts={}", job.getId(), job.getAttempts());
+                            deleteArchive(job).subscribe().with(ignored -> {
+                            });
+                        }),
+                        e -> log.error("PublishJobWorker.failExhausted.thrown {}", e.getMessage())
+                );
+    }
+
+    private Uni<Void> process(PublishJobsRecord job) {
+        var schemasTotal = new AtomicReference<Integer>();
+        var schemasUploaded = new AtomicInteger();
+        var lost = new CompletableFuture<Void>();
+        var heartbeatTimerId = vertx.setPeriodic(heartbeatInterval.toMillis(), ignored -> publishJobDaoAdapter
+                .heartbeat(job, schemasTotal.get(), schemasUploaded.get())
+                .subscribe()
+                .with(
+                        owned -> {
+                            if (!owned) {
+                                lost.completeExceptionally(publishJobDaoAdapter.lostOwnership(job));
+                            }
+                        },
+                        e -> log.warn("PublishJobWorker.heartbeat.thrown jobId={} {}", job.getId(), e.getMessage())
+                ));
+        var listener = new CreateVersionListener() {
+            @Override
+            public void onSchemasParsed(int total) {
+                schemasTotal.set(total);
+            }
+
+            @Override
+            public void onSchemaUploaded() {
+                schemasUploaded.incrementAndGet();
+            }
+
+            @Override
+            public Uni<Void> beforeCommit(SqlClient sqlClient, CreateVersionResponseData response) {
+                return publishJobDaoAdapter.complete(sqlClient, job, response);
+            }
+        };
+        log.info("PublishJobWorker.process.in jobId={} attempt={}", job.getId(), job.getAttempts());
+        var publish = blobStoreAdapter.getArchive(job.getArchiveLink())
+                .flatMap(archive -> createVersionOperation.process(job.getStructureName(), job.getVersionName(), job.getForce(), archive, listener)
+                        .onTermination()
+                        .call(() -> deleteQuietly(archive)))
+                .flatMap(response -> deleteArchive(job));
+        // потеря задачи по heartbeat отменяет публикацию, не дожидаясь отказа при фиксации
+        return Uni.combine().any().<Void>of(publish, Uni.createFrom().completionStage(lost))
+                .onFailure()
+                .recoverWithUni(e -> {
+                    var retry = job.getAttempts() < maxAttempts;
+                    log.error("PublishJobWorker.process.thrown jobId={} attempt={} retry={} {}", job.getId(), job.getAttempts(), retry, e.getMessage());
+                    // архив перехваченной задачи нужен новому исполнителю
+                    return publishJobDaoAdapter.fail(job, e.getMessage(), retry)
+                            .flatMap(owned -> owned && !retry ? deleteArchive(job) : Uni.createFrom().voidItem());
+                })
+                .onFailure()
+                .invoke(e -> log.error("PublishJobWorker.process.thrown jobId={} {}", job.getId(), e.getMessage()))
+                .onFailure()
+                .recoverWithNull()
+                .onTermination()
+                .invoke(() -> vertx.cancelTimer(heartbeatTimerId));
+    }
+
+    private Uni<Void> deleteArchive(PublishJobsRecord job) {
+        return blobStoreAdapter.deleteArchive(job.getArchiveLink())
+                .onFailure()
+                .invoke(e -> log.warn("PublishJobWorker.deleteArchive.thrown jobId={} {}", job.getId(), e.getMessage()))
+                .onFailure()
+                .recoverWithNull();
+    }
+
+    private Uni<Void> deleteQuietly(File file) {
+        return workerExecutors.executeBlocking(Workload.write, Uni.createFrom().item(Unchecked.supplier(() -> Files.deleteIfExists(file.toPath()))))
+                .replaceWithVoid();
+    }
+
+}
@@ -0,0 +1,52 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.smallrye.mutiny.Multi;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import ru.craftysoft.schemaregistry.builder.response.GetChangesResponseDataBuilder;
+import ru.craftysoft.schemaregistry.model.rest.ChangeData;
+import ru.craftysoft.schemaregistry.service.changes.ChangeFeed;
+
+import javax.annotation.Nullable;
+import javax.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Поток изменений для SSE: последовательность long-poll запросов к {@link ChangeFeed} с курсором, сдвигаемым после каждой страницы.
+ * Клиент может продолжить поток после обрыва с {@code after}, равным id последнего полученного изменения.
+ */
+@ApplicationScoped
+@Slf4j
+public class StreamChangesOperation {
+
+    private final ChangeFeed changeFeed;
+    private final GetChangesResponseDataBuilder responseBuilder;
+    private final int pageSize;
+    private final Duration maxWait;
+
+    public StreamChangesOperation(ChangeFeed changeFeed,
+                                  GetChangesResponseDataBuilder responseBuilder,
+                                  @ConfigProperty(name = "changes.page-size") int pageSize,
+                                  @ConfigProperty(name = "changes.max-wait") Duration maxWait) {
+        this.changeFeed = changeFeed;
+        this.responseBuilder = responseBuilder;
+        this.pageSize = pageSize;
+        this.maxWait = maxWait;
+    }
+
+    public Multi<ChangeData> process(long after, @Nullable String structureName) {
+        var cursor = new AtomicLong(after);
+        return Multi.createBy().repeating()
+                .uni(() -> changeFeed.next(cursor.get(), structureName, pageSize, maxWait)
+                        .map(page -> responseBuilder.build(cursor.get(), pageSize, page)))
+                .indefinitely()
+                .onSubscription().invoke(() -> log.info("StreamChangesOperation.process.in data: after={} structureName='{}'", after, structureName))
+                .onTermination().invoke(() -> log.info("StreamChangesOperation.process.out result: cursor={}", cursor.get()))
+                .onItem().transformToIterable(response -> {
+                    cursor.set(response.getCursor());
+                    return response.getChanges();
+                });
+    }
+
+}
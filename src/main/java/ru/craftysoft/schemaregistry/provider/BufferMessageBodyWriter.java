@@ -0,0 +1,56 @@
+package ru.craftysoft.schemaregistry.provider;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import org.jboss.resteasy.reactive.server.spi.ResteasyReactiveResourceInfo;
+import org.jboss.resteasy.reactive.server.spi.ServerHttpRequest;
+import org.jboss.resteasy.reactive.server.spi.ServerMessageBodyWriter;
+import org.jboss.resteasy.reactive.server.spi.ServerRequestContext;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Отдаёт {@link Buffer} в ответ как есть. Встроенный writer копирует буфер в массив, а {@code ServerHttpResponse.end(byte[])}
+ * в RESTEasy Reactive 2.11 копирует массив в новый буфер ({@code Buffer.buffer(byte[])}). Здесь буфер передаётся
+ * в ответ Vert.x без копирования: в 2.11 ответ Vert.x-сервера реализует и {@link ServerHttpRequest}, чей {@code unwrap}
+ * отдаёт {@link HttpServerResponse}. Заголовки, подготовленные RESTEasy, пишутся обработчиком {@code headersEndHandler}
+ * того же ответа. Если ответ не из Vert.x, буфер отдаётся через {@code end(byte[])}.
+ */
+@Provider
+public class BufferMessageBodyWriter implements ServerMessageBodyWriter<Buffer> {
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, ResteasyReactiveResourceInfo target, MediaType mediaType) {
+        return Buffer.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void writeResponse(Buffer buffer, Type genericType, ServerRequestContext context) {
+        var response = context.serverResponse() instanceof ServerHttpRequest request
+                ? request.unwrap(HttpServerResponse.class)
+                : null;
+        if (response == null) {
+            context.serverResponse().end(buffer.getBytes());
+            return;
+        }
+        response.end(buffer);
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return Buffer.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void writeTo(Buffer buffer, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        entityStream.write(buffer.getBytes());
+    }
+
+}
@@ -6,6 +6,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.jboss.resteasy.reactive.RestResponse;
 import org.jboss.resteasy.reactive.server.ServerExceptionMapper;
 import ru.craftysoft.schemaregistry.builder.response.ErrorResponseDataBuilder;
+import ru.craftysoft.schemaregistry.exception.OverloadedException;
 import ru.craftysoft.schemaregistry.model.rest.ErrorResponseData;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -13,6 +14,7 @@ import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.ext.Provider;
 
 import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static javax.ws.rs.core.HttpHeaders.RETRY_AFTER;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
 @Provider
@@ -35,4 +37,18 @@ public class HttpExceptionHandler {
                 );
     }
 
+    @ServerExceptionMapper(OverloadedException.class)
+    public Uni<RestResponse<ErrorResponseData>> mapOverloadedException(OverloadedException exception, ContainerRequestContext requestContext) {
+        log.warn("HttpExceptionHandler.mapOverloadedException {}", exception.getMessage());
+        var errorPayload = errorResponseDataBuilder.build(exception);
+        var retryAfterSeconds = Math.max(1, (exception.getRetryAfter().toMillis() + 999) / 1000);
+        return Uni.createFrom()
+                .item(RestResponse.ResponseBuilder
+                        .create(RestResponse.Status.SERVICE_UNAVAILABLE, errorPayload)
+                        .header(CONTENT_TYPE, APPLICATION_JSON)
+                        .header(RETRY_AFTER, retryAfterSeconds)
+                        .build()
+                );
+    }
+
 }
@@ -0,0 +1,34 @@
+package ru.craftysoft.schemaregistry.provider;
+
+import ru.craftysoft.schemaregistry.util.SessionLsn;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.ext.Provider;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Принимает {@link SessionLsn#HEADER} от клиента и возвращает его после публикаций и удалений.
+ */
+@Provider
+@ApplicationScoped
+public class SessionLsnFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        ofNullable(requestContext.getHeaderString(SessionLsn.HEADER))
+                .filter(lsn -> !lsn.isBlank())
+                .ifPresent(SessionLsn::require);
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        ofNullable(SessionLsn.committed())
+                .ifPresent(lsn -> responseContext.getHeaders().putSingle(SessionLsn.HEADER, lsn));
+    }
+
+}
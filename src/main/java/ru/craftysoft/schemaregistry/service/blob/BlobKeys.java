@@ -0,0 +1,39 @@
+package ru.craftysoft.schemaregistry.service.blob;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import javax.annotation.Nullable;
+import java.util.UUID;
+
+/**
+ * Ключи объектов вида {@code [<префикс>/]<name>_<uuid>}. Префикс - первые {@code prefixLength} символов UUID объекта:
+ * S3 ограничивает частоту запросов на префикс ключа, а случайный префикс распределяет загрузку версий по партициям бакета.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class BlobKeys {
+
+    public static String key(String name, UUID uuid, int prefixLength) {
+        var key = name + "_" + uuid;
+        return prefixLength == 0 ? key : uuid.toString().substring(0, prefixLength) + "/" + key;
+    }
+
+    /**
+     * @return UUID объекта с именем {@code name} в конце ссылки или {@code null}, если ссылка другого вида
+     */
+    @Nullable
+    public static UUID uuid(String link, String name) {
+        var index = link.lastIndexOf(name + "_");
+        if (index < 0 || link.length() != index + name.length() + 1 + 36) {
+            return null;
+        }
+        var value = link.substring(index + name.length() + 1);
+        try {
+            var uuid = UUID.fromString(value);
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+}
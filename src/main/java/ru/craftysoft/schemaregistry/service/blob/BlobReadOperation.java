@@ -0,0 +1,22 @@
+package ru.craftysoft.schemaregistry.service.blob;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+
+/**
+ * Вид чтения из хранилища, задаёт дедлайн, необходимость хеджирования, пул соединений и тег метрик.
+ * Архивы версий не хеджируются: повторная загрузка большого объекта стоит дороже, чем ожидание.
+ * Архивы задач публикации читаются через пул публикации.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum BlobReadOperation {
+    schema(true, Workload.read),
+    version(false, Workload.read),
+    archive(false, Workload.write),
+    ;
+
+    private final boolean hedgeable;
+    private final Workload workload;
+}
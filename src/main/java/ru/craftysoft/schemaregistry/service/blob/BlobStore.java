@@ -0,0 +1,40 @@
+package ru.craftysoft.schemaregistry.service.blob;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Хранилище объектов. Ссылка на объект имеет вид {@code <scheme>://<key>}, ссылки без схемы относятся к S3.
+ */
+public interface BlobStore {
+
+    String scheme();
+
+    /**
+     * Ссылка на новый объект с ключом {@code key}.
+     *
+     * @param routingKey ключ распределения объектов структуры по бакетам, учитывается хранилищем S3
+     */
+    String link(String routingKey, String key);
+
+    Uni<byte[]> get(String link, BlobReadOperation operation);
+
+    Uni<byte[]> getRange(String link, long offset, int length, BlobReadOperation operation);
+
+    Multi<byte[]> stream(String link, BlobReadOperation operation);
+
+    /**
+     * Записывает объект в существующий файл {@code target}.
+     */
+    Uni<Void> download(String link, Path target, BlobReadOperation operation);
+
+    Uni<Void> put(String link, byte[] content);
+
+    Uni<Void> put(String link, Path file);
+
+    Uni<Void> delete(Set<String> links);
+
+}
@@ -0,0 +1,205 @@
+package ru.craftysoft.schemaregistry.service.blob;
+
+import io.netty.buffer.Unpooled;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.groups.UniCombine;
+import io.smallrye.mutiny.unchecked.Unchecked;
+import io.vertx.core.buffer.Buffer;
+import lombok.RequiredArgsConstructor;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+import ru.craftysoft.schemaregistry.dto.intermediate.Schema;
+import ru.craftysoft.schemaregistry.dto.intermediate.SchemaLocation;
+import ru.craftysoft.schemaregistry.dto.intermediate.Version;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.VersionsRecord;
+import ru.craftysoft.schemaregistry.service.executor.WorkerExecutors;
+
+import javax.annotation.Nullable;
+import javax.enterprise.context.ApplicationScoped;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Операции с объектами версий и схем, хранилище выбирается по ссылке объекта.
+ */
+@ApplicationScoped
+@RequiredArgsConstructor
+public class BlobStoreAdapter {
+
+    private final BlobStores blobStores;
+    private final WorkerExecutors workerExecutors;
+
+    /**
+     * Содержимое схемы в исходных байтах, буфер оборачивает массив без копирования.
+     */
+    public Uni<Buffer> getSchema(SchemaLocation location) {
+        return getSchemaContent(location)
+                .map(content -> Buffer.buffer(Unpooled.wrappedBuffer(content)));
+    }
+
+    /**
+     * Схема из общего объекта версии читается запросом диапазона байт. Схема из БД и пустая схема отдаются без запроса.
+     */
+    public Uni<byte[]> getSchemaContent(SchemaLocation location) {
+        if (location.inlined()) {
+            return Uni.createFrom().item(location.content());
+        }
+        if (location.packed() && location.length() == 0) {
+            return Uni.createFrom().item(new byte[0]);
+        }
+        var store = blobStores.get(location.link());
+        return location.packed()
+                ? store.getRange(location.link(), location.offset(), location.length(), BlobReadOperation.schema)
+                : store.get(location.link(), BlobReadOperation.schema);
+    }
+
+    public Multi<byte[]> getVersion(String link) {
+        return blobStores.get(link).stream(link, BlobReadOperation.version);
+    }
+
+    /**
+     * Скачивает архив задачи публикации во временный файл, удалить его должен вызывающий.
+     */
+    public Uni<File> getArchive(String link) {
+        return download(link, BlobReadOperation.archive, "publish_job_");
+    }
+
+    /**
+     * Скачивает архив версии во временный файл для сборки архива новой версии, удалить его должен вызывающий.
+     */
+    public Uni<File> downloadVersion(String link) {
+        return download(link, BlobReadOperation.version, "version_");
+    }
+
+    public Uni<Void> putArchive(String link, File body) {
+        return blobStores.get(link).put(link, body.toPath());
+    }
+
+    public Uni<Void> deleteArchive(String link) {
+        return deleteFiles(Set.of(link));
+    }
+
+    public Uni<Void> createVersion(Version version, File body, Set<Schema> schemas) {
+        return createVersion(version, body, schemas, () -> {
+        });
+    }
+
+    /**
+     * Схемы загружаются по одному объекту на ссылку: схемы общего объекта версии записываются в него подряд
+     * в порядке смещений, {@code onSchemaUploaded} вызывается для каждой схемы загруженного объекта.
+     * Схемы, хранящиеся в БД, не загружаются, {@code onSchemaUploaded} для них вызывается сразу.
+     */
+    public Uni<Void> createVersion(Version version, File body, Set<Schema> schemas, Runnable onSchemaUploaded) {
+        schemas.stream()
+                .filter(schema -> schema.location().inlined())
+                .forEach(ignored -> onSchemaUploaded.run());
+        var putUnis = schemas.stream()
+                .filter(schema -> !schema.location().inlined())
+                .collect(Collectors.groupingBy(schema -> schema.location().link()))
+                .entrySet()
+                .stream()
+                .map(entry -> {
+                    var objectSchemas = entry.getValue();
+                    return putSchemas(entry.getKey(), objectSchemas)
+                            .invoke(() -> objectSchemas.forEach(ignored -> onSchemaUploaded.run()));
+                })
+                .collect(Collectors.toSet());
+        if (version.link() != null) {
+            putUnis.add(blobStores.get(version.link()).put(version.link(), body.toPath()));
+        }
+        if (putUnis.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        return UniCombine.INSTANCE.all().unis(putUnis)
+                .combinedWith(unis -> null);
+    }
+
+    public Uni<Void> deleteFiles(Set<VersionsRecord> versions, Set<String> schemasLinks) {
+        var links = new HashSet<>(schemasLinks);
+        var versionsLinks = versions.stream()
+                .map(VersionsRecord::getLink)
+                .filter(Objects::nonNull)
+                .toList();
+        links.addAll(versionsLinks);
+        return deleteFiles(links);
+    }
+
+    public Uni<Void> deleteFiles(@Nullable String versionLink, Set<String> schemasLinks) {
+        var links = new HashSet<>(schemasLinks);
+        if (versionLink != null) {
+            links.add(versionLink);
+        }
+        return deleteFiles(links);
+    }
+
+    /**
+     * Общий объект схем собирается во временном файле и загружается из него, от {@code s3.multipart.threshold} байт -
+     * составной загрузкой.
+     */
+    private Uni<Void> putSchemas(String link, List<Schema> schemas) {
+        var store = blobStores.get(link);
+        if (schemas.size() == 1 && !schemas.get(0).location().packed()) {
+            return store.put(link, schemas.get(0).content());
+        }
+        return workerExecutors.executeBlocking(Workload.write, Uni.createFrom().item(Unchecked.supplier(() -> writePack(schemas))))
+                .flatMap(file -> store.put(link, file)
+                        .onTermination()
+                        .call(() -> workerExecutors.executeBlocking(Workload.write, Uni.createFrom()
+                                .item(Unchecked.supplier(() -> Files.deleteIfExists(file))))));
+    }
+
+    /**
+     * Схемы общего объекта занимают его подряд, поэтому записываются последовательно в порядке смещений.
+     */
+    private static Path writePack(List<Schema> schemas) throws IOException {
+        var sorted = schemas.stream()
+                .sorted(Comparator.comparing(schema -> schema.location().offset()))
+                .toList();
+        var file = Files.createTempFile("pack_", ".bin");
+        try (var outputStream = new BufferedOutputStream(Files.newOutputStream(file))) {
+            for (var schema : sorted) {
+                outputStream.write(schema.content());
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    private Uni<File> download(String link, BlobReadOperation operation, String prefix) {
+        return workerExecutors.executeBlocking(Workload.write, Uni.createFrom().item(Unchecked.supplier(() -> Files.createTempFile(prefix, ".zip"))))
+                .flatMap(file -> blobStores.get(link).download(link, file, operation)
+                        .map(ignored -> file.toFile())
+                        .onFailure()
+                        .call(() -> workerExecutors.executeBlocking(Workload.write, Uni.createFrom()
+                                .item(Unchecked.supplier(() -> Files.deleteIfExists(file))))));
+    }
+
+    /**
+     * Ссылки удаляются одним запросом на каждое хранилище.
+     */
+    private Uni<Void> deleteFiles(Set<String> links) {
+        if (links.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        var deleteUnis = links.stream()
+                .collect(Collectors.groupingBy(BlobStores::scheme, Collectors.toSet()))
+                .values()
+                .stream()
+                .map(storeLinks -> blobStores.get(storeLinks.iterator().next()).delete(storeLinks))
+                .toList();
+        return UniCombine.INSTANCE.all().unis(deleteUnis)
+                .combinedWith(unis -> null);
+    }
+
+}
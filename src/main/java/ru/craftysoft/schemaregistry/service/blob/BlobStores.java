@@ -0,0 +1,65 @@
+package ru.craftysoft.schemaregistry.service.blob;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.Instance;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Выбор хранилища по схеме ссылки. Новые объекты создаются в хранилище {@code blob.store}.
+ */
+@ApplicationScoped
+public class BlobStores {
+
+    static final String DEFAULT_SCHEME = "s3";
+
+    private final Map<String, BlobStore> stores = new HashMap<>();
+    private final BlobStore defaultStore;
+    private final int keyPrefixLength;
+
+    public BlobStores(@Any Instance<BlobStore> stores,
+                      @ConfigProperty(name = "blob.store") String defaultScheme,
+                      @ConfigProperty(name = "blob.key-prefix-length") int keyPrefixLength) {
+        if (keyPrefixLength < 0 || keyPrefixLength > 8) {
+            throw new RuntimeException("blob.key-prefix-length должен быть от 0 до 8");
+        }
+        stores.forEach(store -> this.stores.put(store.scheme(), store));
+        this.defaultStore = store(defaultScheme);
+        this.keyPrefixLength = keyPrefixLength;
+    }
+
+    /**
+     * Ссылка на новый объект {@code <name>_<uuid>} в хранилище {@code blob.store}.
+     *
+     * @param routingKey ключ распределения объектов по бакетам, для объектов одной структуры одинаковый
+     */
+    public String link(String routingKey, String name) {
+        return defaultStore.link(routingKey, BlobKeys.key(name, UUID.randomUUID(), keyPrefixLength));
+    }
+
+    public int keyPrefixLength() {
+        return keyPrefixLength;
+    }
+
+    public BlobStore get(String link) {
+        return store(scheme(link));
+    }
+
+    static String scheme(String link) {
+        var index = link.indexOf("://");
+        return index < 0 ? DEFAULT_SCHEME : link.substring(0, index);
+    }
+
+    private BlobStore store(String scheme) {
+        var store = stores.get(scheme);
+        if (store == null) {
+            throw new RuntimeException("Не найдено хранилище для схемы %s".formatted(scheme));
+        }
+        return store;
+    }
+
+}
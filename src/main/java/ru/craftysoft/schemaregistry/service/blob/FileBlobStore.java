@@ -0,0 +1,218 @@
+package ru.craftysoft.schemaregistry.service.blob;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.unchecked.Unchecked;
+import io.smallrye.mutiny.unchecked.UncheckedSupplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+import ru.craftysoft.schemaregistry.service.executor.WorkerExecutors;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Хранилище в локальной файловой системе (NVMe, NFS) под каталогом {@code blob.file.root}. Ссылки имеют вид {@code file://<key>}.
+ * Чтение выполняется позиционным {@link FileChannel#read(ByteBuffer, long)}, копирование между файлами через
+ * {@link FileChannel#transferTo} без копирования в память процесса. Объект записывается во временный файл того же каталога
+ * и переименовывается атомарно, поэтому читатель не видит частично записанный объект.
+ */
+@ApplicationScoped
+public class FileBlobStore implements BlobStore {
+
+    static final String SCHEME = "file";
+    private static final String PREFIX = SCHEME + "://";
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final WorkerExecutors workerExecutors;
+    private final Path root;
+
+    public FileBlobStore(WorkerExecutors workerExecutors,
+                         @ConfigProperty(name = "blob.file.root") String root) {
+        this.workerExecutors = workerExecutors;
+        this.root = Path.of(root).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public String scheme() {
+        return SCHEME;
+    }
+
+    @Override
+    public String link(String routingKey, String key) {
+        return PREFIX + key;
+    }
+
+    @Override
+    public Uni<byte[]> get(String link, BlobReadOperation operation) {
+        return blocking(operation.getWorkload(), () -> {
+            try (var channel = FileChannel.open(path(link), READ)) {
+                return read(channel, 0, Math.toIntExact(channel.size()));
+            }
+        });
+    }
+
+    @Override
+    public Uni<byte[]> getRange(String link, long offset, int length, BlobReadOperation operation) {
+        return blocking(operation.getWorkload(), () -> {
+            try (var channel = FileChannel.open(path(link), READ)) {
+                var content = read(channel, offset, length);
+                if (content.length != length) {
+                    throw new RuntimeException("Объект %s короче запрошенного диапазона %d-%d".formatted(link, offset, offset + length - 1));
+                }
+                return content;
+            }
+        });
+    }
+
+    /**
+     * Объект отдаётся частями по {@value CHUNK_SIZE} байт, следующая часть читается после запроса подписчика.
+     */
+    @Override
+    public Multi<byte[]> stream(String link, BlobReadOperation operation) {
+        var workload = operation.getWorkload();
+        return blocking(workload, () -> FileChannel.open(path(link), READ))
+                .toMulti()
+                .onItem()
+                .transformToMultiAndConcatenate(channel -> Multi.createBy()
+                        .repeating()
+                        .uni(AtomicLong::new, position -> blocking(workload, () -> {
+                            var chunk = read(channel, position.get(), CHUNK_SIZE);
+                            position.addAndGet(chunk.length);
+                            return chunk;
+                        }))
+                        .whilst(chunk -> chunk.length == CHUNK_SIZE)
+                        .select()
+                        .where(chunk -> chunk.length > 0)
+                        .onTermination()
+                        .invoke(() -> close(channel)));
+    }
+
+    @Override
+    public Uni<Void> download(String link, Path target, BlobReadOperation operation) {
+        return blocking(operation.getWorkload(), () -> {
+            try (var source = FileChannel.open(path(link), READ);
+                 var destination = FileChannel.open(target, WRITE, TRUNCATE_EXISTING)) {
+                transfer(source, destination);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Uni<Void> put(String link, byte[] content) {
+        return write(link, destination -> {
+            var buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                destination.write(buffer);
+            }
+        });
+    }
+
+    @Override
+    public Uni<Void> put(String link, Path file) {
+        return write(link, destination -> {
+            try (var source = FileChannel.open(file, READ)) {
+                transfer(source, destination);
+            }
+        });
+    }
+
+    @Override
+    public Uni<Void> delete(Set<String> links) {
+        return blocking(Workload.write, () -> {
+            for (var link : links) {
+                Files.deleteIfExists(path(link));
+            }
+            return null;
+        });
+    }
+
+    private Uni<Void> write(String link, ChannelWriter writer) {
+        return blocking(Workload.write, () -> {
+            var path = path(link);
+            Files.createDirectories(path.getParent());
+            var temp = path.resolveSibling("." + path.getFileName() + "." + UUID.randomUUID() + ".tmp");
+            try {
+                try (var channel = FileChannel.open(temp, WRITE, CREATE_NEW)) {
+                    writer.write(channel);
+                    channel.force(true);
+                }
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Путь объекта не может выходить за пределы {@code blob.file.root}.
+     */
+    Path path(String link) {
+        if (!link.startsWith(PREFIX)) {
+            throw new RuntimeException("Ссылка %s не относится к файловому хранилищу".formatted(link));
+        }
+        var path = root.resolve(link.substring(PREFIX.length())).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new RuntimeException("Ссылка %s указывает за пределы хранилища".formatted(link));
+        }
+        return path;
+    }
+
+    private static byte[] read(FileChannel channel, long offset, int length) throws IOException {
+        var buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            var read = channel.read(buffer, offset + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        return buffer.position() == length ? buffer.array() : Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static void close(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void transfer(FileChannel source, FileChannel destination) throws IOException {
+        var size = source.size();
+        var position = 0L;
+        while (position < size) {
+            var transferred = source.transferTo(position, size - position, destination);
+            if (transferred == 0) {
+                break;
+            }
+            position += transferred;
+        }
+    }
+
+    private <T> Uni<T> blocking(Workload workload, UncheckedSupplier<T> supplier) {
+        return workerExecutors.executeBlocking(workload, Uni.createFrom().item(Unchecked.supplier(supplier)));
+    }
+
+    @FunctionalInterface
+    private interface ChannelWriter {
+        void write(FileChannel channel) throws IOException;
+    }
+
+}
@@ -0,0 +1,93 @@
+package ru.craftysoft.schemaregistry.service.blob;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.unchecked.Unchecked;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+import ru.craftysoft.schemaregistry.dto.intermediate.SchemaLocation;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.SchemasRecord;
+import ru.craftysoft.schemaregistry.service.executor.WorkerExecutors;
+import ru.craftysoft.schemaregistry.util.ZipChunkWriter;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Собирает zip-архив из объектов схем в хранилище. Схемы загружаются не более чем по {@code archive.prefetch} одновременно
+ * и попадают в архив в порядке загрузки, отдельной частью на каждую схему.
+ */
+@ApplicationScoped
+public class VersionArchiveAssembler {
+
+    private final BlobStoreAdapter blobStoreAdapter;
+    private final WorkerExecutors workerExecutors;
+    private final int prefetch;
+    private final boolean storedEntries;
+
+    public VersionArchiveAssembler(BlobStoreAdapter blobStoreAdapter,
+                                   WorkerExecutors workerExecutors,
+                                   @ConfigProperty(name = "archive.prefetch") int prefetch,
+                                   @ConfigProperty(name = "archive.stored-entries") boolean storedEntries) {
+        this.blobStoreAdapter = blobStoreAdapter;
+        this.workerExecutors = workerExecutors;
+        this.prefetch = prefetch;
+        this.storedEntries = storedEntries;
+    }
+
+    public Multi<byte[]> assemble(Collection<SchemasRecord> schemas) {
+        return assemble(locationsByPath(schemas));
+    }
+
+    /**
+     * @param locationsByPath положения схем по путям в архиве
+     */
+    public Multi<byte[]> assemble(Map<String, SchemaLocation> locationsByPath) {
+        return Multi.createFrom().deferred(() -> {
+            var writer = new ZipChunkWriter(storedEntries);
+            var entries = Multi.createFrom().iterable(locationsByPath.entrySet())
+                    .onItem()
+                    .transformToUni(entry -> blobStoreAdapter.getSchemaContent(entry.getValue())
+                            .map(content -> Map.entry(entry.getKey(), content)))
+                    .merge(prefetch)
+                    .onItem()
+                    .transformToUniAndConcatenate(entry -> workerExecutors.executeBlocking(Workload.read, Uni.createFrom()
+                            .item(Unchecked.supplier(() -> writer.write(entry.getKey(), entry.getValue())))));
+            var end = Multi.createFrom()
+                    .uni(workerExecutors.executeBlocking(Workload.read, Uni.createFrom().item(Unchecked.supplier(writer::finish))));
+            return Multi.createBy().concatenating().streams(entries, end);
+        });
+    }
+
+    /**
+     * Собирает архив во временный файл, удалить его должен вызывающий.
+     */
+    public Uni<File> assembleToFile(Collection<SchemasRecord> schemas) {
+        var locationsByPath = locationsByPath(schemas);
+        return workerExecutors.executeBlocking(Workload.write, Uni.createFrom().item(Unchecked.supplier(() -> Files.createTempFile("version_", ".zip"))))
+                .flatMap(file -> assemble(locationsByPath)
+                        .onItem()
+                        .call(chunk -> workerExecutors.executeBlocking(Workload.write, Uni.createFrom()
+                                .item(Unchecked.supplier(() -> Files.write(file, chunk, StandardOpenOption.APPEND)))))
+                        .collect()
+                        .last()
+                        .map(ignored -> file.toFile())
+                        .onFailure()
+                        .call(() -> workerExecutors.executeBlocking(Workload.write, Uni.createFrom()
+                                .item(Unchecked.supplier(() -> Files.deleteIfExists(file))))));
+    }
+
+    private static Map<String, SchemaLocation> locationsByPath(Collection<SchemasRecord> schemas) {
+        return schemas.stream()
+                .collect(Collectors.toMap(
+                        SchemasRecord::getPath,
+                        schema -> new SchemaLocation(schema.getLink(), schema.getContentOffset(), schema.getContentLength(), schema.getContent())
+                ));
+    }
+
+}
@@ -0,0 +1,57 @@
+package ru.craftysoft.schemaregistry.service.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import ru.craftysoft.schemaregistry.dto.intermediate.SchemaLink;
+import ru.craftysoft.schemaregistry.dto.intermediate.SchemaLocation;
+
+import javax.annotation.Nullable;
+import javax.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Кэш ссылок на схемы по параметрам запроса.
+ */
+@ApplicationScoped
+public class SchemaLinkCache {
+
+    private final StructureCache<Key, SchemaLink> cache;
+
+    public SchemaLinkCache(MeterRegistry meterRegistry,
+                           @ConfigProperty(name = "cache.schema-links.enabled") boolean enabled,
+                           @ConfigProperty(name = "cache.schema-links.max-size") int maxSize,
+                           @ConfigProperty(name = "cache.schema-links.ttl") Duration ttl,
+                           @ConfigProperty(name = "cache.schema-links.quarantine") Duration quarantine) {
+        this.cache = new StructureCache<>(meterRegistry, "cache.schema-links", enabled, maxSize, ttl, quarantine, SchemaLink::structureName);
+    }
+
+    public Uni<SchemaLocation> get(Key key, Supplier<Uni<SchemaLink>> loader) {
+        return cache.get(key, loader)
+                .map(link -> link == null ? null : link.location());
+    }
+
+    public void invalidate(String structureName) {
+        cache.invalidate(structureName);
+    }
+
+    public void resume() {
+        cache.resume();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public void suspend() {
+        cache.suspend();
+    }
+
+    public record Key(@Nullable Long schemaId,
+                      @Nullable String schemaPath,
+                      @Nullable String versionName,
+                      @Nullable String structureName) {
+    }
+
+}
@@ -0,0 +1,141 @@
+package ru.craftysoft.schemaregistry.service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * LRU кэш значений, относящихся к одной структуре. Записи структуры сбрасываются по уведомлению об её изменении с любого узла,
+ * поэтому кэш работает только пока слушается канал уведомлений ({@link #resume()} / {@link #suspend()}).
+ * Ответ, запрошенный раньше, чем через {@code quarantine} после сброса структуры, не кэшируется: так в кэш не попадают
+ * ни ответы, прочитанные до сброса, ни ответы отстающей реплики.
+ */
+public class StructureCache<K, V> {
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final long quarantineNanos;
+    private final Function<V, String> structureNameExtractor;
+    private final Map<K, Entry<V>> entries;
+    private final Map<String, Long> invalidatedAt = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private volatile long invalidatedAllAt = System.nanoTime();
+    private volatile boolean listening;
+
+    public StructureCache(MeterRegistry meterRegistry,
+                          String name,
+                          boolean enabled,
+                          int maxSize,
+                          Duration ttl,
+                          Duration quarantine,
+                          Function<V, String> structureNameExtractor) {
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.quarantineNanos = quarantine.toNanos();
+        this.structureNameExtractor = structureNameExtractor;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hits = meterRegistry.counter(name + ".hits");
+        this.misses = meterRegistry.counter(name + ".misses");
+        meterRegistry.gauge(name + ".size", entries, this::size);
+    }
+
+    public Uni<V> get(K key, Supplier<Uni<V>> loader) {
+        if (!enabled || !listening) {
+            return loader.get();
+        }
+        var now = System.nanoTime();
+        var cached = lookup(key, now);
+        if (cached != null) {
+            hits.increment();
+            return Uni.createFrom().item(cached);
+        }
+        misses.increment();
+        return loader.get()
+                .invoke(value -> put(key, value, now));
+    }
+
+    public void invalidate(String structureName) {
+        var now = System.nanoTime();
+        invalidatedAt.put(structureName, now);
+        invalidatedAt.values().removeIf(at -> now - at > quarantineNanos);
+        synchronized (entries) {
+            entries.values().removeIf(entry -> structureNameExtractor.apply(entry.value()).equals(structureName));
+        }
+    }
+
+    /**
+     * Вызывается после (пере)подключения к каналу уведомлений: пропущенные за время разрыва уведомления не восстановить,
+     * поэтому кэш сбрасывается целиком.
+     */
+    public void resume() {
+        invalidateAll();
+        listening = true;
+    }
+
+    public void invalidateAll() {
+        invalidatedAllAt = System.nanoTime();
+        invalidatedAt.clear();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public void suspend() {
+        listening = false;
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    @Nullable
+    private V lookup(K key, long now) {
+        synchronized (entries) {
+            var entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.expiresAt() > 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value();
+        }
+    }
+
+    private void put(K key, @Nullable V value, long requestedAt) {
+        if (value == null || !listening || requestedAt - invalidatedAllAt <= quarantineNanos) {
+            return;
+        }
+        var structureInvalidatedAt = invalidatedAt.get(structureNameExtractor.apply(value));
+        if (structureInvalidatedAt != null && requestedAt - structureInvalidatedAt <= quarantineNanos) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, requestedAt + ttlNanos));
+        }
+    }
+
+    private int size(Map<K, Entry<V>> entries) {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+}
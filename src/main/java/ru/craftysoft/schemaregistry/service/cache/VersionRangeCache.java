@@ -0,0 +1,55 @@
+package ru.craftysoft.schemaregistry.service.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import ru.craftysoft.schemaregistry.dto.intermediate.ResolvedVersion;
+
+import javax.annotation.Nullable;
+import javax.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Кэш имён версий, найденных по диапазону. Сбрасывается при публикации или удалении версии структуры.
+ */
+@ApplicationScoped
+public class VersionRangeCache {
+
+    private final StructureCache<Key, ResolvedVersion> cache;
+
+    public VersionRangeCache(MeterRegistry meterRegistry,
+                             @ConfigProperty(name = "cache.version-ranges.enabled") boolean enabled,
+                             @ConfigProperty(name = "cache.version-ranges.max-size") int maxSize,
+                             @ConfigProperty(name = "cache.version-ranges.ttl") Duration ttl,
+                             @ConfigProperty(name = "cache.version-ranges.quarantine") Duration quarantine) {
+        this.cache = new StructureCache<>(meterRegistry, "cache.version-ranges", enabled, maxSize, ttl, quarantine, ResolvedVersion::structureName);
+    }
+
+    public Uni<String> get(Key key, Supplier<Uni<ResolvedVersion>> loader) {
+        return cache.get(key, loader)
+                .map(version -> version == null ? null : version.versionName());
+    }
+
+    public void invalidate(String structureName) {
+        cache.invalidate(structureName);
+    }
+
+    public void resume() {
+        cache.resume();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public void suspend() {
+        cache.suspend();
+    }
+
+    public record Key(@Nullable Long structureId,
+                      @Nullable String structureName,
+                      String range) {
+    }
+
+}
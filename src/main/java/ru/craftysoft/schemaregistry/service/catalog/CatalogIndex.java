@@ -0,0 +1,108 @@
+package ru.craftysoft.schemaregistry.service.catalog;
+
+import ru.craftysoft.schemaregistry.util.LongObjectMap;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Индексы каталога. Структура заменяется целиком; чтение по id идёт без блокировки с проверкой {@link StampedLock}.
+ */
+public class CatalogIndex {
+
+    private final Map<String, CatalogStructure> structuresByName = new ConcurrentHashMap<>();
+    private final LongObjectMap<CatalogStructure> structuresById = new LongObjectMap<>();
+    private final LongObjectMap<CatalogVersion> versionsById = new LongObjectMap<>();
+    private final LongObjectMap<CatalogVersion> versionsBySchemaId = new LongObjectMap<>();
+    private final StampedLock lock = new StampedLock();
+
+    @Nullable
+    public CatalogStructure structure(String name) {
+        return structuresByName.get(name);
+    }
+
+    @Nullable
+    public CatalogStructure structure(long id) {
+        return read(() -> structuresById.get(id));
+    }
+
+    @Nullable
+    public CatalogVersion version(long id) {
+        return read(() -> versionsById.get(id));
+    }
+
+    @Nullable
+    public CatalogVersion versionBySchemaId(long schemaId) {
+        return read(() -> versionsBySchemaId.get(schemaId));
+    }
+
+    public void put(CatalogStructure structure) {
+        var stamp = lock.writeLock();
+        try {
+            removeUnderLock(structure.name());
+            structuresByName.put(structure.name(), structure);
+            structuresById.put(structure.id(), structure);
+            for (var version : structure.versions()) {
+                versionsById.put(version.id(), version);
+                for (int i = 0; i < version.schemasCount(); i++) {
+                    versionsBySchemaId.put(version.schemaId(i), version);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(String structureName) {
+        var stamp = lock.writeLock();
+        try {
+            removeUnderLock(structureName);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int structuresCount() {
+        return structuresByName.size();
+    }
+
+    public int versionsCount() {
+        return read(versionsById::size);
+    }
+
+    public int schemasCount() {
+        return read(versionsBySchemaId::size);
+    }
+
+    private void removeUnderLock(String structureName) {
+        var existing = structuresByName.remove(structureName);
+        if (existing == null) {
+            return;
+        }
+        structuresById.remove(existing.id());
+        for (var version : existing.versions()) {
+            versionsById.remove(version.id());
+            for (int i = 0; i < version.schemasCount(); i++) {
+                versionsBySchemaId.remove(version.schemaId(i));
+            }
+        }
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        var stamp = lock.tryOptimisticRead();
+        var result = reader.get();
+        if (lock.validate(stamp)) {
+            return result;
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package ru.craftysoft.schemaregistry.service.catalog;
+
+import javax.annotation.Nullable;
+import java.time.OffsetDateTime;
+
+/**
+ * @param versions версии, отсортированные по id: последняя опубликованная - в конце
+ */
+public record CatalogStructure(long id,
+                               String name,
+                               OffsetDateTime createdAt,
+                               OffsetDateTime updatedAt,
+                               CatalogVersion[] versions) {
+
+    @Nullable
+    public CatalogVersion version(String versionName) {
+        for (var version : versions) {
+            if (version.name().equals(versionName)) {
+                return version;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    public CatalogVersion latestVersion() {
+        return versions.length == 0 ? null : versions[versions.length - 1];
+    }
+
+}
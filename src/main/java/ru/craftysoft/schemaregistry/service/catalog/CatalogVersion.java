@@ -0,0 +1,227 @@
+package ru.craftysoft.schemaregistry.service.catalog;
+
+import ru.craftysoft.schemaregistry.dto.intermediate.SchemaLocation;
+import ru.craftysoft.schemaregistry.service.blob.BlobKeys;
+
+import javax.annotation.Nullable;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Версия в каталоге. Схемы хранятся параллельными массивами, отсортированными по пути; ссылки на отдельные объекты схем
+ * хранятся как два {@code long} на схему, остальные - строками.
+ * Смещения и длины схем в общих объектах хранятся, только если в версии есть такие схемы.
+ * Содержимое схем, хранящихся в БД, в каталоге не хранится, у таких схем нет ссылки.
+ */
+public final class CatalogVersion {
+
+    private static final String SCHEMA_KEY_NAME = "schema";
+
+    private final long id;
+    private final String structureName;
+    private final String name;
+    @Nullable
+    private final String link;
+    private final OffsetDateTime createdAt;
+    private final String[] paths;
+    private final long[] schemaIds;
+    private final long[] sortedSchemaIds;
+    @Nullable
+    private final int[] sortedSchemaIndexes;
+    @Nullable
+    private final String schemaLinkPrefix;
+    private final int schemaKeyPrefixLength;
+    @Nullable
+    private final long[] schemaLinkBits;
+    @Nullable
+    private final String[] schemaLinks;
+    @Nullable
+    private final long[] schemaOffsets;
+    @Nullable
+    private final int[] schemaLengths;
+
+    /**
+     * @param paths     пути схем, отсортированные по возрастанию
+     * @param schemaIds id схем в порядке {@code paths}
+     * @param links     ссылки схем в порядке {@code paths}, {@code null} для схем в БД
+     * @param offsets   смещения схем в общих объектах в порядке {@code paths}, {@code -1} для отдельных объектов;
+     *                  не заполнены, если общих объектов у версии нет
+     * @param lengths   длины схем в общих объектах в порядке {@code paths}
+     * @param keyPrefixLength длина префикса ключей объектов, {@code blob.key-prefix-length}
+     */
+    public CatalogVersion(long id,
+                          String structureName,
+                          String name,
+                          @Nullable String link,
+                          OffsetDateTime createdAt,
+                          String[] paths,
+                          long[] schemaIds,
+                          String[] links,
+                          @Nullable long[] offsets,
+                          @Nullable int[] lengths,
+                          int keyPrefixLength) {
+        this.id = id;
+        this.structureName = structureName;
+        this.name = name;
+        this.link = link;
+        this.createdAt = createdAt;
+        this.paths = paths;
+        this.schemaIds = schemaIds;
+        this.sortedSchemaIndexes = sortedIndexes(schemaIds);
+        this.sortedSchemaIds = sortedSchemaIndexes == null ? schemaIds : sorted(schemaIds, sortedSchemaIndexes);
+        var compactLinks = compact(links, keyPrefixLength);
+        this.schemaLinkPrefix = compactLinks == null ? null : compactLinks.prefix();
+        this.schemaKeyPrefixLength = compactLinks == null ? 0 : compactLinks.keyPrefixLength();
+        this.schemaLinkBits = compactLinks == null ? null : compactLinks.bits();
+        this.schemaLinks = compactLinks == null ? links : null;
+        this.schemaOffsets = offsets;
+        this.schemaLengths = lengths;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public String structureName() {
+        return structureName;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    @Nullable
+    public String link() {
+        return link;
+    }
+
+    public OffsetDateTime createdAt() {
+        return createdAt;
+    }
+
+    public int schemasCount() {
+        return paths.length;
+    }
+
+    public String path(int index) {
+        return paths[index];
+    }
+
+    public long schemaId(int index) {
+        return schemaIds[index];
+    }
+
+    @Nullable
+    public String schemaLink(int index) {
+        if (schemaLinks != null) {
+            return schemaLinks[index];
+        }
+        var mostSigBits = schemaLinkBits[2 * index];
+        var leastSigBits = schemaLinkBits[2 * index + 1];
+        if (mostSigBits == 0 && leastSigBits == 0) {
+            return null;
+        }
+        return schemaLinkPrefix + BlobKeys.key(SCHEMA_KEY_NAME, new UUID(mostSigBits, leastSigBits), schemaKeyPrefixLength);
+    }
+
+    /**
+     * @return {@code null} для схемы в БД
+     */
+    @Nullable
+    public SchemaLocation schemaLocation(int index) {
+        var link = schemaLink(index);
+        if (link == null) {
+            return null;
+        }
+        if (schemaOffsets == null || schemaOffsets[index] < 0) {
+            return new SchemaLocation(link);
+        }
+        return new SchemaLocation(link, schemaOffsets[index], schemaLengths[index]);
+    }
+
+    /**
+     * @return индекс схемы или отрицательное число, если схемы с таким путём нет
+     */
+    public int indexOfPath(String path) {
+        return Arrays.binarySearch(paths, path);
+    }
+
+    /**
+     * @return индекс схемы или отрицательное число, если схемы с таким id нет
+     */
+    public int indexOfSchemaId(long schemaId) {
+        var sortedIndex = Arrays.binarySearch(sortedSchemaIds, schemaId);
+        if (sortedIndex < 0 || sortedSchemaIndexes == null) {
+            return sortedIndex;
+        }
+        return sortedSchemaIndexes[sortedIndex];
+    }
+
+    /**
+     * Схемы версии обычно создаются в порядке путей, тогда id уже отсортированы и перестановка не хранится.
+     *
+     * @return индексы схем в порядке возрастания id или {@code null}, если {@code ids} уже отсортированы
+     */
+    @Nullable
+    private static int[] sortedIndexes(long[] ids) {
+        var ascending = true;
+        for (int i = 1; i < ids.length && ascending; i++) {
+            ascending = ids[i - 1] < ids[i];
+        }
+        if (ascending) {
+            return null;
+        }
+        return IntStream.range(0, ids.length)
+                .boxed()
+                .sorted(Comparator.comparingLong(i -> ids[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static long[] sorted(long[] ids, int[] indexes) {
+        var result = new long[ids.length];
+        for (int i = 0; i < indexes.length; i++) {
+            result[i] = ids[indexes[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Ссылки сжимаются, если все они имеют вид {@code <prefix>[<префикс ключа>/]schema_<uuid>} с общим для версии {@code prefix}:
+     * объекты версии создаются в одном хранилище и бакете, а префикс ключа восстанавливается из UUID.
+     * Схемы в БД хранятся нулевым UUID: случайные UUID версии 4 нулевыми не бывают.
+     */
+    @Nullable
+    private static CompactLinks compact(String[] links, int keyPrefixLength) {
+        String prefix = null;
+        var prefixLength = 0;
+        var bits = new long[links.length * 2];
+        for (int i = 0; i < links.length; i++) {
+            var link = links[i];
+            if (link == null) {
+                continue;
+            }
+            var uuid = BlobKeys.uuid(link, SCHEMA_KEY_NAME);
+            if (uuid == null) {
+                return null;
+            }
+            if (prefix == null) {
+                prefixLength = keyPrefixLength > 0 && link.endsWith(BlobKeys.key(SCHEMA_KEY_NAME, uuid, keyPrefixLength)) ? keyPrefixLength : 0;
+                prefix = link.substring(0, link.length() - BlobKeys.key(SCHEMA_KEY_NAME, uuid, prefixLength).length()).intern();
+            }
+            if (!link.equals(prefix + BlobKeys.key(SCHEMA_KEY_NAME, uuid, prefixLength))) {
+                return null;
+            }
+            bits[2 * i] = uuid.getMostSignificantBits();
+            bits[2 * i + 1] = uuid.getLeastSignificantBits();
+        }
+        return new CompactLinks(prefix == null ? "" : prefix, prefixLength, bits);
+    }
+
+    private record CompactLinks(String prefix, int keyPrefixLength, long[] bits) {
+    }
+
+}
@@ -0,0 +1,336 @@
+package ru.craftysoft.schemaregistry.service.catalog;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.sqlclient.SqlClient;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import ru.craftysoft.schemaregistry.builder.intermediate.CatalogStructureBuilder;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+import ru.craftysoft.schemaregistry.dto.intermediate.SchemaLocation;
+import ru.craftysoft.schemaregistry.dto.intermediate.StructureDescriptor;
+import ru.craftysoft.schemaregistry.dto.intermediate.VersionArchive;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.SchemasRecord;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.StructuresRecord;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.VersionsRecord;
+import ru.craftysoft.schemaregistry.service.dao.CatalogDao;
+import ru.craftysoft.schemaregistry.service.dao.ChangeDaoAdapter;
+import ru.craftysoft.schemaregistry.util.DbClient;
+
+import javax.annotation.Nullable;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Каталог метаданных в памяти при {@code catalog.enabled=true}: при старте загружаются все структуры, версии и схемы,
+ * дальше структура перечитывается целиком по каждому уведомлению о её изменении.
+ * Пока каталог не загружен, канал уведомлений не слушается или структура ждёт перечитывания, методы возвращают {@code null},
+ * и запрос выполняется в БД. После переподключения к каналу пропущенные изменения дочитываются из журнала {@code changes}.
+ */
+@ApplicationScoped
+@Slf4j
+public class MetadataCatalog {
+
+    private final CatalogDao catalogDao;
+    private final ChangeDaoAdapter changeDaoAdapter;
+    private final CatalogStructureBuilder catalogStructureBuilder;
+    private final DbClient dbClient;
+    private final Vertx vertx;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration retryInterval;
+    private final Map<String, Long> dirty = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong appliedChangeId = new AtomicLong();
+    private final Counter hits;
+    private final Counter fallbacks;
+    private volatile CatalogIndex index = new CatalogIndex();
+    private volatile boolean loaded;
+    private volatile boolean listening;
+
+    public MetadataCatalog(CatalogDao catalogDao,
+                           ChangeDaoAdapter changeDaoAdapter,
+                           CatalogStructureBuilder catalogStructureBuilder,
+                           DbClient dbClient,
+                           Vertx vertx,
+                           MeterRegistry meterRegistry,
+                           @ConfigProperty(name = "catalog.enabled") boolean enabled,
+                           @ConfigProperty(name = "catalog.load-batch-size") int batchSize,
+                           @ConfigProperty(name = "catalog.retry-interval") Duration retryInterval) {
+        this.catalogDao = catalogDao;
+        this.changeDaoAdapter = changeDaoAdapter;
+        this.catalogStructureBuilder = catalogStructureBuilder;
+        this.dbClient = dbClient;
+        this.vertx = vertx;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.retryInterval = retryInterval;
+        this.hits = meterRegistry.counter("catalog.lookups", "result", "hit");
+        this.fallbacks = meterRegistry.counter("catalog.lookups", "result", "fallback");
+        meterRegistry.gauge("catalog.structures", this, catalog -> catalog.index.structuresCount());
+        meterRegistry.gauge("catalog.versions", this, catalog -> catalog.index.versionsCount());
+        meterRegistry.gauge("catalog.schemas", this, catalog -> catalog.index.schemasCount());
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            load();
+        }
+    }
+
+    @Nullable
+    public SchemaLocation getSchemaLink(@Nullable Long schemaId,
+                                        @Nullable String schemaPath,
+                                        @Nullable String versionName,
+                                        @Nullable String structureName) {
+        if (!serving()) {
+            return null;
+        }
+        CatalogVersion version;
+        int index;
+        if (schemaId != null) {
+            version = this.index.versionBySchemaId(schemaId);
+            index = version == null ? -1 : version.indexOfSchemaId(schemaId);
+        } else {
+            var structure = structureName == null ? null : this.index.structure(structureName);
+            version = structure == null
+                    ? null
+                    : versionName == null ? structure.latestVersion() : structure.version(versionName);
+            index = version == null || schemaPath == null ? -1 : version.indexOfPath(schemaPath);
+        }
+        var location = index < 0 ? null : version.schemaLocation(index);
+        if (location == null || !fresh(version.structureName())) {
+            fallbacks.increment();
+            return null;
+        }
+        hits.increment();
+        return location;
+    }
+
+    @Nullable
+    public VersionArchive getVersionArchive(@Nullable Long structureId,
+                                            @Nullable String structureName,
+                                            @Nullable Long versionId,
+                                            @Nullable String versionName) {
+        if (!serving()) {
+            return null;
+        }
+        CatalogVersion version;
+        if (versionId != null) {
+            version = index.version(versionId);
+        } else {
+            var structure = structureId != null
+                    ? index.structure(structureId)
+                    : structureName == null ? null : index.structure(structureName);
+            version = structure == null || versionName == null ? null : structure.version(versionName);
+        }
+        if (version == null || !fresh(version.structureName())) {
+            fallbacks.increment();
+            return null;
+        }
+        hits.increment();
+        return new VersionArchive(version.id(), version.link());
+    }
+
+    @Nullable
+    public StructureDescriptor getDescriptor(@Nullable Long id, @Nullable String name) {
+        if (!serving()) {
+            return null;
+        }
+        var structure = id != null
+                ? index.structure(id)
+                : name == null ? null : index.structure(name);
+        if (structure == null || !fresh(structure.name())) {
+            fallbacks.increment();
+            return null;
+        }
+        hits.increment();
+        return catalogStructureBuilder.toDescriptor(structure);
+    }
+
+    /**
+     * Структура перестаёт отдаваться из каталога до завершения её перечитывания.
+     */
+    public void invalidate(String structureName) {
+        if (!enabled) {
+            return;
+        }
+        var structureGeneration = generation.incrementAndGet();
+        dirty.put(structureName, structureGeneration);
+        refresh(structureName, structureGeneration);
+    }
+
+    public void onChange(long changeId, String structureName) {
+        appliedChangeId.accumulateAndGet(changeId, Math::max);
+        invalidate(structureName);
+    }
+
+    public void suspend() {
+        listening = false;
+    }
+
+    public void resume() {
+        if (!enabled) {
+            return;
+        }
+        if (!loaded) {
+            listening = true;
+            return;
+        }
+        replay(dbClient.pool(Workload.read), appliedChangeId.get())
+                .subscribe()
+                .with(
+                        ignored -> listening = true,
+                        e -> {
+                            log.warn("MetadataCatalog.resume.thrown {}", e.getMessage());
+                            vertx.setTimer(retryInterval.toMillis(), ignored -> resume());
+                        }
+                );
+    }
+
+    private boolean serving() {
+        return enabled && loaded && listening;
+    }
+
+    private boolean fresh(String structureName) {
+        return !dirty.containsKey(structureName);
+    }
+
+    private void load() {
+        var sqlClient = dbClient.pool(Workload.read);
+        log.info("MetadataCatalog.load.in");
+        changeDaoAdapter.getLastId(sqlClient)
+                .flatMap(watermark -> loadIndex(sqlClient)
+                        .invoke(loadedIndex -> {
+                            index = loadedIndex;
+                            appliedChangeId.accumulateAndGet(watermark, Math::max);
+                        })
+                        .flatMap(loadedIndex -> replay(sqlClient, watermark)))
+                .subscribe()
+                .with(
+                        ignored -> {
+                            loaded = true;
+                            log.info("MetadataCatalog.load.out structures={} versions={} schemas={}",
+                                    index.structuresCount(), index.versionsCount(), index.schemasCount());
+                        },
+                        e -> {
+                            log.error("MetadataCatalog.load.thrown {}", e.getMessage());
+                            vertx.setTimer(retryInterval.toMillis(), ignored -> load());
+                        }
+                );
+    }
+
+    private Uni<CatalogIndex> loadIndex(SqlClient sqlClient) {
+        return loadAll(afterId -> catalogDao.getStructures(sqlClient, afterId, batchSize), StructuresRecord::getId)
+                .flatMap(structures -> loadAll(afterId -> catalogDao.getVersions(sqlClient, afterId, batchSize), VersionsRecord::getId)
+                        .flatMap(versions -> loadAll(afterId -> catalogDao.getSchemas(sqlClient, afterId, batchSize), SchemasRecord::getId)
+                                .map(schemas -> {
+                                    var versionsByStructureId = versions.stream()
+                                            .collect(Collectors.groupingBy(VersionsRecord::getStructureId));
+                                    var schemasByVersionId = schemas.stream()
+                                            .collect(Collectors.groupingBy(SchemasRecord::getVersionId));
+                                    var loadedIndex = new CatalogIndex();
+                                    for (var structure : structures) {
+                                        var structureVersions = versionsByStructureId.getOrDefault(structure.getId(), List.of());
+                                        loadedIndex.put(catalogStructureBuilder.build(structure, structureVersions, schemasByVersionId));
+                                    }
+                                    return loadedIndex;
+                                })));
+    }
+
+    private <T> Uni<List<T>> loadAll(LongFunction<Uni<List<T>>> pageLoader, ToLongFunction<T> idExtractor) {
+        return Multi.createBy().repeating()
+                .uni(AtomicLong::new, afterId -> pageLoader.apply(afterId.get())
+                        .invoke(page -> {
+                            if (!page.isEmpty()) {
+                                afterId.set(idExtractor.applyAsLong(page.get(page.size() - 1)));
+                            }
+                        }))
+                .whilst(page -> page.size() == batchSize)
+                .collect()
+                .in(ArrayList::new, List::addAll);
+    }
+
+    /**
+     * Помечает устаревшими структуры, изменённые в журнале после {@code after}, и перечитывает их.
+     */
+    private Uni<Void> replay(SqlClient sqlClient, long after) {
+        var cursor = new AtomicLong(after);
+        return Multi.createBy().repeating()
+                .uni(() -> changeDaoAdapter.getPage(sqlClient, cursor.get(), batchSize))
+                .whilst(page -> page.changes().size() == batchSize)
+                .onItem().invoke(page -> {
+                    var structureNames = new LinkedHashSet<String>();
+                    for (var change : page.changes()) {
+                        structureNames.add(change.getStructureName());
+                        cursor.set(change.getId());
+                    }
+                    structureNames.forEach(this::invalidate);
+                    appliedChangeId.accumulateAndGet(cursor.get(), Math::max);
+                })
+                .collect()
+                .last()
+                .replaceWithVoid();
+    }
+
+    private void refresh(String structureName, long structureGeneration) {
+        var sqlClient = dbClient.pool(Workload.read);
+        catalogDao.getStructure(sqlClient, structureName)
+                .flatMap(structure -> structure == null
+                        ? Uni.createFrom().<CatalogStructure>nullItem()
+                        : catalogDao.getVersionsByStructureId(sqlClient, structure.getId())
+                        .flatMap(versions -> catalogDao.getSchemasByStructureId(sqlClient, structure.getId())
+                                .map(schemas -> catalogStructureBuilder.build(structure, versions, groupByVersionId(schemas)))))
+                .subscribe()
+                .with(
+                        structure -> apply(structureName, structureGeneration, structure),
+                        e -> {
+                            log.warn("MetadataCatalog.refresh.thrown structureName='{}' {}", structureName, e.getMessage());
+                            vertx.setTimer(retryInterval.toMillis(), ignored -> {
+                                if (dirty.getOrDefault(structureName, -1L) == structureGeneration) {
+                                    refresh(structureName, structureGeneration);
+                                }
+                            });
+                        }
+                );
+    }
+
+    /**
+     * Применяется только результат последнего перечитывания структуры: более раннее, завершившееся позже, отбрасывается.
+     */
+    private synchronized void apply(String structureName, long structureGeneration, @Nullable CatalogStructure structure) {
+        if (dirty.getOrDefault(structureName, -1L) != structureGeneration) {
+            return;
+        }
+        if (structure == null) {
+            index.remove(structureName);
+        } else {
+            index.put(structure);
+        }
+        dirty.remove(structureName, structureGeneration);
+    }
+
+    private static Map<Long, List<SchemasRecord>> groupByVersionId(List<SchemasRecord> schemas) {
+        var result = new HashMap<Long, List<SchemasRecord>>();
+        for (var schema : schemas) {
+            result.computeIfAbsent(schema.getVersionId(), ignored -> new ArrayList<>()).add(schema);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,127 @@
+package ru.craftysoft.schemaregistry.service.changes;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.UniEmitter;
+import io.vertx.mutiny.core.Vertx;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import ru.craftysoft.schemaregistry.dto.intermediate.ChangesPage;
+import ru.craftysoft.schemaregistry.service.dao.ChangeDaoAdapter;
+
+import javax.annotation.Nullable;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ожидание новых записей журнала изменений. Вместо опроса таблицы каждым клиентом один таймер раз в
+ * {@code changes.poll-interval} читает максимальный id журнала и будит ожидающих; пока ожидающих нет, запросы не выполняются.
+ */
+@ApplicationScoped
+@Slf4j
+public class ChangeFeed {
+
+    private final ChangeDaoAdapter changeDaoAdapter;
+    private final Vertx vertx;
+    private final Duration pollInterval;
+    private final Duration maxWait;
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+    private final AtomicLong lastId = new AtomicLong();
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private volatile long pollTimerId = -1;
+
+    public ChangeFeed(ChangeDaoAdapter changeDaoAdapter,
+                      Vertx vertx,
+                      MeterRegistry meterRegistry,
+                      @ConfigProperty(name = "changes.poll-interval") Duration pollInterval,
+                      @ConfigProperty(name = "changes.max-wait") Duration maxWait) {
+        this.changeDaoAdapter = changeDaoAdapter;
+        this.vertx = vertx;
+        this.pollInterval = pollInterval;
+        this.maxWait = maxWait;
+        meterRegistry.gauge("changes.waiters", waiters, Set::size);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        pollTimerId = vertx.setPeriodic(pollInterval.toMillis(), ignored -> poll());
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (pollTimerId != -1) {
+            vertx.cancelTimer(pollTimerId);
+        }
+        waiters.forEach(Waiter::wakeUp);
+    }
+
+    /**
+     * Страница журнала после {@code after}. Если она пуста, ждёт новых записей не дольше {@code wait}
+     * (но не дольше {@code changes.max-wait}) и перечитывает журнал.
+     */
+    public Uni<ChangesPage> next(long after, @Nullable String structureName, int limit, Duration wait) {
+        var timeout = wait.compareTo(maxWait) > 0 ? maxWait : wait;
+        return changeDaoAdapter.getPage(after, structureName, limit)
+                .flatMap(page -> page.changes().isEmpty() && !timeout.isZero() && !timeout.isNegative()
+                        ? await(Math.max(after, page.lastId()), timeout)
+                        .flatMap(ignored -> changeDaoAdapter.getPage(after, structureName, limit))
+                        : Uni.createFrom().item(page));
+    }
+
+    /**
+     * Завершается, когда в журнале появится запись с id больше {@code lastSeenId}, или по истечении {@code timeout}.
+     */
+    private Uni<Void> await(long lastSeenId, Duration timeout) {
+        if (lastId.get() > lastSeenId) {
+            return Uni.createFrom().voidItem();
+        }
+        return Uni.createFrom().<Void>emitter(emitter -> {
+                    var waiter = new Waiter(lastSeenId, emitter);
+                    waiters.add(waiter);
+                    emitter.onTermination(() -> waiters.remove(waiter));
+                    if (lastId.get() > lastSeenId) {
+                        waiter.wakeUp();
+                    }
+                })
+                .ifNoItem().after(timeout).recoverWithItem((Void) null);
+    }
+
+    private void poll() {
+        if (waiters.isEmpty() || !polling.compareAndSet(false, true)) {
+            return;
+        }
+        changeDaoAdapter.getLastId()
+                .eventually(() -> polling.set(false))
+                .subscribe()
+                .with(
+                        this::onChange,
+                        e -> log.warn("ChangeFeed.poll.thrown {}", e.getMessage())
+                );
+    }
+
+    /**
+     * Будит ожидающих изменений с id меньше {@code id}. Кроме собственного опроса вызывается {@link ChangeListener} по уведомлению.
+     */
+    public void onChange(long id) {
+        lastId.accumulateAndGet(id, Math::max);
+        waiters.forEach(waiter -> {
+            if (id > waiter.lastSeenId()) {
+                waiter.wakeUp();
+            }
+        });
+    }
+
+    private record Waiter(long lastSeenId, UniEmitter<? super Void> emitter) {
+
+        void wakeUp() {
+            emitter.complete(null);
+        }
+
+    }
+
+}
@@ -0,0 +1,131 @@
+package ru.craftysoft.schemaregistry.service.changes;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.pgclient.pubsub.PgSubscriber;
+import io.vertx.pgclient.PgConnectOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import ru.craftysoft.schemaregistry.dto.intermediate.ChangeNotification;
+import ru.craftysoft.schemaregistry.service.cache.SchemaLinkCache;
+import ru.craftysoft.schemaregistry.service.cache.VersionRangeCache;
+import ru.craftysoft.schemaregistry.service.catalog.MetadataCatalog;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import java.time.Duration;
+
+/**
+ * Слушает {@code LISTEN} уведомления об изменениях на отдельном соединении с основной БД: сбрасывает кэш изменённой структуры
+ * и каталог метаданных, будит ожидающих ленты изменений. Соединение восстанавливается раз в {@code changes.listen.reconnect-interval};
+ * пока его нет, кэш и каталог отключены, после переподключения кэш сбрасывается целиком, а каталог дочитывает журнал.
+ */
+@ApplicationScoped
+@Slf4j
+public class ChangeListener {
+
+    private final SchemaLinkCache schemaLinkCache;
+    private final VersionRangeCache versionRangeCache;
+    private final MetadataCatalog metadataCatalog;
+    private final ChangeFeed changeFeed;
+    private final Vertx vertx;
+    private final PgConnectOptions connectOptions;
+    private final Duration reconnectInterval;
+    private volatile PgSubscriber subscriber;
+    private volatile long checkTimerId = -1;
+
+    public ChangeListener(SchemaLinkCache schemaLinkCache,
+                          VersionRangeCache versionRangeCache,
+                          MetadataCatalog metadataCatalog,
+                          ChangeFeed changeFeed,
+                          Vertx vertx,
+                          @ConfigProperty(name = "quarkus.datasource.reactive.url") String url,
+                          @ConfigProperty(name = "quarkus.datasource.username") String username,
+                          @ConfigProperty(name = "quarkus.datasource.password") String password,
+                          @ConfigProperty(name = "changes.listen.reconnect-interval") Duration reconnectInterval) {
+        this.schemaLinkCache = schemaLinkCache;
+        this.versionRangeCache = versionRangeCache;
+        this.metadataCatalog = metadataCatalog;
+        this.changeFeed = changeFeed;
+        this.vertx = vertx;
+        this.connectOptions = PgConnectOptions.fromUri(url)
+                .setUser(username)
+                .setPassword(password);
+        this.reconnectInterval = reconnectInterval;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        subscriber = PgSubscriber.subscriber(vertx, connectOptions)
+                .reconnectPolicy(retries -> reconnectInterval.toMillis());
+        subscriber.channel(ChangeNotification.CHANNEL)
+                .subscribeHandler(() -> {
+                    log.info("ChangeListener.subscribed channel={}", ChangeNotification.CHANNEL);
+                    schemaLinkCache.resume();
+                    versionRangeCache.resume();
+                    metadataCatalog.resume();
+                })
+                .handler(this::onNotification);
+        connect();
+        checkTimerId = vertx.setPeriodic(reconnectInterval.toMillis(), ignored -> checkConnection());
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (checkTimerId != -1) {
+            vertx.cancelTimer(checkTimerId);
+        }
+        if (subscriber != null) {
+            subscriber.closeAndForget();
+        }
+    }
+
+    /**
+     * Локальный сброс после фиксации изменения структуры на этом узле, не дожидаясь уведомления.
+     */
+    public void onCommitted(String structureName) {
+        schemaLinkCache.invalidate(structureName);
+        versionRangeCache.invalidate(structureName);
+        metadataCatalog.invalidate(structureName);
+    }
+
+    private void onNotification(String payload) {
+        try {
+            var notification = ChangeNotification.decode(payload);
+            schemaLinkCache.invalidate(notification.structureName());
+            versionRangeCache.invalidate(notification.structureName());
+            metadataCatalog.onChange(notification.id(), notification.structureName());
+            changeFeed.onChange(notification.id());
+        } catch (RuntimeException e) {
+            log.warn("ChangeListener.onNotification.thrown {}", e.getMessage());
+            schemaLinkCache.invalidateAll();
+            versionRangeCache.invalidateAll();
+            metadataCatalog.resume();
+        }
+    }
+
+    /**
+     * Разорванное соединение {@link PgSubscriber} восстанавливает сам, но о разрыве не сообщает,
+     * поэтому на это время кэш отключается по таймеру.
+     */
+    private void checkConnection() {
+        if (subscriber.actualConnection() == null) {
+            schemaLinkCache.suspend();
+            versionRangeCache.suspend();
+            metadataCatalog.suspend();
+        }
+    }
+
+    private void connect() {
+        subscriber.connect()
+                .subscribe()
+                .with(
+                        ignored -> {
+                        },
+                        e -> {
+                            log.warn("ChangeListener.connect.thrown {}", e.getMessage());
+                            vertx.setTimer(reconnectInterval.toMillis(), ignored -> connect());
+                        }
+                );
+    }
+
+}
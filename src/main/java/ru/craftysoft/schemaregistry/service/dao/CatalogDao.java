@@ -0,0 +1,128 @@
+package ru.craftysoft.schemaregistry.service.dao;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.SqlClient;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Query;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.SchemasRecord;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.StructuresRecord;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.VersionsRecord;
+import ru.craftysoft.schemaregistry.util.DbClient;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.List;
+import java.util.function.Function;
+
+import static ru.craftysoft.schemaregistry.model.jooq.tables.Schemas.SCHEMAS;
+import static ru.craftysoft.schemaregistry.model.jooq.tables.Structures.STRUCTURES;
+import static ru.craftysoft.schemaregistry.model.jooq.tables.Versions.VERSIONS;
+
+/**
+ * Запросы для загрузки каталога метаданных: постранично по id при старте и по одной структуре при её изменении.
+ */
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogDao {
+
+    /**
+     * Содержимое схем, хранящихся в БД, в каталог не загружается.
+     */
+    private static final List<Field<?>> SCHEMA_FIELDS = List.of(
+            SCHEMAS.ID,
+            SCHEMAS.PATH,
+            SCHEMAS.VERSION_ID,
+            SCHEMAS.LINK,
+            SCHEMAS.CONTENT_OFFSET,
+            SCHEMAS.CONTENT_LENGTH
+    );
+
+    private final DbClient dbClient;
+
+    public Uni<List<StructuresRecord>> getStructures(SqlClient sqlClient, long afterId, int limit) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.selectFrom(STRUCTURES)
+                .where(STRUCTURES.ID.gt(afterId))
+                .orderBy(STRUCTURES.ID)
+                .limit(limit);
+        return dbClient.toUniOfList(sqlClient, log, "CatalogDao.getStructures", queryBuilder, this::toStructure);
+    }
+
+    public Uni<List<VersionsRecord>> getVersions(SqlClient sqlClient, long afterId, int limit) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.selectFrom(VERSIONS)
+                .where(VERSIONS.ID.gt(afterId))
+                .orderBy(VERSIONS.ID)
+                .limit(limit);
+        return dbClient.toUniOfList(sqlClient, log, "CatalogDao.getVersions", queryBuilder, this::toVersion);
+    }
+
+    public Uni<List<SchemasRecord>> getSchemas(SqlClient sqlClient, long afterId, int limit) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.select(SCHEMA_FIELDS)
+                .from(SCHEMAS)
+                .where(SCHEMAS.ID.gt(afterId))
+                .orderBy(SCHEMAS.ID)
+                .limit(limit);
+        return dbClient.toUniOfList(sqlClient, log, "CatalogDao.getSchemas", queryBuilder, this::toSchema);
+    }
+
+    public Uni<StructuresRecord> getStructure(SqlClient sqlClient, String name) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.selectFrom(STRUCTURES)
+                .where(STRUCTURES.NAME.eq(name));
+        return dbClient.toUni(sqlClient, log, "CatalogDao.getStructure", queryBuilder, this::toStructure);
+    }
+
+    public Uni<List<VersionsRecord>> getVersionsByStructureId(SqlClient sqlClient, long structureId) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.selectFrom(VERSIONS)
+                .where(VERSIONS.STRUCTURE_ID.eq(structureId));
+        return dbClient.toUniOfList(sqlClient, log, "CatalogDao.getVersionsByStructureId", queryBuilder, this::toVersion);
+    }
+
+    public Uni<List<SchemasRecord>> getSchemasByStructureId(SqlClient sqlClient, long structureId) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.select(SCHEMA_FIELDS)
+                .from(SCHEMAS)
+                .join(VERSIONS).on(VERSIONS.ID.eq(SCHEMAS.VERSION_ID))
+                .where(VERSIONS.STRUCTURE_ID.eq(structureId));
+        return dbClient.toUniOfList(sqlClient, log, "CatalogDao.getSchemasByStructureId", queryBuilder, this::toSchema);
+    }
+
+    private StructuresRecord toStructure(Row row) {
+        return new StructuresRecord(
+                row.getLong(STRUCTURES.ID.getName()),
+                row.getString(STRUCTURES.NAME.getName()),
+                row.getOffsetDateTime(STRUCTURES.CREATED_AT.getName()),
+                row.getOffsetDateTime(STRUCTURES.UPDATED_AT.getName()),
+                row.getLong(STRUCTURES.LATEST_VERSION_ID.getName())
+        );
+    }
+
+    private VersionsRecord toVersion(Row row) {
+        return new VersionsRecord(
+                row.getLong(VERSIONS.ID.getName()),
+                row.getString(VERSIONS.NAME.getName()),
+                row.getLong(VERSIONS.STRUCTURE_ID.getName()),
+                row.getString(VERSIONS.LINK.getName()),
+                row.getOffsetDateTime(VERSIONS.CREATED_AT.getName()),
+                row.getInteger(VERSIONS.SEMVER_MAJOR.getName()),
+                row.getInteger(VERSIONS.SEMVER_MINOR.getName()),
+                row.getInteger(VERSIONS.SEMVER_PATCH.getName()),
+                row.getString(VERSIONS.SEMVER_PRE_RELEASE.getName())
+        );
+    }
+
+    private SchemasRecord toSchema(Row row) {
+        return new SchemasRecord(
+                row.getLong(SCHEMAS.ID.getName()),
+                row.getString(SCHEMAS.PATH.getName()),
+                row.getLong(SCHEMAS.VERSION_ID.getName()),
+                row.getString(SCHEMAS.LINK.getName()),
+                null,
+                row.getLong(SCHEMAS.CONTENT_OFFSET.getName()),
+                row.getInteger(SCHEMAS.CONTENT_LENGTH.getName()),
+                null
+        );
+    }
+
+}
@@ -0,0 +1,183 @@
+package ru.craftysoft.schemaregistry.service.dao;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.SqlClient;
+import io.vertx.mutiny.sqlclient.Tuple;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.Query;
+import org.jooq.impl.DSL;
+import ru.craftysoft.schemaregistry.dto.intermediate.ChangesPage;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.ChangesRecord;
+import ru.craftysoft.schemaregistry.model.rest.ChangeType;
+import ru.craftysoft.schemaregistry.util.DbClient;
+
+import javax.annotation.Nullable;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.List;
+import java.util.function.Function;
+
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.STRUCTURES;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.VERSIONS;
+import static ru.craftysoft.schemaregistry.model.jooq.tables.Changes.CHANGES;
+
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+public class ChangeDao {
+
+    private static final long CHANGES_LOCK_KEY = 0x6368616e676573L;
+    private static final String LAST_ID = "last_id";
+
+    private final DbClient dbClient;
+
+    /**
+     * Транзакционная блокировка, которая выстраивает запись в журнал в одну очередь: изменения фиксируются в порядке
+     * возрастания id, и клиент, дочитавший журнал до id N, не пропустит изменение с меньшим id, закоммиченное позже.
+     */
+    public Uni<Integer> lock(SqlClient sqlClient) {
+        return dbClient.execute(sqlClient, log, "ChangeDao.lock", "SELECT pg_advisory_xact_lock($1)", Tuple.of(CHANGES_LOCK_KEY));
+    }
+
+    /**
+     * Уведомление доставляется слушателям {@code LISTEN} только после коммита транзакции.
+     */
+    public Uni<Integer> notify(SqlClient sqlClient, String channel, String payload) {
+        return dbClient.execute(sqlClient, log, "ChangeDao.notify", "SELECT pg_notify($1, $2)", Tuple.of(channel, payload));
+    }
+
+    public Uni<ChangesRecord> create(SqlClient sqlClient, ChangesRecord record) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.insertInto(CHANGES,
+                        CHANGES.TYPE, CHANGES.STRUCTURE_ID, CHANGES.STRUCTURE_NAME, CHANGES.VERSION_ID, CHANGES.VERSION_NAME)
+                .values(record.getType(), record.getStructureId(), record.getStructureName(), record.getVersionId(), record.getVersionName())
+                .returning();
+        return dbClient.toUni(sqlClient, log, "ChangeDao.create", queryBuilder, this::toRecord);
+    }
+
+    public Uni<ChangesRecord> createByVersion(SqlClient sqlClient, ChangeType type, long versionId) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.insertInto(CHANGES,
+                        CHANGES.TYPE, CHANGES.STRUCTURE_ID, CHANGES.STRUCTURE_NAME, CHANGES.VERSION_ID, CHANGES.VERSION_NAME)
+                .select(dslContext.select(DSL.val(type.toString()), STRUCTURES.ID, STRUCTURES.NAME, VERSIONS.ID, VERSIONS.NAME)
+                        .from(VERSIONS)
+                        .join(STRUCTURES).on(STRUCTURES.ID.eq(VERSIONS.STRUCTURE_ID))
+                        .where(VERSIONS.ID.eq(versionId)))
+                .returning();
+        return dbClient.toUni(sqlClient, log, "ChangeDao.createByVersion", queryBuilder, this::toRecord);
+    }
+
+    /**
+     * Запись журнала о версии без вставки: названия читаются до удаления строк, а в журнал запись попадает последним шагом транзакции.
+     */
+    public Uni<ChangesRecord> describeVersion(SqlClient sqlClient, ChangeType type, long versionId) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.select(
+                        STRUCTURES.ID.as(CHANGES.STRUCTURE_ID),
+                        STRUCTURES.NAME.as(CHANGES.STRUCTURE_NAME),
+                        VERSIONS.ID.as(CHANGES.VERSION_ID),
+                        VERSIONS.NAME.as(CHANGES.VERSION_NAME)
+                )
+                .from(VERSIONS)
+                .join(STRUCTURES).on(STRUCTURES.ID.eq(VERSIONS.STRUCTURE_ID))
+                .where(VERSIONS.ID.eq(versionId));
+        return dbClient.toUni(sqlClient, log, "ChangeDao.describeVersion", queryBuilder, row -> new ChangesRecord(
+                null,
+                type.toString(),
+                row.getLong(CHANGES.STRUCTURE_ID.getName()),
+                row.getString(CHANGES.STRUCTURE_NAME.getName()),
+                row.getLong(CHANGES.VERSION_ID.getName()),
+                row.getString(CHANGES.VERSION_NAME.getName()),
+                null
+        ));
+    }
+
+    public Uni<ChangesRecord> describeStructure(SqlClient sqlClient, ChangeType type, long structureId) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.select(STRUCTURES.ID, STRUCTURES.NAME)
+                .from(STRUCTURES)
+                .where(STRUCTURES.ID.eq(structureId));
+        return dbClient.toUni(sqlClient, log, "ChangeDao.describeStructure", queryBuilder, row -> new ChangesRecord(
+                null,
+                type.toString(),
+                row.getLong(STRUCTURES.ID.getName()),
+                row.getString(STRUCTURES.NAME.getName()),
+                null,
+                null,
+                null
+        ));
+    }
+
+    /**
+     * Страница журнала после {@code after} и максимальный id журнала одним запросом, чтобы оба значения
+     * были прочитаны из одного снимка даже при чтении с реплики.
+     */
+    public Uni<ChangesPage> getPage(long after, @Nullable String structureName, int limit) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> getPageQuery(dslContext, after, structureName, limit);
+        return dbClient.toUniOfList(log, "ChangeDao.getPage", queryBuilder, this::toPage)
+                .map(this::merge);
+    }
+
+    public Uni<ChangesPage> getPage(SqlClient sqlClient, long after, @Nullable String structureName, int limit) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> getPageQuery(dslContext, after, structureName, limit);
+        return dbClient.toUniOfList(sqlClient, log, "ChangeDao.getPage", queryBuilder, this::toPage)
+                .map(this::merge);
+    }
+
+    public Uni<Long> getLastId() {
+        return dbClient.toUni(log, "ChangeDao.getLastId", this::getLastIdQuery, row -> row.getLong(LAST_ID));
+    }
+
+    public Uni<Long> getLastId(SqlClient sqlClient) {
+        return dbClient.toUni(sqlClient, log, "ChangeDao.getLastId", this::getLastIdQuery, row -> row.getLong(LAST_ID));
+    }
+
+    private Query getLastIdQuery(DSLContext dslContext) {
+        return dslContext.select(DSL.coalesce(DSL.max(CHANGES.ID), 0L).as(LAST_ID))
+                .from(CHANGES);
+    }
+
+    private Query getPageQuery(DSLContext dslContext, long after, @Nullable String structureName, int limit) {
+        var condition = structureName == null
+                ? CHANGES.ID.gt(after)
+                : CHANGES.ID.gt(after).and(CHANGES.STRUCTURE_NAME.eq(structureName));
+        var last = dslContext.select(DSL.coalesce(DSL.max(CHANGES.ID), 0L).as(LAST_ID))
+                .from(CHANGES)
+                .asTable("last");
+        var page = dslContext.selectFrom(CHANGES)
+                .where(condition)
+                .orderBy(CHANGES.ID)
+                .limit(limit)
+                .asTable("page");
+        return dslContext.select(page.fields())
+                .select(last.field(LAST_ID))
+                .from(last)
+                .leftJoin(DSL.lateral(page)).on(DSL.trueCondition())
+                .orderBy(page.field(CHANGES.ID));
+    }
+
+    private ChangesPage toPage(Row row) {
+        return new ChangesPage(
+                row.getLong(CHANGES.ID.getName()) == null ? List.of() : List.of(toRecord(row)),
+                row.getLong(LAST_ID)
+        );
+    }
+
+    private ChangesPage merge(List<ChangesPage> rows) {
+        return new ChangesPage(
+                rows.stream().flatMap(page -> page.changes().stream()).toList(),
+                rows.stream().mapToLong(ChangesPage::lastId).max().orElse(0L)
+        );
+    }
+
+    private ChangesRecord toRecord(Row row) {
+        return new ChangesRecord(
+                row.getLong(CHANGES.ID.getName()),
+                row.getString(CHANGES.TYPE.getName()),
+                row.getLong(CHANGES.STRUCTURE_ID.getName()),
+                row.getString(CHANGES.STRUCTURE_NAME.getName()),
+                row.getLong(CHANGES.VERSION_ID.getName()),
+                row.getString(CHANGES.VERSION_NAME.getName()),
+                row.getOffsetDateTime(CHANGES.CREATED_AT.getName())
+        );
+    }
+
+}
@@ -0,0 +1,90 @@
+package ru.craftysoft.schemaregistry.service.dao;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.SqlClient;
+import lombok.RequiredArgsConstructor;
+import ru.craftysoft.schemaregistry.builder.record.ChangesRecordBuilder;
+import ru.craftysoft.schemaregistry.dto.intermediate.ChangeNotification;
+import ru.craftysoft.schemaregistry.dto.intermediate.ChangesPage;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.ChangesRecord;
+import ru.craftysoft.schemaregistry.model.rest.ChangeType;
+
+import javax.annotation.Nullable;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.function.Supplier;
+
+/**
+ * Изменения пишутся в журнал и рассылаются через {@code NOTIFY} в транзакции самой операции,
+ * поэтому попадают в ленту и доходят до других узлов только вместе с её коммитом.
+ */
+@ApplicationScoped
+@RequiredArgsConstructor
+public class ChangeDaoAdapter {
+
+    private final ChangeDao dao;
+    private final ChangesRecordBuilder changesRecordBuilder;
+
+    public Uni<ChangesRecord> versionCreated(SqlClient sqlClient, long versionId) {
+        return publish(sqlClient, () -> dao.createByVersion(sqlClient, ChangeType.VERSION_CREATED, versionId));
+    }
+
+    /**
+     * Вызывается до удаления версии, в журнал запись добавляет {@link #append}.
+     */
+    public Uni<ChangesRecord> versionDeletion(SqlClient sqlClient, long versionId) {
+        return dao.describeVersion(sqlClient, ChangeType.VERSION_DELETED, versionId);
+    }
+
+    public Uni<ChangesRecord> versionDeleted(SqlClient sqlClient, long structureId, String structureName, long versionId, String versionName) {
+        var record = changesRecordBuilder.build(ChangeType.VERSION_DELETED, structureId, structureName, versionId, versionName);
+        return publish(sqlClient, () -> dao.create(sqlClient, record));
+    }
+
+    /**
+     * Вызывается до удаления структуры, в журнал запись добавляет {@link #append}.
+     */
+    public Uni<ChangesRecord> structureDeletion(SqlClient sqlClient, long structureId) {
+        return dao.describeStructure(sqlClient, ChangeType.STRUCTURE_DELETED, structureId);
+    }
+
+    /**
+     * Берёт блокировку журнала до конца транзакции, поэтому должен быть последним шагом перед коммитом.
+     */
+    public Uni<ChangesRecord> append(SqlClient sqlClient, ChangesRecord change) {
+        return publish(sqlClient, () -> dao.create(sqlClient, change));
+    }
+
+    public Uni<ChangesRecord> structureDeleted(SqlClient sqlClient, long structureId, String structureName) {
+        var record = changesRecordBuilder.build(ChangeType.STRUCTURE_DELETED, structureId, structureName, null, null);
+        return publish(sqlClient, () -> dao.create(sqlClient, record));
+    }
+
+    public Uni<ChangesPage> getPage(long after, @Nullable String structureName, int limit) {
+        return dao.getPage(after, structureName, limit);
+    }
+
+    public Uni<ChangesPage> getPage(SqlClient sqlClient, long after, int limit) {
+        return dao.getPage(sqlClient, after, null, limit);
+    }
+
+    public Uni<Long> getLastId() {
+        return dao.getLastId();
+    }
+
+    public Uni<Long> getLastId(SqlClient sqlClient) {
+        return dao.getLastId(sqlClient);
+    }
+
+    /**
+     * Запись журнала и уведомление других узлов об изменении структуры.
+     */
+    private Uni<ChangesRecord> publish(SqlClient sqlClient, Supplier<Uni<ChangesRecord>> create) {
+        return dao.lock(sqlClient)
+                .flatMap(ignored -> create.get())
+                .call(change -> {
+                    var notification = new ChangeNotification(change.getId(), change.getStructureName());
+                    return dao.notify(sqlClient, ChangeNotification.CHANNEL, notification.encode());
+                });
+    }
+
+}
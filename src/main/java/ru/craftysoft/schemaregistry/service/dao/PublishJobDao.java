@@ -0,0 +1,163 @@
+package ru.craftysoft.schemaregistry.service.dao;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.SqlClient;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Query;
+import org.jooq.impl.DSL;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.PublishJobsRecord;
+import ru.craftysoft.schemaregistry.model.rest.PublishJobStatus;
+import ru.craftysoft.schemaregistry.util.DbClient;
+
+import javax.annotation.Nullable;
+import javax.enterprise.context.ApplicationScoped;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+import static ru.craftysoft.schemaregistry.model.jooq.tables.PublishJobs.PUBLISH_JOBS;
+
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+public class PublishJobDao {
+
+    private final DbClient dbClient;
+
+    public Uni<PublishJobsRecord> create(SqlClient sqlClient, PublishJobsRecord record) {
+        return dbClient.insertWithReturning(
+                sqlClient, log, "PublishJobDao.create", record,
+                List.of(PUBLISH_JOBS.ID, PUBLISH_JOBS.STATUS, PUBLISH_JOBS.ATTEMPTS, PUBLISH_JOBS.SCHEMAS_UPLOADED, PUBLISH_JOBS.CREATED_AT, PUBLISH_JOBS.UPDATED_AT),
+                row -> {
+                    record.setId(row.getLong(PUBLISH_JOBS.ID.getName()));
+                    record.setStatus(row.getString(PUBLISH_JOBS.STATUS.getName()));
+                    record.setAttempts(row.getInteger(PUBLISH_JOBS.ATTEMPTS.getName()));
+                    record.setSchemasUploaded(row.getInteger(PUBLISH_JOBS.SCHEMAS_UPLOADED.getName()));
+                    record.setCreatedAt(row.getOffsetDateTime(PUBLISH_JOBS.CREATED_AT.getName()));
+                    record.setUpdatedAt(row.getOffsetDateTime(PUBLISH_JOBS.UPDATED_AT.getName()));
+                    return record;
+                }
+        );
+    }
+
+    public Uni<PublishJobsRecord> get(long id) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.selectFrom(PUBLISH_JOBS)
+                .where(PUBLISH_JOBS.ID.eq(id));
+        return dbClient.toUni(log, "PublishJobDao.get", queryBuilder, this::toRecord);
+    }
+
+    /**
+     * Забирает в работу самую старую задачу из очереди или задачу, исполнитель которой перестал слать heartbeat.
+     * {@code SKIP LOCKED} позволяет нескольким экземплярам разбирать очередь без блокировок друг друга.
+     * Зависшая задача, исчерпавшая {@code maxAttempts}, не перехватывается: её закрывает {@link #failExhausted}.
+     */
+    public Uni<PublishJobsRecord> claim(OffsetDateTime staleBefore, int maxAttempts) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.update(PUBLISH_JOBS)
+                .set(PUBLISH_JOBS.STATUS, PublishJobStatus.RUNNING.toString())
+                .set(PUBLISH_JOBS.ATTEMPTS, PUBLISH_JOBS.ATTEMPTS.plus(1))
+                .set(PUBLISH_JOBS.HEARTBEAT_AT, DSL.currentOffsetDateTime())
+                .set(PUBLISH_JOBS.UPDATED_AT, DSL.currentOffsetDateTime())
+                .where(PUBLISH_JOBS.ID.eq(dslContext.select(PUBLISH_JOBS.ID)
+                        .from(PUBLISH_JOBS)
+                        .where(PUBLISH_JOBS.STATUS.eq(PublishJobStatus.QUEUED.toString())
+                                .or(PUBLISH_JOBS.STATUS.eq(PublishJobStatus.RUNNING.toString())
+                                        .and(PUBLISH_JOBS.HEARTBEAT_AT.lt(staleBefore))
+                                        .and(PUBLISH_JOBS.ATTEMPTS.lt(maxAttempts))))
+                        .orderBy(PUBLISH_JOBS.ID)
+                        .limit(1)
+                        .forUpdate()
+                        .skipLocked()))
+                .returning();
+        return dbClient.toUni(dbClient.pool(Workload.write), log, "PublishJobDao.claim", queryBuilder, this::toRecord);
+    }
+
+    /**
+     * Помечает {@code FAILED} зависшие задачи, исчерпавшие попытки: исполнитель такой задачи падал, не успев записать отказ,
+     * например, из-за нехватки памяти на архиве.
+     *
+     * @return закрытые задачи
+     */
+    public Uni<List<PublishJobsRecord>> failExhausted(OffsetDateTime staleBefore, int maxAttempts, String error) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.update(PUBLISH_JOBS)
+                .set(PUBLISH_JOBS.STATUS, PublishJobStatus.FAILED.toString())
+                .set(PUBLISH_JOBS.ERROR, error)
+                .setNull(PUBLISH_JOBS.HEARTBEAT_AT)
+                .set(PUBLISH_JOBS.UPDATED_AT, DSL.currentOffsetDateTime())
+                .where(PUBLISH_JOBS.STATUS.eq(PublishJobStatus.RUNNING.toString()))
+                .and(PUBLISH_JOBS.HEARTBEAT_AT.lt(staleBefore))
+                .and(PUBLISH_JOBS.ATTEMPTS.ge(maxAttempts))
+                .returning();
+        return dbClient.toUniOfList(dbClient.pool(Workload.write), log, "PublishJobDao.failExhausted", queryBuilder, this::toRecord);
+    }
+
+    /**
+     * Обновления задачи от исполнителя применяются, только пока {@code attempts} совпадает со значением при захвате:
+     * после перехвата зависшей задачи прежний исполнитель получит 0 обновлённых строк.
+     */
+    public Uni<Integer> heartbeat(long id, int attempts, @Nullable Integer schemasTotal, int schemasUploaded) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.update(PUBLISH_JOBS)
+                .set(PUBLISH_JOBS.SCHEMAS_TOTAL, schemasTotal)
+                .set(PUBLISH_JOBS.SCHEMAS_UPLOADED, schemasUploaded)
+                .set(PUBLISH_JOBS.HEARTBEAT_AT, DSL.currentOffsetDateTime())
+                .set(PUBLISH_JOBS.UPDATED_AT, DSL.currentOffsetDateTime())
+                .where(owned(id, attempts));
+        return dbClient.execute(dbClient.pool(Workload.write), log, "PublishJobDao.heartbeat", queryBuilder);
+    }
+
+    public Uni<Integer> complete(SqlClient sqlClient, long id, int attempts, long structureId, long versionId, Long[] schemasIds) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.update(PUBLISH_JOBS)
+                .set(PUBLISH_JOBS.STATUS, PublishJobStatus.DONE.toString())
+                .set(PUBLISH_JOBS.STRUCTURE_ID, structureId)
+                .set(PUBLISH_JOBS.VERSION_ID, versionId)
+                .set(PUBLISH_JOBS.SCHEMAS_IDS, schemasIds)
+                .set(PUBLISH_JOBS.SCHEMAS_TOTAL, schemasIds.length)
+                .set(PUBLISH_JOBS.SCHEMAS_UPLOADED, schemasIds.length)
+                .setNull(PUBLISH_JOBS.ERROR)
+                .set(PUBLISH_JOBS.UPDATED_AT, DSL.currentOffsetDateTime())
+                .where(owned(id, attempts));
+        return dbClient.execute(sqlClient, log, "PublishJobDao.complete", queryBuilder);
+    }
+
+    public Uni<Integer> fail(long id, int attempts, String error, PublishJobStatus status) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.update(PUBLISH_JOBS)
+                .set(PUBLISH_JOBS.STATUS, status.toString())
+                .set(PUBLISH_JOBS.ERROR, error)
+                .setNull(PUBLISH_JOBS.HEARTBEAT_AT)
+                .set(PUBLISH_JOBS.UPDATED_AT, DSL.currentOffsetDateTime())
+                .where(owned(id, attempts));
+        return dbClient.execute(dbClient.pool(Workload.write), log, "PublishJobDao.fail", queryBuilder);
+    }
+
+    private static Condition owned(long id, int attempts) {
+        return PUBLISH_JOBS.ID.eq(id)
+                .and(PUBLISH_JOBS.ATTEMPTS.eq(attempts))
+                .and(PUBLISH_JOBS.STATUS.eq(PublishJobStatus.RUNNING.toString()));
+    }
+
+    private PublishJobsRecord toRecord(Row row) {
+        return new PublishJobsRecord(
+                row.getLong(PUBLISH_JOBS.ID.getName()),
+                row.getString(PUBLISH_JOBS.STRUCTURE_NAME.getName()),
+                row.getString(PUBLISH_JOBS.VERSION_NAME.getName()),
+                row.getBoolean(PUBLISH_JOBS.FORCE.getName()),
+                row.getString(PUBLISH_JOBS.ARCHIVE_LINK.getName()),
+                row.getString(PUBLISH_JOBS.STATUS.getName()),
+                row.getInteger(PUBLISH_JOBS.ATTEMPTS.getName()),
+                row.getInteger(PUBLISH_JOBS.SCHEMAS_TOTAL.getName()),
+                row.getInteger(PUBLISH_JOBS.SCHEMAS_UPLOADED.getName()),
+                row.getLong(PUBLISH_JOBS.STRUCTURE_ID.getName()),
+                row.getLong(PUBLISH_JOBS.VERSION_ID.getName()),
+                row.getArrayOfLongs(PUBLISH_JOBS.SCHEMAS_IDS.getName()),
+                row.getString(PUBLISH_JOBS.ERROR.getName()),
+                row.getOffsetDateTime(PUBLISH_JOBS.CREATED_AT.getName()),
+                row.getOffsetDateTime(PUBLISH_JOBS.UPDATED_AT.getName()),
+                row.getOffsetDateTime(PUBLISH_JOBS.HEARTBEAT_AT.getName())
+        );
+    }
+
+}
@@ -0,0 +1,90 @@
+package ru.craftysoft.schemaregistry.service.dao;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.SqlClient;
+import lombok.RequiredArgsConstructor;
+import ru.craftysoft.schemaregistry.builder.record.PublishJobsRecordBuilder;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.PublishJobsRecord;
+import ru.craftysoft.schemaregistry.model.rest.CreateVersionResponseData;
+import ru.craftysoft.schemaregistry.model.rest.PublishJobStatus;
+
+import javax.annotation.Nullable;
+import javax.enterprise.context.ApplicationScoped;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@ApplicationScoped
+@RequiredArgsConstructor
+public class PublishJobDaoAdapter {
+
+    private final PublishJobDao dao;
+    private final PublishJobsRecordBuilder publishJobsRecordBuilder;
+
+    /**
+     * Задача ещё не сохранена, ссылка на её архив уже выбрана: архив загружается до записи задачи.
+     */
+    public PublishJobsRecord build(String structureName, String versionName, boolean force) {
+        return publishJobsRecordBuilder.build(structureName, versionName, force);
+    }
+
+    public Uni<PublishJobsRecord> create(SqlClient sqlClient, PublishJobsRecord job) {
+        return dao.create(sqlClient, job);
+    }
+
+    public Uni<PublishJobsRecord> get(long id) {
+        return dao.get(id)
+                .onItem()
+                .ifNull()
+                .failWith(() -> new RuntimeException("Не найдена задача публикации по id=" + id));
+    }
+
+    /**
+     * @return задача, взятая в работу, или {@code null}, если очередь пуста
+     */
+    public Uni<PublishJobsRecord> claim(OffsetDateTime staleBefore, int maxAttempts) {
+        return dao.claim(staleBefore, maxAttempts);
+    }
+
+    /**
+     * @return зависшие задачи, исчерпавшие попытки и помеченные {@code FAILED}
+     */
+    public Uni<List<PublishJobsRecord>> failExhausted(OffsetDateTime staleBefore, int maxAttempts) {
+        return dao.failExhausted(staleBefore, maxAttempts, "Исчерпаны попытки публикации: исполнитель задачи перестал отвечать");
+    }
+
+    /**
+     * @return {@code false}, если задачу перехватил другой исполнитель
+     */
+    public Uni<Boolean> heartbeat(PublishJobsRecord job, @Nullable Integer schemasTotal, int schemasUploaded) {
+        return dao.heartbeat(job.getId(), job.getAttempts(), schemasTotal, schemasUploaded)
+                .map(updated -> updated > 0);
+    }
+
+    /**
+     * Падает, если задачу перехватил другой исполнитель, чтобы транзакция публикации откатилась.
+     */
+    public Uni<Void> complete(SqlClient sqlClient, PublishJobsRecord job, CreateVersionResponseData response) {
+        var schemasIds = response.getSchemaIds().toArray(Long[]::new);
+        return dao.complete(sqlClient, job.getId(), job.getAttempts(), response.getStructureId(), response.getVersionId(), schemasIds)
+                .invoke(updated -> {
+                    if (updated == 0) {
+                        throw lostOwnership(job);
+                    }
+                })
+                .replaceWithVoid();
+    }
+
+    /**
+     * @return {@code false}, если задачу перехватил другой исполнитель и её статус не изменён
+     */
+    public Uni<Boolean> fail(PublishJobsRecord job, String error, boolean retry) {
+        var status = retry ? PublishJobStatus.QUEUED : PublishJobStatus.FAILED;
+        return dao.fail(job.getId(), job.getAttempts(), error, status)
+                .map(updated -> updated > 0);
+    }
+
+    public RuntimeException lostOwnership(PublishJobsRecord job) {
+        return new RuntimeException("Задача публикации id=%s попытка %s перехвачена другим исполнителем".formatted(job.getId(), job.getAttempts()));
+    }
+
+}
@@ -1,17 +1,25 @@
 package ru.craftysoft.schemaregistry.service.dao;
 
 import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Row;
 import io.vertx.mutiny.sqlclient.SqlClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jooq.DSLContext;
 import org.jooq.Query;
+import org.jooq.Record1;
+import org.jooq.Select;
+import ru.craftysoft.schemaregistry.dto.intermediate.SchemaDiff;
+import ru.craftysoft.schemaregistry.dto.intermediate.SchemaLink;
+import ru.craftysoft.schemaregistry.dto.intermediate.SchemaLocation;
+import ru.craftysoft.schemaregistry.dto.intermediate.VersionDiff;
 import ru.craftysoft.schemaregistry.model.jooq.tables.records.SchemasRecord;
 import ru.craftysoft.schemaregistry.util.DbClient;
 
 import javax.annotation.Nullable;
 import javax.enterprise.context.ApplicationScoped;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -26,14 +34,26 @@ import static ru.craftysoft.schemaregistry.model.jooq.tables.Versions.VERSIONS;
 @Slf4j
 public class SchemaDao {
 
+    private static final String FROM_VERSION_ID = "from_version_id";
+    private static final String TO_VERSION_ID = "to_version_id";
+    private static final String DIFF_PATH = "diff_path";
+    private static final String DIFF_TYPE = "diff_type";
+    private static final String DIFF_LINK = "diff_link";
+    private static final String DIFF_OFFSET = "diff_offset";
+    private static final String DIFF_LENGTH = "diff_length";
+    private static final String DIFF_CONTENT = "diff_content";
+
     private final DbClient dbClient;
 
-    public Uni<String> getLink(@Nullable Long schemaId,
-                               @Nullable String schemaPath,
-                               @Nullable String versionName,
-                               @Nullable String structureName) {
+    public Uni<SchemaLink> getLink(@Nullable Long schemaId,
+                                   @Nullable String schemaPath,
+                                   @Nullable String versionName,
+                                   @Nullable String structureName) {
         Function<DSLContext, Query> queryBuilder = dslContext -> resolveGetLinkQuery(dslContext, schemaId, schemaPath, versionName, structureName);
-        return dbClient.toUni(log, "SchemaDao.getLink", queryBuilder, row -> row.getString(SCHEMAS.LINK.getName()));
+        return dbClient.toUni(log, "SchemaDao.getLink", queryBuilder, row -> new SchemaLink(
+                toLocation(row),
+                row.getString(STRUCTURES.NAME.getName())
+        ));
     }
 
     private Query resolveGetLinkQuery(DSLContext dslContext,
@@ -41,19 +61,17 @@ public class SchemaDao {
                                       @Nullable String schemaPath,
                                       @Nullable String versionName,
                                       @Nullable String structureName) {
-        var query = dslContext.select(SCHEMAS.LINK)
+        var query = dslContext.select(SCHEMAS.LINK, SCHEMAS.CONTENT_OFFSET, SCHEMAS.CONTENT_LENGTH, SCHEMAS.CONTENT, STRUCTURES.NAME)
                 .from(SCHEMAS);
         if (schemaId != null) {
-            return query.where(SCHEMAS.ID.eq(schemaId));
+            return query
+                    .join(VERSIONS).on(VERSIONS.ID.eq(SCHEMAS.VERSION_ID))
+                    .join(STRUCTURES).on(STRUCTURES.ID.eq(VERSIONS.STRUCTURE_ID))
+                    .where(SCHEMAS.ID.eq(schemaId));
         }
         if (versionName == null) {
-            return dslContext.with("last_version")
-                    .as(dslContext.select(max(VERSIONS.ID).as("last_version_id"))
-                            .from(VERSIONS)
-                            .join(STRUCTURES).on(STRUCTURES.ID.eq(VERSIONS.STRUCTURE_ID).and(STRUCTURES.NAME.eq(structureName))))
-                    .select(SCHEMAS.LINK)
-                    .from(SCHEMAS)
-                    .join(table("last_version")).on(SCHEMAS.VERSION_ID.eq(field("last_version_id", Long.class)))
+            return query
+                    .join(STRUCTURES).on(STRUCTURES.LATEST_VERSION_ID.eq(SCHEMAS.VERSION_ID).and(STRUCTURES.NAME.eq(structureName)))
                     .where(SCHEMAS.PATH.eq(schemaPath));
         }
         return query
@@ -62,17 +80,166 @@ public class SchemaDao {
                 .where(SCHEMAS.PATH.eq(schemaPath));
     }
 
+    /**
+     * Различия между версиями одной структуры: схемы из двух версий соединяются по пути одним {@code FULL JOIN},
+     * схема считается изменённой, если у неё другой хеш содержимого.
+     * Схемы без хеша сравниваются по ссылкам.
+     */
+    public Uni<VersionDiff> getDiff(String structureName, String fromVersionName, String toVersionName) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> getDiffQuery(dslContext, structureName, fromVersionName, toVersionName);
+        return dbClient.toUniOfList(log, "SchemaDao.getDiff", queryBuilder, this::toDiffRow)
+                .map(this::mergeDiff);
+    }
+
+    private Query getDiffQuery(DSLContext dslContext, String structureName, String fromVersionName, String toVersionName) {
+        var ids = dslContext.select(
+                        versionIdQuery(dslContext, structureName, fromVersionName).asField(FROM_VERSION_ID),
+                        versionIdQuery(dslContext, structureName, toVersionName).asField(TO_VERSION_ID)
+                )
+                .asTable("ids");
+        var fromSchemas = dslContext.select(SCHEMAS.PATH, SCHEMAS.LINK, SCHEMAS.CONTENT_HASH)
+                .from(SCHEMAS)
+                .where(SCHEMAS.VERSION_ID.eq(ids.field(FROM_VERSION_ID, Long.class)))
+                .asTable("from_schemas");
+        var toSchemas = dslContext.select(SCHEMAS.PATH, SCHEMAS.LINK, SCHEMAS.CONTENT_OFFSET, SCHEMAS.CONTENT_LENGTH, SCHEMAS.CONTENT, SCHEMAS.CONTENT_HASH)
+                .from(SCHEMAS)
+                .where(SCHEMAS.VERSION_ID.eq(ids.field(TO_VERSION_ID, Long.class)))
+                .asTable("to_schemas");
+        var fromPath = fromSchemas.field(SCHEMAS.PATH);
+        var toPath = toSchemas.field(SCHEMAS.PATH);
+        var fromHash = fromSchemas.field(SCHEMAS.CONTENT_HASH);
+        var toHash = toSchemas.field(SCHEMAS.CONTENT_HASH);
+        var modified = fromHash.isNull().or(toHash.isNull())
+                .and(fromSchemas.field(SCHEMAS.LINK).isDistinctFrom(toSchemas.field(SCHEMAS.LINK)))
+                .or(fromHash.ne(toHash));
+        var diff = dslContext.select(
+                        coalesce(toPath, fromPath).as(DIFF_PATH),
+                        when(fromPath.isNull(), inline(SchemaDiff.Type.added.name()))
+                                .when(toPath.isNull(), inline(SchemaDiff.Type.removed.name()))
+                                .otherwise(inline(SchemaDiff.Type.modified.name()))
+                                .as(DIFF_TYPE),
+                        toSchemas.field(SCHEMAS.LINK).as(DIFF_LINK),
+                        toSchemas.field(SCHEMAS.CONTENT_OFFSET).as(DIFF_OFFSET),
+                        toSchemas.field(SCHEMAS.CONTENT_LENGTH).as(DIFF_LENGTH),
+                        toSchemas.field(SCHEMAS.CONTENT).as(DIFF_CONTENT)
+                )
+                .from(fromSchemas)
+                .fullJoin(toSchemas).on(fromPath.eq(toPath))
+                .where(fromPath.isNull().or(toPath.isNull()).or(modified))
+                .asTable("diff");
+        return dslContext.select(ids.fields())
+                .select(diff.fields())
+                .from(ids)
+                .leftJoin(lateral(diff)).on(trueCondition())
+                .orderBy(diff.field(DIFF_PATH));
+    }
+
+    private Select<Record1<Long>> versionIdQuery(DSLContext dslContext, String structureName, String versionName) {
+        return dslContext.select(VERSIONS.ID)
+                .from(VERSIONS)
+                .join(STRUCTURES).on(STRUCTURES.ID.eq(VERSIONS.STRUCTURE_ID))
+                .where(
+                        STRUCTURES.NAME.eq(structureName),
+                        VERSIONS.NAME.eq(versionName)
+                );
+    }
+
+    private VersionDiff toDiffRow(Row row) {
+        var path = row.getString(DIFF_PATH);
+        var link = row.getString(DIFF_LINK);
+        var content = row.getBuffer(DIFF_CONTENT);
+        var location = link == null && content == null
+                ? null
+                : new SchemaLocation(link, row.getLong(DIFF_OFFSET), row.getInteger(DIFF_LENGTH), content == null ? null : content.getBytes());
+        return new VersionDiff(
+                row.getLong(FROM_VERSION_ID),
+                row.getLong(TO_VERSION_ID),
+                path == null ? List.of() : List.of(new SchemaDiff(path, SchemaDiff.Type.valueOf(row.getString(DIFF_TYPE)), location))
+        );
+    }
+
+    private VersionDiff mergeDiff(List<VersionDiff> rows) {
+        var first = rows.get(0);
+        return new VersionDiff(
+                first.fromVersionId(),
+                first.toVersionId(),
+                rows.stream().flatMap(diff -> diff.schemas().stream()).toList()
+        );
+    }
+
+    /**
+     * Положения схем версии по путям в порядке загрузки.
+     */
+    public Uni<List<Map.Entry<String, SchemaLocation>>> getLocationsByVersionId(long versionId) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.select(SCHEMAS.PATH, SCHEMAS.LINK, SCHEMAS.CONTENT_OFFSET, SCHEMAS.CONTENT_LENGTH, SCHEMAS.CONTENT)
+                .from(SCHEMAS)
+                .where(SCHEMAS.VERSION_ID.eq(versionId))
+                .orderBy(SCHEMAS.ID);
+        return dbClient.toUniOfList(log, "SchemaDao.getLocationsByVersionId", queryBuilder, row -> Map.entry(
+                row.getString(SCHEMAS.PATH.getName()),
+                toLocation(row)
+        ));
+    }
+
     public Uni<Set<String>> getLinksByVersionId(SqlClient sqlClient, long versionId) {
         Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.select(SCHEMAS.LINK)
                 .from(SCHEMAS)
-                .where(SCHEMAS.VERSION_ID.eq(versionId));
+                .where(SCHEMAS.VERSION_ID.eq(versionId))
+                .and(SCHEMAS.LINK.isNotNull());
         return dbClient.toUniOfSet(sqlClient, log, "SchemaDao.getLinksByVersionId", queryBuilder, row -> row.getString(SCHEMAS.LINK.getName()));
     }
 
+    public Uni<Set<SchemasRecord>> getByVersionId(long versionId) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.selectFrom(SCHEMAS)
+                .where(SCHEMAS.VERSION_ID.eq(versionId));
+        return dbClient.toUniOfSet(log, "SchemaDao.getByVersionId", queryBuilder, this::toRecord);
+    }
+
+    public Uni<Set<SchemasRecord>> getByVersionId(SqlClient sqlClient, long versionId) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.selectFrom(SCHEMAS)
+                .where(SCHEMAS.VERSION_ID.eq(versionId));
+        return dbClient.toUniOfSet(sqlClient, log, "SchemaDao.getByVersionId", queryBuilder, this::toRecord);
+    }
+
+    /**
+     * Схемы версии с путями из диапазона {@code [prefix, upperBound)} в порядке {@code COLLATE "C"}:
+     * условие совпадает с выражением индекса {@code schemas_version_id_path_c_idx}.
+     */
+    public Uni<Set<SchemasRecord>> getByVersionIdAndPathRange(long versionId, String prefix, @Nullable String upperBound) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> {
+            var path = SCHEMAS.PATH.collate(collation("C"));
+            var condition = SCHEMAS.VERSION_ID.eq(versionId).and(path.ge(prefix));
+            return dslContext.select(SCHEMAS.PATH, SCHEMAS.LINK, SCHEMAS.CONTENT_OFFSET, SCHEMAS.CONTENT_LENGTH, SCHEMAS.CONTENT)
+                    .from(SCHEMAS)
+                    .where(upperBound == null ? condition : condition.and(path.lt(upperBound)));
+        };
+        return dbClient.toUniOfSet(log, "SchemaDao.getByVersionIdAndPathRange", queryBuilder, row -> new SchemasRecord(
+                null,
+                row.getString(SCHEMAS.PATH.getName()),
+                versionId,
+                row.getString(SCHEMAS.LINK.getName()),
+                null,
+                row.getLong(SCHEMAS.CONTENT_OFFSET.getName()),
+                row.getInteger(SCHEMAS.CONTENT_LENGTH.getName()),
+                bytes(row, SCHEMAS.CONTENT.getName())
+        ));
+    }
+
+    /**
+     * Ссылки из {@code links}, на которые ещё ссылается хотя бы одна схема.
+     */
+    public Uni<Set<String>> getReferencedLinks(SqlClient sqlClient, Set<String> links) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.selectDistinct(SCHEMAS.LINK)
+                .from(SCHEMAS)
+                .where(SCHEMAS.LINK.in(links));
+        return dbClient.toUniOfSet(sqlClient, log, "SchemaDao.getReferencedLinks", queryBuilder, row -> row.getString(SCHEMAS.LINK.getName()));
+    }
+
     public Uni<Set<String>> getLinksByVersionsIds(SqlClient sqlClient, Set<Long> versionsIds) {
         Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.select(SCHEMAS.LINK)
                 .from(SCHEMAS)
-                .where(SCHEMAS.VERSION_ID.in(versionsIds));
+                .where(SCHEMAS.VERSION_ID.in(versionsIds))
+                .and(SCHEMAS.LINK.isNotNull());
         return dbClient.toUniOfSet(sqlClient, log, "SchemaDao.getLinksByVersionsIds", queryBuilder, row -> row.getString(SCHEMAS.LINK.getName()));
     }
 
@@ -89,11 +256,34 @@ public class SchemaDao {
     public Uni<Set<SchemasRecord>> getByVersionsIds(Set<Long> versionsIds) {
         Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.selectFrom(SCHEMAS)
                 .where(SCHEMAS.VERSION_ID.in(versionsIds));
-        return dbClient.toUniOfSet(log, "SchemaDao.getByVersionsIds", queryBuilder, row -> new SchemasRecord(
+        return dbClient.toUniOfSet(log, "SchemaDao.getByVersionsIds", queryBuilder, this::toRecord);
+    }
+
+    private SchemasRecord toRecord(Row row) {
+        return new SchemasRecord(
                 row.getLong(SCHEMAS.ID.getName()),
                 row.getString(SCHEMAS.PATH.getName()),
                 row.getLong(SCHEMAS.VERSION_ID.getName()),
-                row.getString(SCHEMAS.LINK.getName())
-        ));
+                row.getString(SCHEMAS.LINK.getName()),
+                bytes(row, SCHEMAS.CONTENT_HASH.getName()),
+                row.getLong(SCHEMAS.CONTENT_OFFSET.getName()),
+                row.getInteger(SCHEMAS.CONTENT_LENGTH.getName()),
+                bytes(row, SCHEMAS.CONTENT.getName())
+        );
+    }
+
+    private SchemaLocation toLocation(Row row) {
+        return new SchemaLocation(
+                row.getString(SCHEMAS.LINK.getName()),
+                row.getLong(SCHEMAS.CONTENT_OFFSET.getName()),
+                row.getInteger(SCHEMAS.CONTENT_LENGTH.getName()),
+                bytes(row, SCHEMAS.CONTENT.getName())
+        );
+    }
+
+    @Nullable
+    private static byte[] bytes(Row row, String column) {
+        var buffer = row.getBuffer(column);
+        return buffer == null ? null : buffer.getBytes();
     }
 }
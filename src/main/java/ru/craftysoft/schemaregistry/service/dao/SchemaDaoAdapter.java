@@ -1,15 +1,22 @@
 package ru.craftysoft.schemaregistry.service.dao;
 
 import io.smallrye.mutiny.Uni;
-import io.vertx.mutiny.core.Vertx;
+import io.smallrye.mutiny.unchecked.Unchecked;
 import io.vertx.mutiny.sqlclient.SqlClient;
 import lombok.RequiredArgsConstructor;
 import ru.craftysoft.schemaregistry.builder.intermediate.SchemaBuilder;
 import ru.craftysoft.schemaregistry.builder.record.SchemasRecordBuilder;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+import ru.craftysoft.schemaregistry.dto.intermediate.PathFilter;
 import ru.craftysoft.schemaregistry.dto.intermediate.Schema;
+import ru.craftysoft.schemaregistry.dto.intermediate.SchemaLocation;
 import ru.craftysoft.schemaregistry.dto.intermediate.Version;
+import ru.craftysoft.schemaregistry.dto.intermediate.VersionDiff;
 import ru.craftysoft.schemaregistry.model.jooq.tables.records.SchemasRecord;
 import ru.craftysoft.schemaregistry.model.jooq.tables.records.VersionsRecord;
+import ru.craftysoft.schemaregistry.service.cache.SchemaLinkCache;
+import ru.craftysoft.schemaregistry.service.catalog.MetadataCatalog;
+import ru.craftysoft.schemaregistry.service.executor.WorkerExecutors;
 
 import javax.annotation.Nullable;
 import javax.enterprise.context.ApplicationScoped;
@@ -18,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 @RequiredArgsConstructor
@@ -26,13 +34,20 @@ public class SchemaDaoAdapter {
     private final SchemaDao dao;
     private final SchemaBuilder schemaBuilder;
     private final SchemasRecordBuilder schemasRecordBuilder;
-    private final Vertx vertx;
+    private final WorkerExecutors workerExecutors;
+    private final SchemaLinkCache schemaLinkCache;
+    private final MetadataCatalog metadataCatalog;
 
-    public Uni<String> getLink(@Nullable Long schemaId,
-                               @Nullable String schemaPath,
-                               @Nullable String versionName,
-                               @Nullable String structureName) {
-        return dao.getLink(schemaId, schemaPath, versionName, structureName)
+    public Uni<SchemaLocation> getLink(@Nullable Long schemaId,
+                                       @Nullable String schemaPath,
+                                       @Nullable String versionName,
+                                       @Nullable String structureName) {
+        var catalogLink = metadataCatalog.getSchemaLink(schemaId, schemaPath, versionName, structureName);
+        if (catalogLink != null) {
+            return Uni.createFrom().item(catalogLink);
+        }
+        var key = new SchemaLinkCache.Key(schemaId, schemaPath, versionName, structureName);
+        return schemaLinkCache.get(key, () -> dao.getLink(schemaId, schemaPath, versionName, structureName))
                 .onItem()
                 .ifNull()
                 .failWith(() -> new RuntimeException("Не найдена схема по schemaId=%s schemaPath=%s versionName=%s structureName=%s".formatted(
@@ -44,7 +59,7 @@ public class SchemaDaoAdapter {
     }
 
     public Uni<Map.Entry<List<Long>, Set<Schema>>> create(SqlClient sqlClient, Version version, File body) {
-        return vertx.executeBlocking(Uni.createFrom().item(() -> schemaBuilder.build(version, body)))
+        return workerExecutors.executeBlocking(Workload.write, Uni.createFrom().item(() -> schemaBuilder.build(version, body)))
                 .flatMap(schemas -> {
                     var records = schemasRecordBuilder.build(schemas);
                     return dao.create(sqlClient, records)
@@ -52,6 +67,91 @@ public class SchemaDaoAdapter {
                 });
     }
 
+    /**
+     * Схемы версии, опубликованной относительно базовой: новые и изменённые из {@code body}
+     * и унаследованные от базовой версии, кроме удалённых. Унаследованные схемы ссылаются на те же объекты S3.
+     *
+     * @return id всех схем версии и схемы, которые нужно загрузить в S3
+     */
+    public Uni<Map.Entry<List<Long>, Set<Schema>>> createDelta(SqlClient sqlClient,
+                                                               Version version,
+                                                               File body,
+                                                               Set<SchemasRecord> baseSchemas,
+                                                               Set<String> removedPaths) {
+        return workerExecutors.executeBlocking(Workload.write, Uni.createFrom().item(() -> schemaBuilder.build(version, body)))
+                .flatMap(Unchecked.function(schemas -> {
+                    var basePaths = baseSchemas.stream()
+                            .map(SchemasRecord::getPath)
+                            .collect(Collectors.toSet());
+                    var changedPaths = schemas.stream()
+                            .map(Schema::path)
+                            .collect(Collectors.toSet());
+                    for (var removedPath : removedPaths) {
+                        if (!basePaths.contains(removedPath)) {
+                            throw new RuntimeException("Удаляемая схема '%s' отсутствует в базовой версии".formatted(removedPath));
+                        }
+                        if (changedPaths.contains(removedPath)) {
+                            throw new RuntimeException("Схема '%s' одновременно удаляется и публикуется".formatted(removedPath));
+                        }
+                    }
+                    var inheritedRecords = baseSchemas.stream()
+                            .filter(schema -> !changedPaths.contains(schema.getPath()) && !removedPaths.contains(schema.getPath()))
+                            .map(schema -> schemasRecordBuilder.build(version.id(), schema));
+                    var records = Stream.concat(schemasRecordBuilder.build(schemas), inheritedRecords);
+                    return dao.create(sqlClient, records)
+                            .map(ids -> Map.entry(ids, schemas));
+                }));
+    }
+
+    public Uni<VersionDiff> getDiff(String structureName, String fromVersionName, String toVersionName) {
+        return dao.getDiff(structureName, fromVersionName, toVersionName)
+                .invoke(Unchecked.consumer(diff -> {
+                    if (diff.fromVersionId() == null || diff.toVersionId() == null) {
+                        throw new RuntimeException("Не найдена версия %s по structureName=%s".formatted(
+                                diff.fromVersionId() == null ? fromVersionName : toVersionName,
+                                structureName
+                        ));
+                    }
+                }));
+    }
+
+    public Uni<Set<SchemasRecord>> getByVersionId(long versionId) {
+        return dao.getByVersionId(versionId);
+    }
+
+    public Uni<Set<SchemasRecord>> getByVersionId(SqlClient sqlClient, long versionId) {
+        return dao.getByVersionId(sqlClient, versionId);
+    }
+
+    /**
+     * Схемы версии, пути которых подходят под {@code filter}: по индексу выбираются пути с префиксом фильтра,
+     * glob-выражение проверяется на них.
+     */
+    public Uni<Set<SchemasRecord>> getByVersionId(long versionId, PathFilter filter) {
+        return dao.getByVersionIdAndPathRange(versionId, filter.prefix(), filter.upperBound())
+                .map(schemas -> schemas.stream()
+                        .filter(schema -> filter.matches(schema.getPath()))
+                        .collect(Collectors.toSet()));
+    }
+
+    public Uni<List<Map.Entry<String, SchemaLocation>>> getLocationsByVersionId(long versionId) {
+        return dao.getLocationsByVersionId(versionId);
+    }
+
+    /**
+     * Ссылки из {@code links}, на которые больше не ссылается ни одна схема: объекты схем, унаследованных
+     * другими версиями, удалять из S3 нельзя. Вызывается после удаления версии в той же транзакции.
+     */
+    public Uni<Set<String>> getUnreferencedLinks(SqlClient sqlClient, Set<String> links) {
+        if (links.isEmpty()) {
+            return Uni.createFrom().item(links);
+        }
+        return dao.getReferencedLinks(sqlClient, links)
+                .map(referencedLinks -> links.stream()
+                        .filter(link -> !referencedLinks.contains(link))
+                        .collect(Collectors.toSet()));
+    }
+
     public Uni<Set<String>> getLinksByVersionId(SqlClient sqlClient, long versionId) {
         return dao.getLinksByVersionId(sqlClient, versionId);
     }
@@ -15,6 +15,7 @@ import java.time.OffsetDateTime;
 import java.util.function.Function;
 
 import static java.util.Optional.ofNullable;
+import static org.jooq.impl.DSL.max;
 import static ru.craftysoft.schemaregistry.model.jooq.Tables.VERSIONS;
 import static ru.craftysoft.schemaregistry.model.jooq.tables.Structures.STRUCTURES;
 
@@ -35,6 +36,17 @@ public class StructureDao {
         return dbClient.toUni(sqlClient, log, "StructureDao.upsert", queryBuilder, row -> row.getLong(STRUCTURES.ID.getName()));
     }
 
+    /**
+     * Пересчитывает ссылку на последнюю версию. Вызывается после блокировки журнала изменений,
+     * поэтому видит версии структуры из всех завершённых транзакций.
+     */
+    public Uni<Integer> updateLatestVersion(SqlClient sqlClient, long id) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.update(STRUCTURES)
+                .set(STRUCTURES.LATEST_VERSION_ID, dslContext.select(max(VERSIONS.ID)).from(VERSIONS).where(VERSIONS.STRUCTURE_ID.eq(id)))
+                .where(STRUCTURES.ID.eq(id));
+        return dbClient.execute(sqlClient, log, "StructureDao.updateLatestVersion", queryBuilder);
+    }
+
     public Uni<Integer> delete(SqlClient sqlClient, long id) {
         Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.deleteFrom(STRUCTURES)
                 .where(STRUCTURES.ID.eq(id));
@@ -51,7 +63,8 @@ public class StructureDao {
                 row.getLong(STRUCTURES.ID.getName()),
                 row.getString(STRUCTURES.NAME.getName()),
                 row.getOffsetDateTime(STRUCTURES.CREATED_AT.getName()),
-                row.getOffsetDateTime(STRUCTURES.UPDATED_AT.getName())
+                row.getOffsetDateTime(STRUCTURES.UPDATED_AT.getName()),
+                row.getLong(STRUCTURES.LATEST_VERSION_ID.getName())
         ));
     }
 
@@ -33,6 +33,11 @@ public class StructureDaoAdapter {
                 .replaceWithVoid();
     }
 
+    public Uni<Void> updateLatestVersion(SqlClient sqlClient, long id) {
+        return dao.updateLatestVersion(sqlClient, id)
+                .replaceWithVoid();
+    }
+
     public Uni<StructuresRecord> getByIdOrName(@Nullable Long id, @Nullable String name) {
         return dao.getByIdOrName(id, name)
                 .onItem()
@@ -1,20 +1,30 @@
 package ru.craftysoft.schemaregistry.service.dao;
 
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import io.vertx.mutiny.sqlclient.SqlClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jooq.Condition;
 import org.jooq.DSLContext;
 import org.jooq.Query;
+import ru.craftysoft.schemaregistry.dto.intermediate.ExportedVersion;
+import ru.craftysoft.schemaregistry.dto.intermediate.ResolvedVersion;
+import ru.craftysoft.schemaregistry.dto.intermediate.VersionArchive;
+import ru.craftysoft.schemaregistry.dto.intermediate.VersionRange;
 import ru.craftysoft.schemaregistry.model.jooq.tables.records.VersionsRecord;
 import ru.craftysoft.schemaregistry.util.DbClient;
 
 import javax.annotation.Nullable;
 import javax.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
 
+import static java.util.Optional.ofNullable;
+import static org.jooq.impl.DSL.row;
 import static ru.craftysoft.schemaregistry.model.jooq.tables.Structures.STRUCTURES;
 import static ru.craftysoft.schemaregistry.model.jooq.tables.Versions.VERSIONS;
 
@@ -23,17 +33,23 @@ import static ru.craftysoft.schemaregistry.model.jooq.tables.Versions.VERSIONS;
 @Slf4j
 public class VersionDao {
 
+    private static final String RESOLVED_VERSION_NAME = "version_name";
+    private static final String RESOLVED_STRUCTURE_NAME = "structure_name";
+
     private final DbClient dbClient;
 
     public Uni<Long> create(SqlClient sqlClient, VersionsRecord record) {
         return dbClient.insertWithReturning(sqlClient, log, "VersionDao.create", record, List.of(VERSIONS.ID), row -> row.getLong(VERSIONS.ID.getName()));
     }
 
-    public Uni<String> getLink(SqlClient sqlClient, long id) {
-        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.select(VERSIONS.LINK)
+    public Uni<VersionArchive> getArchive(SqlClient sqlClient, long id) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.select(VERSIONS.ID, VERSIONS.LINK)
                 .from(VERSIONS)
                 .where(VERSIONS.ID.eq(id));
-        return dbClient.toUni(sqlClient, log, "VersionDao.getLink", queryBuilder, row -> row.getString(VERSIONS.LINK.getName()));
+        return dbClient.toUni(sqlClient, log, "VersionDao.getArchive", queryBuilder, row -> new VersionArchive(
+                row.getLong(VERSIONS.ID.getName()),
+                row.getString(VERSIONS.LINK.getName())
+        ));
     }
 
     public Uni<VersionsRecord> get(SqlClient sqlClient, long structureId, String name) {
@@ -52,10 +68,65 @@ public class VersionDao {
                 name,
                 structureId,
                 row.getString(VERSIONS.LINK.getName()),
+                null,
+                null,
+                null,
+                null,
                 null
         ));
     }
 
+    /**
+     * Версия с блокировкой {@code FOR SHARE}: пока транзакция не завершится, версию нельзя удалить.
+     */
+    public Uni<VersionsRecord> getForShare(SqlClient sqlClient, long structureId, String name) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.selectFrom(VERSIONS)
+                .where(
+                        VERSIONS.STRUCTURE_ID.eq(structureId),
+                        VERSIONS.NAME.eq(name)
+                )
+                .forShare();
+        return dbClient.toUni(sqlClient, log, "VersionDao.getForShare", queryBuilder, row -> new VersionsRecord(
+                row.getLong(VERSIONS.ID.getName()),
+                row.getString(VERSIONS.NAME.getName()),
+                row.getLong(VERSIONS.STRUCTURE_ID.getName()),
+                row.getString(VERSIONS.LINK.getName()),
+                row.getOffsetDateTime(VERSIONS.CREATED_AT.getName()),
+                row.getInteger(VERSIONS.SEMVER_MAJOR.getName()),
+                row.getInteger(VERSIONS.SEMVER_MINOR.getName()),
+                row.getInteger(VERSIONS.SEMVER_PATCH.getName()),
+                row.getString(VERSIONS.SEMVER_PRE_RELEASE.getName())
+        ));
+    }
+
+    public Uni<Boolean> exists(SqlClient sqlClient, String structureName, String name) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.select(VERSIONS.ID)
+                .from(VERSIONS)
+                .join(STRUCTURES).on(STRUCTURES.ID.eq(VERSIONS.STRUCTURE_ID))
+                .where(
+                        STRUCTURES.NAME.eq(structureName),
+                        VERSIONS.NAME.eq(name)
+                );
+        return dbClient.toUni(sqlClient, log, "VersionDao.exists", queryBuilder, row -> row.getLong(VERSIONS.ID.getName()))
+                .map(Objects::nonNull);
+    }
+
+    /**
+     * Версии с id больше {@code afterId} в порядке id, читаются курсором.
+     */
+    public Multi<ExportedVersion> streamAfter(long afterId) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.select(VERSIONS.ID, VERSIONS.NAME.as(RESOLVED_VERSION_NAME), STRUCTURES.NAME.as(RESOLVED_STRUCTURE_NAME))
+                .from(VERSIONS)
+                .join(STRUCTURES).on(STRUCTURES.ID.eq(VERSIONS.STRUCTURE_ID))
+                .where(VERSIONS.ID.gt(afterId))
+                .orderBy(VERSIONS.ID);
+        return dbClient.toMulti(log, "VersionDao.streamAfter", queryBuilder, row -> new ExportedVersion(
+                row.getLong(VERSIONS.ID.getName()),
+                row.getString(RESOLVED_STRUCTURE_NAME),
+                row.getString(RESOLVED_VERSION_NAME)
+        ));
+    }
+
     public Uni<Long> deleteAndReturnStructureId(SqlClient sqlClient, long id) {
         Function<DSLContext, Query> queryBuilder = dslContext -> dslContext.deleteFrom(VERSIONS)
                 .where(VERSIONS.ID.eq(id))
@@ -82,6 +153,10 @@ public class VersionDao {
                 null,
                 null,
                 row.getString(VERSIONS.LINK.getName()),
+                null,
+                null,
+                null,
+                null,
                 null
         ));
     }
@@ -95,24 +170,63 @@ public class VersionDao {
                 row.getString(VERSIONS.NAME.getName()),
                 null,
                 row.getString(VERSIONS.LINK.getName()),
-                row.getOffsetDateTime(VERSIONS.CREATED_AT.getName())
+                row.getOffsetDateTime(VERSIONS.CREATED_AT.getName()),
+                row.getInteger(VERSIONS.SEMVER_MAJOR.getName()),
+                row.getInteger(VERSIONS.SEMVER_MINOR.getName()),
+                row.getInteger(VERSIONS.SEMVER_PATCH.getName()),
+                row.getString(VERSIONS.SEMVER_PRE_RELEASE.getName())
         ));
     }
 
-    public Uni<String> getLink(@Nullable Long structureId,
-                               @Nullable String structureName,
-                               @Nullable Long versionId,
-                               @Nullable String versionName) {
-        Function<DSLContext, Query> queryBuilder = dslContext -> resolveGetLinkQuery(dslContext, structureId, structureName, versionId, versionName);
-        return dbClient.toUni(log, "VersionDao.getLink", queryBuilder, row -> row.getString(VERSIONS.LINK.getName()));
+    public Uni<VersionArchive> getArchive(@Nullable Long structureId,
+                                          @Nullable String structureName,
+                                          @Nullable Long versionId,
+                                          @Nullable String versionName) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> resolveGetArchiveQuery(dslContext, structureId, structureName, versionId, versionName);
+        return dbClient.toUni(log, "VersionDao.getArchive", queryBuilder, row -> new VersionArchive(
+                row.getLong(VERSIONS.ID.getName()),
+                row.getString(VERSIONS.LINK.getName())
+        ));
+    }
+
+    /**
+     * Старшая стабильная версия диапазона: обратный проход по индексу {@code versions_structure_id_semver_stable_idx} до первой строки.
+     * Структура по имени ищется подзапросом, иначе при соединении по имени планировщик сортирует все версии структуры.
+     */
+    public Uni<ResolvedVersion> resolve(@Nullable Long structureId, @Nullable String structureName, VersionRange range) {
+        Function<DSLContext, Query> queryBuilder = dslContext -> {
+            var semanticVersion = row(VERSIONS.SEMVER_MAJOR, VERSIONS.SEMVER_MINOR, VERSIONS.SEMVER_PATCH);
+            var conditions = new ArrayList<Condition>();
+            conditions.add(structureId != null
+                    ? VERSIONS.STRUCTURE_ID.eq(structureId)
+                    : VERSIONS.STRUCTURE_ID.eq(dslContext.select(STRUCTURES.ID).from(STRUCTURES).where(STRUCTURES.NAME.eq(structureName))));
+            conditions.add(VERSIONS.SEMVER_MAJOR.isNotNull());
+            conditions.add(VERSIONS.SEMVER_PRE_RELEASE.isNull());
+            ofNullable(range.from())
+                    .map(from -> semanticVersion.ge(from.major(), from.minor(), from.patch()))
+                    .ifPresent(conditions::add);
+            ofNullable(range.to())
+                    .map(to -> semanticVersion.lt(to.major(), to.minor(), to.patch()))
+                    .ifPresent(conditions::add);
+            return dslContext.select(VERSIONS.NAME.as(RESOLVED_VERSION_NAME), STRUCTURES.NAME.as(RESOLVED_STRUCTURE_NAME))
+                    .from(VERSIONS)
+                    .join(STRUCTURES).on(STRUCTURES.ID.eq(VERSIONS.STRUCTURE_ID))
+                    .where(conditions)
+                    .orderBy(VERSIONS.SEMVER_MAJOR.desc(), VERSIONS.SEMVER_MINOR.desc(), VERSIONS.SEMVER_PATCH.desc(), VERSIONS.ID.desc())
+                    .limit(1);
+        };
+        return dbClient.toUni(log, "VersionDao.resolve", queryBuilder, row -> new ResolvedVersion(
+                row.getString(RESOLVED_VERSION_NAME),
+                row.getString(RESOLVED_STRUCTURE_NAME)
+        ));
     }
 
-    private Query resolveGetLinkQuery(DSLContext dslContext,
-                                      @Nullable Long structureId,
-                                      @Nullable String structureName,
-                                      @Nullable Long versionId,
-                                      @Nullable String versionName) {
-        var query = dslContext.select(VERSIONS.LINK)
+    private Query resolveGetArchiveQuery(DSLContext dslContext,
+                                         @Nullable Long structureId,
+                                         @Nullable String structureName,
+                                         @Nullable Long versionId,
+                                         @Nullable String versionName) {
+        var query = dslContext.select(VERSIONS.ID, VERSIONS.LINK)
                 .from(VERSIONS);
         if (versionId != null) {
             return query.where(VERSIONS.ID.eq(versionId));
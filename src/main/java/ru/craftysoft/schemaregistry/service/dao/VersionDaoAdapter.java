@@ -1,13 +1,19 @@
 package ru.craftysoft.schemaregistry.service.dao;
 
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import io.smallrye.mutiny.unchecked.Unchecked;
 import io.vertx.mutiny.sqlclient.SqlClient;
 import lombok.RequiredArgsConstructor;
 import ru.craftysoft.schemaregistry.builder.record.VersionsRecordBuilder;
+import ru.craftysoft.schemaregistry.dto.intermediate.ExportedVersion;
 import ru.craftysoft.schemaregistry.dto.intermediate.Version;
+import ru.craftysoft.schemaregistry.dto.intermediate.VersionArchive;
+import ru.craftysoft.schemaregistry.dto.intermediate.VersionRange;
 import ru.craftysoft.schemaregistry.model.jooq.tables.records.StructuresRecord;
 import ru.craftysoft.schemaregistry.model.jooq.tables.records.VersionsRecord;
+import ru.craftysoft.schemaregistry.service.cache.VersionRangeCache;
+import ru.craftysoft.schemaregistry.service.catalog.MetadataCatalog;
 
 import javax.annotation.Nullable;
 import javax.enterprise.context.ApplicationScoped;
@@ -19,15 +25,20 @@ public class VersionDaoAdapter {
 
     private final VersionDao dao;
     private final VersionsRecordBuilder versionsRecordBuilder;
+    private final MetadataCatalog metadataCatalog;
+    private final VersionRangeCache versionRangeCache;
 
-    public Uni<Version> create(SqlClient sqlClient, long structureId, String name) {
-        var record = versionsRecordBuilder.build(structureId, name);
+    public Uni<Version> create(SqlClient sqlClient, long structureId, String structureName, String name) {
+        if (VersionRange.parse(name) != null) {
+            return Uni.createFrom().failure(new RuntimeException("Имя версии '%s' совпадает с выражением диапазона версий".formatted(name)));
+        }
+        var record = versionsRecordBuilder.build(structureId, structureName, name);
         return dao.create(sqlClient, record)
-                .map(id -> new Version(id, record.getLink()));
+                .map(id -> new Version(id, structureName, record.getLink()));
     }
 
-    public Uni<String> getLink(SqlClient sqlClient, long id) {
-        return dao.getLink(sqlClient, id)
+    public Uni<VersionArchive> getArchive(SqlClient sqlClient, long id) {
+        return dao.getArchive(sqlClient, id)
                 .onItem()
                 .ifNull()
                 .failWith(() -> new RuntimeException("Не найдена версия по id=" + id));
@@ -37,6 +48,24 @@ public class VersionDaoAdapter {
         return dao.get(sqlClient, structureId, name);
     }
 
+    public Uni<Boolean> exists(SqlClient sqlClient, String structureName, String name) {
+        return dao.exists(sqlClient, structureName, name);
+    }
+
+    public Multi<ExportedVersion> streamAfter(long afterId) {
+        return dao.streamAfter(afterId);
+    }
+
+    /**
+     * Базовая версия для публикации относительно неё; блокируется от удаления до конца транзакции.
+     */
+    public Uni<VersionsRecord> getBase(SqlClient sqlClient, long structureId, String name) {
+        return dao.getForShare(sqlClient, structureId, name)
+                .onItem()
+                .ifNull()
+                .failWith(() -> new RuntimeException("Не найдена базовая версия по structureId=%s name=%s".formatted(structureId, name)));
+    }
+
     public Uni<Long> deleteAndReturnStructureId(SqlClient sqlClient, long id) {
         return dao.deleteAndReturnStructureId(sqlClient, id)
                 .onItem()
@@ -66,11 +95,32 @@ public class VersionDaoAdapter {
         return dao.getByStructureId(structure.getId());
     }
 
-    public Uni<String> getLink(@Nullable Long structureId,
-                               @Nullable String structureName,
-                               @Nullable Long versionId,
-                               @Nullable String versionName) {
-        return dao.getLink(structureId, structureName, versionId, versionName)
+    /**
+     * Имя версии для {@code versionName}, заданного диапазоном ({@code ^1.4}, {@code ~2.0}, {@code latest-stable});
+     * обычное имя версии возвращается как есть.
+     */
+    public Uni<String> resolveName(@Nullable Long structureId, @Nullable String structureName, @Nullable String versionName) {
+        var range = VersionRange.parse(versionName);
+        if (range == null) {
+            return Uni.createFrom().item(versionName);
+        }
+        var key = new VersionRangeCache.Key(structureId, structureName, versionName);
+        return versionRangeCache.get(key, () -> dao.resolve(structureId, structureName, range))
+                .onItem()
+                .ifNull()
+                .failWith(() -> new RuntimeException("Не найдена версия по structureId=%s structureName=%s в диапазоне %s"
+                        .formatted(structureId, structureName, versionName)));
+    }
+
+    public Uni<VersionArchive> getArchive(@Nullable Long structureId,
+                                          @Nullable String structureName,
+                                          @Nullable Long versionId,
+                                          @Nullable String versionName) {
+        var catalogArchive = metadataCatalog.getVersionArchive(structureId, structureName, versionId, versionName);
+        if (catalogArchive != null) {
+            return Uni.createFrom().item(catalogArchive);
+        }
+        return dao.getArchive(structureId, structureName, versionId, versionName)
                 .onItem()
                 .ifNull()
                 .failWith(() -> new RuntimeException("Не найдена версия по structureId=%s structureName=%s versionId=%s versionName=%s"
@@ -0,0 +1,75 @@
+package ru.craftysoft.schemaregistry.service.executor;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.core.WorkerExecutor;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пулы worker-потоков для блокирующей работы (разбор и запись архивов), отдельные для чтения и публикации.
+ * Задачи выполняются без упорядочивания по контексту event loop, {@code worker.queue.wait} показывает ожидание свободного потока.
+ */
+@ApplicationScoped
+public class WorkerExecutors {
+
+    private final Map<Workload, Pool> pools = new EnumMap<>(Workload.class);
+
+    public WorkerExecutors(Vertx vertx,
+                           MeterRegistry meterRegistry,
+                           @ConfigProperty(name = "workers.read.pool-size") int readPoolSize,
+                           @ConfigProperty(name = "workers.write.pool-size") int writePoolSize) {
+        pools.put(Workload.read, new Pool(vertx, meterRegistry, Workload.read, readPoolSize));
+        pools.put(Workload.write, new Pool(vertx, meterRegistry, Workload.write, writePoolSize));
+    }
+
+    public <T> Uni<T> executeBlocking(Workload workload, Uni<T> uni) {
+        var pool = pools.get(workload);
+        return Uni.createFrom().deferred(() -> {
+            var submittedAt = System.nanoTime();
+            pool.inflight.incrementAndGet();
+            var task = Uni.createFrom().deferred(() -> {
+                pool.queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return uni;
+            });
+            return pool.executor.executeBlocking(task, false)
+                    .onTermination()
+                    .invoke(pool.inflight::decrementAndGet);
+        });
+    }
+
+    @PreDestroy
+    void close() {
+        pools.values().forEach(pool -> pool.executor.closeAndForget());
+    }
+
+    private static class Pool {
+
+        private final WorkerExecutor executor;
+        private final AtomicInteger inflight = new AtomicInteger();
+        private final Timer queueWait;
+
+        private Pool(Vertx vertx, MeterRegistry meterRegistry, Workload workload, int size) {
+            this.executor = vertx.createSharedWorkerExecutor(workload.name() + "-worker", size);
+            this.queueWait = meterRegistry.timer("worker.queue.wait", "workload", workload.name());
+            Gauge.builder("worker.inflight", inflight, AtomicInteger::get)
+                    .tag("workload", workload.name())
+                    .register(meterRegistry);
+            Gauge.builder("worker.pool.size", () -> size)
+                    .tag("workload", workload.name())
+                    .register(meterRegistry);
+        }
+
+    }
+
+}
@@ -0,0 +1,207 @@
+package ru.craftysoft.schemaregistry.service.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.TimeoutException;
+import io.smallrye.mutiny.Uni;
+import lombok.extern.slf4j.Slf4j;
+import ru.craftysoft.schemaregistry.exception.OverloadedException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Адаптивный лимит одновременно выполняемых запросов по градиенту задержки:
+ * {@code limit = limit * clamp(TOLERANCE * longRtt / shortRtt, 0.5, 1) + sqrt(limit)}, сглаженно.
+ * Пока задержка держится у долгосрочного среднего, лимит растёт на размер очереди,
+ * при росте задержки - уменьшается пропорционально. Таймауты и 503 от S3 дополнительно
+ * уменьшают лимит мультипликативно. Запросы сверх лимита сразу отклоняются {@link OverloadedException}.
+ */
+@Slf4j
+public class ConcurrencyLimiter {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LONG_RTT_WINDOW = 600;
+
+    private final String workload;
+    private final int minLimit;
+    private final int maxLimit;
+    private final Duration retryAfter;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final Counter rejected;
+    private final Counter dropped;
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    public ConcurrencyLimiter(String workload,
+                              int initialLimit,
+                              int minLimit,
+                              int maxLimit,
+                              Duration retryAfter,
+                              MeterRegistry meterRegistry) {
+        this.workload = workload;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.retryAfter = retryAfter;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        var tags = Tags.of("workload", workload);
+        this.rejected = meterRegistry.counter("limiter.rejected", tags);
+        this.dropped = meterRegistry.counter("limiter.dropped", tags);
+        meterRegistry.gauge("limiter.limit", tags, this, ConcurrencyLimiter::getLimit);
+        meterRegistry.gauge("limiter.inflight", tags, inflight);
+    }
+
+    public <T> Uni<T> execute(Supplier<Uni<T>> operation) {
+        return Uni.createFrom().deferred(() -> {
+            if (!tryAcquire()) {
+                rejected.increment();
+                return Uni.createFrom().failure(new OverloadedException(workload, retryAfter));
+            }
+            var startNanos = System.nanoTime();
+            Uni<T> uni;
+            try {
+                uni = operation.get();
+            } catch (RuntimeException e) {
+                release(startNanos, e);
+                throw e;
+            }
+            return uni.onItemOrFailure()
+                    .invoke((item, throwable) -> release(startNanos, throwable))
+                    .onCancellation()
+                    .invoke(inflight::decrementAndGet);
+        });
+    }
+
+    /**
+     * Для потоковых ответов разрешение удерживается до завершения потока. Длительность потока зависит от объёма ответа
+     * и скорости клиента, поэтому в оценку задержки она не попадает, учитываются только сбои.
+     */
+    public <T> Multi<T> stream(Supplier<Multi<T>> operation) {
+        return Multi.createFrom().deferred(() -> {
+            if (!tryAcquire()) {
+                rejected.increment();
+                return Multi.createFrom().failure(new OverloadedException(workload, retryAfter));
+            }
+            Multi<T> multi;
+            try {
+                multi = operation.get();
+            } catch (RuntimeException e) {
+                releaseStream(e);
+                throw e;
+            }
+            return multi.onTermination()
+                    .invoke((throwable, cancelled) -> releaseStream(throwable));
+        });
+    }
+
+    /**
+     * Для длительных операций, например загрузки реестра: как и для потоковых ответов, их длительность не попадает
+     * в оценку задержки, иначе одна такая операция завысила бы долгосрочное среднее и сбила лимит обычных запросов.
+     */
+    public <T> Uni<T> executeLongRunning(Supplier<Uni<T>> operation) {
+        return Uni.createFrom().deferred(() -> {
+            if (!tryAcquire()) {
+                rejected.increment();
+                return Uni.createFrom().failure(new OverloadedException(workload, retryAfter));
+            }
+            Uni<T> uni;
+            try {
+                uni = operation.get();
+            } catch (RuntimeException e) {
+                releaseStream(e);
+                throw e;
+            }
+            return uni.onTermination()
+                    .invoke((item, throwable, cancelled) -> releaseStream(throwable));
+        });
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            var current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release(long startNanos, Throwable throwable) {
+        var rttNanos = System.nanoTime() - startNanos;
+        var inflightBeforeRelease = inflight.getAndDecrement();
+        if (isDrop(throwable)) {
+            dropped.increment();
+            onDrop();
+        } else {
+            onSample(rttNanos, inflightBeforeRelease);
+        }
+    }
+
+    private void releaseStream(@Nullable Throwable throwable) {
+        inflight.decrementAndGet();
+        if (isDrop(throwable)) {
+            dropped.increment();
+            onDrop();
+        }
+    }
+
+    private synchronized void onSample(long rttNanos, int inflightBeforeRelease) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+            return;
+        }
+        longRttNanos += (rttNanos - longRttNanos) / LONG_RTT_WINDOW;
+        // после затяжной перегрузки долгосрочное среднее завышено, даём ему быстрее вернуться
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        // при недогрузке задержка ничего не говорит о пределе, лимит не растёт
+        if (inflightBeforeRelease < estimatedLimit / 2) {
+            return;
+        }
+        var gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / rttNanos));
+        var newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        updateLimit();
+    }
+
+    private synchronized void onDrop() {
+        estimatedLimit *= BACKOFF_RATIO;
+        updateLimit();
+    }
+
+    private void updateLimit() {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        var newLimit = (int) estimatedLimit;
+        if (newLimit != limit) {
+            log.debug("ConcurrencyLimiter.updateLimit workload={} limit={} -> {}", workload, limit, newLimit);
+            limit = newLimit;
+        }
+    }
+
+    private static boolean isDrop(Throwable throwable) {
+        return throwable instanceof TimeoutException
+                || throwable instanceof SdkServiceException sdkServiceException && sdkServiceException.statusCode() == 503;
+    }
+
+}
@@ -0,0 +1,34 @@
+package ru.craftysoft.schemaregistry.service.limit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+
+/**
+ * Отдельные лимиты для дешёвых чтений и тяжёлых публикаций/удалений,
+ * чтобы волна публикаций не вытесняла чтение схем.
+ */
+@ApplicationScoped
+@Getter
+public class ConcurrencyLimiters {
+
+    private final ConcurrencyLimiter read;
+    private final ConcurrencyLimiter write;
+
+    public ConcurrencyLimiters(MeterRegistry meterRegistry,
+                               @ConfigProperty(name = "limiter.retry-after") Duration retryAfter,
+                               @ConfigProperty(name = "limiter.read.initial-limit") int readInitialLimit,
+                               @ConfigProperty(name = "limiter.read.min-limit") int readMinLimit,
+                               @ConfigProperty(name = "limiter.read.max-limit") int readMaxLimit,
+                               @ConfigProperty(name = "limiter.write.initial-limit") int writeInitialLimit,
+                               @ConfigProperty(name = "limiter.write.min-limit") int writeMinLimit,
+                               @ConfigProperty(name = "limiter.write.max-limit") int writeMaxLimit) {
+        this.read = new ConcurrencyLimiter(Workload.read.name(), readInitialLimit, readMinLimit, readMaxLimit, retryAfter, meterRegistry);
+        this.write = new ConcurrencyLimiter(Workload.write.name(), writeInitialLimit, writeMinLimit, writeMaxLimit, retryAfter, meterRegistry);
+    }
+
+}
@@ -0,0 +1,64 @@
+package ru.craftysoft.schemaregistry.service.s3;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Выбор бакета для нового объекта среди {@code s3.buckets}. Бакет задаётся как {@code <name>} или {@code <name>:<weight>}.
+ * При {@link Routing#structure} бакет определяется хешем ключа структуры с учётом весов, при {@link Routing#weighted} выбирается
+ * случайно пропорционально весам. Ссылки содержат бакет, поэтому изменение списка не влияет на уже созданные объекты.
+ */
+public class BucketRouter {
+
+    public enum Routing {
+        structure,
+        weighted,
+    }
+
+    private final Routing routing;
+    private final String[] buckets;
+    private final int[] cumulativeWeights;
+
+    public BucketRouter(List<String> buckets, Routing routing) {
+        if (buckets.isEmpty()) {
+            throw new RuntimeException("Не задан ни один бакет в s3.buckets");
+        }
+        this.routing = routing;
+        this.buckets = new String[buckets.size()];
+        this.cumulativeWeights = new int[buckets.size()];
+        var total = 0;
+        for (int i = 0; i < buckets.size(); i++) {
+            var parts = buckets.get(i).trim().split(":", 2);
+            var weight = parts.length == 1 ? 1 : Integer.parseInt(parts[1].trim());
+            if (weight <= 0) {
+                throw new RuntimeException("Вес бакета %s должен быть положительным".formatted(parts[0]));
+            }
+            total = Math.addExact(total, weight);
+            this.buckets[i] = parts[0].trim();
+            this.cumulativeWeights[i] = total;
+        }
+    }
+
+    public String route(String routingKey) {
+        if (buckets.length == 1) {
+            return buckets[0];
+        }
+        var total = cumulativeWeights[cumulativeWeights.length - 1];
+        var point = switch (routing) {
+            case structure -> Math.floorMod(mix(routingKey.hashCode()), total);
+            case weighted -> ThreadLocalRandom.current().nextInt(total);
+        };
+        var index = Arrays.binarySearch(cumulativeWeights, point + 1);
+        return buckets[index < 0 ? -index - 1 : index];
+    }
+
+    /**
+     * {@link String#hashCode()} близких имён отличается в младших битах, перемешивание выравнивает распределение по бакетам.
+     */
+    private static int mix(int hash) {
+        var h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+}
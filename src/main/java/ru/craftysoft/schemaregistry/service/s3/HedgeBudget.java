@@ -0,0 +1,38 @@
+package ru.craftysoft.schemaregistry.service.s3;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Бюджет хеджированных запросов: каждый основной запрос добавляет {@code ratio} токена, хедж тратит один.
+ * Так доля дополнительных запросов не превышает {@code ratio} даже при общей деградации S3.
+ */
+class HedgeBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance = new AtomicLong();
+
+    HedgeBudget(double ratio, int maxTokens) {
+        this.deposit = Math.round(ratio * SCALE);
+        this.capacity = maxTokens * SCALE;
+    }
+
+    void deposit() {
+        balance.accumulateAndGet(deposit, (current, value) -> Math.min(capacity, current + value));
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            var current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package ru.craftysoft.schemaregistry.service.s3;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Скользящее окно последних длительностей запросов, p95 пересчитывается раз в {@link #RECALCULATE_EVERY} замеров.
+ */
+class LatencyTracker {
+
+    private static final int WINDOW = 1024;
+    private static final int RECALCULATE_EVERY = 64;
+    private static final int MIN_SAMPLES = 100;
+
+    private final long[] samples = new long[WINDOW];
+    private final AtomicLong count = new AtomicLong();
+    private volatile long p95Nanos = -1;
+
+    void record(long nanos) {
+        var n = count.getAndIncrement();
+        samples[(int) (n % WINDOW)] = nanos;
+        var recorded = n + 1;
+        if (recorded >= MIN_SAMPLES && recorded % RECALCULATE_EVERY == 0) {
+            var window = Arrays.copyOf(samples, (int) Math.min(recorded, WINDOW));
+            Arrays.sort(window);
+            p95Nanos = window[(int) Math.ceil(window.length * 0.95) - 1];
+        }
+    }
+
+    /**
+     * @return p95 в наносекундах или -1, пока замеров недостаточно
+     */
+    long p95Nanos() {
+        return p95Nanos;
+    }
+
+}
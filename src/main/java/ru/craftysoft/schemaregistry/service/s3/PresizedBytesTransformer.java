@@ -0,0 +1,88 @@
+package ru.craftysoft.schemaregistry.service.s3;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Собирает тело объекта в массив размером Content-Length. В отличие от {@link AsyncResponseTransformer#toBytes()}
+ * тело копируется один раз, без промежуточного буфера и обрезающей копии в конце.
+ */
+final class PresizedBytesTransformer implements AsyncResponseTransformer<GetObjectResponse, ResponseBytes<GetObjectResponse>> {
+
+    private static final int DEFAULT_CAPACITY = 8 * 1024;
+
+    private volatile CompletableFuture<ResponseBytes<GetObjectResponse>> future;
+    private volatile GetObjectResponse response;
+
+    @Override
+    public CompletableFuture<ResponseBytes<GetObjectResponse>> prepare() {
+        future = new CompletableFuture<>();
+        return future;
+    }
+
+    @Override
+    public void onResponse(GetObjectResponse response) {
+        this.response = response;
+    }
+
+    @Override
+    public void onStream(SdkPublisher<ByteBuffer> publisher) {
+        var contentLength = response.contentLength();
+        var capacity = contentLength == null ? DEFAULT_CAPACITY : Math.toIntExact(contentLength);
+        publisher.subscribe(new BodySubscriber(response, capacity, future));
+    }
+
+    @Override
+    public void exceptionOccurred(Throwable error) {
+        future.completeExceptionally(error);
+    }
+
+    private static class BodySubscriber implements Subscriber<ByteBuffer> {
+
+        private final GetObjectResponse response;
+        private final CompletableFuture<ResponseBytes<GetObjectResponse>> future;
+        private byte[] content;
+        private int position;
+
+        private BodySubscriber(GetObjectResponse response, int capacity, CompletableFuture<ResponseBytes<GetObjectResponse>> future) {
+            this.response = response;
+            this.future = future;
+            this.content = new byte[capacity];
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(ByteBuffer buffer) {
+            var remaining = buffer.remaining();
+            if (position + remaining > content.length) {
+                content = Arrays.copyOf(content, Math.max(position + remaining, content.length * 2));
+            }
+            buffer.get(content, position, remaining);
+            position += remaining;
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            future.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            var body = position == content.length ? content : Arrays.copyOf(content, position);
+            future.complete(ResponseBytes.fromByteArrayUnsafe(response, body));
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+package ru.craftysoft.schemaregistry.service.s3;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.groups.UniCombine;
+import io.smallrye.mutiny.unchecked.Unchecked;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import ru.craftysoft.schemaregistry.builder.s3.DeleteObjectsRequestBuilder;
+import ru.craftysoft.schemaregistry.builder.s3.GetObjectRequestBuilder;
+import ru.craftysoft.schemaregistry.builder.s3.PutObjectRequestBuilder;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+import ru.craftysoft.schemaregistry.service.blob.BlobReadOperation;
+import ru.craftysoft.schemaregistry.service.blob.BlobStore;
+import ru.craftysoft.schemaregistry.service.executor.WorkerExecutors;
+import software.amazon.awssdk.core.BytesWrapper;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.utils.BinaryUtils;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Хранилище в S3. Ссылки имеют вид {@code <bucket>/<key>} без схемы, бакет нового объекта выбирает {@link BucketRouter}.
+ */
+@ApplicationScoped
+public class S3BlobStore implements BlobStore {
+
+    private final S3Client client;
+    private final GetObjectRequestBuilder getObjectRequestBuilder;
+    private final PutObjectRequestBuilder putObjectRequestBuilder;
+    private final DeleteObjectsRequestBuilder deleteObjectsRequestBuilder;
+    private final WorkerExecutors workerExecutors;
+    private final S3MultipartUploader multipartUploader;
+    private final BucketRouter bucketRouter;
+    private final long multipartThreshold;
+
+    public S3BlobStore(S3Client client,
+                       GetObjectRequestBuilder getObjectRequestBuilder,
+                       PutObjectRequestBuilder putObjectRequestBuilder,
+                       DeleteObjectsRequestBuilder deleteObjectsRequestBuilder,
+                       WorkerExecutors workerExecutors,
+                       S3MultipartUploader multipartUploader,
+                       @ConfigProperty(name = "s3.buckets") List<String> buckets,
+                       @ConfigProperty(name = "s3.bucket-routing") BucketRouter.Routing bucketRouting,
+                       @ConfigProperty(name = "s3.multipart.threshold") MemorySize multipartThreshold) {
+        this.client = client;
+        this.getObjectRequestBuilder = getObjectRequestBuilder;
+        this.putObjectRequestBuilder = putObjectRequestBuilder;
+        this.deleteObjectsRequestBuilder = deleteObjectsRequestBuilder;
+        this.workerExecutors = workerExecutors;
+        this.multipartUploader = multipartUploader;
+        this.bucketRouter = new BucketRouter(buckets, bucketRouting);
+        this.multipartThreshold = multipartThreshold.asLongValue();
+    }
+
+    @Override
+    public String scheme() {
+        return "s3";
+    }
+
+    @Override
+    public String link(String routingKey, String key) {
+        return bucketRouter.route(routingKey) + "/" + key;
+    }
+
+    @Override
+    public Uni<byte[]> get(String link, BlobReadOperation operation) {
+        var request = getObjectRequestBuilder.build(link);
+        return client.getFile(request, operation)
+                .map(BytesWrapper::asByteArrayUnsafe);
+    }
+
+    @Override
+    public Uni<byte[]> getRange(String link, long offset, int length, BlobReadOperation operation) {
+        var request = getObjectRequestBuilder.build(link, offset, length);
+        return client.getFile(request, operation)
+                .map(BytesWrapper::asByteArrayUnsafe);
+    }
+
+    @Override
+    public Multi<byte[]> stream(String link, BlobReadOperation operation) {
+        var request = getObjectRequestBuilder.build(link);
+        return client.streamFile(request, operation)
+                .map(BinaryUtils::copyBytesFrom);
+    }
+
+    @Override
+    public Uni<Void> download(String link, Path target, BlobReadOperation operation) {
+        var request = getObjectRequestBuilder.build(link);
+        return client.downloadFile(request, target, operation)
+                .replaceWithVoid();
+    }
+
+    @Override
+    public Uni<Void> put(String link, byte[] content) {
+        var request = putObjectRequestBuilder.build(link);
+        return client.uploadFile(request, AsyncRequestBody.fromBytes(content))
+                .replaceWithVoid();
+    }
+
+    /**
+     * Файлы от {@code s3.multipart.threshold} байт загружаются составной загрузкой.
+     */
+    @Override
+    public Uni<Void> put(String link, Path file) {
+        return workerExecutors.executeBlocking(Workload.write, Uni.createFrom().item(Unchecked.supplier(() -> Files.size(file))))
+                .flatMap(size -> {
+                    if (size >= multipartThreshold) {
+                        return multipartUploader.upload(link, file, size);
+                    }
+                    var request = putObjectRequestBuilder.build(link);
+                    return client.uploadFile(request, AsyncRequestBody.fromFile(file))
+                            .replaceWithVoid();
+                });
+    }
+
+    /**
+     * Объекты удаляются одним запросом на бакет.
+     */
+    @Override
+    public Uni<Void> delete(Set<String> links) {
+        var deleteUnis = links.stream()
+                .collect(Collectors.groupingBy(link -> link.split("/", 2)[0], Collectors.toSet()))
+                .values()
+                .stream()
+                .map(bucketLinks -> client.deleteFiles(deleteObjectsRequestBuilder.build(bucketLinks)))
+                .toList();
+        return UniCombine.INSTANCE.all().unis(deleteUnis)
+                .combinedWith(unis -> null);
+    }
+
+}
@@ -1,9 +1,20 @@
 package ru.craftysoft.schemaregistry.service.s3;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.common.annotation.Identifier;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.TimeoutException;
 import io.smallrye.mutiny.Uni;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.MDC;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+import ru.craftysoft.schemaregistry.service.blob.BlobReadOperation;
+import software.amazon.awssdk.core.FileTransformerConfiguration;
 import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.core.async.AsyncRequestBody;
 import software.amazon.awssdk.core.async.AsyncResponseTransformer;
@@ -11,31 +22,206 @@ import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.model.*;
 
 import javax.enterprise.context.ApplicationScoped;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import static ru.craftysoft.schemaregistry.util.UuidUtils.generateDefaultUuid;
 
 @ApplicationScoped
-@RequiredArgsConstructor
 @Slf4j
 public class S3Client {
 
-    private final S3AsyncClient s3;
+    private static final int HEDGE_BUDGET_MAX_TOKENS = 10;
 
-    public Uni<ResponseBytes<GetObjectResponse>> getFile(GetObjectRequest request) {
+    private final Map<Workload, S3AsyncClient> clients = new EnumMap<>(Workload.class);
+    private final Map<Workload, AtomicInteger> inflight = new EnumMap<>(Workload.class);
+    private final MeterRegistry meterRegistry;
+    private final boolean hedgingEnabled;
+    private final Duration hedgingMinDelay;
+    private final Map<BlobReadOperation, ReadPolicy> readPolicies = new EnumMap<>(BlobReadOperation.class);
+
+    public S3Client(S3AsyncClient s3,
+                    @Identifier("read") S3AsyncClient readS3,
+                    MeterRegistry meterRegistry,
+                    @ConfigProperty(name = "s3.read.schema-timeout") Duration schemaTimeout,
+                    @ConfigProperty(name = "s3.read.version-timeout") Duration versionTimeout,
+                    @ConfigProperty(name = "s3.read.hedging.enabled") boolean hedgingEnabled,
+                    @ConfigProperty(name = "s3.read.hedging.min-delay") Duration hedgingMinDelay,
+                    @ConfigProperty(name = "s3.read.hedging.budget-ratio") double hedgingBudgetRatio) {
+        this.meterRegistry = meterRegistry;
+        clients.put(Workload.read, readS3);
+        clients.put(Workload.write, s3);
+        for (var workload : Workload.values()) {
+            var counter = new AtomicInteger();
+            inflight.put(workload, counter);
+            Gauge.builder("s3.client.inflight", counter, AtomicInteger::get)
+                    .tag("workload", workload.name())
+                    .register(meterRegistry);
+        }
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgingMinDelay = hedgingMinDelay;
+        readPolicies.put(BlobReadOperation.schema, new ReadPolicy(BlobReadOperation.schema, schemaTimeout, hedgingBudgetRatio));
+        readPolicies.put(BlobReadOperation.version, new ReadPolicy(BlobReadOperation.version, versionTimeout, hedgingBudgetRatio));
+        readPolicies.put(BlobReadOperation.archive, new ReadPolicy(BlobReadOperation.archive, versionTimeout, hedgingBudgetRatio));
+    }
+
+    /**
+     * Чтение объекта с дедлайном {@code s3.read.*-timeout}. Для хеджируемых операций, если ответа нет дольше текущего p95,
+     * отправляется второй запрос и берётся первый из ответов, проигравший отменяется. Ошибка хеджа результат не завершает:
+     * ответ остаётся за основным запросом.
+     */
+    public Uni<ResponseBytes<GetObjectResponse>> getFile(GetObjectRequest request, BlobReadOperation operation) {
         var point = "S3Client.getFile";
         var s3RequestId = generateDefaultUuid();
         withS3RequestId(s3RequestId, () -> log.debug("""
                 {}.in
+                operation={}
                 bucket={}
-                key={}""", point, request.bucket(), request.key()));
-        var future = s3.getObject(request, AsyncResponseTransformer.toBytes());
-        return Uni.createFrom().completionStage(future)
+                key={}""", point, operation, request.bucket(), request.key()));
+        var policy = readPolicies.get(operation);
+        var primary = getObject(request, policy, Attempt.primary);
+        Uni<ResponseBytes<GetObjectResponse>> response;
+        if (hedgingEnabled && operation.isHedgeable()) {
+            policy.budget.deposit();
+            response = Uni.combine().any().of(primary, hedge(request, policy, s3RequestId));
+        } else {
+            response = primary;
+        }
+        return response
+                .ifNoItem()
+                .after(policy.timeout)
+                .fail()
+                .onItemOrFailure()
+                .invoke((result, throwable) -> withS3RequestId(s3RequestId, () -> {
+                    if (throwable instanceof TimeoutException) {
+                        policy.timeouts.increment();
+                        log.error("{}.thrown превышено время ожидания {}", point, policy.timeout);
+                    } else if (throwable != null) {
+                        log.error("{}.thrown {}", point, throwable.getMessage());
+                    } else {
+                        log.debug("{}.out length={}", point, result.response().contentLength());
+                    }
+                }));
+    }
+
+    private Uni<ResponseBytes<GetObjectResponse>> hedge(GetObjectRequest request, ReadPolicy policy, String s3RequestId) {
+        var p95Nanos = policy.latency.p95Nanos();
+        if (p95Nanos < 0) {
+            return Uni.createFrom().nothing();
+        }
+        var delay = Duration.ofNanos(Math.max(p95Nanos, hedgingMinDelay.toNanos()));
+        return Uni.createFrom().voidItem()
+                .onItem()
+                .delayIt()
+                .by(delay)
+                .flatMap(ignored -> {
+                    if (!policy.budget.tryAcquire()) {
+                        policy.hedgesRejected.increment();
+                        return Uni.createFrom().nothing();
+                    }
+                    policy.hedgesSent.increment();
+                    withS3RequestId(s3RequestId, () -> log.debug("S3Client.getFile.hedge delay={}ms", delay.toMillis()));
+                    return getObject(request, policy, Attempt.hedge)
+                            .invoke(() -> policy.hedgesWon.increment())
+                            .onFailure()
+                            .recoverWithUni(e -> {
+                                policy.hedgesFailed.increment();
+                                withS3RequestId(s3RequestId, () -> log.debug("S3Client.getFile.hedge.thrown {}", e.getMessage()));
+                                return Uni.createFrom().nothing();
+                            });
+                });
+    }
+
+    private Uni<ResponseBytes<GetObjectResponse>> getObject(GetObjectRequest request, ReadPolicy policy, Attempt attempt) {
+        return Uni.createFrom().deferred(() -> {
+            var startNanos = System.nanoTime();
+            return call(policy.workload, () -> clients.get(policy.workload).getObject(request, new PresizedBytesTransformer()))
+                    .onItemOrFailure()
+                    .invoke((response, throwable) -> {
+                        var nanos = System.nanoTime() - startNanos;
+                        policy.timer(attempt, throwable == null ? "success" : "failure").record(nanos, TimeUnit.NANOSECONDS);
+                        if (throwable == null) {
+                            policy.latency.record(nanos);
+                        }
+                    })
+                    .onCancellation()
+                    .invoke(() -> policy.timer(attempt, "cancelled").record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * Потоковое чтение объекта без хеджирования: дедлайн {@code s3.read.*-timeout} ограничивает ожидание ответа,
+     * тело передаётся частями по запросу подписчика. Соединение считается занятым до завершения или отмены потока.
+     */
+    public Multi<ByteBuffer> streamFile(GetObjectRequest request, BlobReadOperation operation) {
+        var point = "S3Client.streamFile";
+        var s3RequestId = generateDefaultUuid();
+        withS3RequestId(s3RequestId, () -> log.debug("""
+                {}.in
+                operation={}
+                bucket={}
+                key={}""", point, operation, request.bucket(), request.key()));
+        var policy = readPolicies.get(operation);
+        var counter = inflight.get(policy.workload);
+        return Uni.createFrom().deferred(() -> {
+                    counter.incrementAndGet();
+                    return Uni.createFrom().completionStage(() -> clients.get(policy.workload)
+                            .getObject(request, AsyncResponseTransformer.<GetObjectResponse>toPublisher()));
+                })
+                .ifNoItem()
+                .after(policy.timeout)
+                .fail()
+                .onFailure(TimeoutException.class)
+                .invoke(() -> policy.timeouts.increment())
+                .onItem()
+                .transformToMulti(publisher -> Multi.createFrom().publisher(publisher))
+                .onTermination()
+                .invoke((throwable, cancelled) -> {
+                    counter.decrementAndGet();
+                    withS3RequestId(s3RequestId, () -> {
+                        if (throwable != null) {
+                            log.error("{}.thrown {}", point, throwable.getMessage());
+                        } else {
+                            log.debug("{}.out cancelled={}", point, cancelled);
+                        }
+                    });
+                });
+    }
+
+    /**
+     * Записывает объект в {@code target} по мере получения, существующий файл перезаписывается.
+     * Дедлайн {@code s3.read.*-timeout} ограничивает всю загрузку, хеджирования нет.
+     */
+    public Uni<GetObjectResponse> downloadFile(GetObjectRequest request, Path target, BlobReadOperation operation) {
+        var point = "S3Client.downloadFile";
+        var s3RequestId = generateDefaultUuid();
+        withS3RequestId(s3RequestId, () -> log.debug("""
+                {}.in
+                operation={}
+                bucket={}
+                key={}""", point, operation, request.bucket(), request.key()));
+        var policy = readPolicies.get(operation);
+        var transformer = AsyncResponseTransformer.<GetObjectResponse>toFile(target, FileTransformerConfiguration.defaultCreateOrReplaceExisting());
+        return call(policy.workload, () -> clients.get(policy.workload).getObject(request, transformer))
+                .ifNoItem()
+                .after(policy.timeout)
+                .fail()
                 .onItemOrFailure()
                 .invoke((response, throwable) -> withS3RequestId(s3RequestId, () -> {
-                    if (throwable != null) {
+                    if (throwable instanceof TimeoutException) {
+                        policy.timeouts.increment();
+                        log.error("{}.thrown превышено время ожидания {}", point, policy.timeout);
+                    } else if (throwable != null) {
                         log.error("{}.thrown {}", point, throwable.getMessage());
                     } else {
-                        log.debug("{}.out length={}", point, response.response().contentLength());
+                        log.debug("{}.out length={}", point, response.contentLength());
                     }
                 }));
     }
@@ -48,8 +234,7 @@ public class S3Client {
                 bucket={}
                 key={}
                 length={}""", point, request.bucket(), request.key(), body.contentLength().orElse(0L)));
-        var future = s3.putObject(request, body);
-        return Uni.createFrom().completionStage(future)
+        return call(Workload.write, () -> clients.get(Workload.write).putObject(request, body))
                 .onItemOrFailure()
                 .invoke((response, throwable) -> withS3RequestId(s3RequestId, () -> {
                     if (throwable != null) {
@@ -67,8 +252,7 @@ public class S3Client {
                 {}.in
                 bucket={}
                 keys={}""", point, request.bucket(), request.delete().objects()));
-        var future = s3.deleteObjects(request);
-        return Uni.createFrom().completionStage(future)
+        return call(Workload.write, () -> clients.get(Workload.write).deleteObjects(request))
                 .onItemOrFailure()
                 .invoke((response, throwable) -> withS3RequestId(s3RequestId, () -> {
                     if (throwable != null) {
@@ -79,10 +263,138 @@ public class S3Client {
                 }));
     }
 
+    public Uni<CreateMultipartUploadResponse> createMultipartUpload(CreateMultipartUploadRequest request) {
+        var point = "S3Client.createMultipartUpload";
+        var s3RequestId = generateDefaultUuid();
+        withS3RequestId(s3RequestId, () -> log.debug("""
+                {}.in
+                bucket={}
+                key={}""", point, request.bucket(), request.key()));
+        return call(Workload.write, () -> clients.get(Workload.write).createMultipartUpload(request))
+                .onItemOrFailure()
+                .invoke((response, throwable) -> withS3RequestId(s3RequestId, () -> {
+                    if (throwable != null) {
+                        log.error("{}.thrown {}", point, throwable.getMessage());
+                    } else {
+                        log.debug("{}.out uploadId={}", point, response.uploadId());
+                    }
+                }));
+    }
+
+    public Uni<UploadPartResponse> uploadPart(UploadPartRequest request, AsyncRequestBody body) {
+        var point = "S3Client.uploadPart";
+        var s3RequestId = generateDefaultUuid();
+        withS3RequestId(s3RequestId, () -> log.debug("""
+                {}.in
+                key={}
+                uploadId={}
+                partNumber={}
+                length={}""", point, request.key(), request.uploadId(), request.partNumber(), request.contentLength()));
+        return call(Workload.write, () -> clients.get(Workload.write).uploadPart(request, body))
+                .onItemOrFailure()
+                .invoke((response, throwable) -> withS3RequestId(s3RequestId, () -> {
+                    if (throwable != null) {
+                        log.error("{}.thrown {}", point, throwable.getMessage());
+                    } else {
+                        log.debug("{}.out", point);
+                    }
+                }));
+    }
+
+    public Uni<CompleteMultipartUploadResponse> completeMultipartUpload(CompleteMultipartUploadRequest request) {
+        var point = "S3Client.completeMultipartUpload";
+        var s3RequestId = generateDefaultUuid();
+        withS3RequestId(s3RequestId, () -> log.debug("""
+                {}.in
+                key={}
+                uploadId={}
+                parts={}""", point, request.key(), request.uploadId(), request.multipartUpload().parts().size()));
+        return call(Workload.write, () -> clients.get(Workload.write).completeMultipartUpload(request))
+                .onItemOrFailure()
+                .invoke((response, throwable) -> withS3RequestId(s3RequestId, () -> {
+                    if (throwable != null) {
+                        log.error("{}.thrown {}", point, throwable.getMessage());
+                    } else {
+                        log.debug("{}.out", point);
+                    }
+                }));
+    }
+
+    public Uni<AbortMultipartUploadResponse> abortMultipartUpload(AbortMultipartUploadRequest request) {
+        var point = "S3Client.abortMultipartUpload";
+        var s3RequestId = generateDefaultUuid();
+        withS3RequestId(s3RequestId, () -> log.debug("""
+                {}.in
+                key={}
+                uploadId={}""", point, request.key(), request.uploadId()));
+        return call(Workload.write, () -> clients.get(Workload.write).abortMultipartUpload(request))
+                .onItemOrFailure()
+                .invoke((response, throwable) -> withS3RequestId(s3RequestId, () -> {
+                    if (throwable != null) {
+                        log.error("{}.thrown {}", point, throwable.getMessage());
+                    } else {
+                        log.debug("{}.out", point);
+                    }
+                }));
+    }
+
+    /**
+     * {@code s3.client.inflight} выше {@code max-concurrency} клиента означает очередь за соединениями.
+     */
+    private <T> Uni<T> call(Workload workload, Supplier<CompletableFuture<T>> request) {
+        var counter = inflight.get(workload);
+        return Uni.createFrom().deferred(() -> {
+            counter.incrementAndGet();
+            return Uni.createFrom().completionStage(request)
+                    .onTermination()
+                    .invoke(counter::decrementAndGet);
+        });
+    }
+
     static void withS3RequestId(String s3RequestId, Runnable callback) {
         try (var ignored = MDC.putCloseable("s3RequestId", s3RequestId)) {
             callback.run();
         }
     }
 
+    private enum Attempt {
+        primary,
+        hedge,
+    }
+
+    /**
+     * Дедлайн, статистика задержек, бюджет хеджей и метрики одной {@link BlobReadOperation}.
+     */
+    private class ReadPolicy {
+
+        private final Tags tags;
+        private final Workload workload;
+        private final Duration timeout;
+        private final LatencyTracker latency = new LatencyTracker();
+        private final HedgeBudget budget;
+        private final Counter timeouts;
+        private final Counter hedgesSent;
+        private final Counter hedgesWon;
+        private final Counter hedgesFailed;
+        private final Counter hedgesRejected;
+
+        private ReadPolicy(BlobReadOperation operation, Duration timeout, double hedgingBudgetRatio) {
+            this.tags = Tags.of("operation", operation.name());
+            this.workload = operation.getWorkload();
+            this.timeout = timeout;
+            this.budget = new HedgeBudget(hedgingBudgetRatio, HEDGE_BUDGET_MAX_TOKENS);
+            this.timeouts = meterRegistry.counter("s3.get.timeouts", tags);
+            this.hedgesSent = meterRegistry.counter("s3.get.hedges", tags.and("result", "sent"));
+            this.hedgesWon = meterRegistry.counter("s3.get.hedges", tags.and("result", "won"));
+            this.hedgesFailed = meterRegistry.counter("s3.get.hedges", tags.and("result", "failed"));
+            this.hedgesRejected = meterRegistry.counter("s3.get.hedges", tags.and("result", "budget_exhausted"));
+            meterRegistry.gauge("s3.get.hedge.delay.seconds", tags, latency, tracker -> tracker.p95Nanos() / 1e9);
+        }
+
+        private Timer timer(Attempt attempt, String outcome) {
+            return meterRegistry.timer("s3.get.attempts", tags.and("attempt", attempt.name(), "outcome", outcome));
+        }
+
+    }
+
 }
@@ -0,0 +1,153 @@
+package ru.craftysoft.schemaregistry.service.s3;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.unchecked.Unchecked;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import ru.craftysoft.schemaregistry.builder.s3.MultipartUploadRequestBuilder;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+import ru.craftysoft.schemaregistry.service.executor.WorkerExecutors;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Составная загрузка файла в S3: части по {@code s3.multipart.part-size} байт загружаются параллельно,
+ * не более {@code s3.multipart.concurrency} одновременно, поэтому в памяти находится не больше стольких же частей.
+ * Часть после временного сбоя повторяется до {@code s3.multipart.part-retries} раз, при окончательной ошибке загрузка отменяется,
+ * чтобы загруженные части не оставались в бакете.
+ */
+@ApplicationScoped
+@Slf4j
+public class S3MultipartUploader {
+
+    /**
+     * Минимальный размер части, кроме последней, допустимый в S3.
+     */
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private final S3Client client;
+    private final MultipartUploadRequestBuilder requestBuilder;
+    private final WorkerExecutors workerExecutors;
+    private final long partSize;
+    private final int concurrency;
+    private final int partRetries;
+    private final Duration retryBackoff;
+
+    public S3MultipartUploader(S3Client client,
+                               MultipartUploadRequestBuilder requestBuilder,
+                               WorkerExecutors workerExecutors,
+                               @ConfigProperty(name = "s3.multipart.part-size") MemorySize partSize,
+                               @ConfigProperty(name = "s3.multipart.concurrency") int concurrency,
+                               @ConfigProperty(name = "s3.multipart.part-retries") int partRetries,
+                               @ConfigProperty(name = "s3.multipart.retry-backoff") Duration retryBackoff) {
+        if (partSize.asLongValue() < MIN_PART_SIZE) {
+            throw new RuntimeException("s3.multipart.part-size должен быть не меньше 5M");
+        }
+        if (partRetries < 0) {
+            throw new RuntimeException("s3.multipart.part-retries не может быть отрицательным");
+        }
+        this.client = client;
+        this.requestBuilder = requestBuilder;
+        this.workerExecutors = workerExecutors;
+        this.partSize = partSize.asLongValue();
+        this.concurrency = concurrency;
+        this.partRetries = partRetries;
+        this.retryBackoff = retryBackoff;
+    }
+
+    public Uni<Void> upload(String link, Path file, long size) {
+        var partsCount = Math.toIntExact((size + partSize - 1) / partSize);
+        return client.createMultipartUpload(requestBuilder.buildCreate(link))
+                .flatMap(created -> {
+                    var uploadId = created.uploadId();
+                    return Multi.createFrom().range(1, partsCount + 1)
+                            .onItem()
+                            .transformToUni(partNumber -> uploadPart(link, uploadId, file, size, partNumber))
+                            .merge(concurrency)
+                            .collect()
+                            .asList()
+                            .flatMap(parts -> client.completeMultipartUpload(requestBuilder.buildComplete(link, uploadId, parts)))
+                            .onFailure()
+                            .call(() -> abort(link, uploadId));
+                })
+                .replaceWithVoid();
+    }
+
+    private Uni<CompletedPart> uploadPart(String link, String uploadId, Path file, long size, int partNumber) {
+        var offset = (partNumber - 1) * partSize;
+        var length = (int) Math.min(partSize, size - offset);
+        var request = requestBuilder.buildUploadPart(link, uploadId, partNumber, length);
+        return workerExecutors.executeBlocking(Workload.write, Uni.createFrom().item(Unchecked.supplier(() -> read(file, offset, length))))
+                .flatMap(content -> {
+                    var upload = Uni.createFrom().deferred(() -> client.uploadPart(request, AsyncRequestBody.fromBytes(content)));
+                    if (partRetries == 0) {
+                        return upload;
+                    }
+                    return upload
+                            .onFailure(S3MultipartUploader::retryable)
+                            .retry()
+                            .withBackOff(retryBackoff)
+                            .atMost(partRetries);
+                })
+                .map(response -> CompletedPart.builder()
+                        .partNumber(partNumber)
+                        .eTag(response.eTag())
+                        .build());
+    }
+
+    /**
+     * Повторяются только сбои, которые могут пройти сами: троттлинг, ответы 5xx и ошибки ввода-вывода.
+     * Остальные ответы 4xx (например, 403 или 404 NoSuchUpload) повтором не исправить.
+     */
+    static boolean retryable(Throwable throwable) {
+        var cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        if (cause instanceof SdkServiceException serviceException) {
+            return serviceException.isThrottlingException() || serviceException.statusCode() >= 500;
+        }
+        for (var current = cause; current != null; current = current.getCause()) {
+            if (current instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ошибка отмены не заменяет исходную ошибку загрузки.
+     */
+    private Uni<Void> abort(String link, String uploadId) {
+        return client.abortMultipartUpload(requestBuilder.buildAbort(link, uploadId))
+                .replaceWithVoid()
+                .onFailure()
+                .recoverWithUni(throwable -> {
+                    log.warn("S3MultipartUploader.abort.thrown link={} uploadId={} {}", link, uploadId, throwable.getMessage());
+                    return Uni.createFrom().voidItem();
+                });
+    }
+
+    private static byte[] read(Path file, long offset, int length) throws IOException {
+        try (var channel = FileChannel.open(file, READ)) {
+            var buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("Файл %s короче ожидаемого".formatted(file));
+                }
+            }
+            return buffer.array();
+        }
+    }
+
+}
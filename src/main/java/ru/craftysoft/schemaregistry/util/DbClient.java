@@ -1,29 +1,67 @@
 package ru.craftysoft.schemaregistry.util;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.PreparedStatement;
 import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowStream;
 import io.vertx.mutiny.sqlclient.SqlClient;
+import io.vertx.mutiny.sqlclient.SqlClientHelper;
+import io.vertx.mutiny.sqlclient.SqlConnection;
+import io.vertx.mutiny.sqlclient.Transaction;
 import io.vertx.mutiny.sqlclient.Tuple;
-import lombok.RequiredArgsConstructor;
 import org.jooq.*;
 import org.jooq.conf.ParamType;
 import org.slf4j.Logger;
+import ru.craftysoft.schemaregistry.configuration.Workload;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static java.util.Optional.ofNullable;
 import static ru.craftysoft.schemaregistry.util.DbLoggerHelper.*;
 import static ru.craftysoft.schemaregistry.util.UuidUtils.generateDefaultUuid;
 
-@RequiredArgsConstructor
 public class DbClient {
 
+    private final Map<Workload, PgPool> pools;
     private final PgPool pgPool;
+    private final ReplicaRouter replicaRouter;
     private final DSLContext dslContext;
+    private final Map<SqlClient, AtomicInteger> inflight = new IdentityHashMap<>();
+    private final int fetchSize;
+
+    /**
+     * Чтения без явного {@link SqlClient} выполняются через {@link ReplicaRouter}, изменения без явного {@link SqlClient} -
+     * в пуле публикации, транзакции открываются через {@link #inTransaction}.
+     * {@code db.pool.inflight} выше {@code db.pool.size} означает, что запросы ждут свободного соединения.
+     */
+    public DbClient(Map<Workload, PgPool> pools, ReplicaRouter replicaRouter, DSLContext dslContext, MeterRegistry meterRegistry, int fetchSize) {
+        this.pools = pools;
+        this.pgPool = pools.get(Workload.write);
+        this.replicaRouter = replicaRouter;
+        this.dslContext = dslContext;
+        this.fetchSize = fetchSize;
+        pools.forEach((workload, pool) -> registerPoolMetrics(meterRegistry, workload.name(), pool));
+        ofNullable(replicaRouter.getReplica()).ifPresent(replica -> registerPoolMetrics(meterRegistry, "replica", replica));
+    }
+
+    public PgPool pool(Workload workload) {
+        return pools.get(workload);
+    }
+
+    public <T> Uni<T> inTransaction(Workload workload, Function<SqlClient, Uni<T>> function) {
+        var pool = pools.get(workload);
+        return replicaRouter.afterCommit(track(pool, SqlClientHelper.inTransactionUni(pool, function)));
+    }
 
     public <T> Uni<List<T>> executeBatch(Logger log, String point, Collection<Function<DSLContext, Query>> queryBuilders, Function<Row, T> mapper) {
         return executeBatch(pgPool, log, point, queryBuilders, mapper);
@@ -44,7 +82,7 @@ public class DbClient {
     public <T> Uni<List<T>> executeBatch(SqlClient sqlClient, Logger log, String point, String sql, List<Tuple> args, Function<Row, T> mapper) {
         var queryId = generateDefaultUuid();
         logIn(log, point, queryId, sql, args);
-        return sqlClient.preparedQuery(sql).executeBatch(args)
+        return track(sqlClient, sqlClient.preparedQuery(sql).executeBatch(args))
                 .onFailure().invoke(e -> logError(log, point, queryId, e))
                 .map(rows -> {
                     var resultList = new ArrayList<T>();
@@ -77,7 +115,7 @@ public class DbClient {
     public Uni<Integer> executeBatch(SqlClient sqlClient, Logger log, String point, String sql, List<Tuple> args) {
         var queryId = generateDefaultUuid();
         logIn(log, point, queryId, sql, args);
-        return sqlClient.preparedQuery(sql).executeBatch(args)
+        return track(sqlClient, sqlClient.preparedQuery(sql).executeBatch(args))
                 .onFailure().invoke(e -> logError(log, point, queryId, e))
                 .map(rows -> {
                     int count = 0;
@@ -138,7 +176,7 @@ public class DbClient {
     public Uni<Integer> execute(SqlClient sqlClient, Logger log, String point, String sql, Tuple args) {
         var queryId = generateDefaultUuid();
         logIn(log, point, queryId, sql, args);
-        return sqlClient.preparedQuery(sql).execute(args)
+        return track(sqlClient, sqlClient.preparedQuery(sql).execute(args))
                 .onFailure().invoke(e -> logError(log, point, queryId, e))
                 .map(rows -> {
                     logOutCount(log, point, queryId, rows);
@@ -147,7 +185,7 @@ public class DbClient {
     }
 
     public <T> Multi<T> toMulti(Logger log, String point, Function<DSLContext, Query> queryBuilder, Function<Row, T> mapper) {
-        return toMulti(pgPool, log, point, queryBuilder, mapper);
+        return replicaRouter.readMulti(log, point, sqlClient -> toMulti(sqlClient, log, point, queryBuilder, mapper));
     }
 
     public <T> Multi<T> toMulti(SqlClient sqlClient, Logger log, String point, Function<DSLContext, Query> queryBuilder, Function<Row, T> mapper) {
@@ -157,28 +195,31 @@ public class DbClient {
     }
 
     public <T> Multi<T> toMulti(Logger log, String point, String sql, Tuple args, Function<Row, T> mapper) {
-        return toMulti(pgPool, log, point, sql, args, mapper);
+        return replicaRouter.readMulti(log, point, sqlClient -> toMulti(sqlClient, log, point, sql, args, mapper));
     }
 
+    /**
+     * Строки читаются курсором порциями по {@code db.stream.fetch-size} по мере запросов подписчика, в памяти не больше одной порции.
+     * С пулом курсор открывается в отдельной транзакции на выделенном соединении, с {@link SqlConnection} - в транзакции вызывающего.
+     */
     public <T> Multi<T> toMulti(SqlClient sqlClient, Logger log, String point, String sql, Tuple args, Function<Row, T> mapper) {
         var queryId = generateDefaultUuid();
         logIn(log, point, queryId, sql, args);
-        return sqlClient.preparedQuery(sql).execute(args)
+        var fetched = new AtomicLong();
+        return trackMulti(sqlClient, streamRows(sqlClient, sql, args))
                 .onFailure().invoke(e -> logError(log, point, queryId, e))
-                .invoke(rows -> {
-                    if (log.isDebugEnabled()) {
-                        var result = new ArrayList<>();
-                        rows.iterator().forEachRemaining(row -> result.add(mapper.apply(row)));
-                        logOut(log, point, queryId, rows, result);
+                .map(mapper)
+                .invoke(ignored -> {
+                    var count = fetched.incrementAndGet();
+                    if (count % fetchSize == 0) {
+                        logOutBatch(log, point, queryId, count);
                     }
                 })
-                .toMulti()
-                .flatMap(Multi.createFrom()::iterable)
-                .map(mapper);
+                .onCompletion().invoke(() -> logOutCount(log, point, queryId, fetched.get()));
     }
 
     public <T> Uni<T> toUni(Logger log, String point, Function<DSLContext, Query> queryBuilder, Function<Row, T> mapper) {
-        return toUni(pgPool, log, point, queryBuilder, mapper);
+        return replicaRouter.read(log, point, sqlClient -> toUni(sqlClient, log, point, queryBuilder, mapper));
     }
 
     public <T> Uni<T> toUni(SqlClient sqlClient, Logger log, String point, Function<DSLContext, Query> queryBuilder, Function<Row, T> mapper) {
@@ -188,13 +229,13 @@ public class DbClient {
     }
 
     public <T> Uni<T> toUni(Logger log, String point, String sql, Tuple args, Function<Row, T> mapper) {
-        return toUni(pgPool, log, point, sql, args, mapper);
+        return replicaRouter.read(log, point, sqlClient -> toUni(sqlClient, log, point, sql, args, mapper));
     }
 
     public <T> Uni<T> toUni(SqlClient sqlClient, Logger log, String point, String sql, Tuple args, Function<Row, T> mapper) {
         var queryId = generateDefaultUuid();
         logIn(log, point, queryId, sql, args);
-        return sqlClient.preparedQuery(sql).execute(args)
+        return track(sqlClient, sqlClient.preparedQuery(sql).execute(args))
                 .onFailure().invoke(e -> logError(log, point, queryId, e))
                 .map(rows -> {
                     if (rows.rowCount() == 0) {
@@ -209,7 +250,7 @@ public class DbClient {
     }
 
     public <T> Uni<List<T>> toUniOfList(Logger log, String point, Function<DSLContext, Query> queryBuilder, Function<Row, T> mapper) {
-        return toUniOfList(pgPool, log, point, queryBuilder, mapper);
+        return replicaRouter.read(log, point, sqlClient -> toUniOfList(sqlClient, log, point, queryBuilder, mapper));
     }
 
     public <T> Uni<List<T>> toUniOfList(SqlClient sqlClient, Logger log, String point, Function<DSLContext, Query> queryBuilder, Function<Row, T> mapper) {
@@ -219,7 +260,7 @@ public class DbClient {
     }
 
     public <T> Uni<List<T>> toUniOfList(Logger log, String point, String sql, Tuple args, Function<Row, T> mapper) {
-        return toUniOfList(pgPool, log, point, sql, args, mapper);
+        return replicaRouter.read(log, point, sqlClient -> toUniOfList(sqlClient, log, point, sql, args, mapper));
     }
 
     public <T> Uni<List<T>> toUniOfList(SqlClient sqlClient, Logger log, String point, String sql, Tuple args, Function<Row, T> mapper) {
@@ -227,7 +268,7 @@ public class DbClient {
     }
 
     public <T> Uni<Set<T>> toUniOfSet(Logger log, String point, Function<DSLContext, Query> queryBuilder, Function<Row, T> mapper) {
-        return toUniOfSet(pgPool, log, point, queryBuilder, mapper);
+        return replicaRouter.read(log, point, sqlClient -> toUniOfSet(sqlClient, log, point, queryBuilder, mapper));
     }
 
     public <T> Uni<Set<T>> toUniOfSet(SqlClient sqlClient, Logger log, String point, Function<DSLContext, Query> queryBuilder, Function<Row, T> mapper) {
@@ -237,7 +278,7 @@ public class DbClient {
     }
 
     public <T> Uni<Set<T>> toUniOfSet(Logger log, String point, String sql, Tuple args, Function<Row, T> mapper) {
-        return toUniOfSet(pgPool, log, point, sql, args, mapper);
+        return replicaRouter.read(log, point, sqlClient -> toUniOfSet(sqlClient, log, point, sql, args, mapper));
     }
 
     public <T> Uni<Set<T>> toUniOfSet(SqlClient sqlClient, Logger log, String point, String sql, Tuple args, Function<Row, T> mapper) {
@@ -254,7 +295,7 @@ public class DbClient {
                                                                                    Supplier<COLLECTION> initializer) {
         var queryId = generateDefaultUuid();
         logIn(log, point, queryId, sql, args);
-        return sqlClient.preparedQuery(sql).execute(args)
+        return track(sqlClient, sqlClient.preparedQuery(sql).execute(args))
                 .onFailure().invoke(e -> logError(log, point, queryId, e))
                 .map(rows -> {
                     if (rows.rowCount() == 0) {
@@ -276,7 +317,89 @@ public class DbClient {
                                                                                    Supplier<COLLECTION> initializer) {
         var sql = extractSql(queryBuilder);
         var args = extractArgs(queryBuilder);
-        return toUniOfCollection(pgPool, log, point, sql, args, mapper, empty, initializer);
+        return replicaRouter.read(log, point, sqlClient -> toUniOfCollection(sqlClient, log, point, sql, args, mapper, empty, initializer));
+    }
+
+    private void registerPoolMetrics(MeterRegistry meterRegistry, String name, PgPool pool) {
+        var counter = new AtomicInteger();
+        inflight.put(pool, counter);
+        Gauge.builder("db.pool.inflight", counter, AtomicInteger::get)
+                .tag("pool", name)
+                .register(meterRegistry);
+        Gauge.builder("db.pool.size", pool, PgPool::size)
+                .tag("pool", name)
+                .register(meterRegistry);
+    }
+
+    private Multi<Row> streamRows(SqlClient sqlClient, String sql, Tuple args) {
+        if (sqlClient instanceof SqlConnection connection) {
+            return streamRows(connection, sql, args);
+        }
+        if (sqlClient instanceof Pool pool) {
+            return Multi.createFrom()
+                    .resourceFromUni(
+                            () -> pool.getConnection()
+                                    .flatMap(connection -> connection.begin()
+                                            .map(transaction -> new StreamTransaction(connection, transaction))
+                                            .onFailure()
+                                            .call(connection::close)),
+                            streamTransaction -> streamRows(streamTransaction.connection(), sql, args)
+                    )
+                    .withFinalizer(
+                            streamTransaction -> streamTransaction.transaction().commit()
+                                    .eventually(streamTransaction.connection()::close),
+                            (streamTransaction, e) -> streamTransaction.rollback(),
+                            StreamTransaction::rollback
+                    );
+        }
+        throw new RuntimeException("Потоковое чтение не поддерживается для %s".formatted(sqlClient.getClass().getName()));
+    }
+
+    private Multi<Row> streamRows(SqlConnection connection, String sql, Tuple args) {
+        return Multi.createFrom()
+                .resourceFromUni(
+                        () -> connection.prepare(sql),
+                        statement -> Multi.createFrom()
+                                .resource(() -> statement.createStream(fetchSize, args), RowStream::toMulti)
+                                .withFinalizer(this::close)
+                )
+                .withFinalizer(PreparedStatement::close);
+    }
+
+    private Uni<Void> close(RowStream<Row> stream) {
+        return stream.close();
+    }
+
+    private <T> Multi<T> trackMulti(SqlClient sqlClient, Multi<T> multi) {
+        var counter = inflight.get(sqlClient);
+        if (counter == null) {
+            return multi;
+        }
+        return Multi.createFrom().deferred(() -> {
+            counter.incrementAndGet();
+            return multi.onTermination().invoke(counter::decrementAndGet);
+        });
+    }
+
+    private record StreamTransaction(SqlConnection connection, Transaction transaction) {
+
+        private Uni<Void> rollback() {
+            return transaction.rollback()
+                    .onFailure()
+                    .recoverWithNull()
+                    .eventually(connection::close);
+        }
+    }
+
+    private <T> Uni<T> track(SqlClient sqlClient, Uni<T> uni) {
+        var counter = inflight.get(sqlClient);
+        if (counter == null) {
+            return uni;
+        }
+        return Uni.createFrom().deferred(() -> {
+            counter.incrementAndGet();
+            return uni.onTermination().invoke(counter::decrementAndGet);
+        });
     }
 
     private String extractSql(Function<DSLContext, Query> queryBuilder) {
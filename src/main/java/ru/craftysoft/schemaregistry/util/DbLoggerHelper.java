@@ -50,7 +50,7 @@ public class DbLoggerHelper {
         });
     }
 
-    static void logOutCount(Logger log, String point, String queryId, Integer count) {
+    static void logOutCount(Logger log, String point, String queryId, long count) {
         withQueryId(queryId, () -> {
             if (log.isDebugEnabled()) {
                 log.debug("{}.out size={}", point, count);
@@ -58,6 +58,14 @@ public class DbLoggerHelper {
         });
     }
 
+    static void logOutBatch(Logger log, String point, String queryId, long fetched) {
+        withQueryId(queryId, () -> {
+            if (log.isDebugEnabled()) {
+                log.debug("{}.batch fetched={}", point, fetched);
+            }
+        });
+    }
+
     static <T> void logOut(Logger log, String point, String queryId, RowSet<Row> rows, T result) {
         withQueryId(queryId, () -> {
             if (log.isDebugEnabled()) {
@@ -0,0 +1,125 @@
+package ru.craftysoft.schemaregistry.util;
+
+import javax.annotation.Nullable;
+
+/**
+ * Хэш-таблица с открытой адресацией по ключам {@code long} без упаковки ключей в {@link Long}.
+ * Ключ 0 не поддерживается: идентификаторы из {@code BIGSERIAL} начинаются с 1.
+ * Изменения должны выполняться одним потоком за раз. Чтение без блокировки не падает и завершается
+ * и при параллельном изменении, но может вернуть неверный результат - это проверяет вызывающий код.
+ */
+public class LongObjectMap<V> {
+
+    private static final long EMPTY = 0;
+
+    private volatile Table table = new Table(16);
+    private int size;
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        var t = table;
+        var mask = t.keys.length - 1;
+        var index = index(key, mask);
+        for (int i = 0; i <= mask; i++) {
+            var k = t.keys[index];
+            if (k == key) {
+                return (V) t.values[index];
+            }
+            if (k == EMPTY) {
+                return null;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    public void put(long key, V value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Ключ 0 не поддерживается");
+        }
+        if ((size + 1) * 4L > table.keys.length * 3L) {
+            resize(table.keys.length * 2);
+        }
+        if (insert(table, key, value)) {
+            size++;
+        }
+    }
+
+    /**
+     * Удаление со сдвигом следующих записей цепочки, без надгробий.
+     */
+    public void remove(long key) {
+        var t = table;
+        var mask = t.keys.length - 1;
+        var index = index(key, mask);
+        while (t.keys[index] != key) {
+            if (t.keys[index] == EMPTY) {
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        var hole = index;
+        var next = (hole + 1) & mask;
+        while (t.keys[next] != EMPTY) {
+            var home = index(t.keys[next], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                t.keys[hole] = t.keys[next];
+                t.values[hole] = t.values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        t.keys[hole] = EMPTY;
+        t.values[hole] = null;
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        var resized = new Table(capacity);
+        var t = table;
+        for (int i = 0; i < t.keys.length; i++) {
+            if (t.keys[i] != EMPTY) {
+                insert(resized, t.keys[i], t.values[i]);
+            }
+        }
+        table = resized;
+    }
+
+    private static boolean insert(Table t, long key, Object value) {
+        var mask = t.keys.length - 1;
+        var index = index(key, mask);
+        while (t.keys[index] != EMPTY) {
+            if (t.keys[index] == key) {
+                t.values[index] = value;
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        t.values[index] = value;
+        t.keys[index] = key;
+        return true;
+    }
+
+    private static int index(long key, int mask) {
+        var hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static final class Table {
+
+        private final long[] keys;
+        private final Object[] values;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+
+    }
+
+}
@@ -0,0 +1,115 @@
+package ru.craftysoft.schemaregistry.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.craftysoft.schemaregistry.dto.intermediate.ImportedVersion;
+import ru.craftysoft.schemaregistry.model.rest.RegistryExportLineData;
+
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Читает выгрузку реестра построчно и складывает схемы каждой версии во временный zip-архив без сжатия.
+ * Версия возвращается только после её контрольной точки: оборванная в конце выгрузки версия пропускается.
+ * Блокирующий, не потокобезопасен.
+ */
+public class RegistryImportReader implements Closeable {
+
+    private final ObjectMapper objectMapper;
+    private final BufferedReader reader;
+    private long lineNumber;
+    @Nullable
+    private RegistryExportLineData version;
+    @Nullable
+    private Path archive;
+    @Nullable
+    private OutputStream archiveStream;
+    @Nullable
+    private ZipChunkWriter writer;
+
+    public RegistryImportReader(ObjectMapper objectMapper, Path source) throws IOException {
+        this.objectMapper = objectMapper;
+        this.reader = Files.newBufferedReader(source, StandardCharsets.UTF_8);
+    }
+
+    public Optional<ImportedVersion> next() throws IOException {
+        for (var line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            var data = objectMapper.readValue(line, RegistryExportLineData.class);
+            switch (data.getType()) {
+                case VERSION -> startVersion(data);
+                case SCHEMA -> {
+                    requireVersion(data);
+                    var content = data.getContent() == null ? new byte[0] : data.getContent();
+                    archiveStream.write(writer.write(data.getPath(), content));
+                }
+                case CHECKPOINT -> {
+                    requireVersion(data);
+                    return Optional.of(finishVersion());
+                }
+            }
+        }
+        discardVersion();
+        return Optional.empty();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            discardVersion();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void startVersion(RegistryExportLineData data) throws IOException {
+        discardVersion();
+        version = data;
+        archive = Files.createTempFile("import_", ".zip");
+        archiveStream = Files.newOutputStream(archive);
+        writer = new ZipChunkWriter(true);
+    }
+
+    private void requireVersion(RegistryExportLineData data) {
+        if (version == null || !Objects.equals(version.getVersionId(), data.getVersionId())) {
+            throw new RuntimeException("Строка %s относится к версии %s без предшествующей строки версии".formatted(lineNumber, data.getVersionId()));
+        }
+    }
+
+    private ImportedVersion finishVersion() throws IOException {
+        archiveStream.write(writer.finish());
+        archiveStream.close();
+        var result = new ImportedVersion(version.getVersionId(), version.getStructureName(), version.getVersionName(), archive.toFile());
+        version = null;
+        archive = null;
+        archiveStream = null;
+        writer = null;
+        return result;
+    }
+
+    private void discardVersion() throws IOException {
+        if (archive == null) {
+            return;
+        }
+        try {
+            archiveStream.close();
+        } finally {
+            Files.deleteIfExists(archive);
+            version = null;
+            archive = null;
+            archiveStream = null;
+            writer = null;
+        }
+    }
+
+}
@@ -0,0 +1,181 @@
+package ru.craftysoft.schemaregistry.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.SqlClient;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Направляет чтения вне транзакций в реплику. Запрос уходит в primary, если реплика отстаёт больше {@code maxLag},
+ * не догнала {@link SessionLsn} клиента или вернула ошибку. Отставание проверяется по таймеру: LSN primary сравнивается
+ * с воспроизведённым LSN реплики, при расхождении берётся время с последней воспроизведённой транзакции.
+ */
+@Slf4j
+public class ReplicaRouter {
+
+    private static final String PRIMARY_LSN_SQL = "SELECT pg_current_wal_lsn()::text AS lsn";
+    private static final String REPLICA_LSN_SQL = """
+            SELECT CASE WHEN pg_is_in_recovery() THEN pg_last_wal_replay_lsn() ELSE pg_current_wal_lsn() END::text AS lsn,
+                   CASE WHEN pg_is_in_recovery() THEN extract(epoch FROM now() - pg_last_xact_replay_timestamp()) ELSE 0 END::float8 AS lag""";
+
+    private final PgPool primary;
+    @Nullable
+    private final PgPool replica;
+    private final Duration maxLag;
+    private final Counter replicaReads;
+    private final Counter fallbacksOnLag;
+    private final Counter fallbacksOnLsn;
+    private final Counter fallbacksOnError;
+    private volatile long replayedLsn = -1;
+    private volatile double lagSeconds = Double.MAX_VALUE;
+    private long timerId = -1;
+
+    /**
+     * @param replica {@code null}, если реплика выключена и все чтения идут в primary
+     */
+    public ReplicaRouter(PgPool primary, @Nullable PgPool replica, Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLag = maxLag;
+        this.replicaReads = meterRegistry.counter("db.replica.reads");
+        this.fallbacksOnLag = meterRegistry.counter("db.replica.fallbacks", "reason", "lag");
+        this.fallbacksOnLsn = meterRegistry.counter("db.replica.fallbacks", "reason", "lsn");
+        this.fallbacksOnError = meterRegistry.counter("db.replica.fallbacks", "reason", "error");
+        meterRegistry.gauge("db.replica.lag.seconds", this, router -> router.lagSeconds);
+    }
+
+    @Nullable
+    public PgPool getReplica() {
+        return replica;
+    }
+
+    public void start(Vertx vertx, Duration lagCheckInterval) {
+        if (replica != null) {
+            scheduleLagCheck();
+            timerId = vertx.setPeriodic(lagCheckInterval.toMillis(), ignored -> scheduleLagCheck());
+        }
+    }
+
+    public void stop(Vertx vertx) {
+        if (timerId != -1) {
+            vertx.cancelTimer(timerId);
+        }
+    }
+
+    public <T> Uni<T> read(Logger log, String point, Function<SqlClient, Uni<T>> query) {
+        return Uni.createFrom().deferred(() -> {
+            if (!useReplica()) {
+                return query.apply(primary);
+            }
+            replicaReads.increment();
+            return query.apply(replica)
+                    .onFailure()
+                    .recoverWithUni(e -> {
+                        log.warn("{}.replica.thrown {}", point, e.getMessage());
+                        fallbacksOnError.increment();
+                        return query.apply(primary);
+                    });
+        });
+    }
+
+    /**
+     * На primary переключается только сбой до первой строки, иначе подписчик получил бы строки повторно.
+     */
+    public <T> Multi<T> readMulti(Logger log, String point, Function<SqlClient, Multi<T>> query) {
+        return Multi.createFrom().deferred(() -> {
+            if (!useReplica()) {
+                return query.apply(primary);
+            }
+            replicaReads.increment();
+            var emitted = new AtomicBoolean();
+            return query.apply(replica)
+                    .invoke(() -> emitted.set(true))
+                    .onFailure(e -> !emitted.get())
+                    .recoverWithMulti(e -> {
+                        log.warn("{}.replica.thrown {}", point, e.getMessage());
+                        fallbacksOnError.increment();
+                        return query.apply(primary);
+                    });
+        });
+    }
+
+    /**
+     * После успешной транзакции запоминает LSN primary, чтобы вернуть его клиенту в {@link SessionLsn#HEADER}.
+     */
+    public <T> Uni<T> afterCommit(Uni<T> transaction) {
+        if (replica == null) {
+            return transaction;
+        }
+        return Uni.createFrom().deferred(() -> {
+            var context = io.vertx.core.Vertx.currentContext();
+            return transaction.call(() -> primary.query(PRIMARY_LSN_SQL).execute()
+                    .invoke(rows -> SessionLsn.committed(context, rows.iterator().next().getString("lsn")))
+                    .onFailure()
+                    .invoke(e -> log.warn("ReplicaRouter.afterCommit.thrown {}", e.getMessage()))
+                    .onFailure()
+                    .recoverWithNull());
+        });
+    }
+
+    private boolean useReplica() {
+        if (replica == null) {
+            return false;
+        }
+        if (lagSeconds > maxLag.toMillis() / 1000.0) {
+            fallbacksOnLag.increment();
+            return false;
+        }
+        if (SessionLsn.required() > replayedLsn) {
+            fallbacksOnLsn.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Обновляет воспроизведённый LSN и отставание реплики, не дожидаясь таймера.
+     */
+    public Uni<Void> checkLag() {
+        if (replica == null) {
+            return Uni.createFrom().voidItem();
+        }
+        return primary.query(PRIMARY_LSN_SQL).execute()
+                .map(rows -> SessionLsn.parse(rows.iterator().next().getString("lsn")))
+                .flatMap(primaryLsn -> replica.query(REPLICA_LSN_SQL).execute()
+                        .invoke(rows -> {
+                            var row = rows.iterator().next();
+                            var lsn = row.getString("lsn");
+                            var lag = row.getDouble("lag");
+                            replayedLsn = lsn == null ? -1 : SessionLsn.parse(lsn);
+                            if (replayedLsn >= primaryLsn) {
+                                lagSeconds = 0;
+                            } else {
+                                lagSeconds = lag == null ? Double.MAX_VALUE : lag;
+                            }
+                        }))
+                .invoke(() -> log.trace("ReplicaRouter.checkLag replayedLsn={} lagSeconds={}", replayedLsn, lagSeconds))
+                .onFailure()
+                .invoke(e -> {
+                    lagSeconds = Double.MAX_VALUE;
+                    log.warn("ReplicaRouter.checkLag.thrown {}", e.getMessage());
+                })
+                .replaceWithVoid();
+    }
+
+    private void scheduleLagCheck() {
+        checkLag().subscribe().with(ignored -> {
+        }, ignored -> {
+        });
+    }
+
+}
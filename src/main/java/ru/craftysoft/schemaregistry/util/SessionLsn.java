@@ -0,0 +1,71 @@
+package ru.craftysoft.schemaregistry.util;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import lombok.NoArgsConstructor;
+
+import javax.annotation.Nullable;
+
+import static lombok.AccessLevel.PRIVATE;
+
+/**
+ * Токен read-your-writes: LSN primary после транзакции публикации отдаётся клиенту в {@link #HEADER},
+ * клиент передаёт его в следующих запросах, и чтение идёт в реплику, только если она догнала этот LSN.
+ * Значения хранятся в локальных данных контекста Vert.x текущего запроса.
+ */
+@NoArgsConstructor(access = PRIVATE)
+public class SessionLsn {
+
+    public static final String HEADER = "X-Session-Lsn";
+
+    private static final String REQUIRED_KEY = "sessionLsn.required";
+    private static final String COMMITTED_KEY = "sessionLsn.committed";
+
+    public static void require(String lsn) {
+        var parsed = parse(lsn);
+        var context = Vertx.currentContext();
+        if (context != null) {
+            context.putLocal(REQUIRED_KEY, parsed);
+        }
+    }
+
+    /**
+     * @return LSN, который должна догнать реплика, или -1, если токен не передан
+     */
+    public static long required() {
+        var context = Vertx.currentContext();
+        if (context == null) {
+            return -1;
+        }
+        Long lsn = context.getLocal(REQUIRED_KEY);
+        return lsn == null ? -1 : lsn;
+    }
+
+    public static void committed(@Nullable Context context, String lsn) {
+        if (context != null) {
+            context.putLocal(COMMITTED_KEY, lsn);
+        }
+    }
+
+    @Nullable
+    public static String committed() {
+        var context = Vertx.currentContext();
+        return context == null ? null : context.getLocal(COMMITTED_KEY);
+    }
+
+    /**
+     * Разбирает текстовое представление {@code pg_lsn} вида {@code 16/B374D848}.
+     */
+    public static long parse(String lsn) {
+        var parts = lsn.split("/");
+        if (parts.length != 2) {
+            throw new RuntimeException("Некорректный LSN '%s'".formatted(lsn));
+        }
+        try {
+            return Long.parseLong(parts[0], 16) << 32 | Long.parseLong(parts[1], 16);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Некорректный LSN '%s'".formatted(lsn), e);
+        }
+    }
+
+}
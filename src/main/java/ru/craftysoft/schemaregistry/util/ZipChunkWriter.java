@@ -0,0 +1,57 @@
+package ru.craftysoft.schemaregistry.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Пишет zip-архив по частям: после каждой записи возвращает байты, накопленные с прошлого вызова,
+ * так что в памяти держится не больше одной сжатой схемы. Не потокобезопасен.
+ */
+public class ZipChunkWriter {
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final ZipOutputStream zip = new ZipOutputStream(buffer);
+    private final boolean stored;
+
+    public ZipChunkWriter() {
+        this(false);
+    }
+
+    /**
+     * @param stored записывать схемы без сжатия
+     */
+    public ZipChunkWriter(boolean stored) {
+        this.stored = stored;
+    }
+
+    public byte[] write(String path, byte[] content) throws IOException {
+        var entry = new ZipEntry(path);
+        if (stored) {
+            var crc = new CRC32();
+            crc.update(content);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(content.length);
+            entry.setCompressedSize(content.length);
+            entry.setCrc(crc.getValue());
+        }
+        zip.putNextEntry(entry);
+        zip.write(content);
+        zip.closeEntry();
+        return drain();
+    }
+
+    public byte[] finish() throws IOException {
+        zip.finish();
+        return drain();
+    }
+
+    private byte[] drain() {
+        var chunk = buffer.toByteArray();
+        buffer.reset();
+        return chunk;
+    }
+
+}
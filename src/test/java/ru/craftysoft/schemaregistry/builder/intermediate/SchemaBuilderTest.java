@@ -0,0 +1,88 @@
+package ru.craftysoft.schemaregistry.builder.intermediate;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.schemaregistry.dto.intermediate.Schema;
+import ru.craftysoft.schemaregistry.dto.intermediate.Version;
+import ru.craftysoft.schemaregistry.service.blob.BlobStores;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SchemaBuilderTest {
+
+    private final Version version = new Version(1, "test", null);
+
+    @Test
+    void packsUpToMaxSize() {
+        var blobStores = mock(BlobStores.class);
+        when(blobStores.link(eq("test"), eq("pack"))).thenReturn("bucket/pack_1", "bucket/pack_2", "bucket/pack_3");
+        var builder = new SchemaBuilder(blobStores, true, new MemorySize(BigInteger.valueOf(10)), 2);
+
+        var schemas = builder.build(version, archive(Map.of(
+                "a.json", 4,
+                "b.json", 4,
+                "c.json", 4,
+                "d.json", 12,
+                "e.json", 1
+        )));
+
+        var packs = schemas.stream()
+                .filter(schema -> !schema.location().inlined())
+                .collect(Collectors.groupingBy(schema -> schema.location().link(), Collectors.toSet()));
+        assertEquals(3, packs.size());
+        for (var pack : packs.values()) {
+            var size = pack.stream().mapToInt(schema -> schema.content().length).sum();
+            assertTrue(size <= 10 || pack.size() == 1);
+            var offsets = pack.stream().map(schema -> schema.location().offset()).collect(Collectors.toSet());
+            assertTrue(offsets.contains(0L));
+            for (var schema : pack) {
+                assertEquals(schema.content().length, schema.location().length());
+            }
+        }
+        assertTrue(schemas.stream()
+                .filter(schema -> schema.path().equals("e.json"))
+                .allMatch(schema -> schema.location().inlined()));
+    }
+
+    @Test
+    void separateObjectsWithoutPacking() {
+        var blobStores = mock(BlobStores.class);
+        when(blobStores.link(eq("test"), eq("schema"))).thenReturn("bucket/schema_1", "bucket/schema_2");
+        var builder = new SchemaBuilder(blobStores, false, new MemorySize(BigInteger.valueOf(10)), 2);
+
+        Set<Schema> schemas = builder.build(version, archive(Map.of("a.json", 4, "b.json", 4)));
+
+        assertEquals(Set.of("bucket/schema_1", "bucket/schema_2"), schemas.stream()
+                .map(schema -> schema.location().link())
+                .collect(Collectors.toSet()));
+        assertTrue(schemas.stream().noneMatch(schema -> schema.location().packed()));
+    }
+
+    @SneakyThrows
+    private static File archive(Map<String, Integer> sizes) {
+        var file = Files.createTempFile("schemas_", ".zip");
+        try (var zip = new ZipOutputStream(Files.newOutputStream(file))) {
+            for (var entry : sizes.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(new byte[entry.getValue()]);
+                zip.closeEntry();
+            }
+        }
+        file.toFile().deleteOnExit();
+        return file.toFile();
+    }
+
+}
@@ -5,6 +5,7 @@ import ru.craftysoft.schemaregistry.testcontainer.PostgreSqlResource;
 import ru.craftysoft.schemaregistry.testcontainer.S3Resource;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class ApplicationTestProfile implements QuarkusTestProfile {
@@ -14,6 +15,17 @@ public class ApplicationTestProfile implements QuarkusTestProfile {
         return Set.of(TestDslContext.class);
     }
 
+    /**
+     * Без карантина ответ кэшируется сразу после сброса кэша в {@code OperationTest.cleanUp}.
+     */
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of(
+                "cache.schema-links.quarantine", "0s",
+                "cache.version-ranges.quarantine", "0s"
+        );
+    }
+
     @Override
     public List<TestResourceEntry> testResources() {
         return List.of(
@@ -0,0 +1,18 @@
+package ru.craftysoft.schemaregistry.configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Архивы версий не сохраняются в S3 и собираются из схем при скачивании.
+ */
+public class AssembledArchiveTestProfile extends ApplicationTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        var overrides = new HashMap<>(super.getConfigOverrides());
+        overrides.put("archive.store", "false");
+        return overrides;
+    }
+
+}
@@ -0,0 +1,19 @@
+package ru.craftysoft.schemaregistry.configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Каталог метаданных включён, повторные попытки загрузки и перечитывания - без долгих пауз.
+ */
+public class CatalogTestProfile extends ApplicationTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        var overrides = new HashMap<>(super.getConfigOverrides());
+        overrides.put("catalog.enabled", "true");
+        overrides.put("catalog.retry-interval", "100ms");
+        return overrides;
+    }
+
+}
@@ -0,0 +1,18 @@
+package ru.craftysoft.schemaregistry.configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Курсор читает строки мелкими порциями, чтобы поток из нескольких десятков строк занимал несколько порций.
+ */
+public class DbStreamTestProfile extends ApplicationTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        var overrides = new HashMap<>(super.getConfigOverrides());
+        overrides.put("db.stream.fetch-size", "10");
+        return overrides;
+    }
+
+}
@@ -0,0 +1,17 @@
+package ru.craftysoft.schemaregistry.configuration;
+
+import ru.craftysoft.schemaregistry.testcontainer.FakeS3Resource;
+import ru.craftysoft.schemaregistry.testcontainer.PostgreSqlResource;
+
+import java.util.List;
+
+public class FakeS3TestProfile extends ApplicationTestProfile {
+
+    @Override
+    public List<TestResourceEntry> testResources() {
+        return List.of(
+                new TestResourceEntry(FakeS3Resource.class),
+                new TestResourceEntry(PostgreSqlResource.class)
+        );
+    }
+}
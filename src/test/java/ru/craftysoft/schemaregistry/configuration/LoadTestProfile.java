@@ -0,0 +1,35 @@
+package ru.craftysoft.schemaregistry.configuration;
+
+import ru.craftysoft.schemaregistry.testcontainer.FakeS3Resource;
+import ru.craftysoft.schemaregistry.testcontainer.PostgreSqlResource;
+
+import java.util.List;
+import java.util.Map;
+
+public class LoadTestProfile extends ApplicationTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of(
+                "quarkus.log.category.\"ru.craftysoft\".level", "INFO",
+                "quarkus.log.category.\"ru.craftysoft.schemaregistry.server.request\".level", "INFO",
+                "quarkus.log.category.\"ru.craftysoft.schemaregistry.server.response\".level", "INFO"
+        );
+    }
+
+    /**
+     * При заданном {@code loadtest.s3Faults} вместо LocalStack поднимается {@code FakeS3Server} с этими сбоями.
+     */
+    @Override
+    public List<TestResourceEntry> testResources() {
+        var s3Faults = System.getProperty("loadtest.s3Faults");
+        if (s3Faults == null) {
+            return super.testResources();
+        }
+        return List.of(
+                new TestResourceEntry(FakeS3Resource.class, Map.of(FakeS3Resource.FAULTS_ARG, s3Faults)),
+                new TestResourceEntry(PostgreSqlResource.class)
+        );
+    }
+
+}
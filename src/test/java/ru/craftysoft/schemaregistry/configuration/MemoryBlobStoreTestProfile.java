@@ -0,0 +1,18 @@
+package ru.craftysoft.schemaregistry.configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Новые объекты создаются в {@code MemoryBlobStore}, а не в S3.
+ */
+public class MemoryBlobStoreTestProfile extends ApplicationTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        var overrides = new HashMap<>(super.getConfigOverrides());
+        overrides.put("blob.store", "mem");
+        return overrides;
+    }
+
+}
@@ -0,0 +1,19 @@
+package ru.craftysoft.schemaregistry.configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Схемы версии упаковываются в общие объекты, общий объект из тестового архива загружается составной загрузкой.
+ */
+public class PackedSchemasTestProfile extends ApplicationTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        var overrides = new HashMap<>(super.getConfigOverrides());
+        overrides.put("s3.pack-schemas", "true");
+        overrides.put("s3.multipart.threshold", "16K");
+        return overrides;
+    }
+
+}
@@ -0,0 +1,18 @@
+package ru.craftysoft.schemaregistry.configuration;
+
+import java.util.Map;
+
+/**
+ * Реплика включена и указывает на тот же контейнер Postgres, что и primary.
+ */
+public class ReplicaTestProfile extends ApplicationTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of(
+                "db.replica.enabled", "true",
+                "db.replica.lag-check-interval", "100ms"
+        );
+    }
+
+}
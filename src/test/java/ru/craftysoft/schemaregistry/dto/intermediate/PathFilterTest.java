@@ -0,0 +1,49 @@
+package ru.craftysoft.schemaregistry.dto.intermediate;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathFilterTest {
+
+    @Test
+    void of() {
+        assertNull(PathFilter.of(null, null));
+        assertNull(PathFilter.of("", ""));
+        assertEquals("mobile/", PathFilter.of("mobile/", null).prefix());
+        assertEquals("mobile/", PathFilter.of(null, "mobile/**/*.json").prefix());
+        assertEquals("mobile/api/", PathFilter.of("mobile/api/", "mobile/**").prefix());
+        assertEquals("mobile/api/", PathFilter.of("mobile/", "mobile/api/*.json").prefix());
+    }
+
+    @Test
+    void matches() {
+        var filter = PathFilter.of(null, "mobile/**/*.json");
+        assertTrue(filter.matches("mobile/a.json"));
+        assertTrue(filter.matches("mobile/api/v1/a.json"));
+        assertFalse(filter.matches("mobile/api/a.yaml"));
+        assertFalse(filter.matches("web/mobile/a.json"));
+
+        var segment = PathFilter.of(null, "mobile/*.js?n");
+        assertTrue(segment.matches("mobile/a.json"));
+        assertFalse(segment.matches("mobile/api/a.json"));
+
+        var literal = PathFilter.of(null, "a+b/(c).json");
+        assertTrue(literal.matches("a+b/(c).json"));
+        assertFalse(literal.matches("aab/c.json"));
+
+        var incompatible = PathFilter.of("web/", "mobile/*");
+        assertFalse(incompatible.matches("web/a"));
+        assertFalse(incompatible.matches("mobile/a"));
+    }
+
+    @Test
+    void upperBound() {
+        assertEquals("mobilf", new PathFilter("mobile", null).upperBound());
+        assertEquals("mobile0", new PathFilter("mobile/", null).upperBound());
+        assertEquals("a\uE000", new PathFilter("a\uD7FF", null).upperBound());
+        assertEquals("b", new PathFilter("a" + new String(Character.toChars(Character.MAX_CODE_POINT)), null).upperBound());
+        assertNull(new PathFilter("", null).upperBound());
+    }
+
+}
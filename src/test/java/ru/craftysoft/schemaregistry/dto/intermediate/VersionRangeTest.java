@@ -0,0 +1,43 @@
+package ru.craftysoft.schemaregistry.dto.intermediate;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionRangeTest {
+
+    @Test
+    void parse() {
+        assertEquals(range(1, 4, 0, 2, 0, 0), VersionRange.parse("^1.4"));
+        assertEquals(range(1, 4, 2, 2, 0, 0), VersionRange.parse("^1.4.2"));
+        assertEquals(range(0, 4, 0, 0, 5, 0), VersionRange.parse("^0.4"));
+        assertEquals(range(0, 0, 3, 0, 0, 4), VersionRange.parse("^0.0.3"));
+        assertEquals(range(0, 0, 0, 0, 1, 0), VersionRange.parse("^0.0"));
+        assertEquals(range(0, 0, 0, 1, 0, 0), VersionRange.parse("^0"));
+        assertEquals(range(2, 0, 0, 2, 1, 0), VersionRange.parse("~2.0"));
+        assertEquals(range(2, 0, 3, 2, 1, 0), VersionRange.parse("~v2.0.3"));
+        assertEquals(range(2, 0, 0, 3, 0, 0), VersionRange.parse("~2"));
+        assertEquals(new VersionRange(null, null), VersionRange.parse(VersionRange.LATEST_STABLE));
+        assertNull(VersionRange.parse("1.4.0"));
+        assertNull(VersionRange.parse("^1.x"));
+        assertNull(VersionRange.parse("^01.2"));
+        assertNull(VersionRange.parse(null));
+    }
+
+    @Test
+    void parseSemanticVersion() {
+        assertEquals(new SemanticVersion(1, 4, 3, null), SemanticVersion.parse("1.4.3"));
+        assertEquals(new SemanticVersion(2, 0, 0, "rc.1"), SemanticVersion.parse("v2.0.0-rc.1+build.5"));
+        assertNull(SemanticVersion.parse("1.4"));
+        assertNull(SemanticVersion.parse("1.4.3.1"));
+        assertNull(SemanticVersion.parse("10000000000.0.0"));
+    }
+
+    private static VersionRange range(int fromMajor, int fromMinor, int fromPatch, int toMajor, int toMinor, int toPatch) {
+        return new VersionRange(
+                new SemanticVersion(fromMajor, fromMinor, fromPatch, null),
+                new SemanticVersion(toMajor, toMinor, toPatch, null)
+        );
+    }
+
+}
@@ -0,0 +1,18 @@
+package ru.craftysoft.schemaregistry.fakes3;
+
+/**
+ * Операции S3, которые поддерживает {@link FakeS3Server}. Задержки и сбои настраиваются для каждой отдельно.
+ */
+public enum FakeS3Operation {
+    createBucket,
+    listObjects,
+    putObject,
+    getObject,
+    headObject,
+    deleteObject,
+    deleteObjects,
+    createMultipartUpload,
+    uploadPart,
+    completeMultipartUpload,
+    abortMultipartUpload,
+}
@@ -0,0 +1,504 @@
+package ru.craftysoft.schemaregistry.fakes3;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpServerRequest;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+import static ru.craftysoft.schemaregistry.util.UuidUtils.generateDefaultUuid;
+
+/**
+ * S3-совместимый сервер в памяти для тестов: path-style запросы, объекты хранятся в {@link ConcurrentHashMap}.
+ * Для каждой операции можно задать задержку, долю ответов 503 SlowDown, разрывы соединения
+ * и частичные отказы DeleteObjects, чтобы воспроизводить медленный и нестабильный S3 без внешних зависимостей.
+ * Составная загрузка собирает объект из частей, перечисленных в CompleteMultipartUpload.
+ */
+@Slf4j
+public class FakeS3Server implements AutoCloseable {
+
+    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+    private static final String XML_NAMESPACE = "http://s3.amazonaws.com/doc/2006-03-01/";
+    private static final Pattern KEY_PATTERN = Pattern.compile("<Key>(.*?)</Key>", Pattern.DOTALL);
+    private static final Pattern RANGE_PATTERN = Pattern.compile("bytes=(\\d*)-(\\d*)");
+    private static final Pattern PART_PATTERN = Pattern.compile("<Part>(.*?)</Part>", Pattern.DOTALL);
+    private static final Pattern PART_NUMBER_PATTERN = Pattern.compile("<PartNumber>(\\d+)</PartNumber>");
+    private static final Pattern ETAG_PATTERN = Pattern.compile("<ETag>(.*?)</ETag>", Pattern.DOTALL);
+
+    private final Vertx vertx;
+    private final HttpServer server;
+    private final Map<String, ConcurrentSkipListMap<String, StoredObject>> buckets = new ConcurrentHashMap<>();
+    private final Map<FakeS3Operation, OperationFaults> faults = new ConcurrentHashMap<>();
+    private final Map<FakeS3Operation, OperationStats> stats = new EnumMap<>(FakeS3Operation.class);
+    private final Map<String, MultipartUpload> uploads = new ConcurrentHashMap<>();
+
+    private FakeS3Server(Vertx vertx) {
+        this.vertx = vertx;
+        for (var operation : FakeS3Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+        var options = new HttpServerOptions()
+                .setHost("localhost")
+                .setPort(0)
+                .setHandle100ContinueAutomatically(true);
+        this.server = vertx.createHttpServer(options)
+                .requestHandler(this::handle);
+    }
+
+    public static FakeS3Server start() {
+        var fakeS3Server = new FakeS3Server(Vertx.vertx());
+        fakeS3Server.server.listen()
+                .toCompletionStage()
+                .toCompletableFuture()
+                .join();
+        log.info("FakeS3Server.start port={}", fakeS3Server.server.actualPort());
+        return fakeS3Server;
+    }
+
+    public URI endpoint() {
+        return URI.create("http://localhost:" + server.actualPort());
+    }
+
+    public void faults(FakeS3Operation operation, OperationFaults operationFaults) {
+        faults.put(operation, operationFaults);
+    }
+
+    public void faults(Map<FakeS3Operation, OperationFaults> operationsFaults) {
+        faults.putAll(operationsFaults);
+    }
+
+    /**
+     * Сбрасывает сбои и счётчики, объекты остаются.
+     */
+    public void reset() {
+        faults.clear();
+        stats.values().forEach(OperationStats::reset);
+    }
+
+    public OperationStats stats(FakeS3Operation operation) {
+        return stats.get(operation);
+    }
+
+    public Optional<byte[]> object(String bucket, String key) {
+        return Optional.ofNullable(buckets.get(bucket))
+                .map(objects -> objects.get(key))
+                .map(StoredObject::content);
+    }
+
+    /**
+     * Число начатых и ещё не завершённых или не отменённых составных загрузок.
+     */
+    public int uploadsInProgress() {
+        return uploads.size();
+    }
+
+    @Override
+    public void close() {
+        vertx.close()
+                .toCompletionStage()
+                .toCompletableFuture()
+                .join();
+    }
+
+    private void handle(HttpServerRequest request) {
+        request.body()
+                .onSuccess(body -> dispatch(request, body))
+                .onFailure(throwable -> log.debug("FakeS3Server.handle.thrown {}", throwable.getMessage()));
+    }
+
+    private void dispatch(HttpServerRequest request, Buffer body) {
+        var path = request.path().substring(1);
+        var separatorIndex = path.indexOf('/');
+        var bucket = separatorIndex < 0 ? path : path.substring(0, separatorIndex);
+        var key = separatorIndex < 0 || separatorIndex == path.length() - 1
+                ? null
+                : URLDecoder.decode(path.substring(separatorIndex + 1), StandardCharsets.UTF_8);
+        var operation = operation(request, key);
+        if (operation == null) {
+            error(request, 501, "NotImplemented", "%s %s is not implemented".formatted(request.method(), request.uri()));
+            return;
+        }
+        stats.get(operation).requests.increment();
+        var operationFaults = faults.getOrDefault(operation, OperationFaults.NONE);
+        var latencyMillis = operationFaults.latencyMillis().next(ThreadLocalRandom.current());
+        if (latencyMillis > 0) {
+            vertx.setTimer(latencyMillis, id -> respond(operation, operationFaults, request, bucket, key, body));
+        } else {
+            respond(operation, operationFaults, request, bucket, key, body);
+        }
+    }
+
+    private static FakeS3Operation operation(HttpServerRequest request, String key) {
+        var method = request.method();
+        if (key == null) {
+            if (HttpMethod.PUT.equals(method)) {
+                return FakeS3Operation.createBucket;
+            } else if (HttpMethod.GET.equals(method)) {
+                return FakeS3Operation.listObjects;
+            } else if (HttpMethod.POST.equals(method) && request.params().contains("delete")) {
+                return FakeS3Operation.deleteObjects;
+            }
+            return null;
+        }
+        if (HttpMethod.POST.equals(method) && request.params().contains("uploads")) {
+            return FakeS3Operation.createMultipartUpload;
+        } else if (request.params().contains("uploadId")) {
+            if (HttpMethod.PUT.equals(method)) {
+                return FakeS3Operation.uploadPart;
+            } else if (HttpMethod.POST.equals(method)) {
+                return FakeS3Operation.completeMultipartUpload;
+            } else if (HttpMethod.DELETE.equals(method)) {
+                return FakeS3Operation.abortMultipartUpload;
+            }
+            return null;
+        }
+        if (HttpMethod.PUT.equals(method)) {
+            return FakeS3Operation.putObject;
+        } else if (HttpMethod.GET.equals(method)) {
+            return FakeS3Operation.getObject;
+        } else if (HttpMethod.HEAD.equals(method)) {
+            return FakeS3Operation.headObject;
+        } else if (HttpMethod.DELETE.equals(method)) {
+            return FakeS3Operation.deleteObject;
+        }
+        return null;
+    }
+
+    private void respond(FakeS3Operation operation,
+                         OperationFaults operationFaults,
+                         HttpServerRequest request,
+                         String bucket,
+                         String key,
+                         Buffer body) {
+        var random = ThreadLocalRandom.current();
+        var operationStats = stats.get(operation);
+        if (random.nextDouble() < operationFaults.slowDownRate()) {
+            operationStats.throttled.increment();
+            error(request, 503, "SlowDown", "Please reduce your request rate.");
+            return;
+        }
+        var reset = random.nextDouble() < operationFaults.resetRate();
+        if (reset) {
+            operationStats.resets.increment();
+            if (operation != FakeS3Operation.getObject) {
+                request.connection().close();
+                return;
+            }
+        }
+        if (operation == FakeS3Operation.createBucket) {
+            buckets.putIfAbsent(bucket, new ConcurrentSkipListMap<>());
+            request.response()
+                    .putHeader("Location", "/" + bucket)
+                    .end();
+            return;
+        }
+        var objects = buckets.get(bucket);
+        if (objects == null) {
+            error(request, 404, "NoSuchBucket", "The specified bucket does not exist");
+            return;
+        }
+        switch (operation) {
+            case listObjects -> listObjects(request, bucket, objects);
+            case putObject -> {
+                var content = payload(request, body);
+                var storedObject = new StoredObject(content, etag(content), Instant.now());
+                objects.put(key, storedObject);
+                request.response()
+                        .putHeader("ETag", storedObject.etag())
+                        .end();
+            }
+            case getObject, headObject -> getObject(request, objects.get(key), operation == FakeS3Operation.headObject, reset);
+            case deleteObject -> {
+                objects.remove(key);
+                request.response()
+                        .setStatusCode(204)
+                        .end();
+            }
+            case deleteObjects -> deleteObjects(request, objects, body, operationFaults, operationStats);
+            case createMultipartUpload -> {
+                var uploadId = generateDefaultUuid();
+                uploads.put(uploadId, new MultipartUpload(bucket, key, new ConcurrentSkipListMap<>()));
+                var xml = new StringBuilder(XML_HEADER)
+                        .append("<InitiateMultipartUploadResult xmlns=\"").append(XML_NAMESPACE).append("\">")
+                        .append("<Bucket>").append(escape(bucket)).append("</Bucket>")
+                        .append("<Key>").append(escape(key)).append("</Key>")
+                        .append("<UploadId>").append(uploadId).append("</UploadId>")
+                        .append("</InitiateMultipartUploadResult>");
+                xml(request, 200, xml);
+            }
+            case uploadPart -> {
+                var upload = upload(request, bucket, key);
+                if (upload == null) {
+                    return;
+                }
+                var content = payload(request, body);
+                var part = new StoredObject(content, etag(content), Instant.now());
+                upload.parts().put(Integer.parseInt(request.getParam("partNumber")), part);
+                request.response()
+                        .putHeader("ETag", part.etag())
+                        .end();
+            }
+            case completeMultipartUpload -> completeMultipartUpload(request, objects, bucket, key, body);
+            case abortMultipartUpload -> {
+                uploads.remove(request.getParam("uploadId"));
+                request.response()
+                        .setStatusCode(204)
+                        .end();
+            }
+            default -> error(request, 501, "NotImplemented", operation.name());
+        }
+    }
+
+    private void getObject(HttpServerRequest request, StoredObject storedObject, boolean headOnly, boolean reset) {
+        if (storedObject == null) {
+            error(request, 404, "NoSuchKey", "The specified key does not exist.");
+            return;
+        }
+        var content = storedObject.content();
+        var from = 0;
+        var to = content.length - 1;
+        var response = request.response();
+        var range = request.getHeader("Range");
+        if (range != null) {
+            var matcher = RANGE_PATTERN.matcher(range);
+            if (!matcher.matches()) {
+                error(request, 416, "InvalidRange", "The requested range is not satisfiable");
+                return;
+            }
+            if (matcher.group(1).isEmpty()) {
+                from = Math.max(0, content.length - Integer.parseInt(matcher.group(2)));
+            } else {
+                from = Integer.parseInt(matcher.group(1));
+                if (!matcher.group(2).isEmpty()) {
+                    to = Math.min(to, Integer.parseInt(matcher.group(2)));
+                }
+            }
+            if (from > to) {
+                error(request, 416, "InvalidRange", "The requested range is not satisfiable");
+                return;
+            }
+            response.setStatusCode(206)
+                    .putHeader("Content-Range", "bytes %d-%d/%d".formatted(from, to, content.length));
+        }
+        var length = to - from + 1;
+        response.putHeader("ETag", storedObject.etag())
+                .putHeader("Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME.format(storedObject.lastModified().atOffset(ZoneOffset.UTC)))
+                .putHeader("Content-Type", "application/octet-stream")
+                .putHeader("Content-Length", String.valueOf(length));
+        if (headOnly) {
+            response.end();
+            return;
+        }
+        var slice = Buffer.buffer(content).getBuffer(from, to + 1);
+        if (reset) {
+            response.write(slice.getBuffer(0, length / 2))
+                    .onComplete(ignored -> request.connection().close());
+        } else {
+            response.end(slice);
+        }
+    }
+
+    /**
+     * Части собираются в порядке номеров из тела запроса, ETag каждой части должен совпадать с загруженным.
+     */
+    private void completeMultipartUpload(HttpServerRequest request,
+                                         ConcurrentSkipListMap<String, StoredObject> objects,
+                                         String bucket,
+                                         String key,
+                                         Buffer body) {
+        var upload = upload(request, bucket, key);
+        if (upload == null) {
+            return;
+        }
+        var content = new ByteArrayOutputStream();
+        var etags = new ByteArrayOutputStream();
+        var partsCount = 0;
+        var matcher = PART_PATTERN.matcher(body.toString(StandardCharsets.UTF_8));
+        while (matcher.find()) {
+            var partNumber = PART_NUMBER_PATTERN.matcher(matcher.group(1));
+            var partEtag = ETAG_PATTERN.matcher(matcher.group(1));
+            var part = partNumber.find() ? upload.parts().get(Integer.parseInt(partNumber.group(1))) : null;
+            if (part == null || !partEtag.find() || !part.etag().equals(unescape(partEtag.group(1)))) {
+                error(request, 400, "InvalidPart", "One or more of the specified parts could not be found.");
+                return;
+            }
+            content.writeBytes(part.content());
+            etags.writeBytes(HexFormat.of().parseHex(part.etag().substring(1, part.etag().length() - 1)));
+            partsCount++;
+        }
+        if (partsCount == 0) {
+            error(request, 400, "MalformedXML", "The XML you provided was not well-formed.");
+            return;
+        }
+        uploads.remove(request.getParam("uploadId"));
+        var etag = etag(etags.toByteArray()).replaceFirst("\"$", "-" + partsCount + "\"");
+        objects.put(key, new StoredObject(content.toByteArray(), etag, Instant.now()));
+        var xml = new StringBuilder(XML_HEADER)
+                .append("<CompleteMultipartUploadResult xmlns=\"").append(XML_NAMESPACE).append("\">")
+                .append("<Location>").append(escape(endpoint() + "/" + bucket + "/" + key)).append("</Location>")
+                .append("<Bucket>").append(escape(bucket)).append("</Bucket>")
+                .append("<Key>").append(escape(key)).append("</Key>")
+                .append("<ETag>").append(escape(etag)).append("</ETag>")
+                .append("</CompleteMultipartUploadResult>");
+        xml(request, 200, xml);
+    }
+
+    private MultipartUpload upload(HttpServerRequest request, String bucket, String key) {
+        var upload = uploads.get(request.getParam("uploadId"));
+        if (upload == null || !upload.bucket().equals(bucket) || !upload.key().equals(key)) {
+            error(request, 404, "NoSuchUpload", "The specified upload does not exist.");
+            return null;
+        }
+        return upload;
+    }
+
+    private static void listObjects(HttpServerRequest request, String bucket, ConcurrentSkipListMap<String, StoredObject> objects) {
+        var prefix = Optional.ofNullable(request.getParam("prefix")).orElse("");
+        var xml = new StringBuilder(XML_HEADER)
+                .append("<ListBucketResult xmlns=\"").append(XML_NAMESPACE).append("\">")
+                .append("<Name>").append(escape(bucket)).append("</Name>")
+                .append("<Prefix>").append(escape(prefix)).append("</Prefix>")
+                .append("<MaxKeys>1000</MaxKeys>")
+                .append("<IsTruncated>false</IsTruncated>");
+        var count = 0;
+        for (var entry : objects.tailMap(prefix).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            var storedObject = entry.getValue();
+            xml.append("<Contents>")
+                    .append("<Key>").append(escape(entry.getKey())).append("</Key>")
+                    .append("<LastModified>").append(storedObject.lastModified()).append("</LastModified>")
+                    .append("<ETag>").append(escape(storedObject.etag())).append("</ETag>")
+                    .append("<Size>").append(storedObject.content().length).append("</Size>")
+                    .append("<StorageClass>STANDARD</StorageClass>")
+                    .append("</Contents>");
+            count++;
+        }
+        if ("2".equals(request.getParam("list-type"))) {
+            xml.append("<KeyCount>").append(count).append("</KeyCount>");
+        }
+        xml.append("</ListBucketResult>");
+        xml(request, 200, xml);
+    }
+
+    private static void deleteObjects(HttpServerRequest request,
+                                      ConcurrentSkipListMap<String, StoredObject> objects,
+                                      Buffer body,
+                                      OperationFaults operationFaults,
+                                      OperationStats operationStats) {
+        var random = ThreadLocalRandom.current();
+        var xml = new StringBuilder(XML_HEADER)
+                .append("<DeleteResult xmlns=\"").append(XML_NAMESPACE).append("\">");
+        var matcher = KEY_PATTERN.matcher(body.toString(StandardCharsets.UTF_8));
+        while (matcher.find()) {
+            var escapedKey = matcher.group(1);
+            if (random.nextDouble() < operationFaults.partialFailureRate()) {
+                operationStats.partialFailures.increment();
+                xml.append("<Error>")
+                        .append("<Key>").append(escapedKey).append("</Key>")
+                        .append("<Code>InternalError</Code>")
+                        .append("<Message>We encountered an internal error. Please try again.</Message>")
+                        .append("</Error>");
+            } else {
+                objects.remove(unescape(escapedKey));
+                xml.append("<Deleted><Key>").append(escapedKey).append("</Key></Deleted>");
+            }
+        }
+        xml.append("</DeleteResult>");
+        xml(request, 200, xml);
+    }
+
+    /**
+     * Тело PUT может прийти в формате aws-chunked: {@code <hex-size>;chunk-signature=...\r\n<data>\r\n}, последний блок нулевой длины.
+     */
+    private static byte[] payload(HttpServerRequest request, Buffer body) {
+        var contentSha256 = request.getHeader("x-amz-content-sha256");
+        if (contentSha256 == null || !contentSha256.startsWith("STREAMING-")) {
+            return body.getBytes();
+        }
+        var result = new ByteArrayOutputStream(body.length());
+        var position = 0;
+        while (position < body.length()) {
+            var lineEnd = position;
+            while (lineEnd + 1 < body.length() && !(body.getByte(lineEnd) == '\r' && body.getByte(lineEnd + 1) == '\n')) {
+                lineEnd++;
+            }
+            var chunkHeader = body.getString(position, lineEnd, StandardCharsets.US_ASCII.name());
+            var size = Integer.parseInt(chunkHeader.split(";", 2)[0], 16);
+            if (size == 0) {
+                break;
+            }
+            position = lineEnd + 2;
+            result.writeBytes(body.getBytes(position, position + size));
+            position += size + 2;
+        }
+        return result.toByteArray();
+    }
+
+    private static void error(HttpServerRequest request, int status, String code, String message) {
+        var xml = new StringBuilder(XML_HEADER)
+                .append("<Error>")
+                .append("<Code>").append(code).append("</Code>")
+                .append("<Message>").append(escape(message)).append("</Message>")
+                .append("<RequestId>").append(generateDefaultUuid()).append("</RequestId>")
+                .append("</Error>");
+        xml(request, status, xml);
+    }
+
+    private static void xml(HttpServerRequest request, int status, CharSequence xml) {
+        request.response()
+                .setStatusCode(status)
+                .putHeader("Content-Type", "application/xml")
+                .end(xml.toString());
+    }
+
+    @SneakyThrows
+    private static String etag(byte[] content) {
+        var md5 = MessageDigest.getInstance("MD5").digest(content);
+        return "\"" + HexFormat.of().formatHex(md5) + "\"";
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&apos;");
+    }
+
+    private static String unescape(String value) {
+        return value.replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&apos;", "'")
+                .replace("&amp;", "&");
+    }
+
+    private record StoredObject(byte[] content, String etag, Instant lastModified) {
+    }
+
+    private record MultipartUpload(String bucket, String key, ConcurrentSkipListMap<Integer, StoredObject> parts) {
+    }
+
+}
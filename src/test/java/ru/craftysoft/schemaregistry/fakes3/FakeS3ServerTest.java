@@ -0,0 +1,137 @@
+package ru.craftysoft.schemaregistry.fakes3;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FakeS3ServerTest {
+
+    private static final String BUCKET = "fake-bucket";
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+
+    private static FakeS3Server server;
+    private static S3AsyncClient s3;
+
+    @BeforeAll
+    static void startServer() {
+        server = FakeS3Server.start();
+        s3 = S3AsyncClient.builder()
+                .endpointOverride(server.endpoint())
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .build();
+        s3.createBucket(CreateBucketRequest.builder().bucket(BUCKET).build()).join();
+        put("key").join();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        s3.close();
+        server.close();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.reset();
+    }
+
+    @Test
+    void getObjectRange() {
+        var request = GetObjectRequest.builder()
+                .bucket(BUCKET)
+                .key("key")
+                .range("bytes=5-9")
+                .build();
+
+        var response = s3.getObject(request, AsyncResponseTransformer.toBytes()).join();
+
+        assertEquals("56789", response.asUtf8String());
+        assertArrayEquals(CONTENT, server.object(BUCKET, "key").orElseThrow());
+    }
+
+    @Test
+    void latency() {
+        server.faults(FakeS3Operation.getObject, OperationFaults.NONE.withLatency("fixed:300"));
+        var startNanos = System.nanoTime();
+
+        get("key").join();
+
+        assertTrue(System.nanoTime() - startNanos >= 300_000_000L);
+    }
+
+    @Test
+    void slowDownIsRetriedByClient() {
+        server.faults(FakeS3Operation.putObject, OperationFaults.NONE.withSlowDownRate(1));
+
+        var exception = assertThrows(CompletionException.class, () -> put("throttled").join());
+
+        assertInstanceOf(S3Exception.class, exception.getCause());
+        assertEquals(503, ((S3Exception) exception.getCause()).statusCode());
+        var stats = server.stats(FakeS3Operation.putObject);
+        assertTrue(stats.requests() > 1);
+        assertEquals(stats.requests(), stats.throttled());
+    }
+
+    @Test
+    void resetMidBody() {
+        server.faults(FakeS3Operation.getObject, OperationFaults.NONE.withResetRate(1));
+
+        assertThrows(CompletionException.class, () -> get("key").join());
+
+        assertTrue(server.stats(FakeS3Operation.getObject).resets() > 0);
+    }
+
+    @Test
+    void partialDeleteObjectsFailure() {
+        put("other").join();
+        server.faults(FakeS3Operation.deleteObjects, OperationFaults.NONE.withPartialFailureRate(1));
+        var request = DeleteObjectsRequest.builder()
+                .bucket(BUCKET)
+                .delete(Delete.builder()
+                        .objects(
+                                ObjectIdentifier.builder().key("key").build(),
+                                ObjectIdentifier.builder().key("other").build()
+                        )
+                        .build())
+                .build();
+
+        var response = s3.deleteObjects(request).join();
+
+        assertEquals(2, response.errors().size());
+        assertTrue(response.deleted().isEmpty());
+        assertTrue(server.object(BUCKET, "other").isPresent());
+    }
+
+    private static CompletableFuture<PutObjectResponse> put(String key) {
+        var request = PutObjectRequest.builder()
+                .bucket(BUCKET)
+                .key(key)
+                .build();
+        return s3.putObject(request, AsyncRequestBody.fromBytes(CONTENT));
+    }
+
+    private static CompletableFuture<?> get(String key) {
+        var request = GetObjectRequest.builder()
+                .bucket(BUCKET)
+                .key(key)
+                .build();
+        return s3.getObject(request, AsyncResponseTransformer.toBytes());
+    }
+
+}
@@ -0,0 +1,68 @@
+package ru.craftysoft.schemaregistry.fakes3;
+
+import ru.craftysoft.schemaregistry.generator.SizeDistribution;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Поведение {@link FakeS3Server} для одной операции.
+ *
+ * @param latencyMillis      задержка перед ответом в миллисекундах, в формате {@link SizeDistribution}
+ * @param slowDownRate       доля запросов, на которые отвечаем 503 SlowDown
+ * @param resetRate          доля запросов, на которых соединение рвётся (для getObject - посреди тела ответа)
+ * @param partialFailureRate доля ключей в DeleteObjects, которые возвращаются в Error вместо Deleted
+ */
+public record OperationFaults(SizeDistribution latencyMillis,
+                              double slowDownRate,
+                              double resetRate,
+                              double partialFailureRate) {
+
+    public static final OperationFaults NONE = new OperationFaults(random -> 0, 0, 0, 0);
+
+    public OperationFaults withLatency(String distribution) {
+        return new OperationFaults(SizeDistribution.parse(distribution), slowDownRate, resetRate, partialFailureRate);
+    }
+
+    public OperationFaults withSlowDownRate(double slowDownRate) {
+        return new OperationFaults(latencyMillis, slowDownRate, resetRate, partialFailureRate);
+    }
+
+    public OperationFaults withResetRate(double resetRate) {
+        return new OperationFaults(latencyMillis, slowDownRate, resetRate, partialFailureRate);
+    }
+
+    public OperationFaults withPartialFailureRate(double partialFailureRate) {
+        return new OperationFaults(latencyMillis, slowDownRate, resetRate, partialFailureRate);
+    }
+
+    /**
+     * Формат: {@code getObject.latency=lognormal:20,1.0;getObject.slowDown=0.01;getObject.reset=0.001;deleteObjects.partialFailure=0.1}.
+     */
+    public static Map<FakeS3Operation, OperationFaults> parse(String value) {
+        var result = new EnumMap<FakeS3Operation, OperationFaults>(FakeS3Operation.class);
+        for (var entry : value.split(";")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            var keyAndValue = entry.trim().split("=", 2);
+            var operationAndParameter = keyAndValue[0].split("\\.", 2);
+            if (keyAndValue.length != 2 || operationAndParameter.length != 2) {
+                throw new IllegalArgumentException("Некорректное описание сбоя '%s'".formatted(entry));
+            }
+            var operation = FakeS3Operation.valueOf(operationAndParameter[0]);
+            var faults = result.getOrDefault(operation, NONE);
+            var parameterValue = keyAndValue[1];
+            faults = switch (operationAndParameter[1]) {
+                case "latency" -> faults.withLatency(parameterValue);
+                case "slowDown" -> faults.withSlowDownRate(Double.parseDouble(parameterValue));
+                case "reset" -> faults.withResetRate(Double.parseDouble(parameterValue));
+                case "partialFailure" -> faults.withPartialFailureRate(Double.parseDouble(parameterValue));
+                default -> throw new IllegalArgumentException("Неизвестный параметр сбоя '%s'".formatted(entry));
+            };
+            result.put(operation, faults);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,38 @@
+package ru.craftysoft.schemaregistry.fakes3;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики запросов к {@link FakeS3Server} по одной операции, включая повторы со стороны клиента.
+ */
+public class OperationStats {
+
+    final LongAdder requests = new LongAdder();
+    final LongAdder throttled = new LongAdder();
+    final LongAdder resets = new LongAdder();
+    final LongAdder partialFailures = new LongAdder();
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public long throttled() {
+        return throttled.sum();
+    }
+
+    public long resets() {
+        return resets.sum();
+    }
+
+    public long partialFailures() {
+        return partialFailures.sum();
+    }
+
+    void reset() {
+        requests.reset();
+        throttled.reset();
+        resets.reset();
+        partialFailures.reset();
+    }
+
+}
@@ -0,0 +1,47 @@
+package ru.craftysoft.schemaregistry.generator;
+
+import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static lombok.AccessLevel.PRIVATE;
+
+@NoArgsConstructor(access = PRIVATE)
+public class ArchiveWriter {
+
+    public static byte[] toBytes(GeneratedStructure.Version version) {
+        var outputStream = new ByteArrayOutputStream();
+        write(version, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Пишет архив версии в {@code directory/<structure>/<version>.zip} - готовое тело для публикации.
+     */
+    @SneakyThrows
+    public static Path toFile(Path directory, GeneratedStructure structure, GeneratedStructure.Version version) {
+        var file = Files.createDirectories(directory.resolve(structure.name())).resolve(version.name() + ".zip");
+        try (var outputStream = Files.newOutputStream(file)) {
+            write(version, outputStream);
+        }
+        return file;
+    }
+
+    @SneakyThrows
+    private static void write(GeneratedStructure.Version version, OutputStream outputStream) {
+        try (var zip = new ZipOutputStream(outputStream)) {
+            for (var schema : version.schemas()) {
+                zip.putNextEntry(new ZipEntry(schema.path()));
+                zip.write(schema.content());
+                zip.closeEntry();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,13 @@
+package ru.craftysoft.schemaregistry.generator;
+
+import java.util.List;
+
+public record GeneratedStructure(long id, String name, List<Version> versions) {
+
+    public record Version(long id, String name, String link, List<Schema> schemas) {
+    }
+
+    public record Schema(long id, String path, String link, byte[] content) {
+    }
+
+}
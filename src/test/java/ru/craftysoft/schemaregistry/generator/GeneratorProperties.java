@@ -0,0 +1,59 @@
+package ru.craftysoft.schemaregistry.generator;
+
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+
+/**
+ * Параметры генерации. Задаются системными свойствами {@code generator.*},
+ * gradle-задача {@code generateRegistryData} пробрасывает их из {@code -P} параметров.
+ *
+ * @param churn      доля файлов, содержимое которых меняется от версии к версии
+ * @param addRemove  доля файлов, которые добавляются и удаляются от версии к версии
+ * @param jdbcUrl    если не задан, строки в БД не пишутся
+ * @param s3Endpoint если не задан, объекты в S3 не загружаются
+ * @param archives   если не задан, zip-архивы версий на диск не пишутся
+ */
+public record GeneratorProperties(int structures,
+                                  int versionsPerStructure,
+                                  int schemasPerVersion,
+                                  SizeDistribution sizes,
+                                  double churn,
+                                  double addRemove,
+                                  long seed,
+                                  String structurePrefix,
+                                  @Nullable String jdbcUrl,
+                                  @Nullable String jdbcUsername,
+                                  @Nullable String jdbcPassword,
+                                  @Nullable String s3Endpoint,
+                                  String s3Region,
+                                  String s3AccessKeyId,
+                                  String s3SecretAccessKey,
+                                  String bucket,
+                                  int uploadConcurrency,
+                                  @Nullable Path archives) {
+
+    public static GeneratorProperties fromSystemProperties() {
+        var archives = System.getProperty("generator.archives");
+        return new GeneratorProperties(
+                Integer.getInteger("generator.structures", 100),
+                Integer.getInteger("generator.versionsPerStructure", 10),
+                Integer.getInteger("generator.schemasPerVersion", 200),
+                SizeDistribution.parse(System.getProperty("generator.sizes", "lognormal:2048,1.0")),
+                Double.parseDouble(System.getProperty("generator.churn", "0.05")),
+                Double.parseDouble(System.getProperty("generator.addRemove", "0.01")),
+                Long.getLong("generator.seed", 42L),
+                System.getProperty("generator.structurePrefix", "generated-structure-"),
+                System.getProperty("generator.jdbcUrl"),
+                System.getProperty("generator.jdbcUsername"),
+                System.getProperty("generator.jdbcPassword"),
+                System.getProperty("generator.s3Endpoint"),
+                System.getProperty("generator.s3Region", "us-east-1"),
+                System.getProperty("generator.s3AccessKeyId", "admin"),
+                System.getProperty("generator.s3SecretAccessKey", "password"),
+                System.getProperty("generator.bucket", "schema-registry"),
+                Integer.getInteger("generator.uploadConcurrency", 64),
+                archives == null ? null : Path.of(archives)
+        );
+    }
+
+}
@@ -0,0 +1,121 @@
+package ru.craftysoft.schemaregistry.generator;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import ru.craftysoft.schemaregistry.dto.intermediate.SemanticVersion;
+
+import java.io.StringReader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HexFormat;
+import java.util.function.Consumer;
+
+import static ru.craftysoft.schemaregistry.util.TestDbHelper.getConnection;
+
+/**
+ * Пишет сгенерированные строки через {@code COPY ... FROM STDIN}, по одной транзакции на структуру.
+ * Компоненты семантической версии заполняются так же, как при публикации, чтобы по ним работало разрешение диапазонов.
+ */
+public class PostgresBulkWriter implements AutoCloseable {
+
+    private final Connection connection;
+    private final CopyManager copyManager;
+
+    public PostgresBulkWriter(String url, String username, String password) throws SQLException {
+        this.connection = getConnection(url, username, password);
+        this.connection.setAutoCommit(false);
+        this.copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+    }
+
+    public long[] reserveIds(String table, int count) {
+        var sql = "SELECT nextval('schema_registry.%s_id_seq') FROM generate_series(1, ?)".formatted(table);
+        try (var statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, count);
+            try (var resultSet = statement.executeQuery()) {
+                var ids = new long[count];
+                for (int i = 0; resultSet.next(); i++) {
+                    ids[i] = resultSet.getLong(1);
+                }
+                connection.commit();
+                return ids;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void write(GeneratedStructure structure) {
+        try {
+            copy("structures (id, name)", csv -> row(csv, structure.id(), structure.name()));
+            copy("versions (id, name, structure_id, link, semver_major, semver_minor, semver_patch, semver_pre_release)", csv -> structure.versions()
+                    .forEach(version -> {
+                        var semanticVersion = SemanticVersion.parse(version.name());
+                        row(csv, version.id(), version.name(), structure.id(), version.link(),
+                                semanticVersion == null ? null : semanticVersion.major(),
+                                semanticVersion == null ? null : semanticVersion.minor(),
+                                semanticVersion == null ? null : semanticVersion.patch(),
+                                semanticVersion == null ? null : semanticVersion.preRelease());
+                    }));
+            copy("schemas (id, path, version_id, link, content_hash)", csv -> structure.versions()
+                    .forEach(version -> version.schemas()
+                            .forEach(schema -> row(csv, schema.id(), schema.path(), version.id(), schema.link(), contentHash(schema.content())))));
+            updateLatestVersion(structure.id());
+            connection.commit();
+        } catch (Exception e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackException) {
+                e.addSuppressed(rollbackException);
+            }
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void updateLatestVersion(long structureId) throws SQLException {
+        var sql = "UPDATE schema_registry.structures SET latest_version_id = (SELECT max(id) FROM schema_registry.versions WHERE structure_id = ?) WHERE id = ?";
+        try (var statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, structureId);
+            statement.setLong(2, structureId);
+            statement.executeUpdate();
+        }
+    }
+
+    private static String contentHash(byte[] content) {
+        try {
+            return "\\x" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void copy(String target, Consumer<StringBuilder> rows) throws Exception {
+        var csv = new StringBuilder();
+        rows.accept(csv);
+        copyManager.copyIn("COPY schema_registry.%s FROM STDIN (FORMAT csv)".formatted(target), new StringReader(csv.toString()));
+    }
+
+    /**
+     * {@code null} пишется пустым значением без кавычек, что в {@code FORMAT csv} означает {@code NULL}.
+     */
+    private static void row(StringBuilder csv, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                csv.append(',');
+            }
+            if (values[i] instanceof String string) {
+                csv.append('"').append(string.replace("\"", "\"\"")).append('"');
+            } else if (values[i] != null) {
+                csv.append(values[i]);
+            }
+        }
+        csv.append('\n');
+    }
+
+    @Override
+    public void close() throws SQLException {
+        connection.close();
+    }
+
+}
@@ -0,0 +1,142 @@
+package ru.craftysoft.schemaregistry.generator;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Генератор синтетического реестра: N структур x M версий x K схем.
+ * Каждая следующая версия получается из предыдущей: часть файлов меняет содержимое ({@code churn}),
+ * часть удаляется и заменяется новыми ({@code addRemove}), остальные переходят без изменений.
+ * Как и при публикации через API, у каждой схемы каждой версии свой объект в S3.
+ * <p>
+ * Запуск: {@code ./gradlew generateRegistryData -Pgenerator.structures=1000 -Pgenerator.jdbcUrl=... -Pgenerator.s3Endpoint=...}
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RegistryDataGenerator {
+
+    private static final byte[] ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 {}:,\"\n".getBytes();
+
+    private final GeneratorProperties properties;
+    private final IdAllocator idAllocator;
+
+    public static void main(String[] args) throws Exception {
+        var properties = GeneratorProperties.fromSystemProperties();
+        try (var db = properties.jdbcUrl() != null
+                ? new PostgresBulkWriter(properties.jdbcUrl(), properties.jdbcUsername(), properties.jdbcPassword())
+                : null;
+             var s3 = properties.s3Endpoint() != null
+                     ? new S3ObjectUploader(properties.s3Endpoint(), properties.s3Region(), properties.s3AccessKeyId(), properties.s3SecretAccessKey(), properties.uploadConcurrency())
+                     : null) {
+            var idAllocator = db != null ? (IdAllocator) db::reserveIds : IdAllocator.local();
+            new RegistryDataGenerator(properties, idAllocator).generate(structure -> {
+                if (db != null) {
+                    db.write(structure);
+                }
+                if (s3 != null) {
+                    s3.upload(structure);
+                }
+                if (properties.archives() != null) {
+                    structure.versions().forEach(version -> ArchiveWriter.toFile(properties.archives(), structure, version));
+                }
+            });
+        }
+    }
+
+    /**
+     * Структуры генерируются и отдаются по одной, чтобы объём данных не ограничивался размером кучи.
+     */
+    public void generate(Consumer<GeneratedStructure> sink) {
+        var random = new Random(properties.seed());
+        var startMillis = System.currentTimeMillis();
+        long schemasCount = 0;
+        for (int s = 0; s < properties.structures(); s++) {
+            var structure = generateStructure(random, properties.structurePrefix() + s);
+            sink.accept(structure);
+            schemasCount += structure.versions().stream().mapToLong(version -> version.schemas().size()).sum();
+            if ((s + 1) % 100 == 0) {
+                log.info("RegistryDataGenerator.generate structures={} schemas={}", s + 1, schemasCount);
+            }
+        }
+        log.info("RegistryDataGenerator.generate.out structures={} schemas={} time={}ms",
+                properties.structures(), schemasCount, System.currentTimeMillis() - startMillis);
+    }
+
+    private GeneratedStructure generateStructure(Random random, String name) {
+        var structureId = idAllocator.allocate("structures", 1)[0];
+        var versionsIds = idAllocator.allocate("versions", properties.versionsPerStructure());
+        var versions = new ArrayList<GeneratedStructure.Version>(properties.versionsPerStructure());
+        var files = new ArrayList<File>(properties.schemasPerVersion());
+        var pathCounter = 0;
+        for (int i = 0; i < properties.schemasPerVersion(); i++) {
+            files.add(new File(path(pathCounter++), content(random)));
+        }
+        for (int v = 0; v < properties.versionsPerStructure(); v++) {
+            if (v > 0) {
+                var next = new ArrayList<File>(files.size());
+                for (var file : files) {
+                    if (random.nextDouble() < properties.addRemove()) {
+                        next.add(new File(path(pathCounter++), content(random)));
+                    } else if (random.nextDouble() < properties.churn()) {
+                        next.add(new File(file.path(), content(random)));
+                    } else {
+                        next.add(file);
+                    }
+                }
+                files = next;
+            }
+            var schemasIds = idAllocator.allocate("schemas", files.size());
+            var schemas = new ArrayList<GeneratedStructure.Schema>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                var file = files.get(i);
+                schemas.add(new GeneratedStructure.Schema(schemasIds[i], file.path(), link("schema_", random), file.content()));
+            }
+            versions.add(new GeneratedStructure.Version(versionsIds[v], "%d.%d.0".formatted(v / 10, v % 10), link("version_", random), List.copyOf(schemas)));
+        }
+        return new GeneratedStructure(structureId, name, versions);
+    }
+
+    private String link(String prefix, Random random) {
+        return properties.bucket() + "/" + prefix + new UUID(random.nextLong(), random.nextLong());
+    }
+
+    private static String path(int counter) {
+        return "package%d/schema%d.json".formatted(counter % 20, counter);
+    }
+
+    private byte[] content(Random random) {
+        var content = new byte[properties.sizes().next(random)];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return content;
+    }
+
+    private record File(String path, byte[] content) {
+    }
+
+    @FunctionalInterface
+    public interface IdAllocator {
+
+        long[] allocate(String table, int count);
+
+        static IdAllocator local() {
+            var counter = new long[]{0};
+            return (table, count) -> {
+                var ids = new long[count];
+                for (int i = 0; i < count; i++) {
+                    ids[i] = ++counter[0];
+                }
+                return ids;
+            };
+        }
+
+    }
+
+}
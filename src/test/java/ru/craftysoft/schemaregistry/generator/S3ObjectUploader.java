@@ -0,0 +1,61 @@
+package ru.craftysoft.schemaregistry.generator;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Загружает объекты схем и архивы версий с ограничением на число одновременных запросов.
+ */
+public class S3ObjectUploader implements AutoCloseable {
+
+    private final S3AsyncClient s3;
+    private final Semaphore permits;
+
+    public S3ObjectUploader(String endpoint, String region, String accessKeyId, String secretAccessKey, int concurrency) {
+        this.s3 = S3AsyncClient.builder()
+                .endpointOverride(URI.create(endpoint))
+                .region(Region.of(region))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKeyId, secretAccessKey)))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .build();
+        this.permits = new Semaphore(concurrency);
+    }
+
+    public void upload(GeneratedStructure structure) {
+        var futures = new ArrayList<CompletableFuture<?>>();
+        for (var version : structure.versions()) {
+            futures.add(put(version.link(), ArchiveWriter.toBytes(version)));
+            for (var schema : version.schemas()) {
+                futures.add(put(schema.link(), schema.content()));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private CompletableFuture<?> put(String link, byte[] content) {
+        var parts = link.split("/", 2);
+        var request = PutObjectRequest.builder()
+                .bucket(parts[0])
+                .key(parts[1])
+                .build();
+        permits.acquireUninterruptibly();
+        return s3.putObject(request, AsyncRequestBody.fromBytes(content))
+                .whenComplete((response, throwable) -> permits.release());
+    }
+
+    @Override
+    public void close() {
+        s3.close();
+    }
+
+}
@@ -0,0 +1,43 @@
+package ru.craftysoft.schemaregistry.generator;
+
+import java.util.Random;
+
+/**
+ * Распределение размеров файлов схем. Формат: {@code fixed:2048}, {@code uniform:512-8192}
+ * или {@code lognormal:2048,1.0} (медиана в байтах и sigma).
+ */
+@FunctionalInterface
+public interface SizeDistribution {
+
+    int MAX_SIZE = 64 * 1024 * 1024;
+
+    int next(Random random);
+
+    static SizeDistribution parse(String value) {
+        var typeAndArgs = value.split(":", 2);
+        if (typeAndArgs.length != 2) {
+            throw new IllegalArgumentException("Некорректное распределение размеров '%s'".formatted(value));
+        }
+        var args = typeAndArgs[1];
+        return switch (typeAndArgs[0]) {
+            case "fixed" -> {
+                var size = Integer.parseInt(args);
+                yield random -> size;
+            }
+            case "uniform" -> {
+                var bounds = args.split("-", 2);
+                var min = Integer.parseInt(bounds[0]);
+                var max = Integer.parseInt(bounds[1]);
+                yield random -> min + random.nextInt(max - min + 1);
+            }
+            case "lognormal" -> {
+                var params = args.split(",", 2);
+                var mu = Math.log(Double.parseDouble(params[0]));
+                var sigma = Double.parseDouble(params[1]);
+                yield random -> (int) Math.max(1, Math.min(MAX_SIZE, Math.exp(mu + sigma * random.nextGaussian())));
+            }
+            default -> throw new IllegalArgumentException("Неизвестное распределение размеров '%s'".formatted(value));
+        };
+    }
+
+}
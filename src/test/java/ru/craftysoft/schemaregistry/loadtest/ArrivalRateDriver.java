@@ -0,0 +1,94 @@
+package ru.craftysoft.schemaregistry.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Генератор нагрузки с открытой моделью: запросы отправляются с фиксированной интенсивностью
+ * независимо от того, успел ли сервис ответить на предыдущие.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ArrivalRateDriver {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final RequestFactory requestFactory;
+    private final List<WorkloadSpec> workloads;
+
+    @SneakyThrows
+    public Map<WorkloadSpec.Endpoint, LatencyRecorder> run(Duration warmup, Duration duration) {
+        var recorders = new EnumMap<WorkloadSpec.Endpoint, LatencyRecorder>(WorkloadSpec.Endpoint.class);
+        workloads.forEach(workload -> recorders.put(workload.endpoint(), new LatencyRecorder()));
+        var inFlight = new LongAdder();
+        var scheduler = Executors.newScheduledThreadPool(workloads.size());
+        var startNanos = System.nanoTime();
+        var measureFromNanos = startNanos + warmup.toNanos();
+        var endNanos = measureFromNanos + duration.toNanos();
+        for (var workload : workloads) {
+            var ticks = new AtomicLong();
+            var recorder = recorders.get(workload.endpoint());
+            scheduler.scheduleAtFixedRate(() -> {
+                var intendedNanos = startNanos + ticks.getAndIncrement() * workload.intervalNanos();
+                if (intendedNanos >= endNanos) {
+                    return;
+                }
+                var measured = intendedNanos >= measureFromNanos;
+                for (int i = 0; i < workload.burst(); i++) {
+                    fire(workload.endpoint(), intendedNanos, measured ? recorder : null, inFlight);
+                }
+            }, 0, workload.intervalNanos(), TimeUnit.NANOSECONDS);
+        }
+        TimeUnit.NANOSECONDS.sleep(endNanos - System.nanoTime());
+        scheduler.shutdownNow();
+        var drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.sum() > 0 && System.nanoTime() < drainDeadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        if (inFlight.sum() > 0) {
+            log.warn("ArrivalRateDriver.run не дождались {} запросов", inFlight.sum());
+        }
+        return recorders;
+    }
+
+    private void fire(WorkloadSpec.Endpoint endpoint, long intendedNanos, LatencyRecorder recorder, LongAdder inFlight) {
+        var request = requestFactory.build(endpoint);
+        if (request == null) {
+            if (recorder != null) {
+                recorder.recordSkipped();
+            }
+            return;
+        }
+        inFlight.increment();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, throwable) -> {
+                    inFlight.decrement();
+                    var latencyNanos = System.nanoTime() - intendedNanos;
+                    if (response != null) {
+                        requestFactory.onResponse(endpoint, response);
+                    }
+                    if (recorder == null) {
+                        return;
+                    }
+                    if (throwable == null && RequestFactory.isSuccessful(response)) {
+                        recorder.recordSuccess(latencyNanos);
+                    } else {
+                        recorder.recordError(latencyNanos);
+                    }
+                });
+    }
+
+}
@@ -0,0 +1,55 @@
+package ru.craftysoft.schemaregistry.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки одного вида запросов. Задержка отсчитывается от запланированного момента отправки,
+ * поэтому очередь на стороне генератора нагрузки тоже попадает в результат.
+ */
+public class LatencyRecorder {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final ConcurrentHistogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    public void recordSuccess(long latencyNanos) {
+        histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+    }
+
+    public void recordError(long latencyNanos) {
+        errors.increment();
+        recordSuccess(latencyNanos);
+    }
+
+    public void recordSkipped() {
+        skipped.increment();
+    }
+
+    public LoadTestReport.EndpointReport report(double durationSeconds) {
+        var count = histogram.getTotalCount();
+        return new LoadTestReport.EndpointReport(
+                count,
+                errors.sum(),
+                skipped.sum(),
+                durationSeconds > 0 ? count / durationSeconds : 0,
+                new LoadTestReport.Percentiles(
+                        millis(histogram.getValueAtPercentile(50)),
+                        millis(histogram.getValueAtPercentile(90)),
+                        millis(histogram.getValueAtPercentile(95)),
+                        millis(histogram.getValueAtPercentile(99)),
+                        millis(histogram.getValueAtPercentile(99.9)),
+                        millis(histogram.getMaxValue())
+                )
+        );
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+}
@@ -0,0 +1,112 @@
+package ru.craftysoft.schemaregistry.loadtest;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.RestAssured;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.schemaregistry.configuration.LoadTestProfile;
+import ru.craftysoft.schemaregistry.logic.CreateVersionOperation;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+
+import javax.inject.Inject;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.EnumMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочный прогон против Postgres и S3 из testcontainers.
+ * Запускается отдельно от обычных тестов: {@code ./gradlew loadTest -Ploadtest.durationSeconds=120}.
+ * С {@code -Ploadtest.s3Faults=getObject.latency=lognormal:20,1.0;getObject.slowDown=0.01} S3 заменяется
+ * на {@code FakeS3Server} с заданными задержками и сбоями.
+ */
+@Tag("load")
+@QuarkusTest
+@TestProfile(LoadTestProfile.class)
+class LoadTest {
+
+    @Inject
+    S3AsyncClient s3;
+
+    @Inject
+    CreateVersionOperation createVersionOperation;
+
+    @ConfigProperty(name = "s3.bucket")
+    String bucket;
+
+    @ConfigProperty(name = "quarkus.datasource.jdbc.url")
+    String jdbcUrl;
+
+    @ConfigProperty(name = "quarkus.datasource.username")
+    String jdbcUsername;
+
+    @ConfigProperty(name = "quarkus.datasource.password")
+    String jdbcPassword;
+
+    @ConfigProperty(name = "quarkus.s3.endpoint-override")
+    String s3Endpoint;
+
+    @ConfigProperty(name = "quarkus.s3.aws.region")
+    String s3Region;
+
+    @ConfigProperty(name = "quarkus.s3.aws.credentials.static-provider.access-key-id")
+    String s3AccessKeyId;
+
+    @ConfigProperty(name = "quarkus.s3.aws.credentials.static-provider.secret-access-key")
+    String s3SecretAccessKey;
+
+    @BeforeEach
+    void setUp() {
+        var createBucketRequest = CreateBucketRequest.builder()
+                .bucket(bucket)
+                .build();
+        s3.createBucket(createBucketRequest).join();
+    }
+
+    @Test
+    void run() {
+        var properties = LoadTestProperties.fromSystemProperties();
+        var workDir = Path.of("build", "load-test", "archives");
+        var bulkTarget = new RegistrySeeder.BulkTarget(jdbcUrl, jdbcUsername, jdbcPassword, s3Endpoint, s3Region, s3AccessKeyId, s3SecretAccessKey, bucket);
+        var registry = new RegistrySeeder(createVersionOperation, properties, workDir, bulkTarget).seed();
+        var baseUri = URI.create("http://localhost:%d%s".formatted(RestAssured.port, RestAssured.basePath));
+        var requestFactory = new RequestFactory(baseUri, registry);
+        var httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        var startedAt = OffsetDateTime.now();
+
+        var recorders = new ArrivalRateDriver(httpClient, requestFactory, properties.workloads())
+                .run(properties.warmup(), properties.duration());
+
+        var durationSeconds = properties.duration().toMillis() / 1000.0;
+        var endpoints = new EnumMap<WorkloadSpec.Endpoint, LoadTestReport.EndpointReport>(WorkloadSpec.Endpoint.class);
+        recorders.forEach((endpoint, recorder) -> endpoints.put(endpoint, recorder.report(durationSeconds)));
+        var workloads = properties.workloads().stream()
+                .collect(Collectors.toMap(WorkloadSpec::endpoint, workload -> workload, (a, b) -> b, () -> new EnumMap<>(WorkloadSpec.Endpoint.class)));
+        var report = new LoadTestReport(
+                startedAt,
+                durationSeconds,
+                new LoadTestReport.Shape(
+                        properties.structures(),
+                        properties.versionsPerStructure(),
+                        properties.schemasPerVersion(),
+                        properties.schemaSizeBytes()
+                ),
+                workloads,
+                endpoints
+        );
+        report.write(properties.report());
+
+        assertTrue(endpoints.values().stream().anyMatch(endpoint -> endpoint.requests() > 0));
+    }
+
+}
@@ -0,0 +1,46 @@
+package ru.craftysoft.schemaregistry.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Параметры нагрузочного прогона. Задаются системными свойствами {@code loadtest.*},
+ * которые gradle-задача {@code loadTest} пробрасывает из {@code -P} параметров.
+ */
+public record LoadTestProperties(int structures,
+                                 int versionsPerStructure,
+                                 int schemasPerVersion,
+                                 int schemaSizeBytes,
+                                 SeedMode seedMode,
+                                 Duration warmup,
+                                 Duration duration,
+                                 List<WorkloadSpec> workloads,
+                                 Path report) {
+
+    private static final String DEFAULT_WORKLOADS = "getSchema=200,getStructureDescriptor=5,getVersion=5,createVersion=2x5,deleteVersion=1";
+
+    public static LoadTestProperties fromSystemProperties() {
+        return new LoadTestProperties(
+                Integer.getInteger("loadtest.structures", 20),
+                Integer.getInteger("loadtest.versionsPerStructure", 5),
+                Integer.getInteger("loadtest.schemasPerVersion", 50),
+                Integer.getInteger("loadtest.schemaSizeBytes", 2048),
+                SeedMode.valueOf(System.getProperty("loadtest.seedMode", SeedMode.api.name())),
+                Duration.ofSeconds(Long.getLong("loadtest.warmupSeconds", 10L)),
+                Duration.ofSeconds(Long.getLong("loadtest.durationSeconds", 60L)),
+                WorkloadSpec.parse(System.getProperty("loadtest.workloads", DEFAULT_WORKLOADS)),
+                Path.of(System.getProperty("loadtest.report", "build/load-test/report.json"))
+        );
+    }
+
+    /**
+     * {@code api} - публикация версий через {@code CreateVersionOperation},
+     * {@code bulk} - прямая запись в Postgres и S3 через {@code RegistryDataGenerator}, для больших объёмов.
+     */
+    public enum SeedMode {
+        api,
+        bulk,
+    }
+
+}
@@ -0,0 +1,47 @@
+package ru.craftysoft.schemaregistry.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.SneakyThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * Машиночитаемый результат прогона: пропускная способность и перцентили задержек (мс) по каждому виду запросов.
+ */
+public record LoadTestReport(OffsetDateTime startedAt,
+                             double durationSeconds,
+                             Shape shape,
+                             Map<WorkloadSpec.Endpoint, WorkloadSpec> workloads,
+                             Map<WorkloadSpec.Endpoint, EndpointReport> endpoints) {
+
+    public record Shape(int structures, int versionsPerStructure, int schemasPerVersion, int schemaSizeBytes) {
+    }
+
+    public record EndpointReport(long requests,
+                                 long errors,
+                                 long skipped,
+                                 double throughput,
+                                 Percentiles latencyMillis) {
+    }
+
+    public record Percentiles(double p50, double p90, double p95, double p99, double p999, double max) {
+    }
+
+    @SneakyThrows
+    public void write(Path path) {
+        var objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        objectMapper.writeValue(path.toFile(), this);
+    }
+
+}
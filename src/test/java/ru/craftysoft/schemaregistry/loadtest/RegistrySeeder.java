@@ -0,0 +1,141 @@
+package ru.craftysoft.schemaregistry.loadtest;
+
+import io.smallrye.mutiny.Multi;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import ru.craftysoft.schemaregistry.generator.GeneratedStructure;
+import ru.craftysoft.schemaregistry.generator.GeneratorProperties;
+import ru.craftysoft.schemaregistry.generator.PostgresBulkWriter;
+import ru.craftysoft.schemaregistry.generator.RegistryDataGenerator;
+import ru.craftysoft.schemaregistry.generator.S3ObjectUploader;
+import ru.craftysoft.schemaregistry.generator.SizeDistribution;
+import ru.craftysoft.schemaregistry.logic.CreateVersionOperation;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Наполняет реестр структурами и версиями заданной формы через {@link CreateVersionOperation}
+ * или, в режиме {@code bulk}, напрямую через {@link RegistryDataGenerator}.
+ */
+@RequiredArgsConstructor
+public class RegistrySeeder {
+
+    private static final int SEED_CONCURRENCY = 4;
+
+    private final CreateVersionOperation createVersionOperation;
+    private final LoadTestProperties properties;
+    private final Path workDir;
+    private final BulkTarget bulkTarget;
+    private final Random random = new Random(42);
+
+    public SeededRegistry seed() {
+        if (properties.seedMode() == LoadTestProperties.SeedMode.bulk) {
+            return seedBulk();
+        }
+        var archive = archive("seed", properties.schemasPerVersion(), properties.schemaSizeBytes());
+        var paths = paths(properties.schemasPerVersion());
+        var requests = new ArrayList<SeededVersion>();
+        for (int s = 0; s < properties.structures(); s++) {
+            for (int v = 0; v < properties.versionsPerStructure(); v++) {
+                requests.add(new SeededVersion("load-structure-" + s, "v" + v, 0, paths));
+            }
+        }
+        var versions = Multi.createFrom().iterable(requests)
+                .onItem()
+                .transformToUni(request -> createVersionOperation.process(request.structureName(), request.versionName(), false, archive)
+                        .map(response -> new SeededVersion(request.structureName(), request.versionName(), response.getVersionId(), paths)))
+                .merge(SEED_CONCURRENCY)
+                .collect()
+                .asList()
+                .await()
+                .indefinitely();
+        return new SeededRegistry(versions, archive);
+    }
+
+    @SneakyThrows
+    private SeededRegistry seedBulk() {
+        var generatorProperties = new GeneratorProperties(
+                properties.structures(),
+                properties.versionsPerStructure(),
+                properties.schemasPerVersion(),
+                SizeDistribution.parse("fixed:" + properties.schemaSizeBytes()),
+                0.05,
+                0.01,
+                42L,
+                "load-structure-",
+                bulkTarget.jdbcUrl(),
+                bulkTarget.jdbcUsername(),
+                bulkTarget.jdbcPassword(),
+                bulkTarget.s3Endpoint(),
+                bulkTarget.s3Region(),
+                bulkTarget.s3AccessKeyId(),
+                bulkTarget.s3SecretAccessKey(),
+                bulkTarget.bucket(),
+                64,
+                null
+        );
+        var versions = new ArrayList<SeededVersion>();
+        try (var db = new PostgresBulkWriter(bulkTarget.jdbcUrl(), bulkTarget.jdbcUsername(), bulkTarget.jdbcPassword());
+             var s3 = new S3ObjectUploader(bulkTarget.s3Endpoint(), bulkTarget.s3Region(), bulkTarget.s3AccessKeyId(), bulkTarget.s3SecretAccessKey(), 64)) {
+            new RegistryDataGenerator(generatorProperties, db::reserveIds).generate(structure -> {
+                db.write(structure);
+                s3.upload(structure);
+                for (var version : structure.versions()) {
+                    var paths = version.schemas().stream()
+                            .map(GeneratedStructure.Schema::path)
+                            .toList();
+                    versions.add(new SeededVersion(structure.name(), version.name(), version.id(), paths));
+                }
+            });
+        }
+        var archive = archive("seed", properties.schemasPerVersion(), properties.schemaSizeBytes());
+        return new SeededRegistry(versions, archive);
+    }
+
+    @SneakyThrows
+    File archive(String name, int schemas, int schemaSizeBytes) {
+        var file = Files.createDirectories(workDir).resolve(name + ".zip");
+        try (var zip = new ZipOutputStream(Files.newOutputStream(file))) {
+            var content = new byte[schemaSizeBytes];
+            for (var path : paths(schemas)) {
+                random.nextBytes(content);
+                zip.putNextEntry(new ZipEntry(path));
+                zip.write(content);
+                zip.closeEntry();
+            }
+        }
+        return file.toFile();
+    }
+
+    private static List<String> paths(int schemas) {
+        var paths = new ArrayList<String>(schemas);
+        for (int i = 0; i < schemas; i++) {
+            paths.add("package" + (i % 10) + "/schema" + i + ".json");
+        }
+        return paths;
+    }
+
+    public record SeededVersion(String structureName, String versionName, long versionId, List<String> paths) {
+    }
+
+    public record SeededRegistry(List<SeededVersion> versions, File archive) {
+    }
+
+    public record BulkTarget(String jdbcUrl,
+                             String jdbcUsername,
+                             String jdbcPassword,
+                             String s3Endpoint,
+                             String s3Region,
+                             String s3AccessKeyId,
+                             String s3SecretAccessKey,
+                             String bucket) {
+    }
+
+}
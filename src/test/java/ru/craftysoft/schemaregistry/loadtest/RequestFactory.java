@@ -0,0 +1,97 @@
+package ru.craftysoft.schemaregistry.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+
+import javax.annotation.Nullable;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static javax.ws.rs.core.MediaType.APPLICATION_OCTET_STREAM;
+
+/**
+ * Строит HTTP-запросы к реестру по засеянным данным и отслеживает версии, опубликованные во время прогона,
+ * чтобы было что удалять.
+ */
+@RequiredArgsConstructor
+public class RequestFactory {
+
+    private final URI baseUri;
+    private final RegistrySeeder.SeededRegistry registry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConcurrentLinkedQueue<Long> publishedVersionsIds = new ConcurrentLinkedQueue<>();
+    private final AtomicLong publishCounter = new AtomicLong();
+
+    @Nullable
+    @SneakyThrows
+    public HttpRequest build(WorkloadSpec.Endpoint endpoint) {
+        var random = ThreadLocalRandom.current();
+        var version = registry.versions().get(random.nextInt(registry.versions().size()));
+        return switch (endpoint) {
+            case getSchema -> HttpRequest.newBuilder(uri("/schemas", Map.of(
+                            "schemaPath", version.paths().get(random.nextInt(version.paths().size())),
+                            "structureName", version.structureName(),
+                            "versionName", version.versionName()
+                    )))
+                    .GET()
+                    .build();
+            case getStructureDescriptor -> HttpRequest.newBuilder(uri("/structures", Map.of("name", version.structureName())))
+                    .GET()
+                    .build();
+            case getVersion -> HttpRequest.newBuilder(uri("/structures/versions", Map.of(
+                            "structureName", version.structureName(),
+                            "versionName", version.versionName()
+                    )))
+                    .GET()
+                    .build();
+            case createVersion -> HttpRequest.newBuilder(uri("/structures/versions", Map.of(
+                            "structureName", version.structureName(),
+                            "versionName", "load-" + publishCounter.incrementAndGet()
+                    )))
+                    .header(CONTENT_TYPE, APPLICATION_OCTET_STREAM)
+                    .POST(HttpRequest.BodyPublishers.ofFile(registry.archive().toPath()))
+                    .build();
+            case deleteVersion -> {
+                var versionId = publishedVersionsIds.poll();
+                yield versionId == null
+                        ? null
+                        : HttpRequest.newBuilder(uri("/structures/versions/" + versionId, Map.of()))
+                        .DELETE()
+                        .build();
+            }
+        };
+    }
+
+    public void onResponse(WorkloadSpec.Endpoint endpoint, HttpResponse<String> response) {
+        if (endpoint == WorkloadSpec.Endpoint.createVersion && isSuccessful(response)) {
+            try {
+                var versionId = objectMapper.readTree(response.body()).path("versionId").asLong();
+                publishedVersionsIds.add(versionId);
+            } catch (Exception e) {
+                //ответ не разобран - версия просто не попадёт в очередь на удаление
+            }
+        }
+    }
+
+    public static boolean isSuccessful(HttpResponse<?> response) {
+        return response.statusCode() >= 200 && response.statusCode() < 300;
+    }
+
+    private URI uri(String path, Map<String, String> queryParams) {
+        var query = queryParams.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+        return URI.create(baseUri + path + (query.isEmpty() ? "" : "?" + query));
+    }
+
+}
@@ -0,0 +1,47 @@
+package ru.craftysoft.schemaregistry.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Интенсивность одного вида запросов: {@code endpoint=rate} или {@code endpoint=ratexburst}.
+ * {@code rate} - число пачек в секунду, {@code burst} - число одновременных запросов в пачке.
+ */
+public record WorkloadSpec(Endpoint endpoint, double rate, int burst) {
+
+    public static List<WorkloadSpec> parse(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(part -> !part.isEmpty())
+                .map(WorkloadSpec::parseOne)
+                .toList();
+    }
+
+    private static WorkloadSpec parseOne(String part) {
+        var keyValue = part.split("=", 2);
+        if (keyValue.length != 2) {
+            throw new IllegalArgumentException("Некорректное описание нагрузки '%s'".formatted(part));
+        }
+        var endpoint = Endpoint.valueOf(keyValue[0].trim());
+        var rateAndBurst = keyValue[1].trim().split("x", 2);
+        var rate = Double.parseDouble(rateAndBurst[0]);
+        var burst = rateAndBurst.length == 2 ? Integer.parseInt(rateAndBurst[1]) : 1;
+        if (rate <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Некорректное описание нагрузки '%s'".formatted(part));
+        }
+        return new WorkloadSpec(endpoint, rate, burst);
+    }
+
+    public long intervalNanos() {
+        return (long) (1_000_000_000L / rate);
+    }
+
+    public enum Endpoint {
+        getSchema,
+        getStructureDescriptor,
+        getVersion,
+        createVersion,
+        deleteVersion,
+    }
+
+}
@@ -0,0 +1,133 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.quarkus.test.common.http.TestHTTPEndpoint;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.Header;
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.schemaregistry.configuration.ApplicationTestProfile;
+import ru.craftysoft.schemaregistry.controller.StructuresController;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.SchemasRecord;
+import ru.craftysoft.schemaregistry.model.rest.CreateVersionResponseData;
+import ru.craftysoft.schemaregistry.model.rest.ErrorResponseData;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.internal.multipart.MultiPartInternal.OCTET_STREAM;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static org.jboss.resteasy.reactive.RestResponse.StatusCode.INTERNAL_SERVER_ERROR;
+import static org.jboss.resteasy.reactive.RestResponse.StatusCode.OK;
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.SCHEMAS;
+
+@QuarkusTest
+@TestProfile(ApplicationTestProfile.class)
+@TestHTTPEndpoint(StructuresController.class)
+class CreateDeltaVersionOperationTest extends OperationTest {
+
+    private static final String DELTA_VERSION_NAME = VERSION_NAME + "_delta";
+    private static final String CHANGED_PATH = "manifest/MANIFEST.MF";
+    private static final String INHERITED_PATH = "polymatica-adapter";
+    private static final String ADDED_PATH = "added.json";
+
+    @Test
+    void process() {
+        var base = createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
+
+        var response = given()
+                .queryParams(
+                        "structureName", STRUCTURE_NAME,
+                        "versionName", DELTA_VERSION_NAME,
+                        "baseVersionName", VERSION_NAME
+                )
+                .body(delta(CHANGED_PATH))
+                .header(new Header(CONTENT_TYPE, OCTET_STREAM))
+                .post("/versions/delta")
+                .then()
+                .statusCode(OK)
+                .extract()
+                .response()
+                .as(CreateVersionResponseData.class);
+
+        var baseSchemas = schemas(base.getVersionId());
+        var thenSchemas = schemas(response.getVersionId());
+        assertEquals(paths(), thenSchemas.keySet());
+        assertEquals(baseSchemas.get(INHERITED_PATH).getLink(), thenSchemas.get(INHERITED_PATH).getLink());
+        assertFalse(Arrays.equals(baseSchemas.get(CHANGED_PATH).getContentHash(), thenSchemas.get(CHANGED_PATH).getContentHash()));
+
+        createVersionOperation.process(STRUCTURE_NAME, VERSION_NAME, true, new File(UPLOADING_FILE_PATH))
+                .subscribeAsCompletionStage()
+                .join();
+
+        var headObjectRequest = HeadObjectRequest.builder()
+                .bucket(bucket)
+                .key(thenSchemas.get(INHERITED_PATH).getLink())
+                .build();
+        assertNotNull(s3.headObject(headObjectRequest).join());
+    }
+
+    @Test
+    void processWithRemovedPath() {
+        var base = createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
+
+        var response = given()
+                .queryParams(
+                        "structureName", STRUCTURE_NAME,
+                        "versionName", DELTA_VERSION_NAME,
+                        "baseVersionName", VERSION_NAME,
+                        "removedPath", INHERITED_PATH
+                )
+                .body(delta(ADDED_PATH))
+                .header(new Header(CONTENT_TYPE, OCTET_STREAM))
+                .post("/versions/delta")
+                .then()
+                .statusCode(OK)
+                .extract()
+                .response()
+                .as(CreateVersionResponseData.class);
+
+        var baseSchemas = schemas(base.getVersionId());
+        var thenSchemas = schemas(response.getVersionId());
+        assertEquals(Set.of(CHANGED_PATH, ADDED_PATH), thenSchemas.keySet());
+        assertEquals(baseSchemas.get(CHANGED_PATH).getLink(), thenSchemas.get(CHANGED_PATH).getLink());
+    }
+
+    @Test
+    void processUnknownBaseVersion() {
+        var response = given()
+                .queryParams(
+                        "structureName", STRUCTURE_NAME,
+                        "versionName", DELTA_VERSION_NAME,
+                        "baseVersionName", VERSION_NAME
+                )
+                .body(delta(ADDED_PATH))
+                .header(new Header(CONTENT_TYPE, OCTET_STREAM))
+                .post("/versions/delta")
+                .then()
+                .statusCode(INTERNAL_SERVER_ERROR)
+                .extract()
+                .response()
+                .as(ErrorResponseData.class);
+
+        assertNotNull(response.getMessage());
+    }
+
+    private Map<String, SchemasRecord> schemas(long versionId) {
+        return testDslContext.selectFrom(SCHEMAS)
+                .where(SCHEMAS.VERSION_ID.eq(versionId))
+                .fetch()
+                .stream()
+                .collect(Collectors.toMap(SchemasRecord::getPath, schema -> schema));
+    }
+
+}
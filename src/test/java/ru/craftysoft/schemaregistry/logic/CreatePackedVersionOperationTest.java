@@ -0,0 +1,69 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.quarkus.test.common.http.TestHTTPEndpoint;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.Header;
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.schemaregistry.configuration.PackedSchemasTestProfile;
+import ru.craftysoft.schemaregistry.controller.StructuresController;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.SchemasRecord;
+import ru.craftysoft.schemaregistry.model.rest.CreateVersionResponseData;
+import ru.craftysoft.schemaregistry.service.blob.BlobKeys;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+
+import java.io.File;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.internal.multipart.MultiPartInternal.OCTET_STREAM;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static org.jboss.resteasy.reactive.RestResponse.StatusCode.OK;
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.SCHEMAS;
+
+@QuarkusTest
+@TestProfile(PackedSchemasTestProfile.class)
+@TestHTTPEndpoint(StructuresController.class)
+class CreatePackedVersionOperationTest extends OperationTest {
+
+    @Test
+    void process() {
+        var response = given()
+                .queryParams(
+                        "structureName", STRUCTURE_NAME,
+                        "versionName", VERSION_NAME
+                )
+                .body(new File(UPLOADING_FILE_PATH))
+                .header(new Header(CONTENT_TYPE, OCTET_STREAM))
+                .post("/versions")
+                .then()
+                .statusCode(OK)
+                .extract()
+                .response()
+                .as(CreateVersionResponseData.class);
+
+        var schemas = testDslContext.selectFrom(SCHEMAS)
+                .where(SCHEMAS.VERSION_ID.eq(response.getVersionId()))
+                .fetch();
+        var packedSchemas = schemas.stream()
+                .filter(schema -> schema.getLink() != null)
+                .toList();
+        assertFalse(packedSchemas.isEmpty());
+        assertEquals(1, packedSchemas.stream().map(SchemasRecord::getLink).distinct().count());
+        for (var schema : packedSchemas) {
+            assertTrue(schema.getLink().startsWith(bucket + "/"));
+            assertNotNull(BlobKeys.uuid(schema.getLink(), "pack"));
+            var request = GetObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(schema.getLink().substring(bucket.length() + 1))
+                    .range("bytes=%d-%d".formatted(schema.getContentOffset(), schema.getContentOffset() + schema.getContentLength() - 1))
+                    .build();
+            var content = s3.getObject(request, AsyncResponseTransformer.toBytes())
+                    .join()
+                    .asByteArray();
+            assertArrayEquals(content(schema.getPath()), content);
+        }
+    }
+
+}
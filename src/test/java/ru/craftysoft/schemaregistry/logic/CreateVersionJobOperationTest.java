@@ -0,0 +1,160 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.quarkus.test.common.http.TestHTTPEndpoint;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.Header;
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.schemaregistry.configuration.ApplicationTestProfile;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+import ru.craftysoft.schemaregistry.controller.StructuresController;
+import ru.craftysoft.schemaregistry.model.rest.CreateVersionResponseData;
+import ru.craftysoft.schemaregistry.model.rest.PublishJobResponseData;
+import ru.craftysoft.schemaregistry.model.rest.PublishJobStatus;
+import ru.craftysoft.schemaregistry.service.dao.PublishJobDaoAdapter;
+import ru.craftysoft.schemaregistry.util.DbClient;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.internal.multipart.MultiPartInternal.OCTET_STREAM;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static org.jboss.resteasy.reactive.RestResponse.StatusCode.INTERNAL_SERVER_ERROR;
+import static org.jboss.resteasy.reactive.RestResponse.StatusCode.OK;
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.PUBLISH_JOBS;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.SCHEMAS;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.VERSIONS;
+
+@QuarkusTest
+@TestProfile(ApplicationTestProfile.class)
+@TestHTTPEndpoint(StructuresController.class)
+class CreateVersionJobOperationTest extends OperationTest {
+
+    @Inject
+    PublishJobDaoAdapter publishJobDaoAdapter;
+
+    @Inject
+    DbClient dbClient;
+
+    @Test
+    void process() throws InterruptedException {
+        var job = given()
+                .queryParams(
+                        "structureName", STRUCTURE_NAME,
+                        "versionName", VERSION_NAME
+                )
+                .body(new File(UPLOADING_FILE_PATH))
+                .header(new Header(CONTENT_TYPE, OCTET_STREAM))
+                .post("/versions/jobs")
+                .then()
+                .extract()
+                .response()
+                .as(PublishJobResponseData.class);
+
+        assertNotNull(job.getId());
+        assertEquals(PublishJobStatus.QUEUED, job.getStatus());
+
+        var done = awaitJob(job.getId());
+        assertEquals(PublishJobStatus.DONE, done.getStatus());
+        assertEquals(1, done.getAttempts());
+        var result = done.getResult();
+        assertNotNull(result);
+        assertEquals(paths().size(), result.getSchemaIds().size());
+        assertEquals(result.getSchemaIds().size(), done.getSchemasUploaded());
+        var version = testDslContext.selectFrom(VERSIONS)
+                .where(VERSIONS.ID.eq(result.getVersionId()))
+                .fetchOptional()
+                .orElseThrow();
+        assertEquals(VERSION_NAME, version.getName());
+        var schemasIds = new HashSet<>(testDslContext.select(SCHEMAS.ID)
+                .from(SCHEMAS)
+                .where(SCHEMAS.VERSION_ID.eq(result.getVersionId()))
+                .fetch(SCHEMAS.ID));
+        assertEquals(new HashSet<>(result.getSchemaIds()), schemasIds);
+    }
+
+    @Test
+    void processReclaimed() {
+        var job = testDslContext.insertInto(PUBLISH_JOBS)
+                .set(PUBLISH_JOBS.STRUCTURE_NAME, STRUCTURE_NAME)
+                .set(PUBLISH_JOBS.VERSION_NAME, VERSION_NAME)
+                .set(PUBLISH_JOBS.ARCHIVE_LINK, bucket + "/job_archive")
+                .set(PUBLISH_JOBS.STATUS, PublishJobStatus.RUNNING.toString())
+                .set(PUBLISH_JOBS.ATTEMPTS, 2)
+                .set(PUBLISH_JOBS.HEARTBEAT_AT, OffsetDateTime.now())
+                .returning()
+                .fetchOne();
+        var staleJob = job.copy();
+        staleJob.setId(job.getId());
+        staleJob.setAttempts(1);
+        var response = new CreateVersionResponseData()
+                .structureId(1L)
+                .versionId(1L)
+                .schemaIds(List.of());
+
+        assertTrue(publishJobDaoAdapter.heartbeat(job, null, 0).await().indefinitely());
+        assertFalse(publishJobDaoAdapter.heartbeat(staleJob, null, 0).await().indefinitely());
+        var exception = assertThrows(RuntimeException.class, () -> publishJobDaoAdapter.complete(dbClient.pool(Workload.write), staleJob, response)
+                .await()
+                .indefinitely());
+        assertEquals(publishJobDaoAdapter.lostOwnership(staleJob).getMessage(), exception.getMessage());
+        assertFalse(publishJobDaoAdapter.fail(staleJob, "error", false).await().indefinitely());
+        var stored = testDslContext.selectFrom(PUBLISH_JOBS)
+                .where(PUBLISH_JOBS.ID.eq(job.getId()))
+                .fetchOne();
+        assertEquals(PublishJobStatus.RUNNING.toString(), stored.getStatus());
+        assertNull(stored.getVersionId());
+        assertNull(stored.getError());
+    }
+
+    @Test
+    void processExhausted() throws InterruptedException {
+        var job = testDslContext.insertInto(PUBLISH_JOBS)
+                .set(PUBLISH_JOBS.STRUCTURE_NAME, STRUCTURE_NAME)
+                .set(PUBLISH_JOBS.VERSION_NAME, VERSION_NAME)
+                .set(PUBLISH_JOBS.ARCHIVE_LINK, bucket + "/job_archive")
+                .set(PUBLISH_JOBS.STATUS, PublishJobStatus.RUNNING.toString())
+                .set(PUBLISH_JOBS.ATTEMPTS, 3)
+                .set(PUBLISH_JOBS.HEARTBEAT_AT, OffsetDateTime.now().minusHours(1))
+                .returning()
+                .fetchOne();
+
+        var failed = awaitJob(job.getId());
+
+        assertEquals(PublishJobStatus.FAILED, failed.getStatus());
+        assertEquals(3, failed.getAttempts());
+        assertNotNull(failed.getError());
+        assertNull(failed.getResult());
+    }
+
+    @Test
+    void processNotFound() {
+        given()
+                .get("/versions/jobs/{id}", Long.MAX_VALUE)
+                .then()
+                .statusCode(INTERNAL_SERVER_ERROR);
+    }
+
+    private PublishJobResponseData awaitJob(long id) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            var job = given()
+                    .get("/versions/jobs/{id}", id)
+                    .then()
+                    .statusCode(OK)
+                    .extract()
+                    .response()
+                    .as(PublishJobResponseData.class);
+            if (job.getStatus() == PublishJobStatus.DONE || job.getStatus() == PublishJobStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(200);
+        }
+        return fail("Задача публикации id=%s не завершилась".formatted(id));
+    }
+
+}
@@ -6,6 +6,7 @@ import io.quarkus.test.junit.TestProfile;
 import io.quarkus.test.junit.mockito.InjectSpy;
 import io.restassured.http.Header;
 import io.restassured.response.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import ru.craftysoft.schemaregistry.builder.s3.GetObjectRequestBuilder;
@@ -24,6 +25,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.zip.ZipFile;
 
 import static io.restassured.RestAssured.given;
 import static io.restassured.internal.multipart.MultiPartInternal.OCTET_STREAM;
@@ -49,6 +51,9 @@ class CreateVersionOperationTest extends OperationTest {
     @InjectSpy
     VersionDao versionDao;
 
+    @ConfigProperty(name = "db.inline-schema-threshold")
+    int inlineThreshold;
+
     @Test
     void process() throws IOException {
         var response = httpRequest()
@@ -86,6 +91,33 @@ class CreateVersionOperationTest extends OperationTest {
         verify(versionDao, times(1)).delete(any(), anyLong());
     }
 
+    @Test
+    void processInline() throws IOException {
+        var response = httpRequest()
+                .then()
+                .statusCode(OK)
+                .extract()
+                .response()
+                .as(CreateVersionResponseData.class);
+
+        var schemas = testDslContext.selectFrom(SCHEMAS)
+                .where(SCHEMAS.VERSION_ID.eq(response.getVersionId()))
+                .fetch();
+        try (var zip = new ZipFile(UPLOADING_FILE_PATH)) {
+            for (var schema : schemas) {
+                var entry = zip.getEntry(schema.getPath());
+                assertEquals(entry.getSize() < inlineThreshold, schema.getLink() == null);
+                if (schema.getLink() == null) {
+                    try (var inputStream = zip.getInputStream(entry)) {
+                        assertArrayEquals(inputStream.readAllBytes(), schema.getContent());
+                    }
+                } else {
+                    assertNull(schema.getContent());
+                }
+            }
+        }
+    }
+
     @Test
     void processDuplicateVersion() {
         httpRequest();
@@ -127,12 +159,17 @@ class CreateVersionOperationTest extends OperationTest {
                 .fetchOptional()
                 .orElseThrow();
         assertEquals(STRUCTURE_NAME, structure.getName());
+        assertEquals(response.getVersionId(), structure.getLatestVersionId());
     }
 
     private void thenSchema(CreateVersionResponseData response, HashSet<Long> schemasIds, Set<String> paths, SchemasRecord schema) {
         assertTrue(schemasIds.contains(schema.getId()));
         assertTrue(paths.contains(schema.getPath()));
         assertEquals(response.getVersionId(), schema.getVersionId());
+        if (schema.getLink() == null) {
+            assertNotNull(schema.getContent());
+            return;
+        }
         var getObjectRequest = getObjectRequestBuilder.build(schema.getLink());
         s3.getObject(getObjectRequest, AsyncResponseTransformer.toBytes())
                 .thenAccept(Assertions::assertNotNull);
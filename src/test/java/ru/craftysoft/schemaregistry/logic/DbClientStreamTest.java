@@ -0,0 +1,176 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.Tuple;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.schemaregistry.configuration.DbStreamTestProfile;
+import ru.craftysoft.schemaregistry.configuration.Workload;
+import ru.craftysoft.schemaregistry.util.DbClient;
+
+import javax.inject.Inject;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.STRUCTURES;
+
+/**
+ * Потоковое чтение на пуле публикации: курсор в отдельной транзакции, {@code db.stream.fetch-size=10}.
+ */
+@QuarkusTest
+@TestProfile(DbStreamTestProfile.class)
+@Slf4j
+class DbClientStreamTest extends OperationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final int FETCH_SIZE = 10;
+    private static final int ROWS = 25;
+    private static final String POINT = "DbClientStreamTest";
+    private static final String INSERT_SQL = """
+            INSERT INTO structures (name)
+            SELECT 'stream_' || n FROM generate_series(1, $1) n
+            RETURNING name""";
+    private static final String SEQUENCE = "db_client_stream_test";
+
+    @Inject
+    DbClient dbClient;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "quarkus.datasource.reactive.max-size")
+    int maxPoolSize;
+
+    @Test
+    void streamCommitsTransaction() {
+        var names = dbClient.toMulti(dbClient.pool(Workload.write), log, POINT, INSERT_SQL, Tuple.of(ROWS), row -> row.getString(0))
+                .collect()
+                .asList()
+                .await()
+                .atMost(TIMEOUT);
+
+        assertEquals(ROWS, names.size());
+        assertEquals(ROWS, testDslContext.fetchCount(STRUCTURES));
+        assertEquals(0, inflight());
+    }
+
+    @Test
+    void cancelRollsBackTransaction() {
+        // отменённых потоков больше, чем соединений в пуле: незакрытое соединение исчерпало бы пул
+        for (int i = 0; i < 3 * maxPoolSize; i++) {
+            var names = dbClient.toMulti(dbClient.pool(Workload.write), log, POINT, INSERT_SQL, Tuple.of(ROWS), row -> row.getString(0))
+                    .select()
+                    .first(3)
+                    .collect()
+                    .asList()
+                    .await()
+                    .atMost(TIMEOUT);
+
+            assertEquals(3, names.size());
+        }
+
+        assertEquals(0, inflight());
+        awaitNoOpenTransactions();
+        assertEquals(0, testDslContext.fetchCount(STRUCTURES));
+        assertEquals(1, selectOne());
+    }
+
+    @Test
+    void failureRollsBackTransaction() {
+        var multi = dbClient.toMulti(dbClient.pool(Workload.write), log, POINT, INSERT_SQL, Tuple.of(ROWS), row -> {
+                    if (row.getString(0).endsWith("_15")) {
+                        throw new RuntimeException("mapper");
+                    }
+                    return row.getString(0);
+                })
+                .collect()
+                .asList();
+
+        var exception = assertThrows(RuntimeException.class, () -> multi.await().atMost(TIMEOUT));
+
+        assertEquals("mapper", exception.getMessage());
+        assertEquals(0, inflight());
+        awaitNoOpenTransactions();
+        assertEquals(0, testDslContext.fetchCount(STRUCTURES));
+        assertEquals(1, selectOne());
+    }
+
+    /**
+     * {@code nextval} вычисляется при выборке строки курсором, значение последовательности показывает, сколько строк прочитано из БД.
+     */
+    @Test
+    void fetchesByDemand() {
+        testDslContext.execute("CREATE SEQUENCE " + SEQUENCE);
+        try {
+            var subscriber = dbClient.toMulti(dbClient.pool(Workload.write), log, POINT,
+                            "SELECT nextval('%s') FROM generate_series(1, $1)".formatted(SEQUENCE), Tuple.of(ROWS * FETCH_SIZE), row -> row.getLong(0))
+                    .subscribe()
+                    .withSubscriber(AssertSubscriber.<Long>create(5));
+
+            subscriber.awaitItems(5, TIMEOUT);
+
+            assertEquals(List.of(1L, 2L, 3L, 4L, 5L), subscriber.getItems());
+            var fetched = lastValue();
+            assertTrue(fetched >= FETCH_SIZE && fetched <= 2L * FETCH_SIZE, "fetched " + fetched);
+
+            subscriber.request(FETCH_SIZE).awaitItems(5 + FETCH_SIZE, TIMEOUT);
+
+            assertEquals(LongStream.rangeClosed(1, 5 + FETCH_SIZE).boxed().toList(), subscriber.getItems());
+            assertTrue(lastValue() <= 3L * FETCH_SIZE, "fetched " + lastValue());
+            assertEquals(1, inflight());
+
+            subscriber.cancel();
+
+            assertEquals(0, inflight());
+            awaitNoOpenTransactions();
+        } finally {
+            testDslContext.execute("DROP SEQUENCE " + SEQUENCE);
+        }
+    }
+
+    private double inflight() {
+        return meterRegistry.get("db.pool.inflight")
+                .tag("pool", Workload.write.name())
+                .gauge()
+                .value();
+    }
+
+    private long lastValue() {
+        return testDslContext.fetchOne("SELECT last_value FROM " + SEQUENCE).get(0, Long.class);
+    }
+
+    private Integer selectOne() {
+        return dbClient.toUni(dbClient.pool(Workload.write), log, POINT, "SELECT 1", Tuple.tuple(), (Row row) -> row.getInteger(0))
+                .await()
+                .atMost(TIMEOUT);
+    }
+
+    /**
+     * Транзакция курсора завершается асинхронно после отмены или ошибки.
+     */
+    @SneakyThrows
+    private void awaitNoOpenTransactions() {
+        var deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            var open = testDslContext.fetchOne("""
+                            SELECT count(*) FROM pg_stat_activity
+                            WHERE datname = current_database() AND state LIKE 'idle in transaction%'""")
+                    .get(0, Integer.class);
+            if (open == 0) {
+                return;
+            }
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        fail("Транзакции курсоров не завершены за " + TIMEOUT);
+    }
+
+}
@@ -12,6 +12,7 @@ import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 import java.util.ArrayList;
+import java.util.Objects;
 import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -42,9 +43,11 @@ public class DeleteOperation extends OperationTest {
     }
 
     protected void thenContent(VersionsRecord givenVersion, Result<SchemasRecord> givenSchemas) {
-        var schemasLinks = givenSchemas
-                .map(SchemasRecord::getLink);
-        var links = new ArrayList<>(schemasLinks);
+        var links = new ArrayList<String>();
+        givenSchemas.stream()
+                .map(SchemasRecord::getLink)
+                .filter(Objects::nonNull)
+                .forEach(links::add);
         links.add(givenVersion.getLink());
         for (var link : links) {
             var getObjectRequest = getObjectRequestBuilder.build(link);
@@ -7,10 +7,12 @@ import org.junit.jupiter.api.Test;
 import ru.craftysoft.schemaregistry.configuration.ApplicationTestProfile;
 import ru.craftysoft.schemaregistry.controller.StructuresController;
 import ru.craftysoft.schemaregistry.model.rest.AcceptedResponseData;
+import ru.craftysoft.schemaregistry.model.rest.ChangeType;
 
 import static io.restassured.RestAssured.given;
 import static org.jboss.resteasy.reactive.RestResponse.StatusCode.OK;
 import static org.junit.jupiter.api.Assertions.*;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.CHANGES;
 
 @QuarkusTest
 @TestProfile(ApplicationTestProfile.class)
@@ -47,5 +49,11 @@ class DeleteStructureOperationTest extends DeleteOperation {
         var thenSchemas = getSchemasQuery(givenVersion)
                 .fetch();
         assertTrue(thenSchemas.isEmpty());
+        var thenChange = testDslContext.selectFrom(CHANGES)
+                .where(CHANGES.TYPE.eq(ChangeType.STRUCTURE_DELETED.toString()))
+                .fetchOptional()
+                .orElseThrow();
+        assertEquals(givenCreateVersionResponse.getStructureId(), thenChange.getStructureId());
+        assertEquals(STRUCTURE_NAME, thenChange.getStructureName());
     }
 }
\ No newline at end of file
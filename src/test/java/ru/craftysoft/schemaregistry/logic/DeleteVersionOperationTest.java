@@ -7,10 +7,12 @@ import org.junit.jupiter.api.Test;
 import ru.craftysoft.schemaregistry.configuration.ApplicationTestProfile;
 import ru.craftysoft.schemaregistry.controller.StructuresController;
 import ru.craftysoft.schemaregistry.model.rest.AcceptedResponseData;
+import ru.craftysoft.schemaregistry.model.rest.ChangeType;
 
 import static io.restassured.RestAssured.given;
 import static org.jboss.resteasy.reactive.RestResponse.StatusCode.OK;
 import static org.junit.jupiter.api.Assertions.*;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.CHANGES;
 
 @QuarkusTest
 @TestProfile(ApplicationTestProfile.class)
@@ -47,6 +49,18 @@ class DeleteVersionOperationTest extends DeleteOperation {
         var thenSchemas = getSchemasQuery(givenVersion)
                 .fetch();
         assertTrue(thenSchemas.isEmpty());
+        var thenChanges = testDslContext.selectFrom(CHANGES)
+                .where(CHANGES.TYPE.in(ChangeType.VERSION_DELETED.toString(), ChangeType.STRUCTURE_DELETED.toString()))
+                .orderBy(CHANGES.ID)
+                .fetch();
+        assertEquals(2, thenChanges.size());
+        assertEquals(ChangeType.VERSION_DELETED.toString(), thenChanges.get(0).getType());
+        assertEquals(STRUCTURE_NAME, thenChanges.get(0).getStructureName());
+        assertEquals(givenVersion.getId(), thenChanges.get(0).getVersionId());
+        assertEquals(VERSION_NAME, thenChanges.get(0).getVersionName());
+        assertEquals(ChangeType.STRUCTURE_DELETED.toString(), thenChanges.get(1).getType());
+        assertEquals(STRUCTURE_NAME, thenChanges.get(1).getStructureName());
+        assertNull(thenChanges.get(1).getVersionId());
     }
 
     @Test
@@ -74,6 +88,8 @@ class DeleteVersionOperationTest extends DeleteOperation {
         var thenStructure = getStructureQuery()
                 .fetchOne();
         assertNotNull(thenStructure);
+        assertNotNull(thenStructure.getLatestVersionId());
+        assertNotEquals(givenVersion.getId(), thenStructure.getLatestVersionId());
         var thenVersion = getVersionQuery()
                 .fetchOne();
         assertNull(thenVersion);
@@ -0,0 +1,152 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.quarkus.test.common.http.TestHTTPEndpoint;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.schemaregistry.configuration.AssembledArchiveTestProfile;
+import ru.craftysoft.schemaregistry.controller.StructuresController;
+import ru.craftysoft.schemaregistry.model.rest.AcceptedResponseData;
+import ru.craftysoft.schemaregistry.service.blob.BlobKeys;
+import software.amazon.awssdk.services.s3.model.ListObjectsRequest;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static org.jboss.resteasy.reactive.RestResponse.StatusCode.OK;
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.SCHEMAS;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.VERSIONS;
+
+@QuarkusTest
+@TestProfile(AssembledArchiveTestProfile.class)
+@TestHTTPEndpoint(StructuresController.class)
+class GetAssembledVersionOperationTest extends OperationTest {
+
+    private static final String DELTA_VERSION_NAME = VERSION_NAME + "_delta";
+    private static final String ADDED_PATH = "added.json";
+    private static final String INLINE_PATH = "manifest/MANIFEST.MF";
+
+    @Inject
+    CreateDeltaVersionOperation createDeltaVersionOperation;
+
+    @Test
+    void process() {
+        var givenVersion = createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
+
+        var version = testDslContext.selectFrom(VERSIONS)
+                .where(VERSIONS.ID.eq(givenVersion.getVersionId()))
+                .fetchOptional()
+                .orElseThrow();
+        assertNull(version.getLink());
+        assertTrue(objectKeys().stream().allMatch(key -> BlobKeys.uuid(key, "schema") != null));
+        assertInlineSchema(givenVersion.getVersionId());
+
+        var response = given()
+                .queryParams(
+                        "structureName", STRUCTURE_NAME,
+                        "versionName", VERSION_NAME
+                )
+                .get("/versions")
+                .then()
+                .statusCode(OK)
+                .extract()
+                .asByteArray();
+
+        assertEquals(entries(new File(UPLOADING_FILE_PATH)), entries(response));
+    }
+
+    @Test
+    void processFiltered() {
+        var givenVersion = createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
+        assertInlineSchema(givenVersion.getVersionId());
+
+        var response = given()
+                .queryParams(
+                        "structureName", STRUCTURE_NAME,
+                        "versionName", VERSION_NAME,
+                        "pathPrefix", "manifest/"
+                )
+                .get("/versions")
+                .then()
+                .statusCode(OK)
+                .extract()
+                .asByteArray();
+
+        var expected = entries(new File(UPLOADING_FILE_PATH));
+        assertEquals(Map.of(INLINE_PATH, expected.get(INLINE_PATH)), entries(response));
+    }
+
+    @Test
+    void processDelta() {
+        createDefaultVersion()
+                .flatMap(ignored -> createDeltaVersionOperation.process(STRUCTURE_NAME, DELTA_VERSION_NAME, VERSION_NAME, Set.of(), delta(ADDED_PATH)))
+                .subscribeAsCompletionStage()
+                .join();
+
+        var response = given()
+                .queryParams(
+                        "structureName", STRUCTURE_NAME,
+                        "versionName", DELTA_VERSION_NAME
+                )
+                .get("/versions")
+                .then()
+                .statusCode(OK)
+                .extract()
+                .asByteArray();
+
+        var expected = new HashMap<>(entries(new File(UPLOADING_FILE_PATH)));
+        expected.put(ADDED_PATH, new String(deltaContent(ADDED_PATH)));
+        assertEquals(expected, entries(response));
+    }
+
+    @Test
+    void processDelete() {
+        var givenVersion = createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
+
+        var response = given()
+                .delete("/versions/{id}", String.valueOf(givenVersion.getVersionId()))
+                .then()
+                .statusCode(OK)
+                .extract()
+                .response()
+                .as(AcceptedResponseData.class);
+
+        assertEquals(1, response.getCount());
+        assertTrue(objectKeys().isEmpty());
+    }
+
+    private void assertInlineSchema(long versionId) {
+        var schema = testDslContext.selectFrom(SCHEMAS)
+                .where(SCHEMAS.VERSION_ID.eq(versionId))
+                .and(SCHEMAS.PATH.eq(INLINE_PATH))
+                .fetchOptional()
+                .orElseThrow();
+        assertNull(schema.getLink());
+        assertNotNull(schema.getContent());
+    }
+
+    private Set<String> objectKeys() {
+        var request = ListObjectsRequest.builder()
+                .bucket(bucket)
+                .build();
+        return s3.listObjects(request)
+                .thenApply(listObjectsResponse -> listObjectsResponse.contents().stream()
+                        .map(S3Object::key)
+                        .collect(Collectors.toSet()))
+                .join();
+    }
+
+}
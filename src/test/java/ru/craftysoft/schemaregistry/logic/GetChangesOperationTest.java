@@ -0,0 +1,90 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.quarkus.test.common.http.TestHTTPEndpoint;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.schemaregistry.configuration.ApplicationTestProfile;
+import ru.craftysoft.schemaregistry.controller.StructuresController;
+import ru.craftysoft.schemaregistry.model.rest.ChangeType;
+import ru.craftysoft.schemaregistry.model.rest.GetChangesResponseData;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.jboss.resteasy.reactive.RestResponse.StatusCode.OK;
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+@TestProfile(ApplicationTestProfile.class)
+@TestHTTPEndpoint(StructuresController.class)
+class GetChangesOperationTest extends OperationTest {
+
+    @Test
+    void process() {
+        var givenCreateVersionResponse = createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
+
+        var response = getChanges(0, STRUCTURE_NAME, 0);
+
+        assertEquals(1, response.getChanges().size());
+        var change = response.getChanges().get(0);
+        assertEquals(ChangeType.VERSION_CREATED, change.getType());
+        assertEquals(givenCreateVersionResponse.getStructureId(), change.getStructureId());
+        assertEquals(STRUCTURE_NAME, change.getStructureName());
+        assertEquals(givenCreateVersionResponse.getVersionId(), change.getVersionId());
+        assertEquals(VERSION_NAME, change.getVersionName());
+        assertEquals(change.getId(), response.getCursor());
+
+        var next = getChanges(response.getCursor(), STRUCTURE_NAME, 0);
+
+        assertTrue(next.getChanges().isEmpty());
+        assertEquals(response.getCursor(), next.getCursor());
+    }
+
+    @Test
+    void processWithOtherStructureName() {
+        createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
+
+        var response = getChanges(0, STRUCTURE_NAME + "_2", 0);
+
+        assertTrue(response.getChanges().isEmpty());
+        assertTrue(response.getCursor() > 0);
+    }
+
+    @Test
+    void processWithWait() throws Exception {
+        var cursor = getChanges(0, null, 0).getCursor();
+        var waiting = CompletableFuture.supplyAsync(() -> getChanges(cursor, null, 10));
+        TimeUnit.MILLISECONDS.sleep(500);
+
+        createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
+
+        var response = waiting.get(10, TimeUnit.SECONDS);
+        assertEquals(1, response.getChanges().size());
+        assertEquals(ChangeType.VERSION_CREATED, response.getChanges().get(0).getType());
+    }
+
+    private GetChangesResponseData getChanges(long after, String structureName, int wait) {
+        var request = given()
+                .queryParam("after", after)
+                .queryParam("wait", wait);
+        if (structureName != null) {
+            request.queryParam("structureName", structureName);
+        }
+        return request
+                .get("/changes")
+                .then()
+                .statusCode(OK)
+                .extract()
+                .response()
+                .as(GetChangesResponseData.class);
+    }
+
+}
@@ -3,15 +3,20 @@ package ru.craftysoft.schemaregistry.logic;
 import io.quarkus.test.common.http.TestHTTPEndpoint;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import ru.craftysoft.schemaregistry.configuration.ApplicationTestProfile;
 import ru.craftysoft.schemaregistry.controller.SchemasController;
 
+import javax.inject.Inject;
 import java.util.HashMap;
 
 import static io.restassured.RestAssured.given;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static org.jboss.resteasy.reactive.RestResponse.StatusCode.INTERNAL_SERVER_ERROR;
 import static org.jboss.resteasy.reactive.RestResponse.StatusCode.OK;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static ru.craftysoft.schemaregistry.model.jooq.Tables.SCHEMAS;
 
 @QuarkusTest
@@ -21,42 +26,79 @@ class GetSchemaOperationTest extends OperationTest {
 
     private static final String SCHEMA_PATH = paths().iterator().next();
 
+    @Inject
+    DeleteVersionOperation deleteVersionOperation;
+
+    /**
+     * Проверяются обе схемы тестового архива: хранящаяся в БД и хранящаяся в S3.
+     */
     @ParameterizedTest
     @EnumSource(GetSchemaRequestType.class)
     void process(GetSchemaRequestType requestType) {
         var givenCreateVersionResponse = createDefaultVersion()
                 .subscribeAsCompletionStage()
                 .join();
-        var queryParams = new HashMap<String, String>();
-        switch (requestType) {
-            case BY_ID -> {
-                var schemaId = testDslContext.select(SCHEMAS.ID)
-                        .from(SCHEMAS)
-                        .where(
-                                SCHEMAS.PATH.eq(SCHEMA_PATH),
-                                SCHEMAS.VERSION_ID.eq(givenCreateVersionResponse.getVersionId())
-                        )
-                        .fetchOptional()
-                        .orElseThrow()
-                        .get(SCHEMAS.ID);
-                queryParams.put("schemaId", String.valueOf(schemaId));
-            }
-            case BY_SCHEMA_PATH_STRUCTURE_NAME -> {
-                queryParams.put("schemaPath", SCHEMA_PATH);
-                queryParams.put("structureName", STRUCTURE_NAME);
-            }
-            case BY_SCHEMA_PATH_STRUCTURE_NAME_VERSION_NAME -> {
-                queryParams.put("schemaPath", SCHEMA_PATH);
-                queryParams.put("structureName", STRUCTURE_NAME);
-                queryParams.put("versionName", VERSION_NAME);
+        for (var path : paths()) {
+            var queryParams = new HashMap<String, String>();
+            switch (requestType) {
+                case BY_ID -> {
+                    var schemaId = testDslContext.select(SCHEMAS.ID)
+                            .from(SCHEMAS)
+                            .where(
+                                    SCHEMAS.PATH.eq(path),
+                                    SCHEMAS.VERSION_ID.eq(givenCreateVersionResponse.getVersionId())
+                            )
+                            .fetchOptional()
+                            .orElseThrow()
+                            .get(SCHEMAS.ID);
+                    queryParams.put("schemaId", String.valueOf(schemaId));
+                }
+                case BY_SCHEMA_PATH_STRUCTURE_NAME -> {
+                    queryParams.put("schemaPath", path);
+                    queryParams.put("structureName", STRUCTURE_NAME);
+                }
+                case BY_SCHEMA_PATH_STRUCTURE_NAME_VERSION_NAME -> {
+                    queryParams.put("schemaPath", path);
+                    queryParams.put("structureName", STRUCTURE_NAME);
+                    queryParams.put("versionName", VERSION_NAME);
+                }
             }
+
+            var response = given()
+                    .queryParams(queryParams)
+                    .get("/")
+                    .then()
+                    .statusCode(OK)
+                    .header(CONTENT_TYPE, "text/plain;charset=UTF-8")
+                    .extract()
+                    .asByteArray();
+
+            assertArrayEquals(content(path), response);
         }
+    }
 
+    @Test
+    void processAfterDeleteVersion() {
+        var givenCreateVersionResponse = createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
         given()
-                .queryParams(queryParams)
+                .queryParam("schemaPath", SCHEMA_PATH)
+                .queryParam("structureName", STRUCTURE_NAME)
                 .get("/")
                 .then()
                 .statusCode(OK);
+
+        deleteVersionOperation.process(givenCreateVersionResponse.getVersionId())
+                .subscribeAsCompletionStage()
+                .join();
+
+        given()
+                .queryParam("schemaPath", SCHEMA_PATH)
+                .queryParam("structureName", STRUCTURE_NAME)
+                .get("/")
+                .then()
+                .statusCode(INTERNAL_SERVER_ERROR);
     }
 
     private enum GetSchemaRequestType {
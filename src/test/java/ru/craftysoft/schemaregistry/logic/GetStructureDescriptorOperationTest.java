@@ -100,6 +100,8 @@ class GetStructureDescriptorOperationTest extends OperationTest {
             assertEquals(schemaRecord.getId(), schema.getId());
             assertEquals(schemaRecord.getPath(), schema.getPath());
             assertEquals(schemaRecord.getLink(), schema.getLink());
+            assertEquals(schemaRecord.getContentOffset(), schema.getOffset());
+            assertEquals(schemaRecord.getContentLength(), schema.getLength());
         });
     }
 
@@ -0,0 +1,141 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.quarkus.test.common.http.TestHTTPEndpoint;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.schemaregistry.configuration.ApplicationTestProfile;
+import ru.craftysoft.schemaregistry.controller.StructuresController;
+import ru.craftysoft.schemaregistry.model.rest.ErrorResponseData;
+import ru.craftysoft.schemaregistry.model.rest.GetVersionDiffResponseData;
+
+import javax.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipInputStream;
+
+import static io.restassured.RestAssured.given;
+import static org.jboss.resteasy.reactive.RestResponse.StatusCode.INTERNAL_SERVER_ERROR;
+import static org.jboss.resteasy.reactive.RestResponse.StatusCode.OK;
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+@TestProfile(ApplicationTestProfile.class)
+@TestHTTPEndpoint(StructuresController.class)
+class GetVersionDiffOperationTest extends OperationTest {
+
+    private static final String DELTA_VERSION_NAME = VERSION_NAME + "_delta";
+    private static final String CHANGED_PATH = "manifest/MANIFEST.MF";
+    private static final String REMOVED_PATH = "polymatica-adapter";
+    private static final String ADDED_PATH = "added.json";
+
+    @Inject
+    CreateDeltaVersionOperation createDeltaVersionOperation;
+
+    @Test
+    void process() {
+        givenVersions();
+
+        var response = given()
+                .queryParams(
+                        "structureName", STRUCTURE_NAME,
+                        "fromVersionName", VERSION_NAME,
+                        "toVersionName", DELTA_VERSION_NAME
+                )
+                .get("/versions/diff")
+                .then()
+                .statusCode(OK)
+                .extract()
+                .response()
+                .as(GetVersionDiffResponseData.class);
+
+        assertEquals(List.of(ADDED_PATH), response.getAdded());
+        assertEquals(List.of(REMOVED_PATH), response.getRemoved());
+        assertEquals(List.of(CHANGED_PATH), response.getModified());
+    }
+
+    @Test
+    void processSameContent() {
+        createDefaultVersion()
+                .flatMap(ignored -> createVersion(VERSION_NAME + "_2"))
+                .subscribeAsCompletionStage()
+                .join();
+
+        var response = given()
+                .queryParams(
+                        "structureName", STRUCTURE_NAME,
+                        "fromVersionName", VERSION_NAME,
+                        "toVersionName", VERSION_NAME + "_2"
+                )
+                .get("/versions/diff")
+                .then()
+                .statusCode(OK)
+                .extract()
+                .response()
+                .as(GetVersionDiffResponseData.class);
+
+        assertTrue(response.getAdded().isEmpty());
+        assertTrue(response.getRemoved().isEmpty());
+        assertTrue(response.getModified().isEmpty());
+    }
+
+    @Test
+    void processUnknownVersion() {
+        createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
+
+        var response = given()
+                .queryParams(
+                        "structureName", STRUCTURE_NAME,
+                        "fromVersionName", VERSION_NAME,
+                        "toVersionName", DELTA_VERSION_NAME
+                )
+                .get("/versions/diff")
+                .then()
+                .statusCode(INTERNAL_SERVER_ERROR)
+                .extract()
+                .response()
+                .as(ErrorResponseData.class);
+
+        assertNotNull(response.getMessage());
+    }
+
+    @Test
+    @SneakyThrows
+    void processArchive() {
+        givenVersions();
+
+        var response = given()
+                .queryParams(
+                        "structureName", STRUCTURE_NAME,
+                        "fromVersionName", VERSION_NAME,
+                        "toVersionName", DELTA_VERSION_NAME
+                )
+                .get("/versions/diff/archive")
+                .then()
+                .statusCode(OK)
+                .extract()
+                .asByteArray();
+
+        var paths = new HashSet<String>();
+        try (var zip = new ZipInputStream(new ByteArrayInputStream(response))) {
+            for (var entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                paths.add(entry.getName());
+                assertArrayEquals(deltaContent(entry.getName()), zip.readAllBytes());
+            }
+        }
+        assertEquals(Set.of(CHANGED_PATH, ADDED_PATH), paths);
+    }
+
+    private void givenVersions() {
+        createDefaultVersion()
+                .flatMap(ignored -> createDeltaVersionOperation.process(STRUCTURE_NAME, DELTA_VERSION_NAME, VERSION_NAME, Set.of(REMOVED_PATH), delta(CHANGED_PATH, ADDED_PATH)))
+                .subscribeAsCompletionStage()
+                .join();
+    }
+
+}
@@ -5,20 +5,26 @@ import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.TestProfile;
 import io.restassured.response.Response;
 import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import ru.craftysoft.schemaregistry.configuration.ApplicationTestProfile;
 import ru.craftysoft.schemaregistry.controller.StructuresController;
 import ru.craftysoft.schemaregistry.model.jooq.tables.records.VersionsRecord;
+import ru.craftysoft.schemaregistry.service.dao.VersionDaoAdapter;
 
 import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import java.io.File;
 import java.io.IOException;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.zip.ZipInputStream;
 
 import static io.restassured.RestAssured.given;
+import static org.jboss.resteasy.reactive.RestResponse.StatusCode.INTERNAL_SERVER_ERROR;
 import static org.jboss.resteasy.reactive.RestResponse.StatusCode.OK;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static ru.craftysoft.schemaregistry.model.jooq.Tables.VERSIONS;
 
@@ -27,6 +33,9 @@ import static ru.craftysoft.schemaregistry.model.jooq.Tables.VERSIONS;
 @TestHTTPEndpoint(StructuresController.class)
 class GetVersionOperationTest extends OperationTest {
 
+    @Inject
+    VersionDaoAdapter versionDaoAdapter;
+
     @ParameterizedTest
     @EnumSource(QueryParamsByVersion.class)
     void process(QueryParamsByVersion queryParamsByVersion) throws IOException {
@@ -43,6 +52,66 @@ class GetVersionOperationTest extends OperationTest {
         thenResponseContent(response);
     }
 
+    @Test
+    void processByRange() {
+        createVersion("2.0.0")
+                .flatMap(ignored -> createVersion("1.4.3"))
+                .flatMap(ignored -> createVersion("1.4.10-rc.1"))
+                .flatMap(ignored -> createVersion("2.1.0-rc.1"))
+                .await()
+                .indefinitely();
+
+        assertEquals("1.4.3", versionDaoAdapter.resolveName(null, STRUCTURE_NAME, "^1.4").await().indefinitely());
+        assertEquals("2.0.0", versionDaoAdapter.resolveName(null, STRUCTURE_NAME, "~2.0").await().indefinitely());
+        assertEquals("2.0.0", versionDaoAdapter.resolveName(null, STRUCTURE_NAME, "latest-stable").await().indefinitely());
+        given()
+                .queryParams(Map.of(
+                        "structureName", STRUCTURE_NAME,
+                        "versionName", "^1.4"
+                ))
+                .get("/versions")
+                .then()
+                .statusCode(OK);
+        given()
+                .queryParams(Map.of(
+                        "structureName", STRUCTURE_NAME,
+                        "versionName", "^3"
+                ))
+                .get("/versions")
+                .then()
+                .statusCode(INTERNAL_SERVER_ERROR);
+    }
+
+    @Test
+    void processFiltered() {
+        givenVersion();
+        var expected = entries(new File(UPLOADING_FILE_PATH));
+        var manifest = Map.of("manifest/MANIFEST.MF", expected.get("manifest/MANIFEST.MF"));
+        var adapter = Map.of("polymatica-adapter", expected.get("polymatica-adapter"));
+
+        assertEquals(manifest, filteredEntries(Map.of(
+                "structureName", STRUCTURE_NAME,
+                "versionName", VERSION_NAME,
+                "pathPrefix", "manifest/"
+        )));
+        assertEquals(adapter, filteredEntries(Map.of(
+                "structureName", STRUCTURE_NAME,
+                "versionName", VERSION_NAME,
+                "pathGlob", "poly*"
+        )));
+        assertEquals(manifest, filteredEntries(Map.of(
+                "structureName", STRUCTURE_NAME,
+                "versionName", VERSION_NAME,
+                "pathGlob", "**/*.MF"
+        )));
+        assertEquals(Map.of(), filteredEntries(Map.of(
+                "structureName", STRUCTURE_NAME,
+                "versionName", VERSION_NAME,
+                "pathPrefix", "manifest/",
+                "pathGlob", "poly*"
+        )));
+    }
+
     //quarkus не умеет работать с @MethodSource (https://github.com/quarkusio/quarkus/issues/21031)
     @RequiredArgsConstructor
     private enum QueryParamsByVersion {
@@ -71,6 +140,17 @@ class GetVersionOperationTest extends OperationTest {
                 .join();
     }
 
+    private Map<String, String> filteredEntries(Map<String, String> queryParams) {
+        var response = given()
+                .queryParams(queryParams)
+                .get("/versions")
+                .then()
+                .statusCode(OK)
+                .extract()
+                .asByteArray();
+        return entries(response);
+    }
+
     private void thenResponseContent(Response response) throws IOException {
         var paths = paths();
         try (var inputStream = response.asInputStream();
@@ -0,0 +1,109 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.quarkus.test.common.http.TestHTTPEndpoint;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.schemaregistry.configuration.MemoryBlobStoreTestProfile;
+import ru.craftysoft.schemaregistry.controller.StructuresController;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.SchemasRecord;
+import ru.craftysoft.schemaregistry.model.rest.AcceptedResponseData;
+import ru.craftysoft.schemaregistry.service.blob.MemoryBlobStore;
+import software.amazon.awssdk.services.s3.model.ListObjectsRequest;
+
+import javax.inject.Inject;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static org.jboss.resteasy.reactive.RestResponse.StatusCode.OK;
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.SCHEMAS;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.VERSIONS;
+
+@QuarkusTest
+@TestProfile(MemoryBlobStoreTestProfile.class)
+@TestHTTPEndpoint(StructuresController.class)
+class MemoryBlobStoreOperationTest extends OperationTest {
+
+    @Inject
+    MemoryBlobStore memoryBlobStore;
+
+    @AfterEach
+    @Override
+    protected void cleanUp() {
+        super.cleanUp();
+        memoryBlobStore.clear();
+    }
+
+    @Test
+    @SneakyThrows
+    void process() {
+        var givenVersion = createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
+
+        var links = links(givenVersion.getVersionId());
+        assertFalse(links.isEmpty());
+        assertTrue(links.stream().allMatch(link -> link.startsWith("mem://")));
+        assertEquals(links, memoryBlobStore.links());
+        var listObjectsRequest = ListObjectsRequest.builder()
+                .bucket(bucket)
+                .build();
+        assertTrue(s3.listObjects(listObjectsRequest).join().contents().isEmpty());
+
+        var response = given()
+                .queryParams(
+                        "structureName", STRUCTURE_NAME,
+                        "versionName", VERSION_NAME
+                )
+                .get("/versions")
+                .then()
+                .statusCode(OK)
+                .extract()
+                .asByteArray();
+
+        assertArrayEquals(Files.readAllBytes(Path.of(UPLOADING_FILE_PATH)), response);
+    }
+
+    @Test
+    void processDelete() {
+        var givenVersion = createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
+
+        var response = given()
+                .delete("/versions/{id}", String.valueOf(givenVersion.getVersionId()))
+                .then()
+                .statusCode(OK)
+                .extract()
+                .response()
+                .as(AcceptedResponseData.class);
+
+        assertEquals(1, response.getCount());
+        assertTrue(memoryBlobStore.links().isEmpty());
+    }
+
+    private Set<String> links(long versionId) {
+        var links = testDslContext.selectFrom(SCHEMAS)
+                .where(SCHEMAS.VERSION_ID.eq(versionId))
+                .fetch()
+                .stream()
+                .map(SchemasRecord::getLink)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(HashSet::new));
+        links.add(testDslContext.selectFrom(VERSIONS)
+                .where(VERSIONS.ID.eq(versionId))
+                .fetchOptional()
+                .orElseThrow()
+                .getLink());
+        return links;
+    }
+
+}
@@ -0,0 +1,204 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.quarkus.test.common.http.TestHTTPEndpoint;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import lombok.SneakyThrows;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.schemaregistry.configuration.CatalogTestProfile;
+import ru.craftysoft.schemaregistry.controller.StructuresController;
+import ru.craftysoft.schemaregistry.dto.intermediate.ChangeNotification;
+import ru.craftysoft.schemaregistry.dto.intermediate.SchemaLocation;
+import ru.craftysoft.schemaregistry.dto.intermediate.StructureDescriptor;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.SchemasRecord;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.VersionsRecord;
+import ru.craftysoft.schemaregistry.model.rest.ChangeType;
+import ru.craftysoft.schemaregistry.model.rest.CreateVersionResponseData;
+import ru.craftysoft.schemaregistry.service.catalog.MetadataCatalog;
+
+import javax.inject.Inject;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static org.jboss.resteasy.reactive.RestResponse.StatusCode.OK;
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.CHANGES;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.SCHEMAS;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.VERSIONS;
+
+/**
+ * Каталог загружается при старте и дальше обновляется по фиксации изменений на этом узле, уведомлениям и журналу изменений.
+ */
+@QuarkusTest
+@TestProfile(CatalogTestProfile.class)
+@TestHTTPEndpoint(StructuresController.class)
+class MetadataCatalogTest extends OperationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final String SECOND_VERSION_NAME = VERSION_NAME + "_2";
+    private static final String INLINE_PATH = "manifest/MANIFEST.MF";
+    private static final String STORED_PATH = "polymatica-adapter";
+
+    @Inject
+    MetadataCatalog metadataCatalog;
+
+    /**
+     * Структуры удаляются напрямую в БД, без уведомления, поэтому каталог перечитывает их явно.
+     */
+    @Override
+    protected void cleanUp() {
+        super.cleanUp();
+        metadataCatalog.invalidate(STRUCTURE_NAME);
+    }
+
+    @Test
+    void publishAndDelete() {
+        var firstVersion = createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
+        var secondVersion = createVersion(SECOND_VERSION_NAME)
+                .subscribeAsCompletionStage()
+                .join();
+
+        var descriptor = await(() -> metadataCatalog.getDescriptor(null, STRUCTURE_NAME), d -> d.versions().size() == 2);
+
+        assertEquals(Set.of(VERSION_NAME, SECOND_VERSION_NAME), versionNames(descriptor));
+        assertEquals(2 * paths().size(), descriptor.schemas().size());
+        assertEquals(descriptor.structure().getId(), metadataCatalog.getDescriptor(descriptor.structure().getId(), null).structure().getId());
+        var firstArchive = metadataCatalog.getVersionArchive(null, STRUCTURE_NAME, null, VERSION_NAME);
+        assertNotNull(firstArchive);
+        assertEquals(firstVersion.getVersionId(), firstArchive.versionId());
+        assertEquals(version(firstVersion).getLink(), firstArchive.link());
+        var secondArchive = metadataCatalog.getVersionArchive(null, null, secondVersion.getVersionId(), null);
+        assertNotNull(secondArchive);
+        assertEquals(version(secondVersion).getLink(), secondArchive.link());
+        var firstSchema = schema(firstVersion, STORED_PATH);
+        assertEquals(location(firstSchema), metadataCatalog.getSchemaLink(firstSchema.getId(), null, null, null));
+        assertEquals(location(firstSchema), metadataCatalog.getSchemaLink(null, STORED_PATH, VERSION_NAME, STRUCTURE_NAME));
+        var latestSchema = schema(secondVersion, STORED_PATH);
+        assertEquals(location(latestSchema), metadataCatalog.getSchemaLink(null, STORED_PATH, null, STRUCTURE_NAME));
+        // содержимое схем в БД каталог не хранит, они читаются из БД
+        assertNull(metadataCatalog.getSchemaLink(schema(firstVersion, INLINE_PATH).getId(), null, null, null));
+
+        given()
+                .delete("/versions/{id}", String.valueOf(firstVersion.getVersionId()))
+                .then()
+                .statusCode(OK);
+
+        var thenDescriptor = await(() -> metadataCatalog.getDescriptor(null, STRUCTURE_NAME), d -> d.versions().size() == 1);
+
+        assertEquals(Set.of(SECOND_VERSION_NAME), versionNames(thenDescriptor));
+        assertEquals(paths().size(), thenDescriptor.schemas().size());
+        assertNull(metadataCatalog.getVersionArchive(null, null, firstVersion.getVersionId(), null));
+        assertNull(metadataCatalog.getSchemaLink(firstSchema.getId(), null, null, null));
+        assertEquals(location(latestSchema), metadataCatalog.getSchemaLink(latestSchema.getId(), null, null, null));
+    }
+
+    @Test
+    void refreshOnNotification() {
+        var firstVersion = createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
+        var secondVersion = createVersion(SECOND_VERSION_NAME)
+                .subscribeAsCompletionStage()
+                .join();
+        var descriptor = await(() -> metadataCatalog.getDescriptor(null, STRUCTURE_NAME), d -> d.versions().size() == 2);
+
+        // удаление на другом узле: запись журнала и уведомление без локального сброса
+        var changeId = deleteVersionWithoutNotifying(descriptor, firstVersion);
+        testDslContext.select(DSL.field("pg_notify({0}, {1})", String.class,
+                        ChangeNotification.CHANNEL, new ChangeNotification(changeId, STRUCTURE_NAME).encode()))
+                .fetch();
+
+        var thenDescriptor = await(() -> metadataCatalog.getDescriptor(null, STRUCTURE_NAME), d -> d.versions().size() == 1);
+
+        assertEquals(Set.of(SECOND_VERSION_NAME), versionNames(thenDescriptor));
+        assertNull(metadataCatalog.getVersionArchive(null, null, firstVersion.getVersionId(), null));
+        assertNotNull(metadataCatalog.getVersionArchive(null, null, secondVersion.getVersionId(), null));
+    }
+
+    @Test
+    void resumeReplaysMissedChanges() {
+        var firstVersion = createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
+        var secondVersion = createVersion(SECOND_VERSION_NAME)
+                .subscribeAsCompletionStage()
+                .join();
+        var descriptor = await(() -> metadataCatalog.getDescriptor(null, STRUCTURE_NAME), d -> d.versions().size() == 2);
+
+        metadataCatalog.suspend();
+
+        assertNull(metadataCatalog.getDescriptor(null, STRUCTURE_NAME));
+        assertNull(metadataCatalog.getVersionArchive(null, null, secondVersion.getVersionId(), null));
+
+        // уведомление об удалении пропущено, пока канал не слушался
+        deleteVersionWithoutNotifying(descriptor, firstVersion);
+        metadataCatalog.resume();
+
+        var thenDescriptor = await(() -> metadataCatalog.getDescriptor(null, STRUCTURE_NAME), d -> d.versions().size() == 1);
+
+        assertEquals(Set.of(SECOND_VERSION_NAME), versionNames(thenDescriptor));
+        assertNull(metadataCatalog.getVersionArchive(null, null, firstVersion.getVersionId(), null));
+        assertNotNull(metadataCatalog.getVersionArchive(null, null, secondVersion.getVersionId(), null));
+    }
+
+    private long deleteVersionWithoutNotifying(StructureDescriptor descriptor, CreateVersionResponseData version) {
+        testDslContext.deleteFrom(VERSIONS)
+                .where(VERSIONS.ID.eq(version.getVersionId()))
+                .execute();
+        return testDslContext.insertInto(CHANGES, CHANGES.TYPE, CHANGES.STRUCTURE_ID, CHANGES.STRUCTURE_NAME, CHANGES.VERSION_ID, CHANGES.VERSION_NAME)
+                .values(ChangeType.VERSION_DELETED.toString(), descriptor.structure().getId(), STRUCTURE_NAME, version.getVersionId(), VERSION_NAME)
+                .returning(CHANGES.ID)
+                .fetchOne()
+                .getId();
+    }
+
+    private VersionsRecord version(CreateVersionResponseData version) {
+        return testDslContext.selectFrom(VERSIONS)
+                .where(VERSIONS.ID.eq(version.getVersionId()))
+                .fetchOne();
+    }
+
+    private SchemasRecord schema(CreateVersionResponseData version, String path) {
+        return testDslContext.selectFrom(SCHEMAS)
+                .where(SCHEMAS.VERSION_ID.eq(version.getVersionId()))
+                .and(SCHEMAS.PATH.eq(path))
+                .fetchOne();
+    }
+
+    private static SchemaLocation location(SchemasRecord schema) {
+        return schema.getContentOffset() == null
+                ? new SchemaLocation(schema.getLink())
+                : new SchemaLocation(schema.getLink(), schema.getContentOffset(), schema.getContentLength());
+    }
+
+    private static Set<String> versionNames(StructureDescriptor descriptor) {
+        return descriptor.versions().stream()
+                .map(VersionsRecord::getName)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Каталог обновляется асинхронно, до перечитывания структуры методы каталога возвращают {@code null}.
+     */
+    @SneakyThrows
+    private static <T> T await(Supplier<T> supplier, Predicate<T> condition) {
+        var deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            var value = supplier.get();
+            if (value != null && condition.test(value)) {
+                return value;
+            }
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        return fail("Каталог не обновился за " + TIMEOUT);
+    }
+
+}
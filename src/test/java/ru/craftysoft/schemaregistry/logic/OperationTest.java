@@ -7,22 +7,30 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import ru.craftysoft.schemaregistry.configuration.TestDslContext;
 import ru.craftysoft.schemaregistry.model.rest.CreateVersionResponseData;
+import ru.craftysoft.schemaregistry.service.cache.SchemaLinkCache;
+import ru.craftysoft.schemaregistry.service.cache.VersionRangeCache;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.model.*;
 
 import javax.inject.Inject;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.CHANGES;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.PUBLISH_JOBS;
 import static ru.craftysoft.schemaregistry.model.jooq.Tables.STRUCTURES;
 
 class OperationTest {
@@ -43,6 +51,12 @@ class OperationTest {
     @Inject
     protected CreateVersionOperation createVersionOperation;
 
+    @Inject
+    protected SchemaLinkCache schemaLinkCache;
+
+    @Inject
+    protected VersionRangeCache versionRangeCache;
+
     @BeforeEach
     protected void setUp() {
         var createBucketRequest = CreateBucketRequest.builder()
@@ -53,12 +67,11 @@ class OperationTest {
 
     @AfterEach
     protected void cleanUp() {
-        try {
-            Files.delete(Path.of("result.zip"));
-        } catch (IOException e) {
-            //noop
-        }
         testDslContext.deleteFrom(STRUCTURES).execute();
+        testDslContext.deleteFrom(PUBLISH_JOBS).execute();
+        testDslContext.deleteFrom(CHANGES).execute();
+        schemaLinkCache.invalidateAll();
+        versionRangeCache.invalidateAll();
         var listObjectsRequest = ListObjectsRequest.builder()
                 .bucket(bucket)
                 .build();
@@ -104,4 +117,64 @@ class OperationTest {
         }
     }
 
+    /**
+     * Содержимое схемы из тестового архива.
+     */
+    @SneakyThrows
+    protected static byte[] content(String path) {
+        try (var zip = new ZipFile(UPLOADING_FILE_PATH);
+             var inputStream = zip.getInputStream(zip.getEntry(path))) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    /**
+     * Архив дельты с указанными схемами, содержимое каждой схемы - {@link #deltaContent(String)}.
+     */
+    @SneakyThrows
+    protected static File delta(String... paths) {
+        var file = Files.createTempFile("delta_", ".zip");
+        try (var zip = new ZipOutputStream(Files.newOutputStream(file))) {
+            for (var path : paths) {
+                zip.putNextEntry(new ZipEntry(path));
+                zip.write(deltaContent(path));
+                zip.closeEntry();
+            }
+        }
+        file.toFile().deleteOnExit();
+        return file.toFile();
+    }
+
+    protected static byte[] deltaContent(String path) {
+        return ("{\"path\":\"" + path + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @SneakyThrows
+    protected static Map<String, String> entries(File archive) {
+        var entries = new HashMap<String, String>();
+        try (var zip = new ZipFile(archive)) {
+            for (var entry : Collections.list(zip.entries())) {
+                if (!entry.isDirectory()) {
+                    try (var inputStream = zip.getInputStream(entry)) {
+                        entries.put(entry.getName(), new String(inputStream.readAllBytes()));
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+
+    @SneakyThrows
+    protected static Map<String, String> entries(byte[] archive) {
+        var entries = new HashMap<String, String>();
+        try (var zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            for (var entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                if (!entry.isDirectory()) {
+                    entries.put(entry.getName(), new String(zip.readAllBytes()));
+                }
+            }
+        }
+        return entries;
+    }
+
 }
@@ -0,0 +1,121 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.common.http.TestHTTPEndpoint;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.Header;
+import io.smallrye.mutiny.Multi;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.schemaregistry.configuration.ReplicaTestProfile;
+import ru.craftysoft.schemaregistry.controller.StructuresController;
+import ru.craftysoft.schemaregistry.model.rest.GetStructureDescriptorResponseData;
+import ru.craftysoft.schemaregistry.util.ReplicaRouter;
+import ru.craftysoft.schemaregistry.util.SessionLsn;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.internal.multipart.MultiPartInternal.OCTET_STREAM;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static org.jboss.resteasy.reactive.RestResponse.StatusCode.OK;
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+@TestProfile(ReplicaTestProfile.class)
+@Slf4j
+@TestHTTPEndpoint(StructuresController.class)
+class ReadReplicaRoutingTest extends OperationTest {
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    ReplicaRouter replicaRouter;
+
+    @Test
+    void processWithSessionLsn() {
+        var lsn = given()
+                .queryParams(
+                        "structureName", STRUCTURE_NAME,
+                        "versionName", VERSION_NAME
+                )
+                .body(new File(UPLOADING_FILE_PATH))
+                .header(new Header(CONTENT_TYPE, OCTET_STREAM))
+                .post("/versions")
+                .then()
+                .extract()
+                .header(SessionLsn.HEADER);
+        assertNotNull(lsn);
+        replicaRouter.checkLag().await().indefinitely();
+        var replicaReads = meterRegistry.counter("db.replica.reads").count();
+
+        var response = given()
+                .queryParam("name", STRUCTURE_NAME)
+                .header(SessionLsn.HEADER, lsn)
+                .get("/")
+                .then()
+                .statusCode(OK)
+                .extract()
+                .as(GetStructureDescriptorResponseData.class);
+
+        assertEquals(STRUCTURE_NAME, response.getName());
+        assertTrue(meterRegistry.counter("db.replica.reads").count() > replicaReads);
+    }
+
+    @Test
+    void processWithSessionLsnAheadOfReplica() {
+        createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
+        var fallbacks = meterRegistry.counter("db.replica.fallbacks", "reason", "lsn").count();
+
+        given()
+                .queryParam("name", STRUCTURE_NAME)
+                .header(SessionLsn.HEADER, "7FFFFFFF/0")
+                .get("/")
+                .then()
+                .statusCode(OK);
+
+        assertTrue(meterRegistry.counter("db.replica.fallbacks", "reason", "lsn").count() > fallbacks);
+    }
+
+    @Test
+    void readMultiFallsBackBeforeFirstItem() {
+        replicaRouter.checkLag().await().indefinitely();
+        var fallbacks = meterRegistry.counter("db.replica.fallbacks", "reason", "error").count();
+
+        var items = replicaRouter.readMulti(log, "ReadReplicaRoutingTest", client -> client == replicaRouter.getReplica()
+                        ? Multi.createFrom().<Integer>failure(new RuntimeException("replica"))
+                        : Multi.createFrom().items(1, 2, 3))
+                .collect()
+                .asList()
+                .await()
+                .indefinitely();
+
+        assertEquals(List.of(1, 2, 3), items);
+        assertTrue(meterRegistry.counter("db.replica.fallbacks", "reason", "error").count() > fallbacks);
+    }
+
+    @Test
+    void readMultiFailsAfterFirstItem() {
+        replicaRouter.checkLag().await().indefinitely();
+        var items = new ArrayList<Integer>();
+
+        var multi = replicaRouter.readMulti(log, "ReadReplicaRoutingTest", client -> client == replicaRouter.getReplica()
+                        ? Multi.createBy().concatenating().streams(Multi.createFrom().items(1, 2), Multi.createFrom().<Integer>failure(new RuntimeException("replica")))
+                        : Multi.createFrom().items(1, 2, 3))
+                .invoke(items::add)
+                .collect()
+                .asList();
+
+        var exception = assertThrows(RuntimeException.class, () -> multi.await().indefinitely());
+        assertEquals("replica", exception.getMessage());
+        assertEquals(List.of(1, 2), items);
+    }
+
+}
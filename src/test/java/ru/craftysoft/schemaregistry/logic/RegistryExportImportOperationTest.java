@@ -0,0 +1,211 @@
+package ru.craftysoft.schemaregistry.logic;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.test.common.http.TestHTTPEndpoint;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.Header;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.schemaregistry.configuration.PackedSchemasTestProfile;
+import ru.craftysoft.schemaregistry.controller.RegistryController;
+import ru.craftysoft.schemaregistry.controller.SchemasController;
+import ru.craftysoft.schemaregistry.model.rest.ImportRegistryResponseData;
+import ru.craftysoft.schemaregistry.model.rest.RegistryExportLineData;
+import ru.craftysoft.schemaregistry.model.rest.RegistryExportLineType;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static javax.ws.rs.core.MediaType.APPLICATION_OCTET_STREAM;
+import static org.jboss.resteasy.reactive.RestResponse.StatusCode.OK;
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.SCHEMAS;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.STRUCTURES;
+import static ru.craftysoft.schemaregistry.model.jooq.Tables.VERSIONS;
+
+/**
+ * Схема {@code manifest/MANIFEST.MF} тестового архива хранится в БД, {@code polymatica-adapter} - в общем объекте S3,
+ * содержимое обеих сравнивается с архивом после выгрузки и после загрузки.
+ */
+@QuarkusTest
+@TestProfile(PackedSchemasTestProfile.class)
+@TestHTTPEndpoint(RegistryController.class)
+class RegistryExportImportOperationTest extends OperationTest {
+
+    private static final String SECOND_VERSION_NAME = VERSION_NAME + "_2";
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @TestHTTPEndpoint(SchemasController.class)
+    @TestHTTPResource
+    URL schemasUrl;
+
+    @Test
+    void export() {
+        var givenVersion = createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
+
+        var lines = export(0);
+
+        assertEquals(RegistryExportLineType.VERSION, lines.get(0).getType());
+        assertEquals(STRUCTURE_NAME, lines.get(0).getStructureName());
+        assertEquals(VERSION_NAME, lines.get(0).getVersionName());
+        assertEquals(RegistryExportLineType.CHECKPOINT, lines.get(lines.size() - 1).getType());
+        assertTrue(lines.stream().allMatch(line -> givenVersion.getVersionId().equals(line.getVersionId())));
+        var schemas = schemas(lines);
+        assertEquals(paths(), schemas.keySet());
+        schemas.forEach((path, content) -> assertArrayEquals(content(path), content, path));
+        assertTrue(export(givenVersion.getVersionId()).isEmpty());
+    }
+
+    @Test
+    void exportSkipsVersionWithoutSchemas() {
+        var givenVersion = createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
+        // версия без схем, как удалённая после чтения курсора версий
+        testDslContext.insertInto(VERSIONS, VERSIONS.NAME, VERSIONS.STRUCTURE_ID)
+                .values(SECOND_VERSION_NAME, givenVersion.getStructureId())
+                .execute();
+
+        var lines = export(0);
+
+        assertTrue(lines.stream().allMatch(line -> givenVersion.getVersionId().equals(line.getVersionId())));
+        assertEquals(paths(), schemas(lines).keySet());
+        assertTrue(export(givenVersion.getVersionId()).isEmpty());
+    }
+
+    @Test
+    void importExported() {
+        var givenVersion = createDefaultVersion()
+                .flatMap(ignored -> createVersion(SECOND_VERSION_NAME))
+                .subscribeAsCompletionStage()
+                .join();
+        var exported = export(0);
+        var file = file(exported);
+        var expectedSchemas = storedSchemas();
+        cleanUp();
+
+        var response = importFile(file);
+
+        assertEquals(2, response.getImported());
+        assertEquals(0, response.getSkipped());
+        assertEquals(givenVersion.getVersionId(), response.getLastVersionId());
+        assertEquals(expectedSchemas, storedSchemas());
+        for (var versionName : Set.of(VERSION_NAME, SECOND_VERSION_NAME)) {
+            for (var path : paths()) {
+                assertArrayEquals(content(path), schemaContent(versionName, path), versionName + "/" + path);
+            }
+        }
+
+        var repeated = importFile(file);
+
+        assertEquals(0, repeated.getImported());
+        assertEquals(2, repeated.getSkipped());
+    }
+
+    @Test
+    void importWithoutCheckpoint() {
+        createDefaultVersion()
+                .subscribeAsCompletionStage()
+                .join();
+        var exported = export(0);
+        cleanUp();
+
+        var response = importFile(file(exported.subList(0, exported.size() - 1)));
+
+        assertEquals(0, response.getImported());
+        assertNull(response.getLastVersionId());
+        assertEquals(0, testDslContext.fetchCount(VERSIONS));
+    }
+
+    private List<RegistryExportLineData> export(long afterVersionId) {
+        var body = given()
+                .queryParam("afterVersionId", afterVersionId)
+                .get("/export")
+                .then()
+                .statusCode(OK)
+                .extract()
+                .asString();
+        return body.lines()
+                .filter(line -> !line.isBlank())
+                .map(this::parse)
+                .toList();
+    }
+
+    private ImportRegistryResponseData importFile(File file) {
+        return given()
+                .body(file)
+                .header(new Header(CONTENT_TYPE, APPLICATION_OCTET_STREAM))
+                .post("/import")
+                .then()
+                .statusCode(OK)
+                .extract()
+                .response()
+                .as(ImportRegistryResponseData.class);
+    }
+
+    private byte[] schemaContent(String versionName, String path) {
+        return given()
+                .queryParam("schemaPath", path)
+                .queryParam("structureName", STRUCTURE_NAME)
+                .queryParam("versionName", versionName)
+                .get(schemasUrl)
+                .then()
+                .statusCode(OK)
+                .extract()
+                .asByteArray();
+    }
+
+    private Map<String, String> storedSchemas() {
+        return testDslContext.select(STRUCTURES.NAME, VERSIONS.NAME, SCHEMAS.PATH)
+                .from(SCHEMAS)
+                .join(VERSIONS).on(VERSIONS.ID.eq(SCHEMAS.VERSION_ID))
+                .join(STRUCTURES).on(STRUCTURES.ID.eq(VERSIONS.STRUCTURE_ID))
+                .fetch()
+                .stream()
+                .collect(Collectors.toMap(
+                        record -> record.get(VERSIONS.NAME) + "/" + record.get(SCHEMAS.PATH),
+                        record -> record.get(STRUCTURES.NAME)
+                ));
+    }
+
+    private static Map<String, byte[]> schemas(List<RegistryExportLineData> lines) {
+        var schemas = new HashMap<String, byte[]>();
+        lines.stream()
+                .filter(line -> line.getType() == RegistryExportLineType.SCHEMA)
+                .forEach(line -> schemas.put(line.getPath(), line.getContent()));
+        return schemas;
+    }
+
+    @SneakyThrows
+    private RegistryExportLineData parse(String line) {
+        return objectMapper.readValue(line, RegistryExportLineData.class);
+    }
+
+    @SneakyThrows
+    private File file(List<RegistryExportLineData> lines) {
+        var file = Files.createTempFile("registry_", ".ndjson");
+        var content = new StringBuilder();
+        for (var line : lines) {
+            content.append(objectMapper.writeValueAsString(line)).append('\n');
+        }
+        Files.writeString(file, content);
+        file.toFile().deleteOnExit();
+        return file.toFile();
+    }
+
+}
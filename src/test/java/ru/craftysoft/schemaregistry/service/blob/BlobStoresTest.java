@@ -0,0 +1,30 @@
+package ru.craftysoft.schemaregistry.service.blob;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BlobStoresTest {
+
+    @Test
+    void scheme() {
+        assertEquals("s3", BlobStores.scheme("bucket/schema_1"));
+        assertEquals("file", BlobStores.scheme("file://bucket/schema_1"));
+        assertEquals("mem", BlobStores.scheme("mem://schema_1"));
+    }
+
+    @Test
+    void keys() {
+        var uuid = UUID.randomUUID();
+
+        assertEquals("schema_" + uuid, BlobKeys.key("schema", uuid, 0));
+        assertEquals(uuid.toString().substring(0, 2) + "/schema_" + uuid, BlobKeys.key("schema", uuid, 2));
+        assertEquals(uuid, BlobKeys.uuid("bucket/" + BlobKeys.key("schema", uuid, 2), "schema"));
+        assertNull(BlobKeys.uuid("bucket/pack_" + uuid, "schema"));
+        assertNull(BlobKeys.uuid("bucket/schema_1", "schema"));
+    }
+
+}
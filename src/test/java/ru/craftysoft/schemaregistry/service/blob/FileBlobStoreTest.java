@@ -0,0 +1,97 @@
+package ru.craftysoft.schemaregistry.service.blob;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.mutiny.core.Vertx;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.craftysoft.schemaregistry.service.executor.WorkerExecutors;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileBlobStoreTest {
+
+    private static Vertx vertx;
+    private static WorkerExecutors workerExecutors;
+
+    @TempDir
+    Path root;
+
+    private FileBlobStore store;
+
+    @BeforeAll
+    static void startVertx() {
+        vertx = Vertx.vertx();
+        workerExecutors = new WorkerExecutors(vertx, new SimpleMeterRegistry(), 2, 2);
+    }
+
+    @AfterAll
+    static void stopVertx() {
+        vertx.closeAndAwait();
+    }
+
+    @BeforeEach
+    void setUp() {
+        store = new FileBlobStore(workerExecutors, root.toString());
+    }
+
+    @Test
+    void putAndGet() {
+        var link = store.link("structure", "bucket/schema");
+        store.put(link, "0123456789".getBytes()).await().indefinitely();
+
+        assertEquals("file://bucket/schema", link);
+        assertArrayEquals("0123456789".getBytes(), store.get(link, BlobReadOperation.schema).await().indefinitely());
+        assertArrayEquals("345".getBytes(), store.getRange(link, 3, 3, BlobReadOperation.schema).await().indefinitely());
+        assertThrows(RuntimeException.class, () -> store.getRange(link, 8, 3, BlobReadOperation.schema).await().indefinitely());
+        try (var files = Files.list(root.resolve("bucket"))) {
+            assertEquals(1, files.count());
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    @Test
+    void streamAndDownload() throws Exception {
+        var content = new byte[200_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        var source = Files.write(root.resolve("source.zip"), content);
+        var link = store.link("structure", "version");
+        store.put(link, source).await().indefinitely();
+
+        var streamed = new ByteArrayOutputStream();
+        var chunks = store.stream(link, BlobReadOperation.version)
+                .collect()
+                .asList()
+                .await()
+                .indefinitely();
+        chunks.forEach(streamed::writeBytes);
+        assertEquals(4, chunks.size());
+        assertArrayEquals(content, streamed.toByteArray());
+
+        var target = Files.createFile(root.resolve("target.zip"));
+        store.download(link, target, BlobReadOperation.version).await().indefinitely();
+        assertArrayEquals(content, Files.readAllBytes(target));
+
+        store.delete(Set.of(link)).await().indefinitely();
+        assertThrows(RuntimeException.class, () -> store.get(link, BlobReadOperation.version).await().indefinitely());
+    }
+
+    @Test
+    void pathOutsideRoot() {
+        assertThrows(RuntimeException.class, () -> store.path("file://../outside"));
+        assertThrows(RuntimeException.class, () -> store.path("file://"));
+        assertThrows(RuntimeException.class, () -> store.path("bucket/schema"));
+        assertEquals(root.resolve("a/b"), store.path("file://a/./b"));
+    }
+
+}
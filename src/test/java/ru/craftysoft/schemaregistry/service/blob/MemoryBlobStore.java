@@ -0,0 +1,92 @@
+package ru.craftysoft.schemaregistry.service.blob;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.unchecked.Unchecked;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Хранилище в памяти для тестов, ссылки имеют вид {@code mem://<key>}.
+ */
+@ApplicationScoped
+public class MemoryBlobStore implements BlobStore {
+
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+
+    @Override
+    public String scheme() {
+        return "mem";
+    }
+
+    @Override
+    public String link(String routingKey, String key) {
+        return "mem://" + key;
+    }
+
+    @Override
+    public Uni<byte[]> get(String link, BlobReadOperation operation) {
+        return Uni.createFrom().item(() -> object(link));
+    }
+
+    @Override
+    public Uni<byte[]> getRange(String link, long offset, int length, BlobReadOperation operation) {
+        return get(link, operation)
+                .map(content -> Arrays.copyOfRange(content, Math.toIntExact(offset), Math.toIntExact(offset + length)));
+    }
+
+    @Override
+    public Multi<byte[]> stream(String link, BlobReadOperation operation) {
+        return get(link, operation).toMulti();
+    }
+
+    @Override
+    public Uni<Void> download(String link, Path target, BlobReadOperation operation) {
+        return get(link, operation)
+                .map(Unchecked.function(content -> Files.write(target, content)))
+                .replaceWithVoid();
+    }
+
+    @Override
+    public Uni<Void> put(String link, byte[] content) {
+        return Uni.createFrom().item(() -> objects.put(link, content.clone()))
+                .replaceWithVoid();
+    }
+
+    @Override
+    public Uni<Void> put(String link, Path file) {
+        return Uni.createFrom().item(Unchecked.supplier(() -> Files.readAllBytes(file)))
+                .flatMap(content -> put(link, content));
+    }
+
+    @Override
+    public Uni<Void> delete(Set<String> links) {
+        return Uni.createFrom().item(() -> {
+            links.forEach(objects::remove);
+            return null;
+        });
+    }
+
+    public Set<String> links() {
+        return Set.copyOf(objects.keySet());
+    }
+
+    public void clear() {
+        objects.clear();
+    }
+
+    private byte[] object(String link) {
+        var content = objects.get(link);
+        if (content == null) {
+            throw new RuntimeException("Объект %s не найден".formatted(link));
+        }
+        return content;
+    }
+
+}
@@ -0,0 +1,182 @@
+package ru.craftysoft.schemaregistry.service.catalog;
+
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.schemaregistry.builder.intermediate.CatalogStructureBuilder;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.SchemasRecord;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.StructuresRecord;
+import ru.craftysoft.schemaregistry.model.jooq.tables.records.VersionsRecord;
+import ru.craftysoft.schemaregistry.service.blob.BlobKeys;
+import ru.craftysoft.schemaregistry.util.LongObjectMap;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogIndexTest {
+
+    private final CatalogStructureBuilder builder = new CatalogStructureBuilder(2);
+    private final OffsetDateTime now = OffsetDateTime.now();
+
+    @Test
+    void lookups() {
+        var schemaLink = "bucket/schema_" + UUID.randomUUID();
+        var index = new CatalogIndex();
+        index.put(structure(1, "test", List.of(
+                new VersionsRecord(10L, "v1", 1L, "bucket/version_1", now, null, null, null, null),
+                new VersionsRecord(11L, "v2", 1L, "bucket/version_2", now, null, null, null, null)
+        ), List.of(
+                new SchemasRecord(100L, "b.json", 10L, schemaLink, null, null, null, null),
+                new SchemasRecord(101L, "a.json", 10L, "other/schema_1", null, null, null, null),
+                new SchemasRecord(102L, "a.json", 11L, "bucket/schema_" + UUID.randomUUID(), null, null, null, null)
+        )));
+
+        var structure = index.structure("test");
+        assertNotNull(structure);
+        assertSame(structure, index.structure(1));
+        assertEquals("v2", structure.latestVersion().name());
+        var version = structure.version("v1");
+        assertNotNull(version);
+        assertEquals(schemaLink, version.schemaLink(version.indexOfPath("b.json")));
+        assertEquals("other/schema_1", version.schemaLink(version.indexOfPath("a.json")));
+        assertTrue(version.indexOfPath("c.json") < 0);
+        assertSame(version, index.versionBySchemaId(100));
+        assertEquals(1, version.indexOfSchemaId(100));
+        assertEquals(0, version.indexOfSchemaId(101));
+        assertTrue(version.indexOfSchemaId(102) < 0);
+        assertEquals("bucket/version_2", index.version(11).link());
+        assertEquals(3, index.schemasCount());
+
+        var descriptor = builder.toDescriptor(structure);
+        assertEquals(2, descriptor.versions().size());
+        assertEquals(3, descriptor.schemas().size());
+    }
+
+    @Test
+    void packedLocations() {
+        var packLink = "bucket/pack_" + UUID.randomUUID();
+        var index = new CatalogIndex();
+        index.put(structure(1, "test", List.of(
+                new VersionsRecord(10L, "v1", 1L, null, now, null, null, null, null)
+        ), List.of(
+                new SchemasRecord(100L, "a.json", 10L, packLink, null, 0L, 5, null),
+                new SchemasRecord(101L, "b.json", 10L, new String(packLink), null, 5L, 7, null),
+                new SchemasRecord(102L, "c.json", 10L, "bucket/schema_" + UUID.randomUUID(), null, null, null, null)
+        )));
+
+        var version = index.version(10);
+        var a = version.schemaLocation(version.indexOfPath("a.json"));
+        var b = version.schemaLocation(version.indexOfPath("b.json"));
+        var c = version.schemaLocation(version.indexOfPath("c.json"));
+        assertEquals(packLink, b.link());
+        assertSame(a.link(), b.link());
+        assertEquals(5L, b.offset());
+        assertEquals(7, b.length());
+        assertFalse(c.packed());
+
+        var schemas = builder.toDescriptor(index.structure("test")).schemas();
+        assertTrue(schemas.stream().anyMatch(schema -> schema.getId() == 101L && schema.getContentOffset() == 5L && schema.getContentLength() == 7));
+    }
+
+    @Test
+    void inlineSchemas() {
+        var schemaLink = "bucket/schema_" + UUID.randomUUID();
+        var index = new CatalogIndex();
+        index.put(structure(1, "test", List.of(
+                new VersionsRecord(10L, "v1", 1L, null, now, null, null, null, null)
+        ), List.of(
+                new SchemasRecord(100L, "a.json", 10L, null, null, null, null, null),
+                new SchemasRecord(101L, "b.json", 10L, schemaLink, null, null, null, null)
+        )));
+
+        var version = index.version(10);
+        assertNull(version.schemaLocation(version.indexOfPath("a.json")));
+        assertEquals(schemaLink, version.schemaLocation(version.indexOfPath("b.json")).link());
+        assertTrue(builder.toDescriptor(index.structure("test")).schemas().stream()
+                .anyMatch(schema -> schema.getId() == 100L && schema.getLink() == null));
+    }
+
+    @Test
+    void partitionedLinks() {
+        var first = UUID.randomUUID();
+        var second = UUID.randomUUID();
+        var firstLink = "bucket-1/" + BlobKeys.key("schema", first, 2);
+        var secondLink = "bucket-2/" + BlobKeys.key("schema", second, 2);
+        var legacyLink = "bucket/schema_" + UUID.randomUUID();
+        var index = new CatalogIndex();
+        index.put(structure(1, "test", List.of(
+                new VersionsRecord(10L, "v1", 1L, null, now, null, null, null, null),
+                new VersionsRecord(11L, "v2", 1L, null, now, null, null, null, null)
+        ), List.of(
+                new SchemasRecord(100L, "a.json", 10L, firstLink, null, null, null, null),
+                new SchemasRecord(101L, "b.json", 10L, legacyLink, null, null, null, null),
+                new SchemasRecord(102L, "a.json", 11L, secondLink, null, null, null, null)
+        )));
+
+        var mixed = index.version(10);
+        assertEquals(firstLink, mixed.schemaLink(mixed.indexOfPath("a.json")));
+        assertEquals(legacyLink, mixed.schemaLink(mixed.indexOfPath("b.json")));
+        var partitioned = index.version(11);
+        assertEquals(secondLink, partitioned.schemaLink(partitioned.indexOfPath("a.json")));
+        assertEquals(second.toString().substring(0, 2), secondLink.split("/")[1]);
+    }
+
+    @Test
+    void replaceAndRemove() {
+        var index = new CatalogIndex();
+        index.put(structure(1, "test", List.of(
+                new VersionsRecord(10L, "v1", 1L, "bucket/version_1", now, null, null, null, null)
+        ), List.of(
+                new SchemasRecord(100L, "a.json", 10L, "bucket/schema_" + UUID.randomUUID(), null, null, null, null)
+        )));
+        index.put(structure(1, "test", List.of(
+                new VersionsRecord(11L, "v2", 1L, "bucket/version_2", now, null, null, null, null)
+        ), List.of()));
+
+        assertNull(index.version(10));
+        assertNull(index.versionBySchemaId(100));
+        assertNull(index.structure("test").version("v1"));
+        assertEquals(1, index.versionsCount());
+        assertEquals(0, index.schemasCount());
+
+        index.remove("test");
+
+        assertNull(index.structure("test"));
+        assertNull(index.structure(1));
+        assertNull(index.version(11));
+        assertEquals(0, index.structuresCount());
+    }
+
+    @Test
+    void longObjectMap() {
+        var map = new LongObjectMap<Long>();
+        var expected = new HashMap<Long, Long>();
+        for (long i = 1; i <= 10_000; i++) {
+            var key = i * 31;
+            map.put(key, i);
+            expected.put(key, i);
+        }
+        for (long i = 1; i <= 10_000; i += 3) {
+            map.remove(i * 31);
+            expected.remove(i * 31);
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long i = 1; i <= 10_000; i++) {
+            assertEquals(expected.get(i * 31), map.get(i * 31));
+        }
+    }
+
+    private CatalogStructure structure(long id, String name, List<VersionsRecord> versions, List<SchemasRecord> schemas) {
+        var schemasByVersionId = new HashMap<Long, List<SchemasRecord>>();
+        for (var schema : schemas) {
+            schemasByVersionId.computeIfAbsent(schema.getVersionId(), ignored -> new ArrayList<>()).add(schema);
+        }
+        return builder.build(new StructuresRecord(id, name, now, now, null), versions, Map.copyOf(schemasByVersionId));
+    }
+
+}
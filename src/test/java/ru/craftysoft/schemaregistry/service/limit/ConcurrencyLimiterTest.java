@@ -0,0 +1,135 @@
+package ru.craftysoft.schemaregistry.service.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.TimeoutException;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import io.smallrye.mutiny.subscription.UniEmitter;
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.schemaregistry.exception.OverloadedException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void rejectsOverLimit() {
+        var limiter = limiter(2, 1, 10);
+        var emitters = new ArrayList<UniEmitter<? super String>>();
+        hold(limiter, emitters, 2);
+
+        var failure = new AtomicReference<Throwable>();
+        limiter.execute(() -> Uni.createFrom().item("value"))
+                .subscribe().with(item -> {
+                }, failure::set);
+
+        assertInstanceOf(OverloadedException.class, failure.get());
+        assertEquals(Duration.ofSeconds(1), ((OverloadedException) failure.get()).getRetryAfter());
+        assertEquals(1, meterRegistry.counter("limiter.rejected", "workload", "test").count());
+
+        emitters.get(0).complete("value");
+
+        assertEquals("value", limiter.execute(() -> Uni.createFrom().item("value")).await().indefinitely());
+        assertEquals(1, limiter.getInflight());
+    }
+
+    @Test
+    void decreasesOnTimeouts() {
+        var limiter = limiter(10, 2, 100);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.execute(() -> Uni.createFrom().failure(new TimeoutException()))
+                    .subscribe().with(item -> {
+                    }, throwable -> {
+                    });
+        }
+
+        assertTrue(limiter.getLimit() < 10);
+        assertTrue(limiter.getLimit() >= 2);
+        assertEquals(0, limiter.getInflight());
+    }
+
+    @Test
+    void growsWhenSaturatedWithStableLatency() {
+        var limiter = limiter(4, 1, 100);
+
+        for (int round = 0; round < 20; round++) {
+            var emitters = new ArrayList<UniEmitter<? super String>>();
+            hold(limiter, emitters, limiter.getLimit());
+            emitters.forEach(emitter -> emitter.complete("value"));
+        }
+
+        assertTrue(limiter.getLimit() > 4);
+        assertEquals(0, limiter.getInflight());
+    }
+
+    @Test
+    void holdsPermitUntilStreamTerminates() {
+        var limiter = limiter(1, 1, 10);
+        var emitter = new AtomicReference<MultiEmitter<? super String>>();
+        var items = new ArrayList<String>();
+        limiter.stream(() -> Multi.createFrom().<String>emitter(emitter::set))
+                .subscribe().with(items::add);
+        emitter.get().emit("chunk");
+
+        var failure = new AtomicReference<Throwable>();
+        limiter.stream(() -> Multi.createFrom().item("value"))
+                .subscribe().with(item -> {
+                }, failure::set);
+
+        assertInstanceOf(OverloadedException.class, failure.get());
+        assertEquals(1, limiter.getInflight());
+
+        emitter.get().complete();
+
+        assertEquals(List.of("chunk"), items);
+        assertEquals(0, limiter.getInflight());
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    void doesNotSampleLongRunning() {
+        var limiter = limiter(4, 1, 100);
+
+        for (int round = 0; round < 20; round++) {
+            var emitters = new ArrayList<UniEmitter<? super String>>();
+            for (int i = 0; i < limiter.getLimit(); i++) {
+                limiter.executeLongRunning(() -> Uni.createFrom().<String>emitter(emitters::add))
+                        .subscribe().with(item -> {
+                        });
+            }
+
+            var failure = new AtomicReference<Throwable>();
+            limiter.executeLongRunning(() -> Uni.createFrom().item("value"))
+                    .subscribe().with(item -> {
+                    }, failure::set);
+
+            assertInstanceOf(OverloadedException.class, failure.get());
+            emitters.forEach(emitter -> emitter.complete("value"));
+        }
+
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInflight());
+    }
+
+    private ConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit) {
+        return new ConcurrencyLimiter("test", initialLimit, minLimit, maxLimit, Duration.ofSeconds(1), meterRegistry);
+    }
+
+    private static void hold(ConcurrencyLimiter limiter, List<UniEmitter<? super String>> emitters, int count) {
+        for (int i = 0; i < count; i++) {
+            limiter.execute(() -> Uni.createFrom().<String>emitter(emitters::add))
+                    .subscribe().with(item -> {
+                    });
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package ru.craftysoft.schemaregistry.service.s3;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BucketRouterTest {
+
+    @Test
+    void structure() {
+        var router = new BucketRouter(List.of("a", "b:3"), BucketRouter.Routing.structure);
+        var counts = new HashMap<String, Integer>();
+        for (int i = 0; i < 10_000; i++) {
+            var bucket = router.route("structure-" + i);
+            assertEquals(bucket, router.route("structure-" + i));
+            counts.merge(bucket, 1, Integer::sum);
+        }
+
+        assertTrue(Math.abs(counts.get("a") - 2_500) < 500);
+        assertTrue(Math.abs(counts.get("b") - 7_500) < 500);
+    }
+
+    @Test
+    void weighted() {
+        var router = new BucketRouter(List.of("a:1", "b:1"), BucketRouter.Routing.weighted);
+        var counts = new HashMap<String, Integer>();
+        for (int i = 0; i < 10_000; i++) {
+            counts.merge(router.route("structure"), 1, Integer::sum);
+        }
+
+        assertEquals(2, counts.size());
+        assertTrue(Math.abs(counts.get("a") - 5_000) < 500);
+    }
+
+    @Test
+    void invalid() {
+        assertEquals("single", new BucketRouter(List.of("single"), BucketRouter.Routing.weighted).route("structure"));
+        assertThrows(RuntimeException.class, () -> new BucketRouter(List.of(), BucketRouter.Routing.structure));
+        assertThrows(RuntimeException.class, () -> new BucketRouter(List.of("a:0"), BucketRouter.Routing.structure));
+    }
+
+}
@@ -0,0 +1,51 @@
+package ru.craftysoft.schemaregistry.service.s3;
+
+import io.smallrye.mutiny.Multi;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PresizedBytesTransformerTest {
+
+    @Test
+    void contentLength() {
+        var response = GetObjectResponse.builder()
+                .contentLength(11L)
+                .build();
+
+        assertEquals("hello world", transform(response, "hello", " ", "world"));
+    }
+
+    @Test
+    void unknownContentLength() {
+        var chunk = "x".repeat(5_000);
+
+        assertEquals(chunk.repeat(3), transform(GetObjectResponse.builder().build(), chunk, chunk, chunk));
+    }
+
+    @Test
+    void failure() {
+        var transformer = new PresizedBytesTransformer();
+        var future = transformer.prepare();
+        transformer.exceptionOccurred(new RuntimeException("test"));
+
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    private static String transform(GetObjectResponse response, String... chunks) {
+        var transformer = new PresizedBytesTransformer();
+        var future = transformer.prepare();
+        transformer.onResponse(response);
+        transformer.onStream(SdkPublisher.adapt(Multi.createFrom().items(chunks)
+                .map(chunk -> ByteBuffer.wrap(chunk.getBytes(StandardCharsets.UTF_8)))));
+        var bytes = future.join();
+        assertSame(response, bytes.response());
+        return bytes.asUtf8String();
+    }
+
+}
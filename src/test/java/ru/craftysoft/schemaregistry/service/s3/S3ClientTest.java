@@ -0,0 +1,262 @@
+package ru.craftysoft.schemaregistry.service.s3;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.TimeoutException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.schemaregistry.fakes3.FakeS3Operation;
+import ru.craftysoft.schemaregistry.fakes3.FakeS3Server;
+import ru.craftysoft.schemaregistry.fakes3.OperationFaults;
+import ru.craftysoft.schemaregistry.service.blob.BlobReadOperation;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.utils.BinaryUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class S3ClientTest {
+
+    private static final String BUCKET = "bucket";
+    private static final String KEY = "schema";
+    private static final String LARGE_KEY = "version";
+    private static final byte[] LARGE_CONTENT = new byte[1024 * 1024];
+    private static final GetObjectRequest REQUEST = GetObjectRequest.builder()
+            .bucket(BUCKET)
+            .key(KEY)
+            .build();
+    private static final GetObjectRequest LARGE_REQUEST = GetObjectRequest.builder()
+            .bucket(BUCKET)
+            .key(LARGE_KEY)
+            .build();
+
+    private static FakeS3Server server;
+    private static S3AsyncClient s3;
+    private static S3AsyncClient s3WithoutRetries;
+
+    @BeforeAll
+    static void startServer() {
+        server = FakeS3Server.start();
+        s3 = s3Builder().build();
+        s3WithoutRetries = s3Builder()
+                .overrideConfiguration(configuration -> configuration.retryPolicy(RetryPolicy.none()))
+                .build();
+        s3.createBucket(CreateBucketRequest.builder().bucket(BUCKET).build()).join();
+        var putObjectRequest = PutObjectRequest.builder()
+                .bucket(BUCKET)
+                .key(KEY)
+                .build();
+        s3.putObject(putObjectRequest, AsyncRequestBody.fromString("{}")).join();
+        new Random(1).nextBytes(LARGE_CONTENT);
+        var putLargeObjectRequest = PutObjectRequest.builder()
+                .bucket(BUCKET)
+                .key(LARGE_KEY)
+                .build();
+        s3.putObject(putLargeObjectRequest, AsyncRequestBody.fromBytes(LARGE_CONTENT)).join();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        s3.close();
+        s3WithoutRetries.close();
+        server.close();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.reset();
+    }
+
+    @Test
+    void deadline() {
+        var client = client(0.05);
+        server.faults(FakeS3Operation.getObject, OperationFaults.NONE.withLatency("fixed:2000"));
+
+        var startNanos = System.nanoTime();
+        var uni = client.getFile(REQUEST, BlobReadOperation.schema);
+
+        assertThrows(TimeoutException.class, () -> uni.await().indefinitely());
+        assertTrue(System.nanoTime() - startNanos < Duration.ofMillis(1500).toNanos());
+    }
+
+    @Test
+    void hedgeWinsOverSlowPrimary() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var client = client(meterRegistry, 0.5);
+        warmUp(client);
+        var hedgesWon = meterRegistry.counter("s3.get.hedges", "operation", "schema", "result", "won").count();
+        server.faults(FakeS3Operation.getObject, slowFirstRequest(1500));
+
+        var startNanos = System.nanoTime();
+        var response = client.getFile(REQUEST, BlobReadOperation.schema).await().indefinitely();
+
+        assertEquals("{}", response.asUtf8String());
+        assertTrue(System.nanoTime() - startNanos < Duration.ofMillis(1000).toNanos());
+        assertEquals(hedgesWon + 1, meterRegistry.counter("s3.get.hedges", "operation", "schema", "result", "won").count());
+    }
+
+    @Test
+    void hedgeFailureDoesNotFailRead() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var client = new S3Client(s3WithoutRetries, s3WithoutRetries, meterRegistry, Duration.ofMillis(500), Duration.ofSeconds(5), true, Duration.ofMillis(10), 0.5);
+        warmUp(client);
+        server.faults(FakeS3Operation.getObject, slowFirstRequestThenSlowDown(300));
+
+        var response = client.getFile(REQUEST, BlobReadOperation.schema).await().indefinitely();
+
+        assertEquals("{}", response.asUtf8String());
+        assertEquals(2, server.stats(FakeS3Operation.getObject).requests());
+        assertEquals(1, meterRegistry.counter("s3.get.hedges", "operation", "schema", "result", "failed").count());
+        assertEquals(0, meterRegistry.counter("s3.get.hedges", "operation", "schema", "result", "won").count());
+    }
+
+    @Test
+    void hedgeIsNotSentWithoutBudget() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var client = client(meterRegistry, 0);
+        warmUp(client);
+        server.faults(FakeS3Operation.getObject, slowFirstRequest(200));
+
+        client.getFile(REQUEST, BlobReadOperation.schema).await().indefinitely();
+
+        assertEquals(0, meterRegistry.counter("s3.get.hedges", "operation", "schema", "result", "sent").count());
+        assertTrue(meterRegistry.counter("s3.get.hedges", "operation", "schema", "result", "budget_exhausted").count() > 0);
+        assertEquals(1, server.stats(FakeS3Operation.getObject).requests());
+    }
+
+    @Test
+    void versionIsNotHedged() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var client = client(meterRegistry, 0.5);
+        for (int i = 0; i < 128; i++) {
+            client.getFile(REQUEST, BlobReadOperation.version).await().indefinitely();
+        }
+        server.reset();
+        server.faults(FakeS3Operation.getObject, slowFirstRequest(1500));
+
+        client.getFile(REQUEST, BlobReadOperation.version).await().indefinitely();
+
+        assertEquals(1, server.stats(FakeS3Operation.getObject).requests());
+    }
+
+    @Test
+    void streamFile() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var client = client(meterRegistry, 0.5);
+
+        var chunks = client.streamFile(LARGE_REQUEST, BlobReadOperation.version)
+                .collect()
+                .asList()
+                .await()
+                .indefinitely();
+
+        var content = new ByteArrayOutputStream();
+        chunks.forEach(chunk -> content.writeBytes(BinaryUtils.copyBytesFrom(chunk)));
+        assertArrayEquals(LARGE_CONTENT, content.toByteArray());
+        assertTrue(chunks.size() > 1);
+        assertEquals(0, inflight(meterRegistry));
+    }
+
+    @Test
+    void streamFileCancelled() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var client = client(meterRegistry, 0.5);
+
+        var first = client.streamFile(LARGE_REQUEST, BlobReadOperation.version)
+                .select()
+                .first()
+                .collect()
+                .asList()
+                .await()
+                .indefinitely();
+
+        assertEquals(1, first.size());
+        assertEquals(0, inflight(meterRegistry));
+        assertEquals("{}", client.getFile(REQUEST, BlobReadOperation.schema).await().indefinitely().asUtf8String());
+    }
+
+    @Test
+    void downloadFile() throws IOException {
+        var client = client(0.5);
+        var target = Files.createTempFile("s3_", ".bin");
+        try {
+            Files.writeString(target, "содержимое длиннее объекта");
+
+            client.downloadFile(LARGE_REQUEST, target, BlobReadOperation.archive).await().indefinitely();
+            assertArrayEquals(LARGE_CONTENT, Files.readAllBytes(target));
+
+            client.downloadFile(REQUEST, target, BlobReadOperation.archive).await().indefinitely();
+            assertEquals("{}", Files.readString(target));
+        } finally {
+            Files.deleteIfExists(target);
+        }
+    }
+
+    private static double inflight(SimpleMeterRegistry meterRegistry) {
+        return meterRegistry.get("s3.client.inflight")
+                .tag("workload", "read")
+                .gauge()
+                .value();
+    }
+
+    private static void warmUp(S3Client client) {
+        for (int i = 0; i < 128; i++) {
+            client.getFile(REQUEST, BlobReadOperation.schema).await().indefinitely();
+        }
+        server.reset();
+    }
+
+    /**
+     * Первый запрос отвечает с задержкой, следующие сразу получают 503: сбои подменяются при приёме первого запроса,
+     * а он уже использует прежние.
+     */
+    private static OperationFaults slowFirstRequestThenSlowDown(int latencyMillis) {
+        var requests = new AtomicInteger();
+        return new OperationFaults(random -> {
+            if (requests.getAndIncrement() == 0) {
+                server.faults(FakeS3Operation.getObject, OperationFaults.NONE.withSlowDownRate(1));
+                return latencyMillis;
+            }
+            return 0;
+        }, 0, 0, 0);
+    }
+
+    private static OperationFaults slowFirstRequest(int latencyMillis) {
+        var requests = new AtomicInteger();
+        return new OperationFaults(random -> requests.getAndIncrement() == 0 ? latencyMillis : 0, 0, 0, 0);
+    }
+
+    private static S3AsyncClientBuilder s3Builder() {
+        return S3AsyncClient.builder()
+                .endpointOverride(server.endpoint())
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build());
+    }
+
+    private static S3Client client(double hedgingBudgetRatio) {
+        return client(new SimpleMeterRegistry(), hedgingBudgetRatio);
+    }
+
+    private static S3Client client(SimpleMeterRegistry meterRegistry, double hedgingBudgetRatio) {
+        return new S3Client(s3, s3, meterRegistry, Duration.ofMillis(500), Duration.ofSeconds(5), true, Duration.ofMillis(10), hedgingBudgetRatio);
+    }
+
+}
@@ -0,0 +1,148 @@
+package ru.craftysoft.schemaregistry.service.s3;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.vertx.mutiny.core.Vertx;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.craftysoft.schemaregistry.builder.s3.MultipartUploadRequestBuilder;
+import ru.craftysoft.schemaregistry.fakes3.FakeS3Operation;
+import ru.craftysoft.schemaregistry.fakes3.FakeS3Server;
+import ru.craftysoft.schemaregistry.fakes3.OperationFaults;
+import ru.craftysoft.schemaregistry.service.executor.WorkerExecutors;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class S3MultipartUploaderTest {
+
+    private static final String BUCKET = "bucket";
+    private static final int PART_SIZE = 5 * 1024 * 1024;
+
+    private static FakeS3Server server;
+    private static S3AsyncClient s3;
+    private static Vertx vertx;
+    private static S3MultipartUploader uploader;
+    private static S3MultipartUploader uploaderWithoutRetries;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Повторы SDK отключены, чтобы сбои частей доходили до повторов загрузчика.
+     */
+    @BeforeAll
+    static void startServer() {
+        server = FakeS3Server.start();
+        s3 = S3AsyncClient.builder()
+                .endpointOverride(server.endpoint())
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .overrideConfiguration(ClientOverrideConfiguration.builder().retryPolicy(RetryPolicy.none()).build())
+                .build();
+        s3.createBucket(CreateBucketRequest.builder().bucket(BUCKET).build()).join();
+        vertx = Vertx.vertx();
+        var meterRegistry = new SimpleMeterRegistry();
+        var client = new S3Client(s3, s3, meterRegistry, Duration.ofMillis(500), Duration.ofSeconds(5), false, Duration.ofMillis(10), 0);
+        var workerExecutors = new WorkerExecutors(vertx, meterRegistry, 2, 4);
+        uploader = new S3MultipartUploader(client, new MultipartUploadRequestBuilder(), workerExecutors,
+                new MemorySize(BigInteger.valueOf(PART_SIZE)), 3, 10, Duration.ofMillis(1));
+        uploaderWithoutRetries = new S3MultipartUploader(client, new MultipartUploadRequestBuilder(), workerExecutors,
+                new MemorySize(BigInteger.valueOf(PART_SIZE)), 3, 0, Duration.ofMillis(1));
+    }
+
+    @AfterAll
+    static void stopServer() {
+        s3.close();
+        server.close();
+        vertx.closeAndAwait();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.reset();
+    }
+
+    @Test
+    void upload() throws Exception {
+        var content = content(2 * PART_SIZE + 1000);
+        var file = Files.write(dir.resolve("version.zip"), content);
+        server.faults(FakeS3Operation.uploadPart, OperationFaults.NONE.withSlowDownRate(0.3));
+
+        uploader.upload(BUCKET + "/version", file, content.length).await().indefinitely();
+
+        assertArrayEquals(content, server.object(BUCKET, "version").orElseThrow());
+        assertEquals(3 + server.stats(FakeS3Operation.uploadPart).throttled(), server.stats(FakeS3Operation.uploadPart).requests());
+        assertEquals(0, server.uploadsInProgress());
+    }
+
+    @Test
+    void abortOnFailure() throws Exception {
+        var content = content(PART_SIZE);
+        var file = Files.write(dir.resolve("version.zip"), content);
+        server.faults(FakeS3Operation.uploadPart, OperationFaults.NONE.withSlowDownRate(1));
+
+        assertThrows(Exception.class, () -> uploader.upload(BUCKET + "/failed", file, content.length).await().indefinitely());
+
+        assertTrue(server.object(BUCKET, "failed").isEmpty());
+        assertEquals(1, server.stats(FakeS3Operation.abortMultipartUpload).requests());
+        assertEquals(0, server.uploadsInProgress());
+    }
+
+    @Test
+    void uploadWithoutRetries() throws Exception {
+        var content = content(PART_SIZE);
+        var file = Files.write(dir.resolve("version.zip"), content);
+
+        uploaderWithoutRetries.upload(BUCKET + "/version", file, content.length).await().indefinitely();
+
+        assertArrayEquals(content, server.object(BUCKET, "version").orElseThrow());
+        server.reset();
+        server.faults(FakeS3Operation.uploadPart, OperationFaults.NONE.withSlowDownRate(1));
+
+        assertThrows(Exception.class, () -> uploaderWithoutRetries.upload(BUCKET + "/failed", file, content.length).await().indefinitely());
+
+        assertEquals(1, server.stats(FakeS3Operation.uploadPart).requests());
+        assertEquals(0, server.uploadsInProgress());
+    }
+
+    @Test
+    void retryable() {
+        assertTrue(S3MultipartUploader.retryable(S3Exception.builder().statusCode(503).build()));
+        assertTrue(S3MultipartUploader.retryable(S3Exception.builder().statusCode(500).build()));
+        assertTrue(S3MultipartUploader.retryable(new CompletionException(S3Exception.builder().statusCode(503).build())));
+        assertTrue(S3MultipartUploader.retryable(SdkClientException.create("Unable to execute HTTP request", new IOException("Connection reset"))));
+        assertFalse(S3MultipartUploader.retryable(S3Exception.builder().statusCode(403).build()));
+        assertFalse(S3MultipartUploader.retryable(NoSuchUploadException.builder().statusCode(404).build()));
+        assertFalse(S3MultipartUploader.retryable(SdkClientException.create("Unable to marshall request")));
+    }
+
+    private static byte[] content(int length) {
+        var content = new byte[length];
+        ThreadLocalRandom.current().nextBytes(content);
+        return content;
+    }
+
+}
@@ -0,0 +1,49 @@
+package ru.craftysoft.schemaregistry.testcontainer;
+
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import ru.craftysoft.schemaregistry.fakes3.FakeS3Operation;
+import ru.craftysoft.schemaregistry.fakes3.FakeS3Server;
+import ru.craftysoft.schemaregistry.fakes3.OperationFaults;
+
+import java.util.Map;
+
+/**
+ * Замена {@link S3Resource} на {@link FakeS3Server} в том же процессе.
+ * Сбои задаются аргументом {@code faults} в формате {@link OperationFaults#parse(String)}
+ * или из теста через поле с {@link InjectFakeS3}.
+ */
+public class FakeS3Resource implements QuarkusTestResourceLifecycleManager {
+
+    public static final String FAULTS_ARG = "faults";
+
+    private Map<FakeS3Operation, OperationFaults> faults = Map.of();
+    private FakeS3Server server;
+
+    @Override
+    public void init(Map<String, String> initArgs) {
+        var faultsArg = initArgs.get(FAULTS_ARG);
+        if (faultsArg != null && !faultsArg.isBlank()) {
+            faults = OperationFaults.parse(faultsArg);
+        }
+    }
+
+    @Override
+    public Map<String, String> start() {
+        server = FakeS3Server.start();
+        server.faults(faults);
+        return Map.of(
+                "quarkus.s3.endpoint-override", server.endpoint().toString(),
+                "quarkus.s3.path-style-access", "true"
+        );
+    }
+
+    @Override
+    public void inject(TestInjector testInjector) {
+        testInjector.injectIntoFields(server, new TestInjector.AnnotatedAndMatchesType(InjectFakeS3.class, FakeS3Server.class));
+    }
+
+    @Override
+    public void stop() {
+        server.close();
+    }
+}
@@ -0,0 +1,14 @@
+package ru.craftysoft.schemaregistry.testcontainer;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Поле теста, в которое {@link FakeS3Resource} подставляет запущенный {@code FakeS3Server}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface InjectFakeS3 {
+}
@@ -27,7 +27,13 @@ public class PostgreSqlResource implements QuarkusTestResourceLifecycleManager {
                 "quarkus.datasource.reactive.url", jdbcUrl.substring("jdbc:".length()),
                 "quarkus.datasource.jdbc.url", jdbcUrl,
                 "quarkus.datasource.username", username,
-                "quarkus.datasource.password", password
+                "quarkus.datasource.password", password,
+                "quarkus.datasource.read.reactive.url", jdbcUrl.substring("jdbc:".length()),
+                "quarkus.datasource.read.username", username,
+                "quarkus.datasource.read.password", password,
+                "quarkus.datasource.replica.reactive.url", jdbcUrl.substring("jdbc:".length()),
+                "quarkus.datasource.replica.username", username,
+                "quarkus.datasource.replica.password", password
         );
     }
 
@@ -0,0 +1,125 @@
+package ru.craftysoft.schemaregistry.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.craftysoft.schemaregistry.model.rest.RegistryExportLineData;
+import ru.craftysoft.schemaregistry.model.rest.RegistryExportLineType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegistryImportReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void version() throws IOException {
+        var source = source(
+                version(1, "v1"),
+                schema(1, "a.xsd", "a"),
+                schema(1, "b/c.xsd", "c"),
+                checkpoint(1),
+                version(2, "v2"),
+                checkpoint(2)
+        );
+
+        try (var reader = new RegistryImportReader(objectMapper, source)) {
+            var first = reader.next().orElseThrow();
+            assertEquals(1, first.sourceId());
+            assertEquals("s1", first.structureName());
+            assertEquals("v1", first.name());
+            assertEquals(Map.of("a.xsd", "a", "b/c.xsd", "c"), entries(first.archive().toPath()));
+            Files.delete(first.archive().toPath());
+
+            var second = reader.next().orElseThrow();
+            assertEquals(2, second.sourceId());
+            assertEquals(Map.of(), entries(second.archive().toPath()));
+            Files.delete(second.archive().toPath());
+
+            assertTrue(reader.next().isEmpty());
+        }
+    }
+
+    @Test
+    void truncatedVersion() throws IOException {
+        var source = source(
+                version(1, "v1"),
+                schema(1, "a.xsd", "a")
+        );
+
+        try (var reader = new RegistryImportReader(objectMapper, source)) {
+            assertTrue(reader.next().isEmpty());
+        }
+    }
+
+    @Test
+    void schemaWithoutVersion() throws IOException {
+        var source = source(
+                version(1, "v1"),
+                schema(2, "a.xsd", "a")
+        );
+
+        try (var reader = new RegistryImportReader(objectMapper, source)) {
+            var exception = assertThrows(RuntimeException.class, reader::next);
+            assertEquals("Строка 2 относится к версии 2 без предшествующей строки версии", exception.getMessage());
+        }
+    }
+
+    @SneakyThrows
+    private Path source(RegistryExportLineData... lines) {
+        var content = new StringBuilder();
+        for (var line : lines) {
+            content.append(objectMapper.writeValueAsString(line)).append('\n');
+        }
+        return Files.writeString(dir.resolve("registry.ndjson"), content);
+    }
+
+    private static RegistryExportLineData version(long versionId, String name) {
+        return new RegistryExportLineData()
+                .type(RegistryExportLineType.VERSION)
+                .versionId(versionId)
+                .structureName("s1")
+                .versionName(name);
+    }
+
+    private static RegistryExportLineData schema(long versionId, String path, String content) {
+        return new RegistryExportLineData()
+                .type(RegistryExportLineType.SCHEMA)
+                .versionId(versionId)
+                .path(path)
+                .content(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static RegistryExportLineData checkpoint(long versionId) {
+        return new RegistryExportLineData()
+                .type(RegistryExportLineType.CHECKPOINT)
+                .versionId(versionId);
+    }
+
+    private static Map<String, String> entries(Path archive) throws IOException {
+        var result = new HashMap<String, String>();
+        try (var zip = new ZipFile(archive.toFile())) {
+            var entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                var entry = entries.nextElement();
+                try (var stream = zip.getInputStream(entry)) {
+                    result.put(entry.getName(), new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return result;
+    }
+
+}